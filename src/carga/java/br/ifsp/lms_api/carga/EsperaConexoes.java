@@ -0,0 +1,47 @@
+package br.ifsp.lms_api.carga;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+// Tempo que cada getConnection passou esperando o pool do Hikari, medido pelo
+// próprio pool. O rastreador tem que entrar antes do pool iniciar, por isso é
+// instalado por um BeanPostProcessor no DataSource ainda não inicializado.
+final class EsperaConexoes implements MetricsTrackerFactory {
+
+    private final RegistroLatencias espera = new RegistroLatencias("espera por conexão (Hikari)");
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                espera.registrar(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                espera.registrarFalha();
+            }
+        };
+    }
+
+    BeanPostProcessor instalador() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMetricsTrackerFactory(EsperaConexoes.this);
+                }
+                return bean;
+            }
+        };
+    }
+
+    RegistroLatencias getEspera() {
+        return espera;
+    }
+}
@@ -0,0 +1,85 @@
+package br.ifsp.lms_api.carga;
+
+import java.util.Arrays;
+
+// Durações em nanos de um tipo de operação. O lock só cobre a escrita num
+// long[]; perto do custo de uma requisição HTTP ele não aparece na medida.
+final class RegistroLatencias {
+
+    private final String nome;
+    private long[] nanos = new long[1024];
+    private int quantidade;
+    private int falhas;
+
+    RegistroLatencias(String nome) {
+        this.nome = nome;
+    }
+
+    synchronized void registrar(long duracaoNanos) {
+        if (quantidade == nanos.length) {
+            nanos = Arrays.copyOf(nanos, quantidade * 2);
+        }
+        nanos[quantidade++] = duracaoNanos;
+    }
+
+    synchronized void registrarFalha() {
+        falhas++;
+    }
+
+    synchronized void reiniciar() {
+        quantidade = 0;
+        falhas = 0;
+    }
+
+    synchronized Resumo resumir() {
+        long[] ordenadas = Arrays.copyOf(nanos, quantidade);
+        Arrays.sort(ordenadas);
+        return new Resumo(nome, ordenadas, falhas);
+    }
+
+    static final class Resumo {
+
+        private final String nome;
+        private final long[] ordenadas;
+        private final int falhas;
+
+        private Resumo(String nome, long[] ordenadas, int falhas) {
+            this.nome = nome;
+            this.ordenadas = ordenadas;
+            this.falhas = falhas;
+        }
+
+        String getNome() {
+            return nome;
+        }
+
+        int getQuantidade() {
+            return ordenadas.length;
+        }
+
+        int getFalhas() {
+            return falhas;
+        }
+
+        // Percentil pelo posto mais próximo, em milissegundos.
+        double percentilMs(double percentil) {
+            if (ordenadas.length == 0) {
+                return 0.0;
+            }
+            int posto = (int) Math.ceil(percentil / 100.0 * ordenadas.length);
+            return ordenadas[Math.max(0, posto - 1)] / 1_000_000.0;
+        }
+
+        double maximoMs() {
+            return ordenadas.length == 0 ? 0.0 : ordenadas[ordenadas.length - 1] / 1_000_000.0;
+        }
+
+        double totalMs() {
+            long total = 0;
+            for (long duracao : ordenadas) {
+                total += duracao;
+            }
+            return total / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package br.ifsp.lms_api.carga;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ifsp.lms_api.model.Alternativas;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.AtividadeTexto;
+import br.ifsp.lms_api.model.Disciplina;
+import br.ifsp.lms_api.model.Matricula;
+import br.ifsp.lms_api.model.Professor;
+import br.ifsp.lms_api.model.Questoes;
+import br.ifsp.lms_api.model.Status;
+import br.ifsp.lms_api.model.Topicos;
+import br.ifsp.lms_api.model.Turma;
+import br.ifsp.lms_api.repository.AlunoRepository;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.AtividadeTextoRepository;
+import br.ifsp.lms_api.repository.DisciplinaRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.ProfessorRepository;
+import br.ifsp.lms_api.repository.QuestoesRepository;
+import br.ifsp.lms_api.repository.TopicosRepository;
+import br.ifsp.lms_api.repository.TurmaRepository;
+
+// Monta o cenário direto pelos repositórios, uma transação por turma. Todas
+// as turmas fazem a mesma prova (mesmas questões) e fecham hoje. Os alunos
+// dividem uma senha codificada uma vez só: o BCrypt de milhares de senhas
+// dominaria o tempo de preparação.
+final class SementeCarga {
+
+    static final String SENHA = "carga123";
+
+    private static final int ALTERNATIVAS_POR_QUESTAO = 4;
+
+    private final ConfigurableApplicationContext contexto;
+    private final SimulacaoFimDeProva.Parametros parametros;
+    private final TransactionTemplate transacao;
+
+    SementeCarga(ConfigurableApplicationContext contexto, SimulacaoFimDeProva.Parametros parametros) {
+        this.contexto = contexto;
+        this.parametros = parametros;
+        this.transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+    }
+
+    Cenario semear() {
+        String senhaCodificada = contexto.getBean(PasswordEncoder.class).encode(SENHA);
+
+        List<Questoes> questoes = transacao.execute(status -> criarQuestoes());
+        List<Long> idsQuestoes = new ArrayList<>();
+        long[][] alternativas = new long[questoes.size()][];
+        for (int i = 0; i < questoes.size(); i++) {
+            idsQuestoes.add(questoes.get(i).getIdQuestao());
+            alternativas[i] = questoes.get(i).getAlternativas().stream()
+                    .mapToLong(Alternativas::getIdAlternativa)
+                    .toArray();
+        }
+
+        Long idDisciplina = transacao.execute(status -> {
+            Disciplina disciplina = new Disciplina();
+            disciplina.setNomeDisciplina("Cálculo (carga)");
+            disciplina.setCodigoDisciplina("CRG001");
+            disciplina.setDescricaoDisciplina("Disciplina da simulação de fim de prova");
+            return contexto.getBean(DisciplinaRepository.class).save(disciplina).getIdDisciplina();
+        });
+
+        List<AlunoCarga> alunos = new ArrayList<>();
+        for (int turma = 0; turma < parametros.turmas; turma++) {
+            int numeroTurma = turma;
+            alunos.addAll(transacao.execute(status ->
+                    criarTurma(numeroTurma, idDisciplina, idsQuestoes, senhaCodificada)));
+        }
+        return new Cenario(alunos, alternativas);
+    }
+
+    private List<Questoes> criarQuestoes() {
+        List<Questoes> questoes = new ArrayList<>();
+        for (int q = 0; q < parametros.questoes; q++) {
+            Questoes questao = new Questoes();
+            questao.setEnunciado("Questão " + (q + 1) + " da prova de carga");
+            List<Alternativas> alternativas = new ArrayList<>();
+            for (int a = 0; a < ALTERNATIVAS_POR_QUESTAO; a++) {
+                Alternativas alternativa = new Alternativas(null, "Alternativa " + (a + 1), a == 0, null);
+                alternativa.setQuestoes(questao);
+                alternativas.add(alternativa);
+            }
+            questao.setAlternativas(alternativas);
+            questoes.add(questao);
+        }
+        return contexto.getBean(QuestoesRepository.class).saveAll(questoes);
+    }
+
+    private List<AlunoCarga> criarTurma(int numeroTurma, Long idDisciplina, List<Long> idsQuestoes, String senhaCodificada) {
+        Professor professor = new Professor();
+        professor.setNome("Professor carga " + numeroTurma);
+        professor.setEmail("professor" + numeroTurma + "@carga.lms");
+        professor.setSenha(senhaCodificada);
+        professor.setCpf(String.format("P%010d", numeroTurma));
+        professor.setDepartamento("Carga");
+        contexto.getBean(ProfessorRepository.class).save(professor);
+
+        Turma turma = new Turma();
+        turma.setNomeTurma("Turma carga " + numeroTurma);
+        turma.setSemestre("carga");
+        turma.setProfessor(professor);
+        turma.setDisciplina(contexto.getBean(DisciplinaRepository.class).getReferenceById(idDisciplina));
+        contexto.getBean(TurmaRepository.class).save(turma);
+
+        Topicos topico = new Topicos();
+        topico.setTituloTopico("Prova final");
+        topico.setConteudoHtml("<p>Prova final da turma.</p>");
+        topico.setTurma(turma);
+        contexto.getBean(TopicosRepository.class).save(topico);
+
+        AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setTituloAtividade("Prova final - questionário");
+        questionario.setDataInicioAtividade(LocalDate.now());
+        questionario.setDataFechamentoAtividade(LocalDate.now());
+        questionario.setStatusAtividade(true);
+        questionario.setNumeroTentativas(parametros.aquecimento + parametros.rodadas);
+        questionario.setTopico(topico);
+        questionario.setQuestoes(contexto.getBean(QuestoesRepository.class).findAllById(idsQuestoes));
+        contexto.getBean(AtividadeQuestionarioRepository.class).save(questionario);
+
+        AtividadeTexto redacao = new AtividadeTexto();
+        redacao.setTituloAtividade("Prova final - dissertativa");
+        redacao.setDataInicioAtividade(LocalDate.now());
+        redacao.setDataFechamentoAtividade(LocalDate.now());
+        redacao.setStatusAtividade(true);
+        redacao.setNumeroMaximoCaracteres(2000L);
+        redacao.setTopico(topico);
+        contexto.getBean(AtividadeTextoRepository.class).save(redacao);
+
+        List<Aluno> alunos = new ArrayList<>();
+        List<Matricula> matriculas = new ArrayList<>();
+        for (int i = 0; i < parametros.alunosPorTurma; i++) {
+            int numero = numeroTurma * parametros.alunosPorTurma + i;
+            Aluno aluno = new Aluno();
+            aluno.setNome("Aluno carga " + numero);
+            aluno.setEmail("aluno" + numero + "@carga.lms");
+            aluno.setSenha(senhaCodificada);
+            aluno.setCpf(String.format("A%010d", numero));
+            aluno.setRa(String.format("CG%07d", numero));
+            alunos.add(aluno);
+
+            Matricula matricula = new Matricula();
+            matricula.setAluno(aluno);
+            matricula.setTurma(turma);
+            matricula.setStatusMatricula(Status.ATIVA);
+            matriculas.add(matricula);
+        }
+        contexto.getBean(AlunoRepository.class).saveAll(alunos);
+        contexto.getBean(MatriculaRepository.class).saveAll(matriculas);
+
+        List<AlunoCarga> cenario = new ArrayList<>();
+        for (Aluno aluno : alunos) {
+            cenario.add(new AlunoCarga(aluno.getRa(), questionario.getIdAtividade(), redacao.getIdAtividade()));
+        }
+        return cenario;
+    }
+
+    static final class Cenario {
+
+        final List<AlunoCarga> alunos;
+        // Ids das alternativas de cada questão da prova, na ordem das questões.
+        final long[][] alternativasPorQuestao;
+
+        Cenario(List<AlunoCarga> alunos, long[][] alternativasPorQuestao) {
+            this.alunos = alunos;
+            this.alternativasPorQuestao = alternativasPorQuestao;
+        }
+    }
+
+    static final class AlunoCarga {
+
+        final String ra;
+        final Long idQuestionario;
+        final Long idAtividadeTexto;
+        String sessao;
+
+        AlunoCarga(String ra, Long idQuestionario, Long idAtividadeTexto) {
+            this.ra = ra;
+            this.idQuestionario = idQuestionario;
+            this.idAtividadeTexto = idAtividadeTexto;
+        }
+    }
+}
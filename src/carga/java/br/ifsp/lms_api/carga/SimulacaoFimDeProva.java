@@ -0,0 +1,324 @@
+package br.ifsp.lms_api.carga;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.ifsp.lms_api.LmsApiApplication;
+import br.ifsp.lms_api.carga.SementeCarga.AlunoCarga;
+import br.ifsp.lms_api.carga.SementeCarga.Cenario;
+import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoRequestDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioRequestDto;
+
+// Simula o fim de uma prova: sobe a aplicação numa porta livre com H2 novo,
+// semeia N turmas com M alunos, faz o login de todos e solta os envios de
+// questionário e de texto ao mesmo tempo, como no último minuto do prazo.
+// As rodadas de aquecimento rodam o mesmo fluxo e são descartadas, para o
+// JIT e os caches não entrarem na medida. Relata vazão, p50/p95/p99 por
+// endpoint e a espera por conexão do pool.
+//
+//   ./mvnw -Pcarga test-compile exec:exec -Dcarga.turmas=20 -Dcarga.alunos-por-turma=50 -Dcarga.pool=20
+public final class SimulacaoFimDeProva {
+
+    private static final String ENVIO_QUESTIONARIO = "POST /tentativaQuestionario";
+    private static final String ENVIO_TEXTO = "POST /tentativaTexto/{idAtividade}";
+
+    private final Parametros parametros;
+    private final ObjectMapper objectMapper;
+    private final Cenario cenario;
+    private final String base;
+    private final HttpClient cliente;
+    private final ExecutorService executor;
+    private final Semaphore emVoo;
+    private final RegistroLatencias questionarios = new RegistroLatencias(ENVIO_QUESTIONARIO);
+    private final RegistroLatencias textos = new RegistroLatencias(ENVIO_TEXTO);
+
+    private SimulacaoFimDeProva(Parametros parametros, ObjectMapper objectMapper, Cenario cenario, int porta) {
+        this.parametros = parametros;
+        this.objectMapper = objectMapper;
+        this.cenario = cenario;
+        this.base = "http://localhost:" + porta;
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.executor = criarExecutor(parametros.concorrencia);
+        this.emVoo = new Semaphore(parametros.concorrencia);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Parametros parametros = Parametros.doSistema();
+        EsperaConexoes esperaConexoes = new EsperaConexoes();
+
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(LmsApiApplication.class)
+                .initializers(c -> c.getBeanFactory().addBeanPostProcessor(esperaConexoes.instalador()))
+                .run(argumentosDaAplicacao(parametros));
+        try {
+            long inicioSemente = System.nanoTime();
+            Cenario cenario = new SementeCarga(contexto, parametros).semear();
+            System.out.printf("semente: %d alunos em %d turmas, %d questões (%.1f s)%n",
+                    cenario.alunos.size(), parametros.turmas, parametros.questoes,
+                    (System.nanoTime() - inicioSemente) / 1e9);
+
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            SimulacaoFimDeProva simulacao = new SimulacaoFimDeProva(
+                    parametros, contexto.getBean(ObjectMapper.class), cenario, porta);
+            try {
+                simulacao.executar(esperaConexoes.getEspera());
+            } finally {
+                simulacao.executor.shutdownNow();
+            }
+        } finally {
+            contexto.close();
+        }
+    }
+
+    private void executar(RegistroLatencias esperaConexoes) throws Exception {
+        paraCadaAluno(this::entrar);
+
+        for (int rodada = 0; rodada < parametros.aquecimento; rodada++) {
+            rodada(rodada);
+        }
+        questionarios.reiniciar();
+        textos.reiniciar();
+        esperaConexoes.reiniciar();
+
+        long nanosMedidos = 0;
+        for (int rodada = 0; rodada < parametros.rodadas; rodada++) {
+            nanosMedidos += rodada(parametros.aquecimento + rodada);
+        }
+
+        relatar(nanosMedidos, List.of(questionarios.resumir(), textos.resumir()), esperaConexoes.resumir());
+    }
+
+    // Cada aluno envia o questionário e o texto, em ordem sorteada; todos
+    // esperam a largada para o pico ser simultâneo.
+    private long rodada(int numero) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> envios = new ArrayList<>();
+        for (int i = 0; i < cenario.alunos.size(); i++) {
+            AlunoCarga aluno = cenario.alunos.get(i);
+            SplittableRandom random = new SplittableRandom(((long) numero << 32) | i);
+            envios.add(executor.submit(() -> {
+                largada.await();
+                emVoo.acquire();
+                try {
+                    if (random.nextBoolean()) {
+                        enviarQuestionario(aluno, random);
+                        enviarTexto(aluno, numero);
+                    } else {
+                        enviarTexto(aluno, numero);
+                        enviarQuestionario(aluno, random);
+                    }
+                } finally {
+                    emVoo.release();
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<?> envio : envios) {
+            envio.get();
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private void entrar(AlunoCarga aluno) throws Exception {
+        String formulario = "username=" + URLEncoder.encode(aluno.ra, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(SementeCarga.SENHA, StandardCharsets.UTF_8);
+        HttpResponse<Void> resposta = cliente.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(formulario))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        boolean falhou = resposta.headers().firstValue("Location").map(l -> l.contains("error")).orElse(true);
+        aluno.sessao = resposta.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                .map(cookie -> cookie.split(";", 2)[0])
+                .findFirst()
+                .orElse(null);
+        if (falhou || aluno.sessao == null) {
+            throw new IllegalStateException("Login do aluno " + aluno.ra + " falhou: HTTP " + resposta.statusCode());
+        }
+    }
+
+    private void enviarQuestionario(AlunoCarga aluno, SplittableRandom random) throws Exception {
+        List<Long> respostas = new ArrayList<>(cenario.alternativasPorQuestao.length);
+        for (long[] alternativas : cenario.alternativasPorQuestao) {
+            respostas.add(alternativas[random.nextInt(alternativas.length)]);
+        }
+        TentativaQuestionarioRequestDto corpo = new TentativaQuestionarioRequestDto(
+                null, 0, respostas, null, aluno.idQuestionario, null);
+        enviar(questionarios, aluno, "/tentativaQuestionario", corpo);
+    }
+
+    private void enviarTexto(AlunoCarga aluno, int rodada) throws Exception {
+        String texto = ("Resposta do aluno " + aluno.ra + " na rodada " + rodada + ". ").repeat(12);
+        TentativaTextoRequestDto corpo = new TentativaTextoRequestDto(
+                null, texto, null, null, aluno.idAtividadeTexto, null);
+        enviar(textos, aluno, "/tentativaTexto/" + aluno.idAtividadeTexto, corpo);
+    }
+
+    private void enviar(RegistroLatencias registro, AlunoCarga aluno, String caminho, Object corpo) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+                .header("Content-Type", "application/json")
+                .header("Cookie", aluno.sessao)
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(corpo)))
+                .build();
+
+        long inicio = System.nanoTime();
+        HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+        long duracao = System.nanoTime() - inicio;
+
+        if (resposta.statusCode() / 100 == 2) {
+            registro.registrar(duracao);
+        } else {
+            registro.registrarFalha();
+        }
+    }
+
+    private void paraCadaAluno(Tarefa tarefa) throws Exception {
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (AlunoCarga aluno : cenario.alunos) {
+            tarefas.add(executor.submit(() -> {
+                emVoo.acquire();
+                try {
+                    tarefa.executar(aluno);
+                } finally {
+                    emVoo.release();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> resultado : tarefas) {
+            resultado.get();
+        }
+    }
+
+    private void relatar(long nanosMedidos, List<RegistroLatencias.Resumo> endpoints, RegistroLatencias.Resumo espera) {
+        double segundos = nanosMedidos / 1e9;
+        int envios = endpoints.stream().mapToInt(r -> r.getQuantidade() + r.getFalhas()).sum();
+
+        System.out.println();
+        System.out.printf("fim de prova: %d turmas x %d alunos, %d questões, até %d envios simultâneos, %s, pool de %d conexões%n",
+                parametros.turmas, parametros.alunosPorTurma, parametros.questoes, parametros.concorrencia,
+                usaThreadsVirtuais() ? "threads virtuais" : "threads de plataforma", parametros.pool);
+        System.out.printf("%d rodada(s) medida(s): %d envios em %.2f s = %.1f envios/s%n",
+                parametros.rodadas, envios, segundos, envios / segundos);
+        System.out.println();
+        System.out.printf("%-38s %8s %7s %9s %9s %9s %9s%n", "", "ok", "falhas", "p50 ms", "p95 ms", "p99 ms", "máx ms");
+        for (RegistroLatencias.Resumo resumo : endpoints) {
+            imprimirLinha(resumo);
+        }
+        imprimirLinha(espera);
+        System.out.printf("%-38s %.1f ms somados esperando conexão%n", "", espera.totalMs());
+    }
+
+    private static void imprimirLinha(RegistroLatencias.Resumo resumo) {
+        System.out.printf("%-38s %8d %7d %9.2f %9.2f %9.2f %9.2f%n", resumo.getNome(), resumo.getQuantidade(),
+                resumo.getFalhas(), resumo.percentilMs(50), resumo.percentilMs(95), resumo.percentilMs(99),
+                resumo.maximoMs());
+    }
+
+    private static String[] argumentosDaAplicacao(Parametros parametros) {
+        String url = "arquivo".equals(parametros.banco)
+                ? "jdbc:h2:file:./target/carga/lms"
+                : "jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1";
+        // Argumentos de linha de comando passam por cima do application.properties.
+        return new String[] {
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.hikari.maximum-pool-size=" + parametros.pool,
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        };
+    }
+
+    // O projeto compila para Java 17; em JVM 21+ a fábrica de threads virtuais
+    // existe e é achada por reflexão, senão fica um pool fixo do tamanho da
+    // concorrência.
+    private static ExecutorService criarExecutor(int concorrencia) {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concorrencia);
+        }
+    }
+
+    private static boolean usaThreadsVirtuais() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Tarefa {
+        void executar(AlunoCarga aluno) throws Exception;
+    }
+
+    static final class Parametros {
+
+        final int turmas;
+        final int alunosPorTurma;
+        final int questoes;
+        final int concorrencia;
+        final int aquecimento;
+        final int rodadas;
+        final String banco;
+        final int pool;
+
+        private Parametros(int turmas, int alunosPorTurma, int questoes, int concorrencia,
+                           int aquecimento, int rodadas, String banco, int pool) {
+            this.turmas = turmas;
+            this.alunosPorTurma = alunosPorTurma;
+            this.questoes = questoes;
+            this.concorrencia = concorrencia;
+            this.aquecimento = aquecimento;
+            this.rodadas = rodadas;
+            this.banco = banco;
+            this.pool = pool;
+        }
+
+        static Parametros doSistema() {
+            return new Parametros(
+                    Integer.getInteger("carga.turmas", 10),
+                    Integer.getInteger("carga.alunos-por-turma", 40),
+                    Integer.getInteger("carga.questoes", 20),
+                    Integer.getInteger("carga.concorrencia", 200),
+                    Integer.getInteger("carga.aquecimento", 1),
+                    Integer.getInteger("carga.rodadas", 1),
+                    System.getProperty("carga.banco", "memoria"),
+                    Integer.getInteger("carga.pool", 10));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package br.ifsp.lms_api.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
+import br.ifsp.lms_api.service.AgregadorNotasTag;
+
+// Compara a agregação por tag original (um objeto por nota, groupingBy pelo
+// nome em listas e média por tag) com AgregadorNotasTag; o perfil benchmark já liga -prof gc, que mostra
+// a alocação por operação:
+//   ./mvnw -Pbenchmark test-compile exec:exec -Djmh.filtro=AgregacaoNotasTag
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class AgregacaoNotasTagBenchmark {
+
+    private static final int QUANTIDADE_TAGS = 200;
+
+    @Param({ "10000", "1000000", "10000000" })
+    private int linhas;
+
+    private long[] idsTags;
+    private double[] notas;
+    private String[] nomesTags;
+
+    @Setup(Level.Trial)
+    public void gerarNotas() {
+        Random random = new Random(42);
+
+        nomesTags = new String[QUANTIDADE_TAGS + 1];
+        for (int idTag = 1; idTag <= QUANTIDADE_TAGS; idTag++) {
+            nomesTags[idTag] = "Tag " + idTag;
+        }
+
+        idsTags = new long[linhas];
+        notas = new double[linhas];
+        for (int i = 0; i < linhas; i++) {
+            idsTags[i] = 1 + random.nextInt(QUANTIDADE_TAGS);
+            notas[i] = random.nextInt(21) * 0.5;
+        }
+    }
+
+    // Cópia de AnaliseDesempenhoService.calcularMediasPorTag como estava
+    // antes dos agregados (uma lista por tag e um segundo stream para a
+    // média), incluindo a lista de NotaTagAgregada montada durante a coleta.
+    @Benchmark
+    public List<TagDesempenhoDto> groupingByPorNome() {
+        List<NotaTag> notasColetadas = new ArrayList<>();
+        for (int i = 0; i < linhas; i++) {
+            int idTag = (int) idsTags[i];
+            notasColetadas.add(new NotaTag(idsTags[i], nomesTags[idTag], notas[i]));
+        }
+
+        Map<String, List<NotaTag>> notasAgrupadas = notasColetadas.stream()
+                .collect(Collectors.groupingBy(NotaTag::getNomeTag));
+
+        List<TagDesempenhoDto> desempenhoGeral = new ArrayList<>();
+
+        for (Map.Entry<String, List<NotaTag>> entry : notasAgrupadas.entrySet()) {
+            String nomeTag = entry.getKey();
+            List<NotaTag> notasDaTag = entry.getValue();
+
+            double media = notasDaTag.stream()
+                    .mapToDouble(NotaTag::getNota)
+                    .average()
+                    .orElse(0.0);
+
+            TagDesempenhoDto dto = new TagDesempenhoDto();
+            dto.setNomeTag(nomeTag);
+            dto.setTotalAvaliacoes(notasDaTag.size());
+            dto.setMediaNota(media);
+
+            desempenhoGeral.add(dto);
+        }
+
+        return desempenhoGeral;
+    }
+
+    @Benchmark
+    public List<TagDesempenhoDto> agregadorPrimitivo() {
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+        for (int i = 0; i < linhas; i++) {
+            agregador.registrar(idsTags[i], nomesTags[(int) idsTags[i]], notas[i]);
+        }
+        return agregador.paraTagDesempenho();
+    }
+
+    // Equivalente ao antigo dto NotaTagAgregada.
+    private static final class NotaTag {
+
+        private final Long idTag;
+        private final String nomeTag;
+        private final double nota;
+
+        NotaTag(Long idTag, String nomeTag, double nota) {
+            this.idTag = idTag;
+            this.nomeTag = nomeTag;
+            this.nota = nota;
+        }
+
+        Long getIdTag() {
+            return idTag;
+        }
+
+        String getNomeTag() {
+            return nomeTag;
+        }
+
+        double getNota() {
+            return nota;
+        }
+    }
+}
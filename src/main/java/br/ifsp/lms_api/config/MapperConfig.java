@@ -11,6 +11,7 @@ import br.ifsp.lms_api.dto.atividadeArquivosDto.AtividadeArquivosResponseDto;
 import br.ifsp.lms_api.dto.atividadeQuestionarioDto.AtividadeQuestionarioResponseDto;
 import br.ifsp.lms_api.dto.atividadeTextoDto.AtividadeTextoResponseDto;
 import br.ifsp.lms_api.dto.atividadesDto.AtividadesResponseDto;
+import br.ifsp.lms_api.dto.questoesDto.QuestoesAlunoResponseDto;
 import br.ifsp.lms_api.dto.questoesDto.QuestoesResponseDto;
 
 import br.ifsp.lms_api.model.Atividade;
@@ -52,10 +53,14 @@ public class MapperConfig {
                 mapper.map(src -> src.getQuestoes(), AtividadeQuestionarioResponseDto::setQuestoesQuestionario);
                 mapper.map(src -> src.getNumeroTentativas(), AtividadeQuestionarioResponseDto::setNumeroTentativas);
                 mapper.map(src -> src.getDuracaoQuestionario(), AtividadeQuestionarioResponseDto::setDuracaoQuestionario);
+                mapper.map(src -> src.getIdTagSorteio(), AtividadeQuestionarioResponseDto::setIdTagSorteio);
+                mapper.map(src -> src.getQuantidadeSorteada(), AtividadeQuestionarioResponseDto::setQuantidadeSorteada);
+                mapper.map(src -> src.getEstrategiaCorrecao(), AtividadeQuestionarioResponseDto::setEstrategiaCorrecao);
                 mapper.map(src -> src.getTags(), AtividadesResponseDto::setTags);
             });
 
         modelMapper.typeMap(Questoes.class, QuestoesResponseDto.class);
+        modelMapper.typeMap(Questoes.class, QuestoesAlunoResponseDto.class);
 
         modelMapper.typeMap(AtividadeTextoRequestDto.class, AtividadeTexto.class);
         modelMapper.typeMap(AtividadeArquivosRequestDto.class, AtividadeArquivos.class);
@@ -1,22 +1,44 @@
 package br.ifsp.lms_api.controller;
 
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import io.swagger.v3.oas.annotations.Parameter;
 
 
 import br.ifsp.lms_api.config.CustomUserDetails;
 
+import br.ifsp.lms_api.dto.analise.AnaliseItensResponseDto;
+import br.ifsp.lms_api.dto.analise.RankingResponseDto;
+import br.ifsp.lms_api.dto.analise.ReconstrucaoTendenciaResponseDto;
 import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobRequestDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobResponseDto;
+import br.ifsp.lms_api.dto.analise.TendenciaTurmaResponseDto;
 import br.ifsp.lms_api.service.AnaliseDesempenhoService;
+import br.ifsp.lms_api.model.Administrador;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.service.AnaliseItemService;
+import br.ifsp.lms_api.service.RankingDesempenhoService;
+import br.ifsp.lms_api.service.RelatorioJobService;
+import br.ifsp.lms_api.service.TendenciaDesempenhoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 @RestController
 @Validated
@@ -25,9 +47,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class AnaliseDesempenhoController {
 
     private final AnaliseDesempenhoService analiseService;
+    private final AnaliseItemService analiseItemService;
+    private final TendenciaDesempenhoService tendenciaService;
+    private final RelatorioJobService relatorioJobService;
+    private final RankingDesempenhoService rankingService;
 
-    public AnaliseDesempenhoController(AnaliseDesempenhoService analiseService) {
+    public AnaliseDesempenhoController(AnaliseDesempenhoService analiseService, AnaliseItemService analiseItemService,
+                                       TendenciaDesempenhoService tendenciaService,
+                                       RelatorioJobService relatorioJobService,
+                                       RankingDesempenhoService rankingService) {
         this.analiseService = analiseService;
+        this.analiseItemService = analiseItemService;
+        this.tendenciaService = tendenciaService;
+        this.relatorioJobService = relatorioJobService;
+        this.rankingService = rankingService;
     }
 
     @PreAuthorize("hasRole('ALUNO')")
@@ -53,6 +86,50 @@ public class AnaliseDesempenhoController {
         return analiseService.gerarRelatorioTurma(idTurma);
     }
 
+    @PreAuthorize("hasAnyRole('PROFESSOR', 'ADMIN')")
+    @Operation(summary = "Tendência semanal de desempenho da Turma por tag (Professor/Admin)",
+               description = "Média das notas de cada tag por semana ISO, pela data de envio, e a variação média por semana.")
+    @ApiResponse(responseCode = "200", description = "Série semanal gerada com sucesso.")
+    @ApiResponse(responseCode = "404", description = "Turma não encontrada.")
+    @GetMapping("/turma/{idTurma}/tendencia")
+    public TendenciaTurmaResponseDto getTendenciaTurma(
+            @Parameter(description = "ID da Turma a ser analisada")
+            @PathVariable Long idTurma,
+            @Parameter(description = "Data inicial do período (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @Parameter(description = "Data final do período (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+
+        return tendenciaService.gerarTendenciaTurma(idTurma, inicio, fim);
+    }
+
+    @PreAuthorize("hasAnyRole('ALUNO', 'PROFESSOR', 'ADMIN')")
+    @Operation(summary = "Ranking da Turma pela média das notas",
+               description = "Os primeiros colocados entre os alunos matriculados e a posição de um aluno. Para o aluno logado, a posição é sempre a dele.")
+    @ApiResponse(responseCode = "200", description = "Ranking gerado com sucesso.")
+    @ApiResponse(responseCode = "404", description = "Turma não encontrada.")
+    @GetMapping("/turma/{idTurma}/ranking")
+    public RankingResponseDto getRankingTurma(
+            @Parameter(description = "ID da Turma")
+            @PathVariable Long idTurma,
+            @Parameter(description = "Quantidade de primeiros colocados (1 a 100)")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limite,
+            @Parameter(description = "Aluno cuja posição deve ser informada (Professor/Admin)")
+            @RequestParam(required = false) Long idAluno,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return rankingService.rankingTurma(idTurma, limite, alunoConsultado(usuarioLogado, idAluno));
+    }
+
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Reconstruir as séries semanais de todas as turmas (Admin)",
+               description = "Recalcula a série de cada turma a partir das tentativas de texto, arquivo e questionário, em lotes.")
+    @ApiResponse(responseCode = "200", description = "Séries reconstruídas com sucesso.")
+    @PostMapping("/tendencia/reconstruir")
+    public ReconstrucaoTendenciaResponseDto reconstruirTendencias() {
+        return tendenciaService.reconstruirTodas();
+    }
+
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @Operation(summary = "Gerar relatório de desempenho da Disciplina (Admin)")
     @ApiResponse(responseCode = "200", description = "Relatório agregado da disciplina gerado com sucesso.")
@@ -64,4 +141,63 @@ public class AnaliseDesempenhoController {
         
         return analiseService.gerarRelatorioDisciplina(idDisciplina);
     }
-}
\ No newline at end of file
+
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('PROFESSOR') and #pedido.escopo == T(br.ifsp.lms_api.dto.analise.EscopoRelatorio).TURMA)")
+    @Operation(summary = "Agendar relatório de Turma ou Disciplina (Professor/Admin)",
+               description = "Calcula o relatório em segundo plano. Se os dados não mudaram desde o último cálculo, o job já volta concluído. Disciplina só para Admin.")
+    @ApiResponse(responseCode = "202", description = "Job aceito; acompanhe por GET /analise/jobs/{idJob}.")
+    @ApiResponse(responseCode = "404", description = "Turma ou disciplina não encontrada.")
+    @ApiResponse(responseCode = "429", description = "Fila de relatórios cheia.")
+    @PostMapping("/jobs")
+    public ResponseEntity<RelatorioJobResponseDto> submeterRelatorio(@Valid @RequestBody RelatorioJobRequestDto pedido) {
+        return ResponseEntity.accepted().body(relatorioJobService.submeter(pedido));
+    }
+
+    @PreAuthorize("hasAnyRole('PROFESSOR', 'ADMIN')")
+    @Operation(summary = "Consultar job de relatório (Professor/Admin)")
+    @ApiResponse(responseCode = "200", description = "Situação do job e, se concluído, o relatório.")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado ou expirado.")
+    @GetMapping("/jobs/{idJob}")
+    public RelatorioJobResponseDto consultarRelatorio(
+            @Parameter(description = "ID do job devolvido no agendamento")
+            @PathVariable String idJob,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return relatorioJobService.consultar(idJob, usuarioLogado.getUsuario() instanceof Administrador);
+    }
+
+    @PreAuthorize("hasAnyRole('PROFESSOR', 'ADMIN')")
+    @Operation(summary = "Análise de itens de um questionário (Professor/Admin)",
+               description = "Índice de dificuldade, índice de discriminação (27% superior vs. inferior) e taxa de escolha de cada alternativa.")
+    @ApiResponse(responseCode = "200", description = "Análise de itens gerada com sucesso.")
+    @ApiResponse(responseCode = "404", description = "Questionário não encontrado.")
+    @GetMapping("/questionario/{idQuestionario}/itens")
+    public AnaliseItensResponseDto getAnaliseItensQuestionario(
+            @Parameter(description = "ID do Questionário a ser analisado")
+            @PathVariable Long idQuestionario) {
+
+        return analiseItemService.analisarItens(idQuestionario);
+    }
+
+    @PreAuthorize("hasAnyRole('ALUNO', 'PROFESSOR', 'ADMIN')")
+    @Operation(summary = "Ranking de um questionário pela média das tentativas",
+               description = "Os primeiros colocados e a posição de um aluno. Para o aluno logado, a posição é sempre a dele.")
+    @ApiResponse(responseCode = "200", description = "Ranking gerado com sucesso.")
+    @ApiResponse(responseCode = "404", description = "Questionário não encontrado.")
+    @GetMapping("/questionario/{idQuestionario}/ranking")
+    public RankingResponseDto getRankingQuestionario(
+            @Parameter(description = "ID do Questionário")
+            @PathVariable Long idQuestionario,
+            @Parameter(description = "Quantidade de primeiros colocados (1 a 100)")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limite,
+            @Parameter(description = "Aluno cuja posição deve ser informada (Professor/Admin)")
+            @RequestParam(required = false) Long idAluno,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return rankingService.rankingQuestionario(idQuestionario, limite, alunoConsultado(usuarioLogado, idAluno));
+    }
+
+    private static Long alunoConsultado(CustomUserDetails usuarioLogado, Long idAluno) {
+        return usuarioLogado.getUsuario() instanceof Aluno ? usuarioLogado.getId() : idAluno;
+    }
+}
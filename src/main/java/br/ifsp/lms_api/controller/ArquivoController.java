@@ -0,0 +1,232 @@
+package br.ifsp.lms_api.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import br.ifsp.lms_api.config.CustomUserDetails;
+import br.ifsp.lms_api.dto.arquivoDto.RelatorioReconciliacaoResponseDto;
+import br.ifsp.lms_api.service.ArquivoParaDownload;
+import br.ifsp.lms_api.service.DownloadArquivoService;
+import br.ifsp.lms_api.service.ReconciliacaoArquivosService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Download dos arquivos guardados pelo StorageService. Responde Range (um
+// intervalo por requisição; vários viram o arquivo inteiro), If-Range,
+// If-None-Match e If-Modified-Since com 304, e manda o corpo sem passar
+// pelo heap: com o sendfile do Tomcat o conector copia do page cache para o
+// socket; fora dele, FileChannel.transferTo para o canal da resposta.
+@RestController
+@Tag(name = "Arquivos", description = "Download de materiais e tentativas de arquivo")
+public class ArquivoController {
+
+    // Atributos de request do sendfile do Tomcat (conector NIO/NIO2 com useSendfile).
+    private static final String SENDFILE_SUPORTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    // Abaixo disso o Tomcat escreve direto mesmo com sendfile (sendfileSize padrão).
+    private static final long SENDFILE_MINIMO = 48 * 1024;
+
+    private final DownloadArquivoService downloadArquivoService;
+    private final ReconciliacaoArquivosService reconciliacaoArquivosService;
+
+    public ArquivoController(DownloadArquivoService downloadArquivoService,
+                             ReconciliacaoArquivosService reconciliacaoArquivosService) {
+        this.downloadArquivoService = downloadArquivoService;
+        this.reconciliacaoArquivosService = reconciliacaoArquivosService;
+    }
+
+    @Operation(
+        summary = "Baixar material de aula",
+        description = "Professor da turma, aluno matriculado ou administrador. Aceita Range e GET condicional (ETag/Last-Modified)."
+    )
+    @ApiResponse(responseCode = "200", description = "Arquivo inteiro")
+    @ApiResponse(responseCode = "206", description = "Intervalo pedido no cabeçalho Range")
+    @ApiResponse(responseCode = "304", description = "Arquivo não mudou desde a cópia do cliente")
+    @ApiResponse(responseCode = "403", description = "Sem acesso à turma do material")
+    @ApiResponse(responseCode = "404", description = "Material ou arquivo não encontrado")
+    @ApiResponse(responseCode = "416", description = "Intervalo fora do arquivo")
+    @GetMapping("/arquivos/materiais/{idMaterial}")
+    public void baixarMaterial(
+            @Parameter(description = "ID do material") @PathVariable Long idMaterial,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        enviar(downloadArquivoService.material(idMaterial, usuarioLogado), request, response);
+    }
+
+    @Operation(
+        summary = "Baixar arquivo de uma tentativa",
+        description = "Aluno que enviou, professor da turma da atividade ou administrador. Aceita Range e GET condicional."
+    )
+    @ApiResponse(responseCode = "200", description = "Arquivo inteiro")
+    @ApiResponse(responseCode = "206", description = "Intervalo pedido no cabeçalho Range")
+    @ApiResponse(responseCode = "304", description = "Arquivo não mudou desde a cópia do cliente")
+    @ApiResponse(responseCode = "403", description = "Sem acesso à tentativa")
+    @ApiResponse(responseCode = "404", description = "Tentativa ou arquivo não encontrado")
+    @ApiResponse(responseCode = "416", description = "Intervalo fora do arquivo")
+    @GetMapping("/arquivos/tentativas/{idTentativa}")
+    public void baixarTentativa(
+            @Parameter(description = "ID da tentativa de arquivo") @PathVariable Long idTentativa,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        enviar(downloadArquivoService.tentativa(idTentativa, usuarioLogado), request, response);
+    }
+
+    @Operation(
+        summary = "Baixar pela URL guardada",
+        description = "Atende as URLs /uploads/<nome> já gravadas em materiais e tentativas, com as mesmas permissões dos downloads por ID, Range e GET condicional."
+    )
+    @ApiResponse(responseCode = "200", description = "Arquivo inteiro")
+    @ApiResponse(responseCode = "206", description = "Intervalo pedido no cabeçalho Range")
+    @ApiResponse(responseCode = "304", description = "Arquivo não mudou desde a cópia do cliente")
+    @ApiResponse(responseCode = "403", description = "Sem acesso a nenhum material ou tentativa com este arquivo")
+    @ApiResponse(responseCode = "404", description = "Arquivo não encontrado")
+    @GetMapping("/uploads/{nomeArquivo}")
+    public void baixarPorNome(
+            @Parameter(description = "Nome do arquivo no storage") @PathVariable String nomeArquivo,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        enviar(downloadArquivoService.porNome(nomeArquivo, usuarioLogado), request, response);
+    }
+
+    @Operation(
+        summary = "Última reconciliação do storage",
+        description = "Contagens da última rodada: arquivos no disco, nomes no banco, órfãos (apagados e na carência), referências quebradas e parciais apagados."
+    )
+    @ApiResponse(responseCode = "200", description = "Relatório da última rodada")
+    @ApiResponse(responseCode = "204", description = "Nenhuma rodada terminou ainda")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/arquivos/reconciliacao")
+    public ResponseEntity<RelatorioReconciliacaoResponseDto> ultimaReconciliacao() {
+        RelatorioReconciliacaoResponseDto relatorio = reconciliacaoArquivosService.getUltimoRelatorio();
+        if (relatorio == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(relatorio);
+    }
+
+    private void enviar(ArquivoParaDownload arquivo, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        // Define ETag e Last-Modified; se o cliente já tem esta versão, fica o 304.
+        if (new ServletWebRequest(request, response).checkNotModified(arquivo.getEtag(), arquivo.getUltimaModificacao())) {
+            return;
+        }
+
+        long tamanho = arquivo.getTamanho();
+        long inicio = 0;
+        long fim = tamanho - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(arquivo.getTipoArquivo());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(arquivo.getNomeArquivo(), StandardCharsets.UTF_8).build().toString());
+
+        List<HttpRange> intervalos = intervalosPedidos(request, arquivo);
+        if (intervalos.size() == 1) {
+            HttpRange intervalo = intervalos.get(0);
+            try {
+                inicio = intervalo.getRangeStart(tamanho);
+                fim = intervalo.getRangeEnd(tamanho);
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + tamanho);
+        }
+
+        long quantidade = fim - inicio + 1;
+        response.setContentLengthLong(quantidade);
+        if ("HEAD".equals(request.getMethod()) || quantidade <= 0) {
+            return;
+        }
+
+        transferir(arquivo.getCaminho(), inicio, quantidade, request, response);
+    }
+
+    // Range malformado ou com If-Range de outra versão é ignorado (resposta
+    // inteira), como manda a RFC 9110.
+    private static List<HttpRange> intervalosPedidos(HttpServletRequest request, ArquivoParaDownload arquivo) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !mesmaVersao(request, arquivo)) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private static boolean mesmaVersao(HttpServletRequest request, ArquivoParaDownload arquivo) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals("\"" + arquivo.getEtag() + "\"");
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == arquivo.getUltimaModificacao() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void transferir(Path caminho, long inicio, long quantidade,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTE)) && quantidade >= SENDFILE_MINIMO) {
+            request.setAttribute(SENDFILE_ARQUIVO, caminho.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIM, inicio + quantidade);
+            return;
+        }
+
+        try (FileChannel arquivo = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+            long enviado = 0;
+            while (enviado < quantidade) {
+                long parte = arquivo.transferTo(inicio + enviado, quantidade - enviado, saida);
+                if (parte <= 0) {
+                    // O arquivo encolheu depois do Content-Length; não há o que completar.
+                    break;
+                }
+                enviado += parte;
+            }
+        }
+    }
+}
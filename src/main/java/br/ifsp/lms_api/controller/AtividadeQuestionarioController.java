@@ -16,7 +16,9 @@ import br.ifsp.lms_api.dto.atividadeQuestionarioDto.AtividadeQuestionarioRequest
 import br.ifsp.lms_api.dto.atividadeQuestionarioDto.AtividadeQuestionarioResponseDto;
 import br.ifsp.lms_api.dto.atividadeQuestionarioDto.AtividadeQuestionarioUpdateDto;
 import br.ifsp.lms_api.dto.page.PagedResponse;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.RecorrecaoQuestionarioResponseDto;
 import br.ifsp.lms_api.service.AtividadeQuestionarioService;
+import br.ifsp.lms_api.service.RecorrecaoQuestionarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -38,9 +40,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 @Tag(name = "Atividades (Questionário)", description = "Endpoints para gerenciar atividades do tipo 'Questionário'")
 public class AtividadeQuestionarioController {
     private final AtividadeQuestionarioService atividadeQuestionarioService;
+    private final RecorrecaoQuestionarioService recorrecaoQuestionarioService;
 
-    public AtividadeQuestionarioController(AtividadeQuestionarioService atividadeQuestionarioService) {
+    public AtividadeQuestionarioController(AtividadeQuestionarioService atividadeQuestionarioService,
+                                           RecorrecaoQuestionarioService recorrecaoQuestionarioService) {
         this.atividadeQuestionarioService = atividadeQuestionarioService;
+        this.recorrecaoQuestionarioService = recorrecaoQuestionarioService;
     }
 
     @PreAuthorize("hasRole('ROLE_PROFESSOR')")
@@ -166,4 +171,28 @@ public class AtividadeQuestionarioController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    @PreAuthorize("hasRole('ROLE_PROFESSOR')")
+    @Operation(
+        summary = "Recorrigir tentativas do questionário",
+        description = "Recalcula em segundo plano a nota de todas as tentativas pelo gabarito atual. Alterar a alternativa correta já dispara a recorreção automaticamente."
+    )
+    @ApiResponse(responseCode = "202", description = "Recorreção agendada; acompanhe pelo GET")
+    @ApiResponse(responseCode = "404", description = "Questionário não encontrado")
+    @PostMapping("/{idQuestionario}/recorrecao")
+    public ResponseEntity<RecorrecaoQuestionarioResponseDto> recorrigir(
+            @Parameter(description = "ID do questionário") @PathVariable Long idQuestionario) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(recorrecaoQuestionarioService.agendarQuestionario(idQuestionario));
+    }
+
+    @PreAuthorize("hasRole('ROLE_PROFESSOR')")
+    @Operation(summary = "Consultar o progresso da recorreção do questionário")
+    @ApiResponse(responseCode = "200", description = "Situação e progresso da última recorreção")
+    @ApiResponse(responseCode = "404", description = "Nenhuma recorreção registrada")
+    @GetMapping("/{idQuestionario}/recorrecao")
+    public ResponseEntity<RecorrecaoQuestionarioResponseDto> consultarRecorrecao(
+            @Parameter(description = "ID do questionário") @PathVariable Long idQuestionario) {
+        return ResponseEntity.ok(recorrecaoQuestionarioService.consultar(idQuestionario));
+    }
 }
\ No newline at end of file
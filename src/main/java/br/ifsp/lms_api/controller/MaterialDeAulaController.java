@@ -1,7 +1,9 @@
 package br.ifsp.lms_api.controller;
 
+import java.io.IOException;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -26,6 +28,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -61,6 +64,52 @@ public class MaterialDeAulaController {
         return ResponseEntity.ok(responseDto);
     }
 
+    @PreAuthorize("hasRole('ROLE_PROFESSOR')")
+    @Operation(
+        summary = "Fazer upload de novo material (envio direto)",
+        description = "Mesmo que o upload multipart, mas o corpo da requisição é o próprio arquivo (application/octet-stream) e é gravado enquanto chega, sem passar pelo buffer do multipart. O nome vai no parâmetro 'nome'."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Arquivo enviado com sucesso",
+        content = @Content(schema = @Schema(implementation = MaterialDeAulaResponseDto.class))
+    )
+    @ApiResponse(responseCode = "404", description = "Tópico não encontrado")
+    @ApiResponse(responseCode = "413", description = "Arquivo acima do limite")
+    @PostMapping(value = "/topico/{idTopico}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<MaterialDeAulaResponseDto> uploadMaterialDireto(
+            @Parameter(description = "ID do tópico ao qual o material será vinculado") @PathVariable Long idTopico,
+            @Parameter(description = "Nome original do arquivo") @RequestParam("nome") String nome,
+            @Parameter(description = "Tipo do arquivo; se omitido, deduzido pela extensão") @RequestParam(value = "tipo", required = false) String tipo,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+            HttpServletRequest request) throws IOException {
+
+        MaterialDeAulaResponseDto responseDto = materialService.createMaterial(
+                request.getInputStream(), nome, tipo, request.getContentLengthLong(), idTopico, usuarioLogado.getId());
+        return ResponseEntity.ok(responseDto);
+    }
+
+    @PreAuthorize("hasRole('ROLE_PROFESSOR')")
+    @Operation(
+        summary = "Copiar material para outro tópico",
+        description = "Cria no tópico de destino um material com o mesmo arquivo, sem copiar o conteúdo no storage. O professor precisa ser dono das duas turmas."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Material copiado com sucesso",
+        content = @Content(schema = @Schema(implementation = MaterialDeAulaResponseDto.class))
+    )
+    @ApiResponse(responseCode = "403", description = "Acesso negado")
+    @ApiResponse(responseCode = "404", description = "Material ou tópico não encontrado")
+    @PostMapping("/{id}/copiar/topico/{idTopico}")
+    public ResponseEntity<MaterialDeAulaResponseDto> copiarMaterial(
+            @Parameter(description = "ID do material a ser copiado") @PathVariable Long id,
+            @Parameter(description = "ID do tópico de destino") @PathVariable Long idTopico,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return ResponseEntity.ok(materialService.copiarMaterial(id, idTopico, usuarioLogado.getId()));
+    }
+
     @PreAuthorize("hasRole('ROLE_PROFESSOR')")
     @Operation(
         summary = "Listar todos os materiais",
@@ -142,4 +191,29 @@ public class MaterialDeAulaController {
 
         return ResponseEntity.ok(materialService.updateMaterial(id, arquivo, usuarioLogado.getId()));
     }
-}
\ No newline at end of file
+
+    @PreAuthorize("hasRole('ROLE_PROFESSOR')")
+    @Operation(
+        summary = "Atualizar arquivo de um material (envio direto)",
+        description = "Substitui o arquivo de um material com o corpo da requisição (application/octet-stream), gravado enquanto chega. O nome vai no parâmetro 'nome'."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Arquivo atualizado com sucesso",
+        content = @Content(schema = @Schema(implementation = MaterialDeAulaResponseDto.class))
+    )
+    @ApiResponse(responseCode = "404", description = "Material não encontrado")
+    @ApiResponse(responseCode = "413", description = "Arquivo acima do limite")
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<MaterialDeAulaResponseDto> updateMaterialDireto(
+            @Parameter(description = "ID do material a ser atualizado") @PathVariable Long id,
+            @Parameter(description = "Nome original do arquivo") @RequestParam("nome") String nome,
+            @Parameter(description = "Tipo do arquivo; se omitido, deduzido pela extensão") @RequestParam(value = "tipo", required = false) String tipo,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+            HttpServletRequest request) throws IOException {
+
+        MaterialDeAulaResponseDto responseDto = materialService.updateMaterial(
+                id, request.getInputStream(), nome, tipo, request.getContentLengthLong(), usuarioLogado.getId());
+        return ResponseEntity.ok(responseDto);
+    }
+}
@@ -1,5 +1,8 @@
 package br.ifsp.lms_api.controller;
 
+import java.io.IOException;
+
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -11,6 +14,8 @@ import br.ifsp.lms_api.config.CustomUserDetails;
 import br.ifsp.lms_api.service.TentativaArquivoService;
 import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoResponseDto;
 import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +24,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -60,6 +66,36 @@ public class TentativaArquivoController {
         return ResponseEntity.ok(responseDto);
     }
 
+    @PreAuthorize("hasRole('ALUNO')")
+    @Operation(
+        summary = "Submeter tentativa de arquivo por envio direto (Aluno)",
+        description = "O corpo da requisição é o próprio arquivo (application/octet-stream), gravado enquanto chega, sem o buffer do multipart. O prazo é conferido antes de ler o corpo. O nome vai no parâmetro 'nome'."
+    )
+    @ApiResponse(responseCode = "200", description = "Arquivo enviado com sucesso", content = @Content(schema = @Schema(implementation = TentativaArquivoResponseDto.class)))
+    @ApiResponse(responseCode = "403", description = "Acesso negado ou fora do prazo")
+    @ApiResponse(responseCode = "404", description = "Aluno ou Atividade não encontrada")
+    @ApiResponse(responseCode = "413", description = "Arquivo acima do limite")
+    @PostMapping(value = "/{idAtividade}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<TentativaArquivoResponseDto> createTentativaArquivoDireto(
+        @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+
+        @Parameter(description = "ID da atividade para a qual o arquivo está sendo enviado")
+        @PathVariable("idAtividade") Long idAtividade,
+
+        @Parameter(description = "Nome original do arquivo")
+        @RequestParam("nome") String nome,
+
+        @Parameter(description = "Tipo do arquivo; se omitido, deduzido pela extensão")
+        @RequestParam(value = "tipo", required = false) String tipo,
+
+        HttpServletRequest request) throws IOException {
+
+        TentativaArquivoResponseDto responseDto = tentativaArquivoService.createTentativaArquivo(
+            request.getInputStream(), nome, tipo, request.getContentLengthLong(), usuarioLogado.getId(), idAtividade
+        );
+        return ResponseEntity.ok(responseDto);
+    }
+
     @PreAuthorize("hasRole('PROFESSOR')")
     @Operation(
         summary = "Corrigir tentativa (Professor)",
@@ -82,6 +118,21 @@ public class TentativaArquivoController {
         return ResponseEntity.ok(responseDto);
     }
 
+    @PreAuthorize("hasRole('PROFESSOR')")
+    @Operation(
+        summary = "Corrigir tentativas em lote (Professor)",
+        description = "Aplica nota e feedback a até 500 tentativas de arquivo numa única transação. Cada item tem o seu resultado; itens não encontrados, repetidos ou vazios são informados sem impedir os demais."
+    )
+    @ApiResponse(responseCode = "200", description = "Lote processado", content = @Content(schema = @Schema(implementation = CorrecaoLoteResponseDto.class)))
+    @ApiResponse(responseCode = "400", description = "Lote vazio, grande demais ou item sem ID")
+    @ApiResponse(responseCode = "403", description = "Acesso negado (Não é um PROFESSOR)")
+    @PatchMapping("/professor/lote")
+    public ResponseEntity<CorrecaoLoteResponseDto> corrigirTentativasArquivoEmLote(
+            @Valid @RequestBody CorrecaoLoteRequestDto lote) {
+
+        return ResponseEntity.ok(tentativaArquivoService.corrigirTentativasArquivoEmLote(lote));
+    }
+
     @PreAuthorize("hasRole('ALUNO')")
     @Operation(
         summary = "Substituir envio de arquivo (Aluno)",
@@ -105,6 +156,32 @@ public class TentativaArquivoController {
         return ResponseEntity.ok(responseDto);
     }
 
+    @PreAuthorize("hasRole('ALUNO')")
+    @Operation(
+        summary = "Substituir envio de arquivo por envio direto (Aluno)",
+        description = "Como a substituição multipart, mas o corpo da requisição é o próprio arquivo (application/octet-stream). O nome vai no parâmetro 'nome'."
+    )
+    @ApiResponse(responseCode = "200", description = "Arquivo substituído com sucesso", content = @Content(schema = @Schema(implementation = TentativaArquivoResponseDto.class)))
+    @ApiResponse(responseCode = "403", description = "Acesso negado (Não é o dono da tentativa, já foi corrigida ou fora do prazo)")
+    @ApiResponse(responseCode = "404", description = "Tentativa não encontrada")
+    @ApiResponse(responseCode = "413", description = "Arquivo acima do limite")
+    @PutMapping(value = "/aluno/{idTentativa}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<TentativaArquivoResponseDto> updateTentativaArquivoAlunoDireto(
+        @AuthenticationPrincipal CustomUserDetails usuarioLogado,
+        @Parameter(description = "ID da tentativa a ser substituída")
+        @PathVariable Long idTentativa,
+        @Parameter(description = "Nome original do arquivo")
+        @RequestParam("nome") String nome,
+        @Parameter(description = "Tipo do arquivo; se omitido, deduzido pela extensão")
+        @RequestParam(value = "tipo", required = false) String tipo,
+        HttpServletRequest request) throws IOException {
+
+        TentativaArquivoResponseDto responseDto = tentativaArquivoService.updateTentativaArquivoAluno(
+            idTentativa, usuarioLogado.getId(), request.getInputStream(), nome, tipo, request.getContentLengthLong()
+        );
+        return ResponseEntity.ok(responseDto);
+    }
+
     @PreAuthorize("hasRole('ALUNO')")
     @Operation(
         summary = "Deletar tentativa de arquivo (Aluno)",
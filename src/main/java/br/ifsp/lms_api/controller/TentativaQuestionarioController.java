@@ -1,13 +1,21 @@
 package br.ifsp.lms_api.controller;
 
+import java.util.List;
+
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.ifsp.lms_api.dto.questoesDto.QuestoesAlunoResponseDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.FinalizarSessaoRequestDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.RespostasParciaisRequestDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.SessaoQuestionarioResponseDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioRequestDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioResponseDto;
+import br.ifsp.lms_api.service.SessaoQuestionarioService;
 import br.ifsp.lms_api.service.TentativaQuestionarioService;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -32,9 +40,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "Tentativa de Questionário", description = "Endpoints para submissão e visualização de tentativas de questionário")
 public class TentativaQuestionarioController {
     private final TentativaQuestionarioService tentativaQuestionarioService;
+    private final SessaoQuestionarioService sessaoQuestionarioService;
 
-    public TentativaQuestionarioController(TentativaQuestionarioService tentativaQuestionarioService) {
+    public TentativaQuestionarioController(TentativaQuestionarioService tentativaQuestionarioService,
+                                           SessaoQuestionarioService sessaoQuestionarioService) {
         this.tentativaQuestionarioService = tentativaQuestionarioService;
+        this.sessaoQuestionarioService = sessaoQuestionarioService;
     }
 
     @PreAuthorize("hasRole('ROLE_ALUNO')")
@@ -51,6 +62,67 @@ public class TentativaQuestionarioController {
         return tentativaQuestionarioService.createTentativaQuestionario(tentativaRequest, idAlunoLogado);
     }
 
+    @PreAuthorize("hasRole('ROLE_ALUNO')")
+    @Operation(summary = "Questões da próxima tentativa (Aluno)",
+               description = "Em questionário com sorteio sorteia e reserva as questões do aluno; a tentativa enviada depois é corrigida por elas. Chamar de novo antes do envio devolve as mesmas questões. As alternativas vêm sem o gabarito.")
+    @ApiResponse(responseCode = "200", description = "Questões da tentativa")
+    @ApiResponse(responseCode = "404", description = "Questionário não encontrado")
+    @ApiResponse(responseCode = "403", description = "Limite de tentativas atingido")
+    @PostMapping("/questoes/{idQuestionario}")
+    public List<QuestoesAlunoResponseDto> getQuestoesDaProximaTentativa(
+            @Parameter(description = "ID do questionário") @PathVariable Long idQuestionario,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return tentativaQuestionarioService.getQuestoesDaProximaTentativa(idQuestionario, usuarioLogado.getId());
+    }
+
+    @PreAuthorize("hasRole('ROLE_ALUNO')")
+    @Operation(summary = "Iniciar sessão de questionário com tempo (Aluno)",
+               description = "Abre a sessão e começa a contar a duração do questionário. Chamar de novo com a sessão aberta devolve a mesma sessão.")
+    @ApiResponse(responseCode = "200", description = "Sessão aberta, com o horário de expiração")
+    @ApiResponse(responseCode = "404", description = "Questionário não encontrado")
+    @ApiResponse(responseCode = "403", description = "Limite de tentativas atingido")
+    @ApiResponse(responseCode = "409", description = "Questionário sem tempo limite ou sessão anterior expirada")
+    @PostMapping("/sessao/{idQuestionario}/iniciar")
+    public SessaoQuestionarioResponseDto iniciarSessao(
+            @Parameter(description = "ID do questionário") @PathVariable Long idQuestionario,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return sessaoQuestionarioService.iniciar(idQuestionario, usuarioLogado.getId());
+    }
+
+    @PreAuthorize("hasRole('ROLE_ALUNO')")
+    @Operation(summary = "Salvar respostas parciais da sessão (Aluno)",
+               description = "Guarda as respostas marcadas até agora. Pode ser chamado a cada poucos segundos: a gravação no banco é feita em lotes e, se o tempo acabar, a tentativa é enviada com as últimas respostas salvas.")
+    @ApiResponse(responseCode = "200", description = "Respostas salvas, com o tempo restante da sessão")
+    @ApiResponse(responseCode = "409", description = "Sessão não iniciada ou expirada")
+    @PutMapping("/sessao/{idQuestionario}/respostas")
+    public SessaoQuestionarioResponseDto salvarRespostasParciais(
+            @Parameter(description = "ID do questionário") @PathVariable Long idQuestionario,
+            @Validated @RequestBody RespostasParciaisRequestDto respostasRequest,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        return sessaoQuestionarioService.salvarRespostas(idQuestionario, usuarioLogado.getId(),
+                respostasRequest.getRespostas());
+    }
+
+    @PreAuthorize("hasRole('ROLE_ALUNO')")
+    @Operation(summary = "Finalizar sessão de questionário com tempo (Aluno)",
+               description = "Envia as respostas da sessão aberta. Depois do prazo a tentativa é enviada automaticamente.")
+    @ApiResponse(responseCode = "200", description = "Tentativa submetida e corrigida com sucesso")
+    @ApiResponse(responseCode = "409", description = "Sessão não iniciada, expirada ou já enviada")
+    @PostMapping("/sessao/{idQuestionario}/finalizar")
+    public TentativaQuestionarioResponseDto finalizarSessao(
+            @Parameter(description = "ID do questionário") @PathVariable Long idQuestionario,
+            @RequestBody FinalizarSessaoRequestDto finalizarRequest,
+            @AuthenticationPrincipal CustomUserDetails usuarioLogado) {
+
+        TentativaQuestionarioRequestDto tentativaRequest = new TentativaQuestionarioRequestDto();
+        tentativaRequest.setIdQuestionario(idQuestionario);
+        tentativaRequest.setRespostas(finalizarRequest.getRespostas());
+        return tentativaQuestionarioService.createTentativaQuestionario(tentativaRequest, usuarioLogado.getId());
+    }
+
     @PreAuthorize("hasRole('ROLE_PROFESSOR')")
     @Operation(summary = "Listar todas as tentativas (Professor)")
     @ApiResponse(responseCode = "200", description = "Lista paginada de todas as tentativas")
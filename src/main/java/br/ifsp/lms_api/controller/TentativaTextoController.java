@@ -12,6 +12,8 @@ import br.ifsp.lms_api.config.CustomUserDetails;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoRequestDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoResponseDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
 import br.ifsp.lms_api.dto.page.PagedResponse;
 import br.ifsp.lms_api.service.TentativaTextoService;
 
@@ -54,6 +56,12 @@ public class TentativaTextoController {
         return tentativaTextoService.updateTentativaTextoProfessor(tentativaRequest, idTentativa);
     }
 
+    @PreAuthorize("hasRole('PROFESSOR')")
+    @PatchMapping("/professor/lote")
+    public CorrecaoLoteResponseDto corrigirTentativasTextoEmLote(@Validated @RequestBody CorrecaoLoteRequestDto lote) {
+        return tentativaTextoService.corrigirTentativasTextoEmLote(lote);
+    }
+
     @PreAuthorize("hasRole('ALUNO')")
     @PatchMapping("/aluno/{idTentativa}") 
     public TentativaTextoResponseDto updateMinhaTentativa(
@@ -15,4 +15,8 @@ public class MaterialDeAulaResponseDto {
     private String urlArquivo;
 
     private String tipoArquivo;
+
+    private Long tamanhoArquivo;
+
+    private String checksumArquivo;
 }
@@ -19,6 +19,8 @@ public class TentativaArquivoResponseDto {
     private String nomeArquivo;
     private String urlArquivo;
     private String tipoArquivo;
+    private Long tamanhoArquivo;
+    private String checksumArquivo;
 
     private Long idAtividadeArquivo;
 
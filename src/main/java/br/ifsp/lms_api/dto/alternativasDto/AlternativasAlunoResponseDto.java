@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.dto.alternativasDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Alternativa como o aluno vê na tentativa, sem dizer se é a correta.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlternativasAlunoResponseDto {
+
+    private Long idAlternativa;
+    private String alternativa;
+
+}
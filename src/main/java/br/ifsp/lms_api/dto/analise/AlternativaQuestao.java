@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlternativaQuestao {
+    private Long idQuestao;
+    private String enunciado;
+    private Long idAlternativa;
+    private String alternativa;
+    private Boolean alternativaCorreta;
+}
@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class AnaliseItemDto {
+    private Long idQuestao;
+    private String enunciado;
+    // Fração de tentativas que acertaram a questão
+    private Double indiceDificuldade;
+    // Acertos dos 27% melhores menos os dos 27% piores, sobre o tamanho do grupo
+    private Double indiceDiscriminacao;
+    private List<TaxaEscolhaAlternativaDto> alternativas;
+}
@@ -0,0 +1,19 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnaliseItensResponseDto {
+
+    private Long idQuestionario;
+
+    private int totalTentativas;
+
+    private List<AnaliseItemDto> itens;
+}
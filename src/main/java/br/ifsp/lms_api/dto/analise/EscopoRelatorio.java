@@ -0,0 +1,6 @@
+package br.ifsp.lms_api.dto.analise;
+
+public enum EscopoRelatorio {
+    TURMA,
+    DISCIPLINA
+}
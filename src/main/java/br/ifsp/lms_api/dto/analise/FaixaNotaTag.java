@@ -0,0 +1,15 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaixaNotaTag {
+    private Long idTag;
+    private String nomeTag;
+    private Integer faixa;
+    private Long quantidade;
+}
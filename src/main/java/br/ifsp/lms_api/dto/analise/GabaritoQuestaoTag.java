@@ -0,0 +1,26 @@
+package br.ifsp.lms_api.dto.analise;
+
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GabaritoQuestaoTag {
+    private Long idQuestionario;
+    private EstrategiaCorrecao estrategiaCorrecao;
+    private Long idQuestao;
+    private Double pesoQuestao;
+    private Long idAlternativa;
+    private Boolean alternativaCorreta;
+    private Long idTag;
+    private String nomeTag;
+
+    // Linha só com a alternativa correta, peso padrão e estratégia padrão.
+    public GabaritoQuestaoTag(Long idQuestionario, Long idQuestao, Long idAlternativaCorreta, Long idTag, String nomeTag) {
+        this(idQuestionario, null, idQuestao, null, idAlternativaCorreta,
+                idAlternativaCorreta == null ? null : Boolean.TRUE, idTag, nomeTag);
+    }
+}
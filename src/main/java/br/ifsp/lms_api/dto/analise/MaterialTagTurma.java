@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialTagTurma {
+    private Long idTurma;
+    private String nomeTag;
+    private String tituloTopico;
+    private String nomeArquivo;
+    private String urlArquivo;
+}
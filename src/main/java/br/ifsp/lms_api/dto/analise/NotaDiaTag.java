@@ -0,0 +1,18 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotaDiaTag {
+    private Long idTag;
+    private String nomeTag;
+    private LocalDate dia;
+    private Double somaNotas;
+    private Long quantidadeNotas;
+}
@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PosicaoRankingDto {
+    private Integer posicao;
+    private Long idAluno;
+    private String nomeAluno;
+    private Double mediaNota;
+    private Long totalAvaliacoes;
+}
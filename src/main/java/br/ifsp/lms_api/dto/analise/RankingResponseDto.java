@@ -0,0 +1,17 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingResponseDto {
+    private Long idAlvo;
+    private Integer totalAlunos;
+    private List<PosicaoRankingDto> primeiros;
+    private PosicaoRankingDto posicaoAluno;
+}
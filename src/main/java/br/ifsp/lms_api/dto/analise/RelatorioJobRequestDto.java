@@ -0,0 +1,18 @@
+package br.ifsp.lms_api.dto.analise;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioJobRequestDto {
+
+    @NotNull(message = "O escopo do relatório é obrigatório")
+    private EscopoRelatorio escopo;
+
+    @NotNull(message = "O ID da turma ou disciplina é obrigatório")
+    private Long idAlvo;
+}
@@ -0,0 +1,21 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioJobResponseDto {
+    private String idJob;
+    private EscopoRelatorio escopo;
+    private Long idAlvo;
+    private StatusRelatorioJob status;
+    private LocalDateTime criadoEm;
+    private LocalDateTime concluidoEm;
+    private RelatorioDesempenhoResponseDto resultado;
+    private String erro;
+}
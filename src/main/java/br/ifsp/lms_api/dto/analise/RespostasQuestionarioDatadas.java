@@ -0,0 +1,19 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespostasQuestionarioDatadas {
+    private Long idQuestionario;
+    private LocalDateTime dataEnvio;
+    private List<Long> respostas;
+    // null quando o questionário não usa sorteio
+    private List<Long> questoesSorteadas;
+}
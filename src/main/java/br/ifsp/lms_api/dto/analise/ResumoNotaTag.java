@@ -0,0 +1,17 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoNotaTag {
+    private Long idTag;
+    private String nomeTag;
+    private Double somaNotas;
+    private Long quantidadeNotas;
+    private Double notaMinima;
+    private Double notaMaxima;
+}
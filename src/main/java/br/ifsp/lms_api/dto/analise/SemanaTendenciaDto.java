@@ -0,0 +1,18 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SemanaTendenciaDto {
+    private int anoIso;
+    private int semanaIso;
+    private LocalDate inicioSemana;
+    private Double mediaNota;
+    private Long totalAvaliacoes;
+}
@@ -0,0 +1,14 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SomaNotasAluno {
+    private Long idAluno;
+    private Double somaNotas;
+    private Long quantidadeNotas;
+}
@@ -0,0 +1,8 @@
+package br.ifsp.lms_api.dto.analise;
+
+public enum StatusRelatorioJob {
+    PENDENTE,
+    EM_EXECUCAO,
+    CONCLUIDO,
+    FALHOU
+}
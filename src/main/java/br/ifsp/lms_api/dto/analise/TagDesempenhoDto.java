@@ -7,4 +7,10 @@ public class TagDesempenhoDto {
     private String nomeTag;
     private double mediaNota;
     private int totalAvaliacoes;
-}
\ No newline at end of file
+    private Double notaMinima;
+    private Double notaMaxima;
+    private Double mediana;
+    private Double percentil10;
+    private Double percentil90;
+    private Double fracaoAbaixoAprovacao;
+}
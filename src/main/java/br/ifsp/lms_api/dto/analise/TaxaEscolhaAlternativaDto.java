@@ -0,0 +1,12 @@
+package br.ifsp.lms_api.dto.analise;
+
+import lombok.Data;
+
+@Data
+public class TaxaEscolhaAlternativaDto {
+    private Long idAlternativa;
+    private String alternativa;
+    private Boolean alternativaCorreta;
+    private int totalEscolhas;
+    private Double taxaEscolha;
+}
@@ -0,0 +1,14 @@
+package br.ifsp.lms_api.dto.analise;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class TendenciaTagDto {
+    private String nomeTag;
+    // Inclinação da reta de mínimos quadrados das médias semanais, em pontos por
+    // semana; positiva quando a tag está melhorando
+    private Double variacaoSemanal;
+    private List<SemanaTendenciaDto> semanas;
+}
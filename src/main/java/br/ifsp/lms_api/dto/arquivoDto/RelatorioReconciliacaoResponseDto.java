@@ -0,0 +1,43 @@
+package br.ifsp.lms_api.dto.arquivoDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioReconciliacaoResponseDto {
+
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime concluidaEm;
+    private long duracaoMs;
+
+    private long arquivosNoDisco;
+    private long nomesNoBanco;
+
+    // arquivos sem linha: os já apagados, os que ficaram para a próxima
+    // rodada e os ainda dentro da carência
+    private long orfaos;
+    private long orfaosApagados;
+    private long orfaosNaCarencia;
+    private long orfaosComFalha;
+
+    // linhas cujo arquivo não existe, com alguns nomes de exemplo
+    private long referenciasQuebradas;
+    private List<String> exemplosReferenciasQuebradas;
+
+    private long soltosNaRaiz;
+    private long parciaisApagados;
+
+    // desde a subida: arquivos liberados e parciais que não saíram do disco,
+    // e lotes da migração das subpastas que falharam
+    private long limpezasComFalha;
+    private long lotesMigracaoComFalha;
+    private String ultimaFalhaMigracao;
+
+    private String erro;
+}
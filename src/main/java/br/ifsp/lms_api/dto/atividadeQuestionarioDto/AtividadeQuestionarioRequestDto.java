@@ -5,6 +5,7 @@ import java.util.List;
 
 import br.ifsp.lms_api.dto.atividadesDto.AtividadesRequestDto;
 import br.ifsp.lms_api.dto.questoesDto.QuestoesRequestDto;
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
 
 
 public class AtividadeQuestionarioRequestDto extends AtividadesRequestDto {
@@ -13,6 +14,12 @@ public class AtividadeQuestionarioRequestDto extends AtividadesRequestDto {
 
     private int numeroTentativas;
 
+    private Long idTagSorteio;
+
+    private int quantidadeSorteada;
+
+    private EstrategiaCorrecao estrategiaCorrecao;
+
     private List<QuestoesRequestDto> questoesQuestionario;
 
     public long getDuracaoQuestionario() {
@@ -31,6 +38,30 @@ public class AtividadeQuestionarioRequestDto extends AtividadesRequestDto {
         this.numeroTentativas = numeroTentativas;
     }
 
+    public Long getIdTagSorteio() {
+        return idTagSorteio;
+    }
+
+    public void setIdTagSorteio(Long idTagSorteio) {
+        this.idTagSorteio = idTagSorteio;
+    }
+
+    public int getQuantidadeSorteada() {
+        return quantidadeSorteada;
+    }
+
+    public void setQuantidadeSorteada(int quantidadeSorteada) {
+        this.quantidadeSorteada = quantidadeSorteada;
+    }
+
+    public EstrategiaCorrecao getEstrategiaCorrecao() {
+        return estrategiaCorrecao;
+    }
+
+    public void setEstrategiaCorrecao(EstrategiaCorrecao estrategiaCorrecao) {
+        this.estrategiaCorrecao = estrategiaCorrecao;
+    }
+
     public List<QuestoesRequestDto> getQuestoesQuestionario() {
         return questoesQuestionario;
     }
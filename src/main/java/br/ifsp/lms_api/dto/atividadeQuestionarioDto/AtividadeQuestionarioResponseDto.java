@@ -4,6 +4,7 @@ import java.util.List;
 
 import br.ifsp.lms_api.dto.atividadesDto.AtividadesResponseDto;
 import br.ifsp.lms_api.dto.questoesDto.QuestoesResponseDto;
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
 
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
@@ -14,6 +15,9 @@ public class AtividadeQuestionarioResponseDto extends AtividadesResponseDto {
 
     private Long duracaoQuestionario;
     private Integer numeroTentativas;
+    private Long idTagSorteio;
+    private Integer quantidadeSorteada;
+    private EstrategiaCorrecao estrategiaCorrecao;
 
     private List<QuestoesResponseDto> questoesQuestionario;
 
@@ -33,6 +37,30 @@ public class AtividadeQuestionarioResponseDto extends AtividadesResponseDto {
         this.numeroTentativas = numeroTentativas;
     }
 
+    public Long getIdTagSorteio() {
+        return idTagSorteio;
+    }
+
+    public void setIdTagSorteio(Long idTagSorteio) {
+        this.idTagSorteio = idTagSorteio;
+    }
+
+    public Integer getQuantidadeSorteada() {
+        return quantidadeSorteada;
+    }
+
+    public void setQuantidadeSorteada(Integer quantidadeSorteada) {
+        this.quantidadeSorteada = quantidadeSorteada;
+    }
+
+    public EstrategiaCorrecao getEstrategiaCorrecao() {
+        return estrategiaCorrecao;
+    }
+
+    public void setEstrategiaCorrecao(EstrategiaCorrecao estrategiaCorrecao) {
+        this.estrategiaCorrecao = estrategiaCorrecao;
+    }
+
     public List<QuestoesResponseDto> getQuestoesQuestionario() {
         return questoesQuestionario;
     }
@@ -4,6 +4,7 @@ package br.ifsp.lms_api.dto.atividadeQuestionarioDto;
 import java.util.Optional;
 
 import br.ifsp.lms_api.dto.atividadesDto.AtividadesUpdateDto;
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
 
 
 
@@ -11,6 +12,9 @@ public class AtividadeQuestionarioUpdateDto extends AtividadesUpdateDto {
     
     private Optional<Long> duracaoQuestionario = Optional.empty();
     private Optional<Integer> numeroTentativas = Optional.empty();
+    private Optional<Long> idTagSorteio = Optional.empty();
+    private Optional<Integer> quantidadeSorteada = Optional.empty();
+    private Optional<EstrategiaCorrecao> estrategiaCorrecao = Optional.empty();
 
     public Optional<Long> getDuracaoQuestionario() {
         return duracaoQuestionario;
@@ -27,4 +31,28 @@ public class AtividadeQuestionarioUpdateDto extends AtividadesUpdateDto {
     public void setNumeroTentativas(Optional<Integer> numeroTentativas) {
         this.numeroTentativas = numeroTentativas;
     }
+
+    public Optional<Long> getIdTagSorteio() {
+        return idTagSorteio;
+    }
+
+    public void setIdTagSorteio(Optional<Long> idTagSorteio) {
+        this.idTagSorteio = idTagSorteio;
+    }
+
+    public Optional<Integer> getQuantidadeSorteada() {
+        return quantidadeSorteada;
+    }
+
+    public void setQuantidadeSorteada(Optional<Integer> quantidadeSorteada) {
+        this.quantidadeSorteada = quantidadeSorteada;
+    }
+
+    public Optional<EstrategiaCorrecao> getEstrategiaCorrecao() {
+        return estrategiaCorrecao;
+    }
+
+    public void setEstrategiaCorrecao(Optional<EstrategiaCorrecao> estrategiaCorrecao) {
+        this.estrategiaCorrecao = estrategiaCorrecao;
+    }
 }
@@ -0,0 +1,22 @@
+package br.ifsp.lms_api.dto.atividadesDto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Só o que decide se uma atividade aceita envios; fica em cache por atividade.
+@Getter
+@AllArgsConstructor
+public class JanelaAtividade {
+    private final Long idAtividade;
+    private final LocalDate dataInicioAtividade;
+    private final LocalDate dataFechamentoAtividade;
+    private final Boolean statusAtividade;
+    // Minutos; maior que zero só em questionário com sessão cronometrada.
+    private final Long duracaoQuestionario;
+
+    public boolean isCronometrada() {
+        return duracaoQuestionario != null && duracaoQuestionario > 0;
+    }
+}
@@ -0,0 +1,19 @@
+package br.ifsp.lms_api.dto.correcaoDto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrecaoItemRequestDto {
+
+    @NotNull(message = "O ID da tentativa é obrigatório")
+    private Long idTentativa;
+
+    private Double nota;
+
+    private String feedback;
+}
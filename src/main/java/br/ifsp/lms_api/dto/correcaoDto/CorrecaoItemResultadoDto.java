@@ -0,0 +1,15 @@
+package br.ifsp.lms_api.dto.correcaoDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrecaoItemResultadoDto {
+    private Long idTentativa;
+    private StatusCorrecaoItem status;
+    private Double nota;
+    private String mensagem;
+}
@@ -0,0 +1,21 @@
+package br.ifsp.lms_api.dto.correcaoDto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrecaoLoteRequestDto {
+
+    @NotEmpty(message = "Informe ao menos uma correção")
+    @Size(max = 500, message = "No máximo 500 correções por lote")
+    private List<@Valid @NotNull CorrecaoItemRequestDto> correcoes;
+}
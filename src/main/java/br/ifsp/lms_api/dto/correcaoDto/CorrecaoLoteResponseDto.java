@@ -0,0 +1,17 @@
+package br.ifsp.lms_api.dto.correcaoDto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrecaoLoteResponseDto {
+    private Integer total;
+    private Integer corrigidas;
+    private Integer falhas;
+    private List<CorrecaoItemResultadoDto> resultados;
+}
@@ -0,0 +1,8 @@
+package br.ifsp.lms_api.dto.correcaoDto;
+
+public enum StatusCorrecaoItem {
+    CORRIGIDA,
+    NAO_ENCONTRADA,
+    DUPLICADA,
+    SEM_ALTERACAO
+}
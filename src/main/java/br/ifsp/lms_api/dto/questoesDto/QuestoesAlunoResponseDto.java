@@ -0,0 +1,26 @@
+package br.ifsp.lms_api.dto.questoesDto;
+
+import java.util.List;
+
+import br.ifsp.lms_api.dto.TagDto.TagResponseDto;
+import br.ifsp.lms_api.dto.alternativasDto.AlternativasAlunoResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Questão entregue ao aluno para responder: sem o gabarito nas alternativas.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestoesAlunoResponseDto {
+
+    private Long idQuestao;
+
+    private String enunciado;
+
+    private Double peso;
+
+    private List<AlternativasAlunoResponseDto> alternativas;
+
+    private List<TagResponseDto> tags;
+}
@@ -9,6 +9,7 @@ import br.ifsp.lms_api.dto.alternativasDto.AlternativasRequestDto;
 
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
 
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -25,6 +26,9 @@ public class QuestoesRequestDto {
     @Size (min = 5, max = 100, message = "O enunciado da questão deve conter entre 5 e 100 caracteres")
     private String enunciado;
 
+    @PositiveOrZero(message = "O peso da questão não pode ser negativo")
+    private Double peso;
+
     private List<AlternativasRequestDto> alternativas;
 
     private List<Long> tagIds = new ArrayList<>();
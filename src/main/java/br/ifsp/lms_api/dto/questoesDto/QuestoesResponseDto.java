@@ -17,6 +17,8 @@ public class QuestoesResponseDto {
 
     private String enunciado;
 
+    private Double peso;
+
     private List<AlternativasResponseDto> alternativas;
 
     private List<TagResponseDto> tags;
@@ -12,5 +12,6 @@ import java.util.List;
 @AllArgsConstructor
 public class QuestoesUpdateDto {
     private Optional<String> enunciado = Optional.empty();
+    private Optional<Double> peso = Optional.empty();
     private Optional<List<Long>> tagIds = Optional.empty();
 }
@@ -0,0 +1,15 @@
+package br.ifsp.lms_api.dto.tentativaQuestionarioDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FinalizarSessaoRequestDto {
+    private List<Long> respostas = new ArrayList<>();
+}
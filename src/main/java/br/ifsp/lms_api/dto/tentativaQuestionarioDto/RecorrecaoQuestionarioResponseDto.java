@@ -0,0 +1,21 @@
+package br.ifsp.lms_api.dto.tentativaQuestionarioDto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecorrecaoQuestionarioResponseDto {
+    private Long idQuestionario;
+    private StatusRecorrecao status;
+    private long totalTentativas;
+    private long processadas;
+    private long alteradas;
+    private LocalDateTime criadaEm;
+    private LocalDateTime concluidaEm;
+    private String erro;
+}
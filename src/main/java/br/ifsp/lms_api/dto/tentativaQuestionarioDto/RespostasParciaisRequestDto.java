@@ -0,0 +1,18 @@
+package br.ifsp.lms_api.dto.tentativaQuestionarioDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespostasParciaisRequestDto {
+
+    @Size(max = 500, message = "No máximo 500 respostas por salvamento")
+    private List<Long> respostas = new ArrayList<>();
+}
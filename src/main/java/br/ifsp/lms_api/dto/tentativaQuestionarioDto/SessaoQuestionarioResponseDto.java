@@ -0,0 +1,18 @@
+package br.ifsp.lms_api.dto.tentativaQuestionarioDto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessaoQuestionarioResponseDto {
+    private Long idQuestionario;
+    private Long idAluno;
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime expiraEm;
+    private long segundosRestantes;
+}
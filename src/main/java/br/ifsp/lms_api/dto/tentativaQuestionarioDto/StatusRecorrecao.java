@@ -0,0 +1,8 @@
+package br.ifsp.lms_api.dto.tentativaQuestionarioDto;
+
+public enum StatusRecorrecao {
+    PENDENTE,
+    EM_EXECUCAO,
+    CONCLUIDA,
+    FALHOU
+}
@@ -0,0 +1,12 @@
+package br.ifsp.lms_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class ArquivoGrandeDemaisException extends RuntimeException {
+
+    public ArquivoGrandeDemaisException(String message) {
+        super(message);
+    }
+}
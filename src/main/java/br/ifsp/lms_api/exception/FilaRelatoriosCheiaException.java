@@ -0,0 +1,12 @@
+package br.ifsp.lms_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class FilaRelatoriosCheiaException extends RuntimeException {
+
+    public FilaRelatoriosCheiaException(String message) {
+        super(message);
+    }
+}
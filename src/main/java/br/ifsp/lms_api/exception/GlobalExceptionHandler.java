@@ -3,6 +3,7 @@ package br.ifsp.lms_api.exception;
 import jakarta.validation.ConstraintViolationException;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -67,6 +68,53 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(FilaRelatoriosCheiaException.class)
+    public ResponseEntity<Map<String, String>> handleFilaRelatoriosCheia(FilaRelatoriosCheiaException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("erro", "Fila de relatórios cheia");
+        body.put("mensagem", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(body);
+    }
+
+    @ExceptionHandler(TentativaSimultaneaException.class)
+    public ResponseEntity<Map<String, String>> handleTentativaSimultanea(TentativaSimultaneaException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("erro", "Tentativa simultânea");
+        body.put("mensagem", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(SessaoQuestionarioException.class)
+    public ResponseEntity<Map<String, String>> handleSessaoQuestionario(SessaoQuestionarioException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("erro", "Sessão do questionário");
+        body.put("mensagem", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(PrazoAtividadeException.class)
+    public ResponseEntity<Map<String, String>> handlePrazoAtividade(PrazoAtividadeException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("erro", "Fora do prazo");
+        body.put("mensagem", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+    }
+
+    @ExceptionHandler(ArquivoGrandeDemaisException.class)
+    public ResponseEntity<Map<String, String>> handleArquivoGrandeDemais(ArquivoGrandeDemaisException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("erro", "Arquivo grande demais");
+        body.put("mensagem", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(body);
+    }
+
     @ExceptionHandler(AccessDeniedException.class) 
     @ResponseStatus(HttpStatus.FORBIDDEN)
     public ResponseEntity<Map<String, String>> handleAccessDeniedException(
@@ -0,0 +1,12 @@
+package br.ifsp.lms_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class PrazoAtividadeException extends RuntimeException {
+
+    public PrazoAtividadeException(String message) {
+        super(message);
+    }
+}
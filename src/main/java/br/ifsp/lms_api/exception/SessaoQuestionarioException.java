@@ -0,0 +1,12 @@
+package br.ifsp.lms_api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SessaoQuestionarioException extends RuntimeException {
+
+    public SessaoQuestionarioException(String message) {
+        super(message);
+    }
+}
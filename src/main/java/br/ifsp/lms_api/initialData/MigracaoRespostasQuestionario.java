@@ -0,0 +1,138 @@
+package br.ifsp.lms_api.initialData;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.sql.Array;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.ifsp.lms_api.model.RespostasConverter;
+
+// Converte as respostas gravadas no formato antigo (coluna "respostas", lista
+// serializada ou array do banco) para a coluna codificada pelo
+// RespostasConverter. Roda antes da carga inicial, em lotes por id crescente;
+// cada linha convertida tem a coluna antiga zerada, então uma migração
+// interrompida continua de onde parou no próximo início. Em banco novo a
+// coluna antiga não existe e nada é feito.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MigracaoRespostasQuestionario implements CommandLineRunner {
+
+    private static final String COLUNA_ANTIGA = "respostas";
+    private static final String COLUNA_NOVA = "respostas_codificadas";
+
+    // só o que uma List<Long> serializada pode conter
+    private static final ObjectInputFilter FILTRO_LEGADO = ObjectInputFilter.Config.createFilter(
+            "java.util.ArrayList;java.util.Arrays$ArrayList;java.util.ImmutableCollections$*;java.util.CollSer;"
+                    + "java.lang.Long;java.lang.Number;java.lang.Object;!*");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanhoLote;
+
+    public MigracaoRespostasQuestionario(JdbcTemplate jdbcTemplate,
+                                         @Value("${questionario.migracao-respostas.lote:500}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public void run(String... args) {
+        migrar("tentativa_questionario", "id_tentativa_questionario");
+        migrar("sessao_questionario", "id_sessao");
+    }
+
+    int migrar(String tabela, String colunaId) {
+        if (!existeColuna(tabela, COLUNA_ANTIGA)) {
+            return 0;
+        }
+
+        String selecao = "SELECT " + colunaId + ", " + COLUNA_ANTIGA + " FROM " + tabela
+                + " WHERE " + colunaId + " > ? AND " + COLUNA_ANTIGA + " IS NOT NULL"
+                + " ORDER BY " + colunaId + " LIMIT ?";
+        String atualizacao = "UPDATE " + tabela + " SET " + COLUNA_NOVA + " = ?, " + COLUNA_ANTIGA + " = NULL"
+                + " WHERE " + colunaId + " = ?";
+
+        int migradas = 0;
+        long ultimoId = 0;
+        while (true) {
+            List<Object[]> lote = jdbcTemplate.query(selecao,
+                    (rs, i) -> new Object[] { rs.getLong(1), RespostasConverter.codificar(lerLegado(rs.getObject(2))) },
+                    ultimoId, tamanhoLote);
+            if (lote.isEmpty()) {
+                return migradas;
+            }
+
+            List<Object[]> parametros = new ArrayList<>(lote.size());
+            for (Object[] linha : lote) {
+                parametros.add(new Object[] { linha[1], linha[0] });
+            }
+            jdbcTemplate.batchUpdate(atualizacao, parametros);
+
+            migradas += lote.size();
+            ultimoId = (Long) lote.get(lote.size() - 1)[0];
+        }
+    }
+
+    private boolean existeColuna(String tabela, String coluna) {
+        Boolean existe = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexao -> {
+            DatabaseMetaData metadados = conexao.getMetaData();
+            String nomeTabela = metadados.storesUpperCaseIdentifiers() ? tabela.toUpperCase() : tabela;
+            String nomeColuna = metadados.storesUpperCaseIdentifiers() ? coluna.toUpperCase() : coluna;
+            try (ResultSet colunas = metadados.getColumns(null, null, nomeTabela, nomeColuna)) {
+                return colunas.next();
+            }
+        });
+        return Boolean.TRUE.equals(existe);
+    }
+
+    // Versões antigas do Hibernate gravavam a lista serializada; as mais novas,
+    // como array do banco.
+    static List<Long> lerLegado(Object valor) throws SQLException {
+        Collection<?> itens;
+        if (valor instanceof Array array) {
+            itens = Arrays.asList((Object[]) array.getArray());
+        } else if (valor instanceof Object[] array) {
+            itens = Arrays.asList(array);
+        } else if (valor instanceof byte[] bytes) {
+            itens = desserializar(bytes);
+        } else {
+            throw new IllegalStateException("Formato antigo de respostas não reconhecido: " + valor.getClass().getName());
+        }
+
+        List<Long> respostas = new ArrayList<>(itens.size());
+        for (Object item : itens) {
+            if (item instanceof Number numero) {
+                respostas.add(numero.longValue());
+            }
+        }
+        return respostas;
+    }
+
+    private static Collection<?> desserializar(byte[] bytes) {
+        try (ObjectInputStream entrada = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            entrada.setObjectInputFilter(FILTRO_LEGADO);
+            Object lista = entrada.readObject();
+            if (!(lista instanceof Collection<?> itens)) {
+                throw new IllegalStateException("Respostas antigas não são uma lista");
+            }
+            return itens;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Não foi possível ler as respostas antigas", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Arquivo do storage endereçado pelo conteúdo (SHA-256). Não há chave para
+// MaterialDeAula ou TentativaArquivo: as linhas só guardam a urlArquivo que
+// termina em nomeArmazenado. referencias é um contador mantido pelo
+// StorageService a cada gravação e deleteFile; o arquivo só sai do disco
+// quando ele chega a zero. Quem aponta para o arquivo sai das urlArquivo
+// (veja a VarreduraArquivosService).
+@Entity
+@Table(name = "arquivo_armazenado")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArquivoArmazenado {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String nomeArmazenado;
+
+    @Column(nullable = false)
+    private Long tamanho;
+
+    @Column(nullable = false)
+    private Integer referencias;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime criadoEm;
+}
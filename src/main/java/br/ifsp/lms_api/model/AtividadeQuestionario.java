@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -28,6 +30,16 @@ public class AtividadeQuestionario extends Atividade {
 
     private int numeroTentativas;
 
+    // Com quantidadeSorteada > 0 cada tentativa sorteia essa quantidade de
+    // questões do banco com a tag idTagSorteio, em vez de usar `questoes`.
+    private Long idTagSorteio;
+
+    private int quantidadeSorteada;
+
+    // Nulo corrige pela regra original (EstrategiaCorrecao.CONTAGEM_SIMPLES).
+    @Enumerated(EnumType.STRING)
+    private EstrategiaCorrecao estrategiaCorrecao;
+
     @ManyToMany(cascade = { CascadeType.PERSIST, CascadeType.MERGE })
     @JoinTable(
         name = "questionario_questoes",
@@ -0,0 +1,41 @@
+package br.ifsp.lms_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Quantas tentativas o aluno já usou no questionário. A admissão de uma nova
+// tentativa é um UPDATE condicional nesta linha, que serializa envios
+// simultâneos do mesmo aluno sem contar as tentativas a cada envio.
+@Entity
+@Table(
+    name = "contador_tentativas_questionario",
+    uniqueConstraints = @UniqueConstraint(columnNames = { "id_aluno", "id_questionario" })
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContadorTentativasQuestionario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idContador;
+
+    @Column(name = "id_aluno", nullable = false)
+    private Long idAluno;
+
+    @Column(name = "id_questionario", nullable = false)
+    private Long idQuestionario;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+}
@@ -0,0 +1,29 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Marca que os agregados de DesempenhoAlunoTag do aluno estão completos.
+// Sem essa linha o relatório reconstrói tudo a partir das tentativas.
+@Entity
+@Table(name = "desempenho_aluno")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DesempenhoAluno {
+
+    @Id
+    @Column(name = "id_aluno")
+    private Long idAluno;
+
+    private LocalDateTime materializadoEm;
+}
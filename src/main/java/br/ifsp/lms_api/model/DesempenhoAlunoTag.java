@@ -0,0 +1,49 @@
+package br.ifsp.lms_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Agregado (aluno, tag) mantido a cada nota lançada. Sem FK de propósito:
+// é dado derivado e pode ser descartado e reconstruído a qualquer momento.
+@Entity
+@Table(
+    name = "desempenho_aluno_tag",
+    uniqueConstraints = @UniqueConstraint(columnNames = { "id_aluno", "id_tag" })
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DesempenhoAlunoTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idDesempenhoAlunoTag;
+
+    @Column(name = "id_aluno", nullable = false)
+    private Long idAluno;
+
+    @Column(name = "id_tag", nullable = false)
+    private Long idTag;
+
+    @Column(nullable = false)
+    private Double somaNotas;
+
+    @Column(nullable = false)
+    private Long quantidadeNotas;
+
+    @Column(nullable = false)
+    private Double notaMinima;
+
+    @Column(nullable = false)
+    private Double notaMaxima;
+}
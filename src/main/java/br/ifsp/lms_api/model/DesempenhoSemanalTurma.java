@@ -0,0 +1,29 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Marca que a série semanal da turma está completa e passa a ser mantida
+// incrementalmente a cada nota lançada.
+@Entity
+@Table(name = "desempenho_semanal_turma")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DesempenhoSemanalTurma {
+
+    @Id
+    @Column(name = "id_turma")
+    private Long idTurma;
+
+    private LocalDateTime materializadoEm;
+}
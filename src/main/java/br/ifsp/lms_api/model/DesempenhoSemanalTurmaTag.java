@@ -0,0 +1,48 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Soma e contagem das notas de uma tag na turma durante uma semana ISO,
+// identificada pela segunda-feira em que começa. Dado derivado, sem FK.
+@Entity
+@Table(
+    name = "desempenho_semanal_turma_tag",
+    uniqueConstraints = @UniqueConstraint(columnNames = { "id_turma", "id_tag", "inicio_semana" })
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DesempenhoSemanalTurmaTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idDesempenhoSemanal;
+
+    @Column(name = "id_turma", nullable = false)
+    private Long idTurma;
+
+    @Column(name = "id_tag", nullable = false)
+    private Long idTag;
+
+    @Column(name = "inicio_semana", nullable = false)
+    private LocalDate inicioSemana;
+
+    @Column(nullable = false)
+    private Double somaNotas;
+
+    @Column(nullable = false)
+    private Long quantidadeNotas;
+}
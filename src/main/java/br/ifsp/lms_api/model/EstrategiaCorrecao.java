@@ -0,0 +1,44 @@
+package br.ifsp.lms_api.model;
+
+// Como uma questão vira crédito, a partir das alternativas marcadas. O crédito
+// é multiplicado pelo peso da questão; 1 é a questão inteira.
+public enum EstrategiaCorrecao {
+
+    // Regra original: cada alternativa correta marcada vale uma questão, então
+    // marcar várias alternativas pode passar de 1. Padrão dos questionários
+    // que não escolheram estratégia.
+    CONTAGEM_SIMPLES {
+        @Override
+        public double credito(int corretasMarcadas, int erradasMarcadas, int corretas, int alternativas) {
+            return corretasMarcadas;
+        }
+    },
+
+    // Só vale se marcou exatamente as alternativas corretas.
+    TUDO_OU_NADA {
+        @Override
+        public double credito(int corretasMarcadas, int erradasMarcadas, int corretas, int alternativas) {
+            return corretas > 0 && corretasMarcadas == corretas && erradasMarcadas == 0 ? 1.0 : 0.0;
+        }
+    },
+
+    // Cada correta marcada soma 1/corretas e cada errada marcada tira
+    // 1/erradas, sem ficar negativo: marcar tudo dá zero.
+    PARCIAL {
+        @Override
+        public double credito(int corretasMarcadas, int erradasMarcadas, int corretas, int alternativas) {
+            if (corretas == 0) {
+                return 0.0;
+            }
+            int erradas = alternativas - corretas;
+            double penalidade = erradas == 0 ? 0.0 : (double) erradasMarcadas / erradas;
+            return Math.max(0.0, (double) corretasMarcadas / corretas - penalidade);
+        }
+    };
+
+    public abstract double credito(int corretasMarcadas, int erradasMarcadas, int corretas, int alternativas);
+
+    public static EstrategiaCorrecao ouPadrao(EstrategiaCorrecao estrategia) {
+        return estrategia == null ? CONTAGEM_SIMPLES : estrategia;
+    }
+}
@@ -0,0 +1,29 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Marca que os histogramas da turma estão completos e passam a ser mantidos
+// incrementalmente a cada nota lançada.
+@Entity
+@Table(name = "histograma_turma")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistogramaTurma {
+
+    @Id
+    @Column(name = "id_turma")
+    private Long idTurma;
+
+    private LocalDateTime materializadoEm;
+}
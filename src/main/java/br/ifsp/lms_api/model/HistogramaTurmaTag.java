@@ -0,0 +1,43 @@
+package br.ifsp.lms_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Uma faixa de 0,5 ponto do histograma de notas da turma em uma tag.
+// Assim como DesempenhoAlunoTag, é dado derivado e não tem FK.
+@Entity
+@Table(
+    name = "histograma_turma_tag",
+    uniqueConstraints = @UniqueConstraint(columnNames = { "id_turma", "id_tag", "faixa" })
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistogramaTurmaTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idHistogramaTurmaTag;
+
+    @Column(name = "id_turma", nullable = false)
+    private Long idTurma;
+
+    @Column(name = "id_tag", nullable = false)
+    private Long idTag;
+
+    @Column(nullable = false)
+    private Integer faixa;
+
+    @Column(nullable = false)
+    private Long quantidade;
+}
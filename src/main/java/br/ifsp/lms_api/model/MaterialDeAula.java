@@ -33,6 +33,10 @@ public class MaterialDeAula {
     @NotBlank(message = "O tipo do arquivo é obrigatorio")
     private String tipoArquivo;
 
+    private Long tamanhoArquivo;
+
+    private String checksumArquivo;
+
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "idTopico")
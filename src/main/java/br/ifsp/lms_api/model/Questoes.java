@@ -13,6 +13,7 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -39,6 +40,10 @@ public class Questoes {
     @Size(min = 5, max = 100, message = "O enunciado da questão deve conter entre 5 e 100 caracteres")
     private String enunciado;
 
+    // Peso na nota do questionário; nulo vale 1.
+    @PositiveOrZero(message = "O peso da questão não pode ser negativo")
+    private Double peso;
+
 
     @ManyToMany(mappedBy = "questoes")
     @JsonBackReference 
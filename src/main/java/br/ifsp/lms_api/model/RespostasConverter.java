@@ -0,0 +1,99 @@
+package br.ifsp.lms_api.model;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Grava a lista de alternativas respondidas como bytes compactos: um byte de
+// versão, a quantidade e depois os ids em ordem crescente, cada um como a
+// diferença para o anterior em varint. Alternativas da mesma tentativa têm ids
+// próximos, então quase toda resposta ocupa um byte. A ordem original não é
+// guardada; toda correção e análise já ordena as respostas antes de usar.
+@Converter
+public class RespostasConverter implements AttributeConverter<List<Long>, byte[]> {
+
+    static final byte VERSAO = 1;
+
+    @Override
+    public byte[] convertToDatabaseColumn(List<Long> respostas) {
+        if (respostas == null) {
+            return null;
+        }
+        return codificar(respostas);
+    }
+
+    @Override
+    public List<Long> convertToEntityAttribute(byte[] dados) {
+        if (dados == null) {
+            return null;
+        }
+        return decodificar(dados);
+    }
+
+    public static byte[] codificar(List<Long> respostas) {
+        long[] ordenadas = respostas.stream()
+                .filter(id -> id != null)
+                .mapToLong(Long::longValue)
+                .toArray();
+        Arrays.sort(ordenadas);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(2 + ordenadas.length * 2);
+        saida.write(VERSAO);
+        escreverVarint(saida, ordenadas.length);
+        long anterior = 0;
+        for (long id : ordenadas) {
+            // em ordem crescente a diferença nunca é negativa; fora da faixa
+            // ela dá a volta e a soma na leitura dá a volta de novo
+            escreverVarint(saida, id - anterior);
+            anterior = id;
+        }
+        return saida.toByteArray();
+    }
+
+    public static List<Long> decodificar(byte[] dados) {
+        if (dados.length == 0 || dados[0] != VERSAO) {
+            throw new IllegalArgumentException("Formato de respostas desconhecido");
+        }
+
+        int[] posicao = { 1 };
+        long quantidade = lerVarint(dados, posicao);
+        if (quantidade > dados.length - posicao[0]) {
+            throw new IllegalArgumentException("Respostas codificadas truncadas");
+        }
+
+        List<Long> respostas = new ArrayList<>((int) quantidade);
+        long atual = 0;
+        for (int i = 0; i < quantidade; i++) {
+            atual += lerVarint(dados, posicao);
+            respostas.add(atual);
+        }
+        return respostas;
+    }
+
+    private static void escreverVarint(ByteArrayOutputStream saida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            saida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.write((int) valor);
+    }
+
+    private static long lerVarint(byte[] dados, int[] posicao) {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            if (posicao[0] >= dados.length) {
+                throw new IllegalArgumentException("Respostas codificadas truncadas");
+            }
+            byte b = dados[posicao[0]++];
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varint inválido nas respostas codificadas");
+    }
+}
@@ -0,0 +1,55 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Sessão aberta de um questionário com tempo. A linha existe só enquanto a
+// sessão está aberta: é apagada no envio (manual ou automático) e serve para
+// reconstruir as sessões em memória quando a aplicação reinicia, junto com
+// as últimas respostas gravadas pelo salvamento automático.
+@Entity
+@Table(
+    name = "sessao_questionario",
+    uniqueConstraints = @UniqueConstraint(columnNames = { "id_aluno", "id_questionario" })
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessaoQuestionario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idSessao;
+
+    @Column(name = "id_aluno", nullable = false)
+    private Long idAluno;
+
+    @Column(name = "id_questionario", nullable = false)
+    private Long idQuestionario;
+
+    @Column(nullable = false)
+    private LocalDateTime iniciadaEm;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Convert(converter = RespostasConverter.class)
+    @Column(name = "respostas_codificadas", length = 8192)
+    private List<Long> respostas;
+
+    private LocalDateTime respostasSalvasEm;
+}
@@ -0,0 +1,53 @@
+package br.ifsp.lms_api.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Questões sorteadas para a próxima tentativa do aluno, gravadas quando ele as
+// vê pela primeira vez. No envio a lista passa para a tentativa e a linha é
+// apagada; assim uma questão nova no banco durante a prova não troca as
+// questões que o aluno está respondendo.
+@Entity
+@Table(
+    name = "sorteio_questoes",
+    uniqueConstraints = @UniqueConstraint(columnNames = { "id_aluno", "id_questionario", "numero_tentativa" })
+)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SorteioQuestoes {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long idSorteio;
+
+    @Column(name = "id_aluno", nullable = false)
+    private Long idAluno;
+
+    @Column(name = "id_questionario", nullable = false)
+    private Long idQuestionario;
+
+    @Column(name = "numero_tentativa", nullable = false)
+    private Integer numeroTentativa;
+
+    @Convert(converter = RespostasConverter.class)
+    @Column(nullable = false, length = 8192)
+    private List<Long> questoes;
+
+    @Column(nullable = false)
+    private LocalDateTime sorteadoEm;
+}
@@ -7,8 +7,12 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import java.time.LocalDateTime;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 
+// UPDATE só com as colunas alteradas: a correção do professor não regrava
+// o arquivo e a troca de arquivo do aluno não regrava nota e feedback.
 @Entity
+@DynamicUpdate
 @Getter
 @Setter
 @AllArgsConstructor
@@ -29,6 +33,8 @@ public class TentativaArquivo {
     private String nomeArquivo;
     private String urlArquivo;
     private String tipoArquivo;
+    private Long tamanhoArquivo;
+    private String checksumArquivo;
 
     @ManyToOne
     @JoinColumn(name = "id_atividade_arquivo")
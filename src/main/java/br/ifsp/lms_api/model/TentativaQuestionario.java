@@ -26,8 +26,18 @@ public class TentativaQuestionario {
 
     @NotNull(message = "A data de envio é obrigatorio")
     private LocalDateTime dataEnvio;
+
+    // coluna antiga "respostas" é convertida por MigracaoRespostasQuestionario
+    @Convert(converter = RespostasConverter.class)
+    @Column(name = "respostas_codificadas", length = 8192)
     private List<Long> respostas;
 
+    // Questões sorteadas para esta tentativa; nulo quando o questionário tem
+    // lista fixa. A correção usa esta lista, não a do questionário.
+    @Convert(converter = RespostasConverter.class)
+    @Column(name = "questoes_sorteadas", length = 8192)
+    private List<Long> questoesSorteadas;
+
     @ManyToOne
     @JoinColumn(name = "id_questionario")
     private AtividadeQuestionario atividadeQuestionario;
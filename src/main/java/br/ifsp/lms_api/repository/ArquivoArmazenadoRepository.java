@@ -0,0 +1,30 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.model.ArquivoArmazenado;
+
+public interface ArquivoArmazenadoRepository extends JpaRepository<ArquivoArmazenado, String> {
+
+    // 1 se o arquivo já existia e ganhou mais uma referência, 0 se não existe.
+    @Modifying
+    @Query("UPDATE ArquivoArmazenado a SET a.referencias = a.referencias + 1 WHERE a.sha256 = :sha256")
+    int incrementarReferencias(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("UPDATE ArquivoArmazenado a SET a.referencias = a.referencias - 1 " +
+           "WHERE a.sha256 = :sha256 AND a.referencias > 0")
+    int decrementarReferencias(@Param("sha256") String sha256);
+
+    @Modifying
+    @Query("DELETE FROM ArquivoArmazenado a WHERE a.sha256 = :sha256 AND a.referencias = 0")
+    int deleteSemReferencias(@Param("sha256") String sha256);
+
+    @Query("SELECT a.nomeArmazenado FROM ArquivoArmazenado a WHERE a.sha256 = :sha256")
+    Optional<String> findNomeArmazenado(@Param("sha256") String sha256);
+}
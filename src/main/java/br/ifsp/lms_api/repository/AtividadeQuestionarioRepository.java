@@ -1,11 +1,58 @@
 package br.ifsp.lms_api.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import br.ifsp.lms_api.dto.analise.AlternativaQuestao;
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
 import br.ifsp.lms_api.model.AtividadeQuestionario;
 
 @Repository
 public interface AtividadeQuestionarioRepository extends JpaRepository<AtividadeQuestionario, Long> {
-    
+
+    // Uma linha por questão x alternativa x tag, com o peso da questão e a
+    // estratégia do questionário; questões sem alternativas ou sem tags vêm
+    // com nulos para continuar contando no total.
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag(aq.idAtividade, aq.estrategiaCorrecao, " +
+           "q.idQuestao, q.peso, alt.idAlternativa, alt.alternativaCorreta, tag.idTag, tag.nome) " +
+           "FROM AtividadeQuestionario aq JOIN aq.questoes q " +
+           "LEFT JOIN q.alternativas alt " +
+           "LEFT JOIN q.tags tag " +
+           "WHERE aq.idAtividade IN :idsQuestionarios")
+    List<GabaritoQuestaoTag> findGabaritos(@Param("idsQuestionarios") Collection<Long> idsQuestionarios);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.AlternativaQuestao(q.idQuestao, q.enunciado, alt.idAlternativa, alt.alternativa, alt.alternativaCorreta) " +
+           "FROM AtividadeQuestionario aq JOIN aq.questoes q JOIN q.alternativas alt " +
+           "WHERE aq.idAtividade = :idQuestionario " +
+           "ORDER BY q.idQuestao, alt.idAlternativa")
+    List<AlternativaQuestao> findAlternativas(@Param("idQuestionario") Long idQuestionario);
+
+    // Mesmo formato, para as questões que saíram nos sorteios.
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.AlternativaQuestao(q.idQuestao, q.enunciado, alt.idAlternativa, alt.alternativa, alt.alternativaCorreta) " +
+           "FROM Questoes q JOIN q.alternativas alt " +
+           "WHERE q.idQuestao IN :idsQuestoes " +
+           "ORDER BY q.idQuestao, alt.idAlternativa")
+    List<AlternativaQuestao> findAlternativasDasQuestoes(@Param("idsQuestoes") Collection<Long> idsQuestoes);
+
+    // Mesmas linhas para questões sorteadas do banco, sem passar pela lista do questionário.
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag(aq.idAtividade, aq.estrategiaCorrecao, " +
+           "q.idQuestao, q.peso, alt.idAlternativa, alt.alternativaCorreta, tag.idTag, tag.nome) " +
+           "FROM AtividadeQuestionario aq, Questoes q " +
+           "LEFT JOIN q.alternativas alt " +
+           "LEFT JOIN q.tags tag " +
+           "WHERE aq.idAtividade = :idQuestionario AND q.idQuestao IN :idsQuestoes")
+    List<GabaritoQuestaoTag> findGabaritosPorQuestoes(@Param("idQuestionario") Long idQuestionario,
+                                                      @Param("idsQuestoes") Collection<Long> idsQuestoes);
+
+    // Questionários que têm a questão na lista ou que sorteiam da tag dela.
+    @Query("SELECT DISTINCT aq.idAtividade FROM AtividadeQuestionario aq LEFT JOIN aq.questoes q " +
+           "WHERE q.idQuestao = :idQuestao " +
+           "OR (aq.quantidadeSorteada > 0 AND aq.idTagSorteio IN " +
+           "(SELECT tag.idTag FROM Questoes qt JOIN qt.tags tag WHERE qt.idQuestao = :idQuestao))")
+    List<Long> findIdsPorQuestao(@Param("idQuestao") Long idQuestao);
 }
@@ -1,11 +1,23 @@
 package br.ifsp.lms_api.repository;
 
+import br.ifsp.lms_api.dto.atividadesDto.JanelaAtividade;
 import br.ifsp.lms_api.model.Atividade;
+
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AtividadeRepository extends JpaRepository<Atividade, Long> {
-    
 
-}
\ No newline at end of file
+    // Prazo e status sem carregar a atividade; a duração vem da subclasse
+    // questionário e é zero nas outras.
+    @Query("SELECT new br.ifsp.lms_api.dto.atividadesDto.JanelaAtividade(a.idAtividade, a.dataInicioAtividade, " +
+           "a.dataFechamentoAtividade, a.statusAtividade, " +
+           "COALESCE((SELECT aq.duracaoQuestionario FROM AtividadeQuestionario aq WHERE aq.idAtividade = a.idAtividade), 0L)) " +
+           "FROM Atividade a WHERE a.idAtividade = :idAtividade")
+    Optional<JanelaAtividade> findJanela(@Param("idAtividade") Long idAtividade);
+}
@@ -0,0 +1,30 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.model.ContadorTentativasQuestionario;
+
+public interface ContadorTentativasQuestionarioRepository extends JpaRepository<ContadorTentativasQuestionario, Long> {
+
+    // 1 se a tentativa foi admitida, 0 se o limite já foi atingido ou a linha não existe.
+    @Modifying
+    @Query("UPDATE ContadorTentativasQuestionario c SET c.quantidade = c.quantidade + 1 " +
+           "WHERE c.idAluno = :idAluno AND c.idQuestionario = :idQuestionario AND c.quantidade < :limite")
+    int incrementarAbaixoDoLimite(@Param("idAluno") Long idAluno,
+                                  @Param("idQuestionario") Long idQuestionario,
+                                  @Param("limite") int limite);
+
+    @Modifying
+    @Query("UPDATE ContadorTentativasQuestionario c SET c.quantidade = c.quantidade - 1 " +
+           "WHERE c.idAluno = :idAluno AND c.idQuestionario = :idQuestionario AND c.quantidade > 0")
+    int decrementar(@Param("idAluno") Long idAluno, @Param("idQuestionario") Long idQuestionario);
+
+    @Query("SELECT c.quantidade FROM ContadorTentativasQuestionario c " +
+           "WHERE c.idAluno = :idAluno AND c.idQuestionario = :idQuestionario")
+    Optional<Integer> findQuantidade(@Param("idAluno") Long idAluno, @Param("idQuestionario") Long idQuestionario);
+}
@@ -0,0 +1,21 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.model.DesempenhoAluno;
+
+public interface DesempenhoAlunoRepository extends JpaRepository<DesempenhoAluno, Long> {
+
+    @Modifying
+    @Query("DELETE FROM DesempenhoAluno d WHERE d.idAluno = :idAluno")
+    int deleteByIdAluno(@Param("idAluno") Long idAluno);
+
+    @Modifying
+    @Query("DELETE FROM DesempenhoAluno d WHERE d.idAluno IN :idsAlunos")
+    int deleteByIdAlunoIn(@Param("idsAlunos") Collection<Long> idsAlunos);
+}
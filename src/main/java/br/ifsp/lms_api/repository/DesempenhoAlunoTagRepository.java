@@ -0,0 +1,37 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.model.DesempenhoAlunoTag;
+
+public interface DesempenhoAlunoTagRepository extends JpaRepository<DesempenhoAlunoTag, Long> {
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.ResumoNotaTag(d.idTag, t.nome, d.somaNotas, d.quantidadeNotas, d.notaMinima, d.notaMaxima) " +
+           "FROM DesempenhoAlunoTag d JOIN Tag t ON t.idTag = d.idTag " +
+           "WHERE d.idAluno = :idAluno")
+    List<ResumoNotaTag> findResumoByIdAluno(@Param("idAluno") Long idAluno);
+
+    @Modifying
+    @Query("UPDATE DesempenhoAlunoTag d SET " +
+           "d.somaNotas = d.somaNotas + :nota, " +
+           "d.quantidadeNotas = d.quantidadeNotas + 1, " +
+           "d.notaMinima = CASE WHEN :nota < d.notaMinima THEN :nota ELSE d.notaMinima END, " +
+           "d.notaMaxima = CASE WHEN :nota > d.notaMaxima THEN :nota ELSE d.notaMaxima END " +
+           "WHERE d.idAluno = :idAluno AND d.idTag = :idTag")
+    int somarNota(@Param("idAluno") Long idAluno, @Param("idTag") Long idTag, @Param("nota") Double nota);
+
+    @Modifying
+    @Query("DELETE FROM DesempenhoAlunoTag d WHERE d.idAluno = :idAluno")
+    int deleteByIdAluno(@Param("idAluno") Long idAluno);
+
+    @Modifying
+    @Query("DELETE FROM DesempenhoAlunoTag d WHERE d.idAluno IN :idsAlunos")
+    int deleteByIdAlunoIn(@Param("idsAlunos") Collection<Long> idsAlunos);
+}
@@ -0,0 +1,21 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.model.DesempenhoSemanalTurma;
+
+public interface DesempenhoSemanalTurmaRepository extends JpaRepository<DesempenhoSemanalTurma, Long> {
+
+    @Query("SELECT d.idTurma FROM DesempenhoSemanalTurma d WHERE d.idTurma IN :idsTurmas")
+    List<Long> findIdsMaterializados(@Param("idsTurmas") Collection<Long> idsTurmas);
+
+    @Modifying
+    @Query("DELETE FROM DesempenhoSemanalTurma d WHERE d.idTurma IN :idsTurmas")
+    int deleteByIdTurmaIn(@Param("idsTurmas") Collection<Long> idsTurmas);
+}
@@ -0,0 +1,37 @@
+package br.ifsp.lms_api.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.dto.analise.SemanaNotaTag;
+import br.ifsp.lms_api.model.DesempenhoSemanalTurmaTag;
+
+public interface DesempenhoSemanalTurmaTagRepository extends JpaRepository<DesempenhoSemanalTurmaTag, Long> {
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.SemanaNotaTag(d.idTag, t.nome, d.inicioSemana, d.somaNotas, d.quantidadeNotas) " +
+           "FROM DesempenhoSemanalTurmaTag d JOIN Tag t ON t.idTag = d.idTag " +
+           "WHERE d.idTurma = :idTurma AND d.quantidadeNotas > 0 " +
+           "AND d.inicioSemana >= :inicio AND d.inicioSemana <= :fim " +
+           "ORDER BY t.nome, d.inicioSemana")
+    List<SemanaNotaTag> findSemanasDaTurma(@Param("idTurma") Long idTurma,
+                                           @Param("inicio") LocalDate inicio,
+                                           @Param("fim") LocalDate fim);
+
+    @Modifying
+    @Query("UPDATE DesempenhoSemanalTurmaTag d " +
+           "SET d.somaNotas = d.somaNotas + :nota, d.quantidadeNotas = d.quantidadeNotas + :delta " +
+           "WHERE d.idTurma = :idTurma AND d.idTag = :idTag AND d.inicioSemana = :inicioSemana")
+    int somarNaSemana(@Param("idTurma") Long idTurma, @Param("idTag") Long idTag,
+                      @Param("inicioSemana") LocalDate inicioSemana,
+                      @Param("nota") Double nota, @Param("delta") Long delta);
+
+    @Modifying
+    @Query("DELETE FROM DesempenhoSemanalTurmaTag d WHERE d.idTurma IN :idsTurmas")
+    int deleteByIdTurmaIn(@Param("idsTurmas") Collection<Long> idsTurmas);
+}
@@ -0,0 +1,31 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.dto.analise.FaixaNotaTag;
+import br.ifsp.lms_api.model.HistogramaTurmaTag;
+
+public interface HistogramaTurmaTagRepository extends JpaRepository<HistogramaTurmaTag, Long> {
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.FaixaNotaTag(h.idTag, t.nome, h.faixa, SUM(h.quantidade)) " +
+           "FROM HistogramaTurmaTag h JOIN Tag t ON t.idTag = h.idTag " +
+           "WHERE h.idTurma IN :idsTurmas " +
+           "GROUP BY h.idTag, t.nome, h.faixa")
+    List<FaixaNotaTag> somarFaixasPorTurmas(@Param("idsTurmas") Collection<Long> idsTurmas);
+
+    @Modifying
+    @Query("UPDATE HistogramaTurmaTag h SET h.quantidade = h.quantidade + :delta " +
+           "WHERE h.idTurma = :idTurma AND h.idTag = :idTag AND h.faixa = :faixa")
+    int somarNaFaixa(@Param("idTurma") Long idTurma, @Param("idTag") Long idTag,
+                     @Param("faixa") Integer faixa, @Param("delta") Long delta);
+
+    @Modifying
+    @Query("DELETE FROM HistogramaTurmaTag h WHERE h.idTurma IN :idsTurmas")
+    int deleteByIdTurmaIn(@Param("idsTurmas") Collection<Long> idsTurmas);
+}
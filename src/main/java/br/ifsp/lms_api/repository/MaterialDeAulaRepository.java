@@ -1,11 +1,36 @@
 package br.ifsp.lms_api.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import br.ifsp.lms_api.dto.analise.MaterialTagTurma;
 import br.ifsp.lms_api.model.MaterialDeAula;
+import jakarta.persistence.QueryHint;
 
 public interface MaterialDeAulaRepository extends JpaRepository<MaterialDeAula, Long> {
     Page<MaterialDeAula> findByTopicoIdTopico(long idTopico, Pageable pageable);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.MaterialTagTurma(t.turma.idTurma, tag.nome, t.tituloTopico, m.nomeArquivo, m.urlArquivo) " +
+           "FROM MaterialDeAula m JOIN m.topico t JOIN t.tags tag " +
+           "WHERE t.turma.idTurma IN :idsTurmas")
+    List<MaterialTagTurma> findMateriaisPorTagDasTurmas(@Param("idsTurmas") Collection<Long> idsTurmas);
+
+    // Nome no storage (o que vem depois de /uploads/), em ordem, para a reconciliação com o disco.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT SUBSTRING(m.urlArquivo, LOCATE('/uploads/', m.urlArquivo) + 9) AS nome FROM MaterialDeAula m " +
+           "WHERE LOCATE('/uploads/', m.urlArquivo) > 0 ORDER BY nome")
+    Stream<String> streamNomesArmazenados();
+
+    boolean existsByUrlArquivoEndingWith(String sufixo);
+
+    List<MaterialDeAula> findByUrlArquivoEndingWith(String sufixo);
 }
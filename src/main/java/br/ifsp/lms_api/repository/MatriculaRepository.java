@@ -1,10 +1,22 @@
 package br.ifsp.lms_api.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import br.ifsp.lms_api.model.Matricula;
 
 @Repository
 public interface MatriculaRepository extends JpaRepository<Matricula, Long> {
 
+    @Query("SELECT m.turma.idTurma FROM Matricula m WHERE m.aluno.idUsuario = :idAluno AND m.turma IS NOT NULL")
+    List<Long> findIdsTurmaByIdAluno(@Param("idAluno") Long idAluno);
+
+    @Query("SELECT DISTINCT m.turma.idTurma FROM Matricula m WHERE m.aluno.idUsuario IN :idsAlunos AND m.turma IS NOT NULL")
+    List<Long> findIdsTurmaByIdAlunoIn(@Param("idsAlunos") Collection<Long> idsAlunos);
+
+    boolean existsByAluno_IdUsuarioAndTurma_IdTurma(Long idAluno, Long idTurma);
 }
@@ -1,9 +1,27 @@
 package br.ifsp.lms_api.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 import br.ifsp.lms_api.model.Questoes;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface QuestoesRepository extends JpaRepository<Questoes, Long>, JpaSpecificationExecutor<Questoes> {
-    
-}
\ No newline at end of file
+
+    // Só os ids, em ordem, para o sorteio percorrer o banco sem carregar questões.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT q.idQuestao FROM Questoes q JOIN q.tags tag WHERE tag.idTag = :idTag ORDER BY q.idQuestao")
+    Stream<Long> streamIdsPorTag(@Param("idTag") Long idTag);
+
+    @Query("SELECT DISTINCT q FROM Questoes q LEFT JOIN FETCH q.alternativas " +
+           "WHERE q.idQuestao IN :idsQuestoes ORDER BY q.idQuestao")
+    List<Questoes> findComAlternativas(@Param("idsQuestoes") Collection<Long> idsQuestoes);
+}
@@ -0,0 +1,149 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.dto.analise.FaixaNotaTag;
+import br.ifsp.lms_api.dto.analise.NotaDiaTag;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionarioDatadas;
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.dto.analise.SomaNotasAluno;
+import br.ifsp.lms_api.model.Matricula;
+import jakarta.persistence.QueryHint;
+
+// Consultas de relatório agregadas no banco. Cada matrícula conta as notas
+// do aluno uma vez, como no relatório calculado aluno a aluno.
+public interface RelatorioDesempenhoRepository extends Repository<Matricula, Long> {
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.ResumoNotaTag(tag.idTag, tag.nome, SUM(t.nota), COUNT(t.nota), MIN(t.nota), MAX(t.nota)) " +
+           "FROM Matricula m JOIN TentativaTexto t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeTexto a JOIN a.tags tag " +
+           "WHERE m.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome")
+    List<ResumoNotaTag> resumirTentativasTextoPorTurma(@Param("idTurma") Long idTurma);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.ResumoNotaTag(tag.idTag, tag.nome, SUM(t.nota), COUNT(t.nota), MIN(t.nota), MAX(t.nota)) " +
+           "FROM Matricula m JOIN TentativaArquivo t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeArquivo a JOIN a.tags tag " +
+           "WHERE m.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome")
+    List<ResumoNotaTag> resumirTentativasArquivoPorTurma(@Param("idTurma") Long idTurma);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.RespostasQuestionario(t.atividadeQuestionario.idAtividade, t.respostas, t.questoesSorteadas) " +
+           "FROM Matricula m JOIN TentativaQuestionario t ON t.aluno = m.aluno " +
+           "WHERE m.turma.idTurma = :idTurma")
+    List<RespostasQuestionario> findRespostasQuestionarioPorTurma(@Param("idTurma") Long idTurma);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.ResumoNotaTag(tag.idTag, tag.nome, SUM(t.nota), COUNT(t.nota), MIN(t.nota), MAX(t.nota)) " +
+           "FROM Matricula m JOIN TentativaTexto t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeTexto a JOIN a.tags tag " +
+           "WHERE m.turma.disciplina.idDisciplina = :idDisciplina AND t.nota IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome")
+    List<ResumoNotaTag> resumirTentativasTextoPorDisciplina(@Param("idDisciplina") Long idDisciplina);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.ResumoNotaTag(tag.idTag, tag.nome, SUM(t.nota), COUNT(t.nota), MIN(t.nota), MAX(t.nota)) " +
+           "FROM Matricula m JOIN TentativaArquivo t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeArquivo a JOIN a.tags tag " +
+           "WHERE m.turma.disciplina.idDisciplina = :idDisciplina AND t.nota IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome")
+    List<ResumoNotaTag> resumirTentativasArquivoPorDisciplina(@Param("idDisciplina") Long idDisciplina);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.RespostasQuestionario(t.atividadeQuestionario.idAtividade, t.respostas, t.questoesSorteadas) " +
+           "FROM Matricula m JOIN TentativaQuestionario t ON t.aluno = m.aluno " +
+           "WHERE m.turma.disciplina.idDisciplina = :idDisciplina")
+    List<RespostasQuestionario> findRespostasQuestionarioPorDisciplina(@Param("idDisciplina") Long idDisciplina);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.FaixaNotaTag(tag.idTag, tag.nome, CAST(FLOOR(t.nota * 2) AS Integer), COUNT(t)) " +
+           "FROM Matricula m JOIN TentativaTexto t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeTexto a JOIN a.tags tag " +
+           "WHERE m.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome, CAST(FLOOR(t.nota * 2) AS Integer)")
+    List<FaixaNotaTag> contarFaixasTextoPorTurma(@Param("idTurma") Long idTurma);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.FaixaNotaTag(tag.idTag, tag.nome, CAST(FLOOR(t.nota * 2) AS Integer), COUNT(t)) " +
+           "FROM Matricula m JOIN TentativaArquivo t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeArquivo a JOIN a.tags tag " +
+           "WHERE m.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome, CAST(FLOOR(t.nota * 2) AS Integer)")
+    List<FaixaNotaTag> contarFaixasArquivoPorTurma(@Param("idTurma") Long idTurma);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.NotaDiaTag(tag.idTag, tag.nome, CAST(t.dataEnvio AS LocalDate), SUM(t.nota), COUNT(t)) " +
+           "FROM Matricula m JOIN TentativaTexto t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeTexto a JOIN a.tags tag " +
+           "WHERE m.turma.idTurma = :idTurma AND t.nota IS NOT NULL AND t.dataEnvio IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome, CAST(t.dataEnvio AS LocalDate)")
+    List<NotaDiaTag> somarNotasTextoPorDia(@Param("idTurma") Long idTurma);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.NotaDiaTag(tag.idTag, tag.nome, CAST(t.dataEnvio AS LocalDate), SUM(t.nota), COUNT(t)) " +
+           "FROM Matricula m JOIN TentativaArquivo t ON t.aluno = m.aluno " +
+           "JOIN t.atividadeArquivo a JOIN a.tags tag " +
+           "WHERE m.turma.idTurma = :idTurma AND t.nota IS NOT NULL AND t.dataEnvio IS NOT NULL " +
+           "GROUP BY tag.idTag, tag.nome, CAST(t.dataEnvio AS LocalDate)")
+    List<NotaDiaTag> somarNotasArquivoPorDia(@Param("idTurma") Long idTurma);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.RespostasQuestionarioDatadas(t.atividadeQuestionario.idAtividade, t.dataEnvio, t.respostas, t.questoesSorteadas) " +
+           "FROM Matricula m JOIN TentativaQuestionario t ON t.aluno = m.aluno " +
+           "WHERE m.turma.idTurma = :idTurma AND t.dataEnvio IS NOT NULL")
+    Stream<RespostasQuestionarioDatadas> streamRespostasDatadasPorTurma(@Param("idTurma") Long idTurma);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.RespostasQuestionario(t.atividadeQuestionario.idAtividade, t.respostas, t.questoesSorteadas) " +
+           "FROM TentativaQuestionario t " +
+           "WHERE t.atividadeQuestionario.idAtividade = :idQuestionario")
+    Stream<RespostasQuestionario> streamRespostasPorQuestionario(@Param("idQuestionario") Long idQuestionario);
+
+    // Questões sorteadas de cada tentativa; vazio quando o questionário tem lista fixa.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.questoesSorteadas FROM TentativaQuestionario t " +
+           "WHERE t.atividadeQuestionario.idAtividade = :idQuestionario AND t.questoesSorteadas IS NOT NULL")
+    Stream<List<Long>> streamQuestoesSorteadasPorQuestionario(@Param("idQuestionario") Long idQuestionario);
+
+    // Notas dos alunos matriculados nas atividades da própria turma, por aluno.
+    // Com idAluno nulo traz a turma inteira; com idAluno, só aquele aluno.
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.SomaNotasAluno(t.aluno.idUsuario, SUM(t.nota), COUNT(t.nota)) " +
+           "FROM TentativaTexto t JOIN t.atividadeTexto a " +
+           "WHERE a.topico.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "AND (:idAluno IS NULL OR t.aluno.idUsuario = :idAluno) " +
+           "AND EXISTS (SELECT 1 FROM Matricula m WHERE m.aluno = t.aluno AND m.turma.idTurma = :idTurma) " +
+           "GROUP BY t.aluno.idUsuario")
+    List<SomaNotasAluno> somarNotasTextoPorAlunoNaTurma(@Param("idTurma") Long idTurma, @Param("idAluno") Long idAluno);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.SomaNotasAluno(t.aluno.idUsuario, SUM(t.nota), COUNT(t.nota)) " +
+           "FROM TentativaArquivo t JOIN t.atividadeArquivo a " +
+           "WHERE a.topico.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "AND (:idAluno IS NULL OR t.aluno.idUsuario = :idAluno) " +
+           "AND EXISTS (SELECT 1 FROM Matricula m WHERE m.aluno = t.aluno AND m.turma.idTurma = :idTurma) " +
+           "GROUP BY t.aluno.idUsuario")
+    List<SomaNotasAluno> somarNotasArquivoPorAlunoNaTurma(@Param("idTurma") Long idTurma, @Param("idAluno") Long idAluno);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.SomaNotasAluno(t.aluno.idUsuario, SUM(t.nota), COUNT(t.nota)) " +
+           "FROM TentativaQuestionario t JOIN t.atividadeQuestionario a " +
+           "WHERE a.topico.turma.idTurma = :idTurma AND t.nota IS NOT NULL " +
+           "AND (:idAluno IS NULL OR t.aluno.idUsuario = :idAluno) " +
+           "AND EXISTS (SELECT 1 FROM Matricula m WHERE m.aluno = t.aluno AND m.turma.idTurma = :idTurma) " +
+           "GROUP BY t.aluno.idUsuario")
+    List<SomaNotasAluno> somarNotasQuestionarioPorAlunoNaTurma(@Param("idTurma") Long idTurma, @Param("idAluno") Long idAluno);
+
+    @Query("SELECT new br.ifsp.lms_api.dto.analise.SomaNotasAluno(t.aluno.idUsuario, SUM(t.nota), COUNT(t.nota)) " +
+           "FROM TentativaQuestionario t " +
+           "WHERE t.atividadeQuestionario.idAtividade = :idQuestionario AND t.nota IS NOT NULL AND t.aluno IS NOT NULL " +
+           "AND (:idAluno IS NULL OR t.aluno.idUsuario = :idAluno) " +
+           "GROUP BY t.aluno.idUsuario")
+    List<SomaNotasAluno> somarNotasPorAlunoNoQuestionario(@Param("idQuestionario") Long idQuestionario,
+                                                          @Param("idAluno") Long idAluno);
+
+    // Alunos com tentativa em alguma das atividades, de qualquer tipo.
+    @Query("SELECT t.aluno.idUsuario FROM TentativaTexto t WHERE t.atividadeTexto.idAtividade IN :idsAtividades " +
+           "UNION SELECT t.aluno.idUsuario FROM TentativaArquivo t WHERE t.atividadeArquivo.idAtividade IN :idsAtividades " +
+           "UNION SELECT t.aluno.idUsuario FROM TentativaQuestionario t WHERE t.atividadeQuestionario.idAtividade IN :idsAtividades")
+    List<Long> findIdsAlunosComTentativa(@Param("idsAtividades") Collection<Long> idsAtividades);
+}
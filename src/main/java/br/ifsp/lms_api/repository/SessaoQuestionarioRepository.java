@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.model.SessaoQuestionario;
+
+public interface SessaoQuestionarioRepository extends JpaRepository<SessaoQuestionario, Long> {
+
+    // 1 para quem encerrou a sessão; 0 se outro envio já a encerrou.
+    @Modifying
+    @Query("DELETE FROM SessaoQuestionario s WHERE s.idAluno = :idAluno AND s.idQuestionario = :idQuestionario")
+    int encerrar(@Param("idAluno") Long idAluno, @Param("idQuestionario") Long idQuestionario);
+}
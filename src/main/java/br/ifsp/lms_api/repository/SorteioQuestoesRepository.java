@@ -0,0 +1,18 @@
+package br.ifsp.lms_api.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ifsp.lms_api.model.SorteioQuestoes;
+
+public interface SorteioQuestoesRepository extends JpaRepository<SorteioQuestoes, Long> {
+
+    @Query("SELECT s FROM SorteioQuestoes s " +
+           "WHERE s.idAluno = :idAluno AND s.idQuestionario = :idQuestionario AND s.numeroTentativa = :numeroTentativa")
+    Optional<SorteioQuestoes> buscar(@Param("idAluno") Long idAluno,
+                                     @Param("idQuestionario") Long idQuestionario,
+                                     @Param("numeroTentativa") int numeroTentativa);
+}
@@ -1,12 +1,51 @@
 package br.ifsp.lms_api.repository;
 
 import br.ifsp.lms_api.model.TentativaArquivo;
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface TentativaArquivoRepository extends JpaRepository<TentativaArquivo, Long> {
     
     Page<TentativaArquivo> findByAluno_IdUsuario(Long idUsuario, Pageable pageable);
+
+    // Correção em lote: aluno e atividade na mesma consulta, sem um SELECT por tentativa.
+    @Query("SELECT t FROM TentativaArquivo t LEFT JOIN FETCH t.aluno LEFT JOIN FETCH t.atividadeArquivo " +
+           "WHERE t.idTentativa IN :ids")
+    List<TentativaArquivo> findAllParaCorrecao(@Param("ids") Collection<Long> ids);
+
+    // Nome no storage (o que vem depois de /uploads/), em ordem, para a reconciliação com o disco.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT SUBSTRING(t.urlArquivo, LOCATE('/uploads/', t.urlArquivo) + 9) AS nome FROM TentativaArquivo t " +
+           "WHERE LOCATE('/uploads/', t.urlArquivo) > 0 ORDER BY nome")
+    Stream<String> streamNomesArmazenados();
+
+    boolean existsByUrlArquivoEndingWith(String sufixo);
+
+    // Troca de arquivo pelo aluno depois do envio direto: só as colunas do
+    // arquivo e só se ninguém corrigiu a tentativa enquanto o corpo chegava.
+    @Transactional
+    @Modifying
+    @Query("UPDATE TentativaArquivo t SET t.nomeArquivo = :nomeArquivo, t.tipoArquivo = :tipoArquivo, " +
+           "t.urlArquivo = :urlArquivo, t.tamanhoArquivo = :tamanhoArquivo, t.checksumArquivo = :checksumArquivo " +
+           "WHERE t.idTentativa = :idTentativa AND t.aluno.idUsuario = :idAluno AND t.nota IS NULL")
+    int trocarArquivoSeNaoAvaliada(@Param("idTentativa") Long idTentativa, @Param("idAluno") Long idAluno,
+                                   @Param("nomeArquivo") String nomeArquivo, @Param("tipoArquivo") String tipoArquivo,
+                                   @Param("urlArquivo") String urlArquivo, @Param("tamanhoArquivo") Long tamanhoArquivo,
+                                   @Param("checksumArquivo") String checksumArquivo);
+
+    List<TentativaArquivo> findByUrlArquivoEndingWith(String sufixo);
     
-}
\ No newline at end of file
+}
@@ -19,5 +19,19 @@ public abstract List<TentativaQuestionario> findByAtividadeQuestionario_IdAndAlu
 
  Page<TentativaQuestionario> findByAluno_IdUsuario(Long idUsuario, Pageable pageable);
 
+    @Query("SELECT COUNT(t) FROM TentativaQuestionario t WHERE t.atividadeQuestionario.idAtividade = :questionarioId AND t.aluno.idUsuario = :alunoId")
+    long contarPorQuestionarioEAluno(@Param("questionarioId") Long questionarioId, @Param("alunoId") Long alunoId);
+
+    @Query("SELECT COUNT(t) FROM TentativaQuestionario t WHERE t.atividadeQuestionario.idAtividade = :questionarioId")
+    long contarPorQuestionario(@Param("questionarioId") Long questionarioId);
+
+    // Próximo lote da recorreção, por id crescente a partir do último visto.
+    @Query("SELECT t FROM TentativaQuestionario t LEFT JOIN FETCH t.aluno " +
+           "WHERE t.atividadeQuestionario.idAtividade = :questionarioId AND t.idTentativaQuestionario > :ultimoId " +
+           "ORDER BY t.idTentativaQuestionario")
+    List<TentativaQuestionario> findLoteParaRecorrecao(@Param("questionarioId") Long questionarioId,
+                                                       @Param("ultimoId") Long ultimoId,
+                                                       Pageable pageable);
+
  
 }
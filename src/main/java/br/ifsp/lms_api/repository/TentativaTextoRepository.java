@@ -1,11 +1,21 @@
 package br.ifsp.lms_api.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.ifsp.lms_api.model.TentativaTexto;
 
 public interface TentativaTextoRepository extends JpaRepository<TentativaTexto, Long> {
     Page<TentativaTexto> findByAluno_IdUsuario(Long idUsuario, Pageable pageable);
+
+    // Correção em lote: aluno e atividade na mesma consulta, sem um SELECT por tentativa.
+    @Query("SELECT t FROM TentativaTexto t LEFT JOIN FETCH t.aluno LEFT JOIN FETCH t.atividadeTexto " +
+           "WHERE t.idTentativa IN :ids")
+    List<TentativaTexto> findAllParaCorrecao(@Param("ids") Collection<Long> ids);
 }
@@ -1,12 +1,22 @@
 package br.ifsp.lms_api.repository;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.ifsp.lms_api.model.Professor;
 import br.ifsp.lms_api.model.Turma;
 
 public interface TurmaRepository extends JpaRepository<Turma, Long> {
     Page<Turma> findByProfessor(Professor professor, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query("SELECT t.idTurma FROM Turma t WHERE t.disciplina.idDisciplina = :idDisciplina")
+    List<Long> findIdsByIdDisciplina(@Param("idDisciplina") Long idDisciplina);
+
+    @Query("SELECT t.idTurma FROM Turma t WHERE t.idTurma > :ultimoId ORDER BY t.idTurma")
+    List<Long> findIdsAposId(@Param("ultimoId") Long ultimoId, Pageable pageable);
+}
@@ -0,0 +1,162 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
+
+// Soma, contagem, mínimo e máximo por id de tag em arrays primitivos. O índice
+// id -> posição é uma tabela de endereçamento aberto com sondagem linear, então
+// registrar uma nota não aloca nada; só o crescimento das tabelas aloca.
+// As tags ficam na ordem em que apareceram pela primeira vez.
+public final class AgregadorNotasTag implements GabaritoQuestionario.NotaPorTag {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    // posição + 1 de cada id na tabela; 0 marca posição livre
+    private int[] tabela;
+    private long[] chaves;
+
+    private long[] idsTags;
+    private String[] nomesTags;
+    private double[] somas;
+    private long[] quantidades;
+    private double[] minimas;
+    private double[] maximas;
+    private int quantidadeTags;
+
+    public AgregadorNotasTag() {
+        tabela = new int[CAPACIDADE_INICIAL * 2];
+        chaves = new long[CAPACIDADE_INICIAL * 2];
+        idsTags = new long[CAPACIDADE_INICIAL];
+        nomesTags = new String[CAPACIDADE_INICIAL];
+        somas = new double[CAPACIDADE_INICIAL];
+        quantidades = new long[CAPACIDADE_INICIAL];
+        minimas = new double[CAPACIDADE_INICIAL];
+        maximas = new double[CAPACIDADE_INICIAL];
+    }
+
+    @Override
+    public void aceitar(long idTag, String nomeTag, double nota) {
+        registrar(idTag, nomeTag, nota);
+    }
+
+    public void registrar(long idTag, String nomeTag, double nota) {
+        int posicao = posicao(idTag, nomeTag);
+        somas[posicao] += nota;
+        quantidades[posicao]++;
+        minimas[posicao] = Math.min(minimas[posicao], nota);
+        maximas[posicao] = Math.max(maximas[posicao], nota);
+    }
+
+    public void somar(long idTag, String nomeTag, double soma, long quantidade, double minima, double maxima) {
+        int posicao = posicao(idTag, nomeTag);
+        somas[posicao] += soma;
+        quantidades[posicao] += quantidade;
+        minimas[posicao] = Math.min(minimas[posicao], minima);
+        maximas[posicao] = Math.max(maximas[posicao], maxima);
+    }
+
+    public void somar(ResumoNotaTag resumo) {
+        somar(resumo.getIdTag(), resumo.getNomeTag(), resumo.getSomaNotas(), resumo.getQuantidadeNotas(),
+                resumo.getNotaMinima(), resumo.getNotaMaxima());
+    }
+
+    public int getQuantidadeTags() {
+        return quantidadeTags;
+    }
+
+    public long getIdTag(int posicao) {
+        return idsTags[posicao];
+    }
+
+    public String getNomeTag(int posicao) {
+        return nomesTags[posicao];
+    }
+
+    public double getSomaNotas(int posicao) {
+        return somas[posicao];
+    }
+
+    public long getQuantidadeNotas(int posicao) {
+        return quantidades[posicao];
+    }
+
+    public double getNotaMinima(int posicao) {
+        return minimas[posicao];
+    }
+
+    public double getNotaMaxima(int posicao) {
+        return maximas[posicao];
+    }
+
+    public List<TagDesempenhoDto> paraTagDesempenho() {
+        List<TagDesempenhoDto> desempenho = new ArrayList<>(quantidadeTags);
+        for (int i = 0; i < quantidadeTags; i++) {
+            TagDesempenhoDto dto = new TagDesempenhoDto();
+            dto.setNomeTag(nomesTags[i]);
+            dto.setTotalAvaliacoes((int) quantidades[i]);
+            dto.setMediaNota(somas[i] / quantidades[i]);
+            dto.setNotaMinima(minimas[i]);
+            dto.setNotaMaxima(maximas[i]);
+            desempenho.add(dto);
+        }
+        return desempenho;
+    }
+
+    private int posicao(long idTag, String nomeTag) {
+        int mascara = tabela.length - 1;
+        int indice = espalhar(idTag) & mascara;
+        while (tabela[indice] != 0) {
+            if (chaves[indice] == idTag) {
+                return tabela[indice] - 1;
+            }
+            indice = (indice + 1) & mascara;
+        }
+
+        if (quantidadeTags == idsTags.length) {
+            crescer();
+            return posicao(idTag, nomeTag);
+        }
+
+        int posicao = quantidadeTags++;
+        tabela[indice] = posicao + 1;
+        chaves[indice] = idTag;
+        idsTags[posicao] = idTag;
+        nomesTags[posicao] = nomeTag;
+        minimas[posicao] = Double.POSITIVE_INFINITY;
+        maximas[posicao] = Double.NEGATIVE_INFINITY;
+        return posicao;
+    }
+
+    // Mantém a tabela com no máximo metade das posições ocupadas.
+    private void crescer() {
+        int capacidade = idsTags.length * 2;
+        idsTags = Arrays.copyOf(idsTags, capacidade);
+        nomesTags = Arrays.copyOf(nomesTags, capacidade);
+        somas = Arrays.copyOf(somas, capacidade);
+        quantidades = Arrays.copyOf(quantidades, capacidade);
+        minimas = Arrays.copyOf(minimas, capacidade);
+        maximas = Arrays.copyOf(maximas, capacidade);
+
+        tabela = new int[capacidade * 2];
+        chaves = new long[capacidade * 2];
+        int mascara = tabela.length - 1;
+        for (int posicao = 0; posicao < quantidadeTags; posicao++) {
+            int indice = espalhar(idsTags[posicao]) & mascara;
+            while (tabela[indice] != 0) {
+                indice = (indice + 1) & mascara;
+            }
+            tabela[indice] = posicao + 1;
+            chaves[indice] = idsTags[posicao];
+        }
+    }
+
+    // ids de tag são sequenciais; a multiplicação espalha os bits baixos
+    private static int espalhar(long idTag) {
+        long h = idTag * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,5 +1,7 @@
 package br.ifsp.lms_api.service;
 
+import java.util.Objects;
+
 import org.modelmapper.ModelMapper;
 
 import org.springframework.data.domain.Page;
@@ -24,13 +26,22 @@ public class AlternativasService {
     private final QuestoesRepository questoesRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+    private final RecorrecaoQuestionarioService recorrecaoQuestionarioService;
 
     public AlternativasService(AlternativasRepository alternativasRepository, ModelMapper modelMapper,
-            PagedResponseMapper pagedResponseMapper, QuestoesRepository questoesRepository) {
+            PagedResponseMapper pagedResponseMapper, QuestoesRepository questoesRepository,
+            DesempenhoAgregadoService desempenhoAgregadoService,
+            GabaritoQuestionarioService gabaritoQuestionarioService,
+            RecorrecaoQuestionarioService recorrecaoQuestionarioService) {
         this.alternativasRepository = alternativasRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
         this.questoesRepository = questoesRepository;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+        this.recorrecaoQuestionarioService = recorrecaoQuestionarioService;
     }
 
     @Transactional
@@ -42,6 +53,10 @@ public class AlternativasService {
         Alternativas alternativa = modelMapper.map(alternativaRequestDto, Alternativas.class);
         alternativa.setQuestoes(questao);
         Alternativas savedAlternativa = alternativasRepository.save(alternativa);
+        gabaritoQuestionarioService.invalidarPorQuestao(questao.getIdQuestao());
+        if (Boolean.TRUE.equals(savedAlternativa.getAlternativaCorreta())) {
+            recorrecaoQuestionarioService.agendarPorQuestao(questao.getIdQuestao());
+        }
         return modelMapper.map(savedAlternativa, AlternativasResponseDto.class);
     }
 
@@ -64,7 +79,17 @@ public class AlternativasService {
                 .orElseThrow(() -> new ResourceNotFoundException("Alternativa not found with id: " + id));
 
         updateDto.getAlternativa().ifPresent(existingAlternativa::setAlternativa);
-        updateDto.getAlternativaCorreta().ifPresent(existingAlternativa::setAlternativaCorreta);
+        updateDto.getAlternativaCorreta().ifPresent(correta -> {
+            boolean mudouGabarito = !Objects.equals(existingAlternativa.getAlternativaCorreta(), correta);
+            existingAlternativa.setAlternativaCorreta(correta);
+            if (existingAlternativa.getQuestoes() != null) {
+                desempenhoAgregadoService.invalidarPorQuestao(existingAlternativa.getQuestoes().getIdQuestao());
+                gabaritoQuestionarioService.invalidarPorQuestao(existingAlternativa.getQuestoes().getIdQuestao());
+                if (mudouGabarito) {
+                    recorrecaoQuestionarioService.agendarPorQuestao(existingAlternativa.getQuestoes().getIdQuestao());
+                }
+            }
+        });
         Alternativas updatedAlternativa = alternativasRepository.save(existingAlternativa);
         return modelMapper.map(updatedAlternativa, AlternativasResponseDto.class);
     }
@@ -74,6 +99,12 @@ public class AlternativasService {
         Alternativas alternativa = alternativasRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Alternativa not found with id: " + id));
         alternativasRepository.delete(alternativa);
+        if (alternativa.getQuestoes() != null) {
+            gabaritoQuestionarioService.invalidarPorQuestao(alternativa.getQuestoes().getIdQuestao());
+            if (Boolean.TRUE.equals(alternativa.getAlternativaCorreta())) {
+                recorrecaoQuestionarioService.agendarPorQuestao(alternativa.getQuestoes().getIdQuestao());
+            }
+        }
     }
 
 }
@@ -1,32 +1,27 @@
 package br.ifsp.lms_api.service;
 
+import br.ifsp.lms_api.dto.analise.FaixaNotaTag;
 import br.ifsp.lms_api.dto.analise.MaterialSugeridoDto;
-import br.ifsp.lms_api.dto.analise.NotaTagAgregada;
 import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
 import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
 
-import br.ifsp.lms_api.model.Alternativas;
-import br.ifsp.lms_api.model.Aluno;
-import br.ifsp.lms_api.model.MaterialDeAula;
-import br.ifsp.lms_api.model.Matricula;
-import br.ifsp.lms_api.model.Questoes;
 import br.ifsp.lms_api.model.Tag;
 import br.ifsp.lms_api.model.TentativaArquivo;
 import br.ifsp.lms_api.model.TentativaQuestionario;
 import br.ifsp.lms_api.model.TentativaTexto;
-import br.ifsp.lms_api.model.Topicos;
-import br.ifsp.lms_api.model.Turma;
-import br.ifsp.lms_api.model.Disciplina;
 import br.ifsp.lms_api.repository.DisciplinaRepository; 
 import jakarta.persistence.EntityNotFoundException;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
 import br.ifsp.lms_api.repository.TentativaArquivoRepository;
 import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
 import br.ifsp.lms_api.repository.TentativaTextoRepository;
-import br.ifsp.lms_api.repository.TopicosRepository;
 import br.ifsp.lms_api.repository.TurmaRepository;
 
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -34,7 +29,6 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.HashSet;
 
 
 @Service
@@ -43,39 +37,48 @@ public class AnaliseDesempenhoService {
     private final TentativaTextoRepository tentativaTextoRepo;
     private final TentativaArquivoRepository tentativaArquivoRepo;
     private final TentativaQuestionarioRepository tentativaQuestionarioRepo;
-    private final TopicosRepository topicosRepo;
+    private final IndiceMaterialSugeridoService indiceMaterialSugeridoService;
     private final TurmaRepository turmaRepo;
     private final DisciplinaRepository disciplinaRepo;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final RelatorioDesempenhoRepository relatorioRepo;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+    private final HistogramaDesempenhoService histogramaDesempenhoService;
 
     private static final double LIMIAR_APROVACAO = 6.0;
 
     public AnaliseDesempenhoService(TentativaTextoRepository tentativaTextoRepo,
                                     TentativaArquivoRepository tentativaArquivoRepo,
                                     TentativaQuestionarioRepository tentativaQuestionarioRepo,
-                                    TopicosRepository topicosRepo,
+                                    IndiceMaterialSugeridoService indiceMaterialSugeridoService,
                                     TurmaRepository turmaRepo,
-                                    DisciplinaRepository disciplinaRepo) {
+                                    DisciplinaRepository disciplinaRepo,
+                                    DesempenhoAgregadoService desempenhoAgregadoService,
+                                    RelatorioDesempenhoRepository relatorioRepo,
+                                    GabaritoQuestionarioService gabaritoQuestionarioService,
+                                    HistogramaDesempenhoService histogramaDesempenhoService) {
         this.tentativaTextoRepo = tentativaTextoRepo;
         this.tentativaArquivoRepo = tentativaArquivoRepo;
         this.tentativaQuestionarioRepo = tentativaQuestionarioRepo;
-        this.topicosRepo = topicosRepo;
+        this.indiceMaterialSugeridoService = indiceMaterialSugeridoService;
         this.turmaRepo = turmaRepo;
         this.disciplinaRepo = disciplinaRepo;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.relatorioRepo = relatorioRepo;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+        this.histogramaDesempenhoService = histogramaDesempenhoService;
     }
 
     @Transactional(readOnly = true)
     public RelatorioDesempenhoResponseDto gerarRelatorioAluno(Long idAluno) {
-        
-        List<NotaTagAgregada> notasColetadas = new ArrayList<>();
-
-        notasColetadas.addAll(coletarNotasDeAtividades(idAluno));
-        notasColetadas.addAll(coletarNotasDeQuestionarios(idAluno));
 
-        List<TagDesempenhoDto> desempenhoGeral = calcularMediasPorTag(notasColetadas); 
+        List<TagDesempenhoDto> desempenhoGeral = desempenhoAgregadoService.buscarDesempenho(idAluno)
+                .orElseGet(() -> materializarDesempenhoAluno(idAluno));
 
         List<TagDesempenhoDto> pontosFracos = filtrarPontosFracos(desempenhoGeral);
 
-        List<MaterialSugeridoDto> sugestoes = buscarSugestoesDeEstudo(pontosFracos);
+        List<MaterialSugeridoDto> sugestoes =
+                indiceMaterialSugeridoService.sugerirParaAluno(idAluno, nomesDasTags(pontosFracos));
 
         RelatorioDesempenhoResponseDto relatorio = new RelatorioDesempenhoResponseDto();
         relatorio.setDesempenhoGeral(desempenhoGeral);
@@ -87,25 +90,22 @@ public class AnaliseDesempenhoService {
 
     @Transactional(readOnly = true)
     public RelatorioDesempenhoResponseDto gerarRelatorioTurma(Long idTurma) {
-        Turma turma = turmaRepo.findById(idTurma)
-                .orElseThrow(() -> new EntityNotFoundException("Turma não encontrada"));
-
-        List<Aluno> alunosDaTurma = turma.getMatriculas().stream()
-                                        .map(Matricula::getAluno)
-                                        .toList();
-
-        List<NotaTagAgregada> notasColetadasDaTurma = new ArrayList<>();
-
-        for (Aluno aluno : alunosDaTurma) {
-            notasColetadasDaTurma.addAll(coletarNotasDeAtividades(aluno.getIdUsuario()));
-            notasColetadasDaTurma.addAll(coletarNotasDeQuestionarios(aluno.getIdUsuario()));
+        if (!turmaRepo.existsById(idTurma)) {
+            throw new EntityNotFoundException("Turma não encontrada");
         }
 
-        List<TagDesempenhoDto> desempenhoGeral = calcularMediasPorTag(notasColetadasDaTurma);
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+        somarResumos(agregador, relatorioRepo.resumirTentativasTextoPorTurma(idTurma));
+        somarResumos(agregador, relatorioRepo.resumirTentativasArquivoPorTurma(idTurma));
+        corrigirQuestionarios(agregador, relatorioRepo.findRespostasQuestionarioPorTurma(idTurma));
+
+        List<TagDesempenhoDto> desempenhoGeral = agregador.paraTagDesempenho();
+        preencherDistribuicao(desempenhoGeral, List.of(idTurma));
 
         List<TagDesempenhoDto> pontosFracos = filtrarPontosFracos(desempenhoGeral);
 
-        List<MaterialSugeridoDto> sugestoes = buscarSugestoesDeEstudo(pontosFracos);
+        List<MaterialSugeridoDto> sugestoes =
+                indiceMaterialSugeridoService.sugerir(List.of(idTurma), nomesDasTags(pontosFracos));
 
         RelatorioDesempenhoResponseDto relatorio = new RelatorioDesempenhoResponseDto();
         relatorio.setDesempenhoGeral(desempenhoGeral);
@@ -118,23 +118,17 @@ public class AnaliseDesempenhoService {
     @Transactional(readOnly = true)
     public RelatorioDesempenhoResponseDto gerarRelatorioDisciplina(Long idDisciplina) {
 
-        Disciplina disciplina = disciplinaRepo.findById(idDisciplina)
-                .orElseThrow(() -> new EntityNotFoundException("Disciplina não encontrada"));
-
-        List<NotaTagAgregada> notasColetadasDaDisciplina = new ArrayList<>();
-
-        for (Turma turma : disciplina.getTurmas()) {
-            
-            for (Matricula matricula : turma.getMatriculas()) {
-                Aluno aluno = matricula.getAluno();
-                if (aluno == null) continue;
-
-                notasColetadasDaDisciplina.addAll(coletarNotasDeAtividades(aluno.getIdUsuario()));
-                notasColetadasDaDisciplina.addAll(coletarNotasDeQuestionarios(aluno.getIdUsuario()));
-            }
+        if (!disciplinaRepo.existsById(idDisciplina)) {
+            throw new EntityNotFoundException("Disciplina não encontrada");
         }
 
-        List<TagDesempenhoDto> desempenhoGeral = calcularMediasPorTag(notasColetadasDaDisciplina);
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+        somarResumos(agregador, relatorioRepo.resumirTentativasTextoPorDisciplina(idDisciplina));
+        somarResumos(agregador, relatorioRepo.resumirTentativasArquivoPorDisciplina(idDisciplina));
+        corrigirQuestionarios(agregador, relatorioRepo.findRespostasQuestionarioPorDisciplina(idDisciplina));
+
+        List<TagDesempenhoDto> desempenhoGeral = agregador.paraTagDesempenho();
+        preencherDistribuicao(desempenhoGeral, turmaRepo.findIdsByIdDisciplina(idDisciplina));
 
         List<TagDesempenhoDto> pontosFracos = filtrarPontosFracos(desempenhoGeral);
 
@@ -146,9 +140,83 @@ public class AnaliseDesempenhoService {
         return relatorio;
     }
 
-    private List<NotaTagAgregada> coletarNotasDeAtividades(Long idAluno) {
-        List<NotaTagAgregada> notasAgregadas = new ArrayList<>();
+    private static void somarResumos(AgregadorNotasTag agregador, List<ResumoNotaTag> resumos) {
+        for (ResumoNotaTag resumo : resumos) {
+            agregador.somar(resumo);
+        }
+    }
+
+    // As respostas ficam serializadas na tentativa, então a correção por questão
+    // é feita aqui, com os gabaritos de todas as tentativas buscados de uma vez
+    // (o fixo de cada questionário ou o das questões sorteadas).
+    // Cada nota vai direto para o agregador, sem objeto intermediário.
+    private void corrigirQuestionarios(AgregadorNotasTag agregador, List<RespostasQuestionario> tentativas) {
+        if (tentativas.isEmpty()) {
+            return;
+        }
+
+        List<GabaritoQuestionario> gabaritos = gabaritoQuestionarioService.obterParaTentativas(tentativas,
+                RespostasQuestionario::getIdQuestionario, RespostasQuestionario::getQuestoesSorteadas);
+
+        for (int i = 0; i < tentativas.size(); i++) {
+            gabaritos.get(i).corrigirPorTag(
+                    GabaritoQuestionario.ordenarRespostas(tentativas.get(i).getRespostas()), agregador);
+        }
+    }
+
+    // O relatório da disciplina soma os histogramas das turmas em vez de
+    // reprocessar as tentativas; só turmas ainda sem histograma são calculadas.
+    private void preencherDistribuicao(List<TagDesempenhoDto> desempenhoGeral, List<Long> idsTurmas) {
+        List<Long> naoMaterializadas = histogramaDesempenhoService.turmasNaoMaterializadas(idsTurmas);
+
+        List<FaixaNotaTag> faixas = new ArrayList<>(histogramaDesempenhoService.buscarFaixas(idsTurmas.stream()
+                .filter(idTurma -> !naoMaterializadas.contains(idTurma))
+                .toList()));
+
+        for (Long idTurma : naoMaterializadas) {
+            long geracao = histogramaDesempenhoService.geracaoTurma(idTurma);
+            List<FaixaNotaTag> faixasDaTurma = histogramaDesempenhoService.calcularFaixasDaTurma(idTurma);
+            faixas.addAll(faixasDaTurma);
+            try {
+                histogramaDesempenhoService.materializarTurma(idTurma, faixasDaTurma, geracao);
+                histogramaDesempenhoService.descartarSeAlterada(idTurma, geracao);
+            } catch (DataIntegrityViolationException e) {
+                // outra requisição materializou a mesma turma primeiro
+            }
+        }
+
+        Map<String, HistogramaNotas> histogramas = HistogramaDesempenhoService.agruparPorTag(faixas);
+
+        for (TagDesempenhoDto dto : desempenhoGeral) {
+            HistogramaNotas histograma = histogramas.get(dto.getNomeTag());
+            if (histograma == null || histograma.getTotal() == 0) continue;
+
+            dto.setMediana(histograma.mediana());
+            dto.setPercentil10(histograma.percentil(0.1));
+            dto.setPercentil90(histograma.percentil(0.9));
+            dto.setFracaoAbaixoAprovacao(histograma.fracaoAbaixo(LIMIAR_APROVACAO));
+        }
+    }
+
+    private List<TagDesempenhoDto> materializarDesempenhoAluno(Long idAluno) {
+
+        long geracao = desempenhoAgregadoService.geracaoAluno(idAluno);
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+
+        coletarNotasDeAtividades(idAluno, agregador);
+        coletarNotasDeQuestionarios(idAluno, agregador);
 
+        try {
+            desempenhoAgregadoService.materializar(idAluno, agregador, geracao);
+            desempenhoAgregadoService.descartarSeAlterado(idAluno, geracao);
+        } catch (DataIntegrityViolationException e) {
+            // outra requisição materializou o mesmo aluno primeiro
+        }
+
+        return agregador.paraTagDesempenho();
+    }
+
+    private void coletarNotasDeAtividades(Long idAluno, AgregadorNotasTag agregador) {
         List<TentativaTexto> tentativasTexto = tentativaTextoRepo.findByAluno_IdUsuario(idAluno, Pageable.unpaged()).getContent();
         
         for (TentativaTexto tentativa : tentativasTexto) {
@@ -156,7 +224,7 @@ public class AnaliseDesempenhoService {
                 double nota = tentativa.getNota();
                 Set<Tag> tags = tentativa.getAtividadeTexto().getTags();
                 for (Tag tag : tags) {
-                    notasAgregadas.add(new NotaTagAgregada(tag.getNome(), nota));
+                    agregador.registrar(tag.getIdTag(), tag.getNome(), nota);
                 }
             }
         }
@@ -168,75 +236,28 @@ public class AnaliseDesempenhoService {
                 double nota = tentativa.getNota();
                 Set<Tag> tags = tentativa.getAtividadeArquivo().getTags();
                 for (Tag tag : tags) {
-                    notasAgregadas.add(new NotaTagAgregada(tag.getNome(), nota));
+                    agregador.registrar(tag.getIdTag(), tag.getNome(), nota);
                 }
             }
         }
-        
-        return notasAgregadas;
     }
 
-    private List<NotaTagAgregada> coletarNotasDeQuestionarios(Long idAluno) {
-        List<NotaTagAgregada> notasAgregadas = new ArrayList<>();
-
+    private void coletarNotasDeQuestionarios(Long idAluno, AgregadorNotasTag agregador) {
         List<TentativaQuestionario> tentativasQuest = tentativaQuestionarioRepo.findByAluno_IdUsuario(idAluno, Pageable.unpaged()).getContent();
 
-        for (TentativaQuestionario tentativa : tentativasQuest) {
-            List<Questoes> questoesDoQuestionario = tentativa.getAtividadeQuestionario().getQuestoes();
-            List<Long> respostasDoAluno = tentativa.getRespostas();
-
-            for (Questoes questao : questoesDoQuestionario) {
-                
-                Long idAlternativaCorreta = null;
-                for (Alternativas alt : questao.getAlternativas()) {
-                    if (alt.getAlternativaCorreta()) {
-                        idAlternativaCorreta = alt.getIdAlternativa();
-                        break;
-                    }
-                }
-                
-                if (idAlternativaCorreta == null) continue;
-
-                double notaDaQuestao = 0.0; 
-                if (respostasDoAluno.contains(idAlternativaCorreta)) {
-                    notaDaQuestao = 10.0; 
-                }
-
-                Set<Tag> tagsDaQuestao = questao.getTags();
-                for (Tag tag : tagsDaQuestao) {
-                    notasAgregadas.add(new NotaTagAgregada(tag.getNome(), notaDaQuestao));
-                }
-            }
+        if (tentativasQuest.isEmpty()) {
+            return;
         }
-        
-        return notasAgregadas;
-    }
-
-    private List<TagDesempenhoDto> calcularMediasPorTag(List<NotaTagAgregada> notasColetadas) {
 
-        Map<String, List<NotaTagAgregada>> notasAgrupadas = notasColetadas.stream()
-                .collect(Collectors.groupingBy(NotaTagAgregada::getNomeTag));
+        List<GabaritoQuestionario> gabaritos = gabaritoQuestionarioService.obterParaTentativas(tentativasQuest,
+                tentativa -> tentativa.getAtividadeQuestionario().getIdAtividade(),
+                TentativaQuestionario::getQuestoesSorteadas);
 
-        List<TagDesempenhoDto> desempenhoGeral = new ArrayList<>();
+        for (int i = 0; i < tentativasQuest.size(); i++) {
+            long[] respostasOrdenadas = GabaritoQuestionario.ordenarRespostas(tentativasQuest.get(i).getRespostas());
 
-        for (Map.Entry<String, List<NotaTagAgregada>> entry : notasAgrupadas.entrySet()) {
-            String nomeTag = entry.getKey();
-            List<NotaTagAgregada> notasDaTag = entry.getValue();
-
-            double media = notasDaTag.stream()
-                    .mapToDouble(NotaTagAgregada::getNota)
-                    .average()
-                    .orElse(0.0);
-
-            TagDesempenhoDto dto = new TagDesempenhoDto();
-            dto.setNomeTag(nomeTag);
-            dto.setTotalAvaliacoes(notasDaTag.size());
-            dto.setMediaNota(media);
-
-            desempenhoGeral.add(dto);
+            gabaritos.get(i).corrigirPorTag(respostasOrdenadas, agregador);
         }
-
-        return desempenhoGeral;
     }
 
     private List<TagDesempenhoDto> filtrarPontosFracos(List<TagDesempenhoDto> desempenhoGeral) {
@@ -246,32 +267,9 @@ public class AnaliseDesempenhoService {
                 .toList();
     }
 
-    private List<MaterialSugeridoDto> buscarSugestoesDeEstudo(List<TagDesempenhoDto> pontosFracos) {
-
-        Set<String> nomesTagsFracas = pontosFracos.stream()
+    private static Set<String> nomesDasTags(List<TagDesempenhoDto> pontosFracos) {
+        return pontosFracos.stream()
                 .map(TagDesempenhoDto::getNomeTag)
                 .collect(Collectors.toSet());
-
-        if (nomesTagsFracas.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        List<Topicos> topicosSugeridos = topicosRepo.findByTags_NomeIn(nomesTagsFracas);
-
-        Set<MaterialSugeridoDto> sugestoesUnicas = new HashSet<>();
-
-        for (Topicos topico : topicosSugeridos) {
-            for (MaterialDeAula material : topico.getMateriaisDeAula()) {
-
-                MaterialSugeridoDto dto = new MaterialSugeridoDto();
-                dto.setNomeTopicoRelacionado(topico.getTituloTopico());
-                dto.setNomeMaterial(material.getNomeArquivo());
-                dto.setUrlMaterial(material.getUrlArquivo());
-
-                sugestoesUnicas.add(dto);
-            }
-        }
-
-        return new ArrayList<>(sugestoesUnicas);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,239 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.dto.analise.AlternativaQuestao;
+import br.ifsp.lms_api.dto.analise.AnaliseItemDto;
+import br.ifsp.lms_api.dto.analise.AnaliseItensResponseDto;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.dto.analise.TaxaEscolhaAlternativaDto;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+
+@Service
+public class AnaliseItemService {
+
+    private static final double FRACAO_GRUPO_EXTREMO = 0.27;
+
+    private final AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+    private final RelatorioDesempenhoRepository relatorioRepo;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    public AnaliseItemService(AtividadeQuestionarioRepository atividadeQuestionarioRepository,
+                              RelatorioDesempenhoRepository relatorioRepo,
+                              GabaritoQuestionarioService gabaritoQuestionarioService) {
+        this.atividadeQuestionarioRepository = atividadeQuestionarioRepository;
+        this.relatorioRepo = relatorioRepo;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+    }
+
+    @Transactional(readOnly = true)
+    public AnaliseItensResponseDto analisarItens(Long idQuestionario) {
+        if (!atividadeQuestionarioRepository.existsById(idQuestionario)) {
+            throw new ResourceNotFoundException("Questionário não encontrado com ID: " + idQuestionario);
+        }
+
+        Set<Long> sorteadas = new TreeSet<>();
+        try (Stream<List<Long>> sorteios = relatorioRepo.streamQuestoesSorteadasPorQuestionario(idQuestionario)) {
+            sorteios.forEach(sorteadas::addAll);
+        }
+
+        GabaritoQuestionario gabarito;
+        List<AlternativaQuestao> alternativas;
+        if (sorteadas.isEmpty()) {
+            gabarito = gabaritoQuestionarioService.obter(idQuestionario);
+            alternativas = atividadeQuestionarioRepository.findAlternativas(idQuestionario);
+        } else {
+            // com sorteio os itens são as questões que já saíram em alguma
+            // tentativa, e cada uma só conta nas tentativas em que apareceu
+            List<Long> idsQuestoes = new ArrayList<>(sorteadas);
+            gabarito = gabaritoQuestionarioService.obterParaSorteio(idQuestionario, idsQuestoes);
+            alternativas = atividadeQuestionarioRepository.findAlternativasDasQuestoes(idsQuestoes);
+        }
+
+        ContadoresItens contadores = new ContadoresItens(gabarito, alternativas);
+
+        try (Stream<RespostasQuestionario> tentativas = relatorioRepo.streamRespostasPorQuestionario(idQuestionario)) {
+            tentativas.forEach(tentativa -> contadores.registrar(
+                    GabaritoQuestionario.ordenarRespostas(tentativa.getRespostas()), tentativa.getQuestoesSorteadas()));
+        }
+
+        return contadores.montarResposta(idQuestionario, alternativas);
+    }
+
+    // Contadores primitivos da passada única: por tentativa guarda só o total de
+    // acertos e bitsets das questões apresentadas e acertadas, o suficiente
+    // para separar os grupos superior e inferior depois.
+    private static final class ContadoresItens {
+
+        private final GabaritoQuestionario gabarito;
+        private final int quantidadeQuestoes;
+        private final int palavrasPorTentativa;
+        private final long[] idsAlternativas;
+        private final int[] escolhasPorAlternativa;
+        private final int[] acertosPorQuestao;
+        private final int[] apresentacoesPorQuestao;
+
+        private int totalTentativas;
+        private int[] pontuacoes = new int[64];
+        private long[] questoesAcertadas;
+        private long[] questoesApresentadas;
+
+        ContadoresItens(GabaritoQuestionario gabarito, List<AlternativaQuestao> alternativas) {
+            this.gabarito = gabarito;
+            this.quantidadeQuestoes = gabarito.getQuantidadeQuestoes();
+            this.palavrasPorTentativa = (quantidadeQuestoes + 63) >>> 6;
+            this.idsAlternativas = alternativas.stream().mapToLong(AlternativaQuestao::getIdAlternativa).sorted().toArray();
+            this.escolhasPorAlternativa = new int[idsAlternativas.length];
+            this.acertosPorQuestao = new int[quantidadeQuestoes];
+            this.apresentacoesPorQuestao = new int[quantidadeQuestoes];
+            this.questoesAcertadas = new long[pontuacoes.length * palavrasPorTentativa];
+            this.questoesApresentadas = new long[pontuacoes.length * palavrasPorTentativa];
+        }
+
+        // questoesSorteadas null: a tentativa viu todas as questões do gabarito.
+        void registrar(long[] respostasOrdenadas, List<Long> questoesSorteadas) {
+            if (totalTentativas == pontuacoes.length) {
+                pontuacoes = Arrays.copyOf(pontuacoes, pontuacoes.length * 2);
+                questoesAcertadas = Arrays.copyOf(questoesAcertadas, pontuacoes.length * palavrasPorTentativa);
+                questoesApresentadas = Arrays.copyOf(questoesApresentadas, pontuacoes.length * palavrasPorTentativa);
+            }
+
+            int base = totalTentativas * palavrasPorTentativa;
+            if (questoesSorteadas == null) {
+                for (int questao = 0; questao < quantidadeQuestoes; questao++) {
+                    questoesApresentadas[base + (questao >>> 6)] |= 1L << questao;
+                }
+            } else {
+                for (Long idQuestao : questoesSorteadas) {
+                    int questao = gabarito.indiceDaQuestao(idQuestao);
+                    if (questao >= 0) {
+                        questoesApresentadas[base + (questao >>> 6)] |= 1L << questao;
+                    }
+                }
+            }
+
+            int acertos = 0;
+            long[] marcadas = gabarito.marcar(respostasOrdenadas);
+            for (int questao = 0; questao < quantidadeQuestoes; questao++) {
+                if (!contem(questoesApresentadas, base, questao)) {
+                    continue;
+                }
+                apresentacoesPorQuestao[questao]++;
+                if (gabarito.acertouMarcadas(questao, marcadas)) {
+                    acertosPorQuestao[questao]++;
+                    questoesAcertadas[base + (questao >>> 6)] |= 1L << questao;
+                    acertos++;
+                }
+            }
+
+            long anterior = Long.MIN_VALUE;
+            for (long idResposta : respostasOrdenadas) {
+                if (idResposta == anterior) continue;
+                anterior = idResposta;
+
+                int posicao = Arrays.binarySearch(idsAlternativas, idResposta);
+                if (posicao >= 0) {
+                    escolhasPorAlternativa[posicao]++;
+                }
+            }
+
+            pontuacoes[totalTentativas++] = acertos;
+        }
+
+        AnaliseItensResponseDto montarResposta(Long idQuestionario, List<AlternativaQuestao> alternativas) {
+            int tamanhoGrupo = (int) Math.round(totalTentativas * FRACAO_GRUPO_EXTREMO);
+            int[] acertosSuperior = new int[quantidadeQuestoes];
+            int[] acertosInferior = new int[quantidadeQuestoes];
+            int[] apresentacoesSuperior = new int[quantidadeQuestoes];
+            int[] apresentacoesInferior = new int[quantidadeQuestoes];
+
+            if (tamanhoGrupo > 0) {
+                // pontuação nos 32 bits altos e índice da tentativa nos baixos
+                long[] ordem = new long[totalTentativas];
+                for (int i = 0; i < totalTentativas; i++) {
+                    ordem[i] = ((long) pontuacoes[i] << 32) | i;
+                }
+                Arrays.sort(ordem);
+
+                for (int k = 0; k < tamanhoGrupo; k++) {
+                    contarAcertos((int) ordem[k], acertosInferior, apresentacoesInferior);
+                    contarAcertos((int) ordem[totalTentativas - 1 - k], acertosSuperior, apresentacoesSuperior);
+                }
+            }
+
+            Map<Long, List<AlternativaQuestao>> alternativasPorQuestao = new LinkedHashMap<>();
+            for (AlternativaQuestao alternativa : alternativas) {
+                alternativasPorQuestao.computeIfAbsent(alternativa.getIdQuestao(), id -> new ArrayList<>()).add(alternativa);
+            }
+
+            List<AnaliseItemDto> itens = new ArrayList<>();
+            for (int questao = 0; questao < quantidadeQuestoes; questao++) {
+                List<AlternativaQuestao> alternativasDaQuestao =
+                        alternativasPorQuestao.getOrDefault(gabarito.getIdQuestao(questao), List.of());
+
+                AnaliseItemDto item = new AnaliseItemDto();
+                item.setIdQuestao(gabarito.getIdQuestao(questao));
+                item.setEnunciado(alternativasDaQuestao.isEmpty() ? null : alternativasDaQuestao.get(0).getEnunciado());
+
+                int apresentacoes = apresentacoesPorQuestao[questao];
+                if (apresentacoes > 0 && gabarito.possuiAlternativaCorreta(questao)) {
+                    item.setIndiceDificuldade((double) acertosPorQuestao[questao] / apresentacoes);
+                }
+                if (apresentacoesSuperior[questao] > 0 && apresentacoesInferior[questao] > 0
+                        && gabarito.possuiAlternativaCorreta(questao)) {
+                    // proporções dentro de cada grupo: com sorteio os grupos
+                    // não viram a questão o mesmo número de vezes
+                    item.setIndiceDiscriminacao(
+                            (double) acertosSuperior[questao] / apresentacoesSuperior[questao]
+                                    - (double) acertosInferior[questao] / apresentacoesInferior[questao]);
+                }
+
+                List<TaxaEscolhaAlternativaDto> taxas = new ArrayList<>();
+                for (AlternativaQuestao alternativa : alternativasDaQuestao) {
+                    int escolhas = escolhasPorAlternativa[Arrays.binarySearch(idsAlternativas, alternativa.getIdAlternativa())];
+
+                    TaxaEscolhaAlternativaDto taxa = new TaxaEscolhaAlternativaDto();
+                    taxa.setIdAlternativa(alternativa.getIdAlternativa());
+                    taxa.setAlternativa(alternativa.getAlternativa());
+                    taxa.setAlternativaCorreta(alternativa.getAlternativaCorreta());
+                    taxa.setTotalEscolhas(escolhas);
+                    taxa.setTaxaEscolha(apresentacoes > 0 ? (double) escolhas / apresentacoes : null);
+                    taxas.add(taxa);
+                }
+                item.setAlternativas(taxas);
+
+                itens.add(item);
+            }
+
+            return new AnaliseItensResponseDto(idQuestionario, totalTentativas, itens);
+        }
+
+        private void contarAcertos(int tentativa, int[] acertos, int[] apresentacoes) {
+            int base = tentativa * palavrasPorTentativa;
+            for (int questao = 0; questao < quantidadeQuestoes; questao++) {
+                if (contem(questoesApresentadas, base, questao)) {
+                    apresentacoes[questao]++;
+                }
+                if (contem(questoesAcertadas, base, questao)) {
+                    acertos[questao]++;
+                }
+            }
+        }
+
+        private static boolean contem(long[] bitset, int base, int questao) {
+            return (bitset[base + (questao >>> 6)] & (1L << questao)) != 0;
+        }
+    }
+}
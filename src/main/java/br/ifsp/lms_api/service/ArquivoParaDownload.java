@@ -0,0 +1,21 @@
+package br.ifsp.lms_api.service;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Arquivo já autorizado para download, com o que o ArquivoController precisa
+// para responder Range e GET condicional sem voltar ao banco. etag é o
+// SHA-256 do conteúdo, sem aspas.
+@Getter
+@AllArgsConstructor
+public class ArquivoParaDownload {
+
+    private final Path caminho;
+    private final String nomeArquivo;
+    private final String tipoArquivo;
+    private final long tamanho;
+    private final long ultimaModificacao;
+    private final String etag;
+}
@@ -0,0 +1,16 @@
+package br.ifsp.lms_api.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Resultado de uma gravação no StorageService: o arquivo já está no lugar
+// final, com o tamanho e o SHA-256 (hex) medidos durante a cópia.
+@Getter
+@AllArgsConstructor
+public class ArquivoRecebido {
+
+    private final String nomeArmazenado;
+    private final String urlArquivo;
+    private final long tamanho;
+    private final String sha256;
+}
@@ -35,6 +35,8 @@ public class AtividadeArquivosService {
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
     private final TagRepository tagRepository;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final JanelaAtividadeService janelaAtividadeService;
 
     private static final String NOT_FOUND_MSG = "Atividade de Arquivos com ID %d não encontrada.";
     private static final String TOPICO_NOT_FOUND_MSG = "Tópico com ID %d não encontrado.";
@@ -43,12 +45,16 @@ public class AtividadeArquivosService {
                                     TopicosRepository topicosRepository,
                                     ModelMapper modelMapper,
                                     PagedResponseMapper pagedResponseMapper,
-                                    TagRepository tagRepository) {
+                                    TagRepository tagRepository,
+                                    DesempenhoAgregadoService desempenhoAgregadoService,
+                                    JanelaAtividadeService janelaAtividadeService) {
         this.atividadeArquivosRepository = atividadeArquivosRepository;
         this.topicosRepository = topicosRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
         this.tagRepository = tagRepository;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.janelaAtividadeService = janelaAtividadeService;
     }
 
     @Transactional
@@ -95,6 +101,7 @@ public class AtividadeArquivosService {
         checkProfessorOwnership(atividade.getTopico(), idUsuarioLogado);
 
         applyUpdateFromDto(atividade, dto);
+        janelaAtividadeService.invalidar(idAtividade);
 
         AtividadeArquivos updatedAtividade = atividadeArquivosRepository.save(atividade);
         return modelMapper.map(updatedAtividade, AtividadeArquivosResponseDto.class);
@@ -107,6 +114,7 @@ public class AtividadeArquivosService {
         checkProfessorOwnership(atividade.getTopico(), idUsuarioLogado);
 
         atividadeArquivosRepository.delete(atividade);
+        janelaAtividadeService.invalidar(id);
     }
 
     private AtividadeArquivos findEntityById(Long id) {
@@ -135,6 +143,7 @@ public class AtividadeArquivosService {
                 List<Tag> tags = tagRepository.findAllById(tagIds);
                 atividade.setTags(new HashSet<>(tags));
             }
+            desempenhoAgregadoService.invalidarAtividades(List.of(atividade.getIdAtividade()));
         });
     }
 }
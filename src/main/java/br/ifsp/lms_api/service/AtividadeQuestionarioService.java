@@ -19,6 +19,7 @@ import br.ifsp.lms_api.exception.AccessDeniedException;
 import br.ifsp.lms_api.exception.ResourceNotFoundException;
 import br.ifsp.lms_api.mapper.PagedResponseMapper;
 import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
 import br.ifsp.lms_api.model.Questoes;
 import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
 import br.ifsp.lms_api.repository.QuestoesRepository;
@@ -30,14 +31,26 @@ public class AtividadeQuestionarioService {
     private final QuestoesRepository questoesRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+    private final RecorrecaoQuestionarioService recorrecaoQuestionarioService;
+    private final JanelaAtividadeService janelaAtividadeService;
 
     private static final String NOT_FOUND_MSG = "Atividade de Texto com ID %d não encontrada.";
 
-    public AtividadeQuestionarioService(AtividadeQuestionarioRepository atividadeQuestionarioRepository, QuestoesRepository questoesRepository, ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper) {
+    public AtividadeQuestionarioService(AtividadeQuestionarioRepository atividadeQuestionarioRepository, QuestoesRepository questoesRepository, ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper,
+            DesempenhoAgregadoService desempenhoAgregadoService,
+            GabaritoQuestionarioService gabaritoQuestionarioService,
+            RecorrecaoQuestionarioService recorrecaoQuestionarioService,
+            JanelaAtividadeService janelaAtividadeService) {
         this.atividadeQuestionarioRepository = atividadeQuestionarioRepository;
         this.questoesRepository = questoesRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+        this.recorrecaoQuestionarioService = recorrecaoQuestionarioService;
+        this.janelaAtividadeService = janelaAtividadeService;
     }
 
     @Transactional
@@ -84,7 +97,16 @@ public PagedResponse<AtividadeQuestionarioResponseDto> getAllAtividadesQuestiona
             throw new AccessDeniedException("Acesso negado");
         }
 
+        EstrategiaCorrecao estrategiaAnterior = atividadeQuestionario.getEstrategiaCorrecao();
         applyUpdateFromDto(atividadeQuestionario, atividadeQuestionarioUpdateDto);
+        janelaAtividadeService.invalidar(id);
+
+        // Outra estratégia muda a nota de quem já respondeu.
+        if (EstrategiaCorrecao.ouPadrao(estrategiaAnterior) != EstrategiaCorrecao.ouPadrao(atividadeQuestionario.getEstrategiaCorrecao())) {
+            desempenhoAgregadoService.invalidarAtividades(List.of(id));
+            gabaritoQuestionarioService.invalidar(id);
+            recorrecaoQuestionarioService.agendarAposCommit(id);
+        }
 
         return modelMapper.map(atividadeQuestionarioRepository.save(atividadeQuestionario), AtividadeQuestionarioResponseDto.class);
     }
@@ -106,6 +128,8 @@ public PagedResponse<AtividadeQuestionarioResponseDto> getAllAtividadesQuestiona
         }
 
         questionario.getQuestoes().addAll(questoesParaAdicionar);
+        desempenhoAgregadoService.invalidarAtividades(List.of(idQuestionario));
+        gabaritoQuestionarioService.invalidar(idQuestionario);
 
         AtividadeQuestionario entidadeSalva = atividadeQuestionarioRepository.save(questionario);
 
@@ -141,6 +165,8 @@ public PagedResponse<AtividadeQuestionarioResponseDto> getAllAtividadesQuestiona
         }
 
         questionario.getQuestoes().removeAll(questoesParaRemover);
+        desempenhoAgregadoService.invalidarAtividades(List.of(idQuestionario));
+        gabaritoQuestionarioService.invalidar(idQuestionario);
 
         AtividadeQuestionario questionarioSalvo = atividadeQuestionarioRepository.save(questionario);
 
@@ -159,6 +185,9 @@ public PagedResponse<AtividadeQuestionarioResponseDto> getAllAtividadesQuestiona
             throw new AccessDeniedException("Acesso negado");
         }
 
+        desempenhoAgregadoService.invalidarAtividades(List.of(idQuestionario));
+        gabaritoQuestionarioService.invalidar(idQuestionario);
+
         return modelMapper.map(atividadeQuestionarioRepository.save(questionario), AtividadeQuestionarioResponseDto.class);
 
 
@@ -179,5 +208,8 @@ public PagedResponse<AtividadeQuestionarioResponseDto> getAllAtividadesQuestiona
         dto.getStatusAtividade().ifPresent(atividade::setStatusAtividade);
         dto.getNumeroTentativas().ifPresent(atividade::setNumeroTentativas);
         dto.getDuracaoQuestionario().ifPresent(atividade::setDuracaoQuestionario);
+        dto.getIdTagSorteio().ifPresent(atividade::setIdTagSorteio);
+        dto.getQuantidadeSorteada().ifPresent(atividade::setQuantidadeSorteada);
+        dto.getEstrategiaCorrecao().ifPresent(atividade::setEstrategiaCorrecao);
     }
 }
@@ -28,17 +28,23 @@ public class AtividadeTextoService {
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
     private final TagRepository tagRepository;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final JanelaAtividadeService janelaAtividadeService;
 
     private static final String NOT_FOUND_MSG = "Atividade de Texto com ID %d não encontrada.";
 
     public AtividadeTextoService(AtividadeTextoRepository atividadeTextoRepository, 
                                  ModelMapper modelMapper, 
                                  PagedResponseMapper pagedResponseMapper,
-                                 TagRepository tagRepository) {
+                                 TagRepository tagRepository,
+                                 DesempenhoAgregadoService desempenhoAgregadoService,
+                                 JanelaAtividadeService janelaAtividadeService) {
         this.atividadeTextoRepository = atividadeTextoRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
         this.tagRepository = tagRepository;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.janelaAtividadeService = janelaAtividadeService;
     }
 
 
@@ -83,6 +89,7 @@ public class AtividadeTextoService {
         }
 
         applyUpdateFromDto(atividade, dto);
+        janelaAtividadeService.invalidar(id);
 
         AtividadeTexto updatedAtividade = atividadeTextoRepository.save(atividade);
 
@@ -93,6 +100,7 @@ public class AtividadeTextoService {
     public void deleteAtividadeTexto(Long id) {
         AtividadeTexto atividade = findEntityById(id);
         atividadeTextoRepository.delete(atividade);
+        janelaAtividadeService.invalidar(id);
     }
 
     private AtividadeTexto findEntityById(Long id) {
@@ -115,6 +123,7 @@ public class AtividadeTextoService {
                 List<Tag> tags = tagRepository.findAllById(tagIds);
                 atividade.setTags(new HashSet<>(tags));
             }
+            desempenhoAgregadoService.invalidarAtividades(List.of(atividade.getIdAtividade()));
         });
     }
 }
\ No newline at end of file
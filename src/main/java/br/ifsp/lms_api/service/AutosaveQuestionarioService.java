@@ -0,0 +1,70 @@
+package br.ifsp.lms_api.service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.ifsp.lms_api.service.SessaoQuestionarioService.SessaoAberta;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Grava em segundo plano as respostas salvas automaticamente nas sessões de
+// questionário. A cada intervalo grava no máximo `lote` sessões, então o
+// número de escritas por segundo não depende de quantos alunos estão salvando
+// nem de quantas vezes cada um salvou.
+@Service
+public class AutosaveQuestionarioService {
+
+    private final SessaoQuestionarioService sessaoQuestionarioService;
+    private final long intervaloMs;
+    private final int lote;
+    private final ScheduledExecutorService agendador;
+
+    public AutosaveQuestionarioService(SessaoQuestionarioService sessaoQuestionarioService,
+                                       @Value("${questionario.autosave.intervalo-ms:2000}") long intervaloMs,
+                                       @Value("${questionario.autosave.lote:500}") int lote) {
+        this.sessaoQuestionarioService = sessaoQuestionarioService;
+        this.intervaloMs = intervaloMs;
+        this.lote = lote;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "autosave-questionario");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        agendador.scheduleWithFixedDelay(this::gravarLote, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    // No desligamento grava o que ainda estiver pendente.
+    @PreDestroy
+    public void encerrar() {
+        agendador.shutdownNow();
+        while (sessaoQuestionarioService.temRespostasPendentes()) {
+            if (!gravarLote()) {
+                return;
+            }
+        }
+    }
+
+    boolean gravarLote() {
+        List<SessaoAberta> pendentes = sessaoQuestionarioService.retirarPendentes(lote);
+        if (pendentes.isEmpty()) {
+            return true;
+        }
+        try {
+            sessaoQuestionarioService.gravarRespostas(pendentes);
+            return true;
+        } catch (RuntimeException e) {
+            // uma falha não pode matar o agendamento; o lote volta para a fila
+            sessaoQuestionarioService.devolverPendentes(pendentes);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package br.ifsp.lms_api.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.Atividade;
+import br.ifsp.lms_api.model.DesempenhoAluno;
+import br.ifsp.lms_api.model.DesempenhoAlunoTag;
+import br.ifsp.lms_api.model.Tag;
+import br.ifsp.lms_api.model.TentativaQuestionario;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.DesempenhoAlunoRepository;
+import br.ifsp.lms_api.repository.DesempenhoAlunoTagRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+
+@Service
+public class DesempenhoAgregadoService {
+
+    private final DesempenhoAlunoRepository desempenhoAlunoRepository;
+    private final DesempenhoAlunoTagRepository desempenhoAlunoTagRepository;
+    private final HistogramaDesempenhoService histogramaDesempenhoService;
+    private final DesempenhoSemanalService desempenhoSemanalService;
+    private final VersaoDadosAnaliseService versaoDadosAnaliseService;
+    private final RankingDesempenhoService rankingDesempenhoService;
+    private final RelatorioDesempenhoRepository relatorioDesempenhoRepository;
+    private final MatriculaRepository matriculaRepository;
+    private final AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+
+    private final GeracoesMaterializacao geracoes = new GeracoesMaterializacao();
+
+    public DesempenhoAgregadoService(DesempenhoAlunoRepository desempenhoAlunoRepository,
+                                     DesempenhoAlunoTagRepository desempenhoAlunoTagRepository,
+                                     HistogramaDesempenhoService histogramaDesempenhoService,
+                                     DesempenhoSemanalService desempenhoSemanalService,
+                                     VersaoDadosAnaliseService versaoDadosAnaliseService,
+                                     RankingDesempenhoService rankingDesempenhoService,
+                                     RelatorioDesempenhoRepository relatorioDesempenhoRepository,
+                                     MatriculaRepository matriculaRepository,
+                                     AtividadeQuestionarioRepository atividadeQuestionarioRepository) {
+        this.desempenhoAlunoRepository = desempenhoAlunoRepository;
+        this.desempenhoAlunoTagRepository = desempenhoAlunoTagRepository;
+        this.histogramaDesempenhoService = histogramaDesempenhoService;
+        this.desempenhoSemanalService = desempenhoSemanalService;
+        this.versaoDadosAnaliseService = versaoDadosAnaliseService;
+        this.rankingDesempenhoService = rankingDesempenhoService;
+        this.relatorioDesempenhoRepository = relatorioDesempenhoRepository;
+        this.matriculaRepository = matriculaRepository;
+        this.atividadeQuestionarioRepository = atividadeQuestionarioRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<List<TagDesempenhoDto>> buscarDesempenho(Long idAluno) {
+        if (!desempenhoAlunoRepository.existsById(idAluno)) {
+            return Optional.empty();
+        }
+
+        List<TagDesempenhoDto> desempenho = desempenhoAlunoTagRepository.findResumoByIdAluno(idAluno).stream()
+                .map(DesempenhoAgregadoService::paraTagDesempenho)
+                .toList();
+
+        return Optional.of(desempenho);
+    }
+
+    // Lida antes de coletar as notas que vão para materializar.
+    public long geracaoAluno(Long idAluno) {
+        return geracoes.ler(idAluno);
+    }
+
+    // Transação própria: o relatório continua readOnly e, se outra requisição
+    // materializar o mesmo aluno ao mesmo tempo, só esta escrita é desfeita.
+    // Depois do commit quem chamou confere com descartarSeAlterado.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void materializar(Long idAluno, AgregadorNotasTag notas, long geracao) {
+        if (!geracoes.continuaValida(idAluno, geracao)) {
+            return;
+        }
+
+        desempenhoAlunoTagRepository.deleteByIdAluno(idAluno);
+
+        List<DesempenhoAlunoTag> agregados = new ArrayList<>(notas.getQuantidadeTags());
+        for (int i = 0; i < notas.getQuantidadeTags(); i++) {
+            agregados.add(new DesempenhoAlunoTag(null, idAluno, notas.getIdTag(i), notas.getSomaNotas(i),
+                    notas.getQuantidadeNotas(i), notas.getNotaMinima(i), notas.getNotaMaxima(i)));
+        }
+
+        desempenhoAlunoTagRepository.saveAll(agregados);
+        desempenhoAlunoRepository.save(new DesempenhoAluno(idAluno, LocalDateTime.now()));
+    }
+
+    // Uma nota registrada enquanto o aluno era materializado pode ter visto o
+    // aluno ainda sem marcador e ficado fora do incremental; nesse caso o que
+    // foi gravado sai e o aluno é reconstruído na próxima leitura.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void descartarSeAlterado(Long idAluno, long geracao) {
+        if (!geracoes.continuaValida(idAluno, geracao)) {
+            descartarAgregadosDoAluno(idAluno);
+        }
+    }
+
+    @Transactional
+    public void registrarCorrecao(Aluno aluno, Atividade atividade, LocalDateTime dataEnvio,
+                                  Double notaAnterior, Double notaNova) {
+        if (aluno == null || atividade == null || Objects.equals(notaAnterior, notaNova)) {
+            return;
+        }
+
+        Long idAluno = aluno.getIdUsuario();
+        List<Long> idsTags = atividade.getTags().stream().map(Tag::getIdTag).toList();
+
+        histogramaDesempenhoService.registrarCorrecao(idAluno, idsTags, notaAnterior, notaNova);
+        desempenhoSemanalService.registrarCorrecao(idAluno, idsTags, dataEnvio, notaAnterior, notaNova);
+        versaoDadosAnaliseService.alterarAluno(idAluno);
+        rankingDesempenhoService.registrarCorrecao(idAluno, atividade);
+
+        geracoes.registrarEscrita(idAluno);
+        if (!desempenhoAlunoRepository.existsById(idAluno)) {
+            return;
+        }
+
+        // Mínimo e máximo não podem ser "desfeitos" incrementalmente; uma
+        // recorreção é rara, então o aluno é reconstruído na próxima leitura.
+        if (notaAnterior != null || notaNova == null) {
+            descartarAgregadosDoAluno(idAluno);
+            return;
+        }
+
+        for (Long idTag : idsTags) {
+            somarNota(idAluno, idTag, notaNova);
+        }
+    }
+
+    @Transactional
+    public void registrarTentativaQuestionario(TentativaQuestionario tentativa, GabaritoQuestionario gabarito) {
+        if (tentativa.getAluno() == null) {
+            return;
+        }
+
+        Long idAluno = tentativa.getAluno().getIdUsuario();
+        long[] respostasOrdenadas = GabaritoQuestionario.ordenarRespostas(tentativa.getRespostas());
+
+        histogramaDesempenhoService.registrarTentativaQuestionario(idAluno, gabarito, respostasOrdenadas);
+        desempenhoSemanalService.registrarTentativaQuestionario(
+                idAluno, tentativa.getDataEnvio(), gabarito, respostasOrdenadas);
+        versaoDadosAnaliseService.alterarAluno(idAluno);
+        if (tentativa.getAtividadeQuestionario() != null) {
+            rankingDesempenhoService.registrarTentativaQuestionario(idAluno, tentativa.getAtividadeQuestionario());
+        }
+
+        geracoes.registrarEscrita(idAluno);
+        if (!desempenhoAlunoRepository.existsById(idAluno)) {
+            return;
+        }
+
+        gabarito.corrigirPorTag(respostasOrdenadas,
+                (idTag, nomeTag, nota) -> somarNota(idAluno, idTag, nota));
+    }
+
+    @Transactional
+    public void invalidarAluno(Long idAluno) {
+        geracoes.registrarEscrita(idAluno);
+        descartarAgregadosDoAluno(idAluno);
+        histogramaDesempenhoService.invalidarTurmasDoAluno(idAluno);
+        desempenhoSemanalService.invalidarTurmasDoAluno(idAluno);
+        versaoDadosAnaliseService.alterarAluno(idAluno);
+        rankingDesempenhoService.invalidarAluno(idAluno);
+    }
+
+    // Mudanças de tags, questões ou gabarito de uma atividade só alteram as
+    // notas de quem tem tentativa nela; esses alunos e as turmas deles são
+    // reconstruídos sob demanda.
+    @Transactional
+    public void invalidarAtividades(Collection<Long> idsAtividades) {
+        if (idsAtividades.isEmpty()) {
+            return;
+        }
+
+        invalidarAlunos(relatorioDesempenhoRepository.findIdsAlunosComTentativa(idsAtividades));
+    }
+
+    // Chamar antes de mexer nas tags da questão: os questionários que sorteiam
+    // pela tag antiga também entram.
+    @Transactional
+    public void invalidarPorQuestao(Long idQuestao) {
+        invalidarAtividades(atividadeQuestionarioRepository.findIdsPorQuestao(idQuestao));
+    }
+
+    private void invalidarAlunos(Collection<Long> idsAlunos) {
+        if (idsAlunos.isEmpty()) {
+            return;
+        }
+
+        idsAlunos.forEach(geracoes::registrarEscrita);
+        desempenhoAlunoRepository.deleteByIdAlunoIn(idsAlunos);
+        desempenhoAlunoTagRepository.deleteByIdAlunoIn(idsAlunos);
+
+        List<Long> idsTurmas = matriculaRepository.findIdsTurmaByIdAlunoIn(idsAlunos);
+        if (!idsTurmas.isEmpty()) {
+            histogramaDesempenhoService.invalidarTurmas(idsTurmas);
+            desempenhoSemanalService.invalidarTurmas(idsTurmas);
+            idsTurmas.forEach(versaoDadosAnaliseService::alterarTurma);
+        }
+        rankingDesempenhoService.invalidarAlunos(idsAlunos);
+    }
+
+    private void descartarAgregadosDoAluno(Long idAluno) {
+        desempenhoAlunoRepository.deleteByIdAluno(idAluno);
+        desempenhoAlunoTagRepository.deleteByIdAluno(idAluno);
+    }
+
+    private void somarNota(Long idAluno, Long idTag, double nota) {
+        if (desempenhoAlunoTagRepository.somarNota(idAluno, idTag, nota) == 0) {
+            desempenhoAlunoTagRepository.save(novoAgregado(idAluno, idTag, nota));
+        }
+    }
+
+    private static DesempenhoAlunoTag novoAgregado(Long idAluno, Long idTag, double nota) {
+        return new DesempenhoAlunoTag(null, idAluno, idTag, nota, 1L, nota, nota);
+    }
+
+    static TagDesempenhoDto paraTagDesempenho(ResumoNotaTag resumo) {
+        TagDesempenhoDto dto = new TagDesempenhoDto();
+        dto.setNomeTag(resumo.getNomeTag());
+        dto.setTotalAvaliacoes(resumo.getQuantidadeNotas().intValue());
+        dto.setMediaNota(resumo.getSomaNotas() / resumo.getQuantidadeNotas());
+        dto.setNotaMinima(resumo.getNotaMinima());
+        dto.setNotaMaxima(resumo.getNotaMaxima());
+        return dto;
+    }
+}
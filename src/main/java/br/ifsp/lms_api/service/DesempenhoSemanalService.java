@@ -0,0 +1,241 @@
+package br.ifsp.lms_api.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.dto.analise.NotaDiaTag;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionarioDatadas;
+import br.ifsp.lms_api.dto.analise.SemanaNotaTag;
+import br.ifsp.lms_api.model.DesempenhoSemanalTurma;
+import br.ifsp.lms_api.model.DesempenhoSemanalTurmaTag;
+import br.ifsp.lms_api.repository.DesempenhoSemanalTurmaRepository;
+import br.ifsp.lms_api.repository.DesempenhoSemanalTurmaTagRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+
+// Série semanal (turma, tag, semana ISO) -> soma e contagem das notas, pela
+// data de envio da tentativa. Segue o mesmo ciclo dos histogramas: a turma é
+// montada uma vez e depois cada nota lançada só ajusta a sua semana.
+@Service
+public class DesempenhoSemanalService {
+
+    // Tentativas de questionário corrigidas por vez na leitura em fluxo: os
+    // gabaritos das sorteadas saem numa consulta por bloco, não por tentativa.
+    private static final int BLOCO_CORRECAO = 500;
+
+    private final DesempenhoSemanalTurmaRepository desempenhoSemanalTurmaRepository;
+    private final DesempenhoSemanalTurmaTagRepository desempenhoSemanalTurmaTagRepository;
+    private final RelatorioDesempenhoRepository relatorioRepo;
+    private final MatriculaRepository matriculaRepository;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    private final GeracoesMaterializacao geracoes = new GeracoesMaterializacao();
+
+    public DesempenhoSemanalService(DesempenhoSemanalTurmaRepository desempenhoSemanalTurmaRepository,
+                                    DesempenhoSemanalTurmaTagRepository desempenhoSemanalTurmaTagRepository,
+                                    RelatorioDesempenhoRepository relatorioRepo,
+                                    MatriculaRepository matriculaRepository,
+                                    GabaritoQuestionarioService gabaritoQuestionarioService) {
+        this.desempenhoSemanalTurmaRepository = desempenhoSemanalTurmaRepository;
+        this.desempenhoSemanalTurmaTagRepository = desempenhoSemanalTurmaTagRepository;
+        this.relatorioRepo = relatorioRepo;
+        this.matriculaRepository = matriculaRepository;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+    }
+
+    public static LocalDate inicioSemana(LocalDate data) {
+        return data.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    // Lida antes de calcularSemanasDaTurma.
+    public long geracaoTurma(Long idTurma) {
+        return geracoes.ler(idTurma);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean turmaMaterializada(Long idTurma) {
+        return !desempenhoSemanalTurmaRepository.findIdsMaterializados(List.of(idTurma)).isEmpty();
+    }
+
+    @Transactional(readOnly = true)
+    public List<SemanaNotaTag> buscarSemanas(Long idTurma, LocalDate inicio, LocalDate fim) {
+        return desempenhoSemanalTurmaTagRepository.findSemanasDaTurma(idTurma, inicio, fim);
+    }
+
+    // Texto e arquivo já chegam somados por dia; só as tentativas de questionário
+    // precisam ser corrigidas uma a uma, e por isso são lidas em fluxo.
+    @Transactional(readOnly = true)
+    public List<SemanaNotaTag> calcularSemanasDaTurma(Long idTurma) {
+        Map<Long, Map<LocalDate, SemanaNotaTag>> semanas = new HashMap<>();
+
+        List<NotaDiaTag> dias = new ArrayList<>();
+        dias.addAll(relatorioRepo.somarNotasTextoPorDia(idTurma));
+        dias.addAll(relatorioRepo.somarNotasArquivoPorDia(idTurma));
+        for (NotaDiaTag dia : dias) {
+            acumular(semanas, dia.getIdTag(), dia.getNomeTag(), inicioSemana(dia.getDia()),
+                    dia.getSomaNotas(), dia.getQuantidadeNotas());
+        }
+
+        List<RespostasQuestionarioDatadas> bloco = new ArrayList<>(BLOCO_CORRECAO);
+        try (Stream<RespostasQuestionarioDatadas> tentativas = relatorioRepo.streamRespostasDatadasPorTurma(idTurma)) {
+            tentativas.forEach(tentativa -> {
+                bloco.add(tentativa);
+                if (bloco.size() == BLOCO_CORRECAO) {
+                    corrigirBloco(bloco, semanas);
+                }
+            });
+        }
+        corrigirBloco(bloco, semanas);
+
+        List<SemanaNotaTag> resultado = new ArrayList<>();
+        semanas.values().forEach(semanasDaTag -> resultado.addAll(semanasDaTag.values()));
+        return resultado;
+    }
+
+    private void corrigirBloco(List<RespostasQuestionarioDatadas> bloco,
+                               Map<Long, Map<LocalDate, SemanaNotaTag>> semanas) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        List<GabaritoQuestionario> gabaritos = gabaritoQuestionarioService.obterParaTentativas(bloco,
+                RespostasQuestionarioDatadas::getIdQuestionario, RespostasQuestionarioDatadas::getQuestoesSorteadas);
+
+        for (int i = 0; i < bloco.size(); i++) {
+            RespostasQuestionarioDatadas tentativa = bloco.get(i);
+            LocalDate semana = inicioSemana(tentativa.getDataEnvio().toLocalDate());
+
+            gabaritos.get(i).corrigirPorTag(GabaritoQuestionario.ordenarRespostas(tentativa.getRespostas()),
+                    (idTag, nomeTag, nota) -> acumular(semanas, idTag, nomeTag, semana, nota, 1L));
+        }
+        bloco.clear();
+    }
+
+    // Só grava o que já foi calculado na transação da leitura, que é readOnly,
+    // como em HistogramaDesempenhoService.materializarTurma.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void materializarTurma(Long idTurma, List<SemanaNotaTag> semanas, long geracao) {
+        if (!geracoes.continuaValida(idTurma, geracao)) {
+            return;
+        }
+
+        desempenhoSemanalTurmaTagRepository.deleteByIdTurmaIn(List.of(idTurma));
+
+        desempenhoSemanalTurmaTagRepository.saveAll(semanas.stream()
+                .map(semana -> new DesempenhoSemanalTurmaTag(null, idTurma, semana.getIdTag(),
+                        semana.getInicioSemana(), semana.getSomaNotas(), semana.getQuantidadeNotas()))
+                .toList());
+        desempenhoSemanalTurmaRepository.save(new DesempenhoSemanalTurma(idTurma, LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void descartarSeAlterada(Long idTurma, long geracao) {
+        if (!geracoes.continuaValida(idTurma, geracao)) {
+            invalidarTurmas(List.of(idTurma));
+        }
+    }
+
+    @Transactional
+    public void registrarCorrecao(Long idAluno, Collection<Long> idsTags, LocalDateTime dataEnvio,
+                                  Double notaAnterior, Double notaNova) {
+        if (dataEnvio == null || Objects.equals(notaAnterior, notaNova)) {
+            return;
+        }
+
+        LocalDate semana = inicioSemana(dataEnvio.toLocalDate());
+        for (Long idTurma : turmasMaterializadasDoAluno(idAluno)) {
+            for (Long idTag : idsTags) {
+                if (notaAnterior != null) {
+                    somarNaSemana(idTurma, idTag, semana, -notaAnterior, -1L);
+                }
+                if (notaNova != null) {
+                    somarNaSemana(idTurma, idTag, semana, notaNova, 1L);
+                }
+            }
+        }
+    }
+
+    @Transactional
+    public void registrarTentativaQuestionario(Long idAluno, LocalDateTime dataEnvio,
+                                               GabaritoQuestionario gabarito, long[] respostasOrdenadas) {
+        if (dataEnvio == null) {
+            return;
+        }
+
+        LocalDate semana = inicioSemana(dataEnvio.toLocalDate());
+        for (Long idTurma : turmasMaterializadasDoAluno(idAluno)) {
+            gabarito.corrigirPorTag(respostasOrdenadas,
+                    (idTag, nomeTag, nota) -> somarNaSemana(idTurma, idTag, semana, nota, 1L));
+        }
+    }
+
+    @Transactional
+    public void invalidarTurmasDoAluno(Long idAluno) {
+        List<Long> idsTurmas = matriculaRepository.findIdsTurmaByIdAluno(idAluno);
+        if (!idsTurmas.isEmpty()) {
+            invalidarTurmas(idsTurmas);
+        }
+    }
+
+    @Transactional
+    public void invalidarTurma(Long idTurma) {
+        invalidarTurmas(List.of(idTurma));
+    }
+
+    // Mantém repetições: um aluno matriculado duas vezes na turma conta duas,
+    // como no relatório. A escrita é registrada antes de olhar os marcadores,
+    // como em HistogramaDesempenhoService.
+    private List<Long> turmasMaterializadasDoAluno(Long idAluno) {
+        List<Long> idsTurmas = matriculaRepository.findIdsTurmaByIdAluno(idAluno);
+        if (idsTurmas.isEmpty()) {
+            return idsTurmas;
+        }
+        idsTurmas.forEach(geracoes::registrarEscrita);
+
+        Set<Long> materializadas = new HashSet<>(desempenhoSemanalTurmaRepository.findIdsMaterializados(idsTurmas));
+        return idsTurmas.stream().filter(materializadas::contains).toList();
+    }
+
+    @Transactional
+    public void invalidarTurmas(Collection<Long> idsTurmas) {
+        idsTurmas.forEach(geracoes::registrarEscrita);
+        desempenhoSemanalTurmaRepository.deleteByIdTurmaIn(idsTurmas);
+        desempenhoSemanalTurmaTagRepository.deleteByIdTurmaIn(idsTurmas);
+    }
+
+    private void somarNaSemana(Long idTurma, Long idTag, LocalDate semana, double nota, long delta) {
+        if (desempenhoSemanalTurmaTagRepository.somarNaSemana(idTurma, idTag, semana, nota, delta) > 0) {
+            return;
+        }
+
+        if (delta > 0) {
+            desempenhoSemanalTurmaTagRepository.save(
+                    new DesempenhoSemanalTurmaTag(null, idTurma, idTag, semana, nota, delta));
+        } else {
+            // a nota anterior não estava na série; reconstrói na próxima leitura
+            invalidarTurma(idTurma);
+        }
+    }
+
+    private static void acumular(Map<Long, Map<LocalDate, SemanaNotaTag>> semanas, long idTag, String nomeTag,
+                                 LocalDate inicioSemana, double soma, long quantidade) {
+        SemanaNotaTag semana = semanas.computeIfAbsent(idTag, id -> new HashMap<>())
+                .computeIfAbsent(inicioSemana, inicio -> new SemanaNotaTag(idTag, nomeTag, inicio, 0.0, 0L));
+        semana.setSomaNotas(semana.getSomaNotas() + soma);
+        semana.setQuantidadeNotas(semana.getQuantidadeNotas() + quantidade);
+    }
+}
@@ -0,0 +1,195 @@
+package br.ifsp.lms_api.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.config.CustomUserDetails;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.model.MaterialDeAula;
+import br.ifsp.lms_api.model.TentativaArquivo;
+import br.ifsp.lms_api.model.Turma;
+import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.TentativaArquivoRepository;
+
+// Quem pode baixar o quê, e os validadores (tamanho, data, ETag) do arquivo.
+// O ETag forte é o SHA-256 do conteúdo: vem do nome nos arquivos endereçados
+// pelo conteúdo, da coluna checksumArquivo quando ela existe e, nos arquivos
+// antigos, é calculado uma vez e guardado em memória (nomes UUID_ nunca são
+// sobrescritos, então o hash de um nome não muda).
+@Service
+public class DownloadArquivoService {
+
+    private static final int CAPACIDADE_MAXIMA = 4096;
+
+    private final MaterialDeAulaRepository materialRepository;
+    private final TentativaArquivoRepository tentativaArquivoRepository;
+    private final MatriculaRepository matriculaRepository;
+    private final StorageService storageService;
+
+    private final Map<String, String> hashesCalculados = new ConcurrentHashMap<>();
+
+    public DownloadArquivoService(MaterialDeAulaRepository materialRepository,
+                                  TentativaArquivoRepository tentativaArquivoRepository,
+                                  MatriculaRepository matriculaRepository,
+                                  StorageService storageService) {
+        this.materialRepository = materialRepository;
+        this.tentativaArquivoRepository = tentativaArquivoRepository;
+        this.matriculaRepository = matriculaRepository;
+        this.storageService = storageService;
+    }
+
+    // Material: professor da turma, aluno matriculado nela ou administrador.
+    @Transactional(readOnly = true)
+    public ArquivoParaDownload material(Long idMaterial, CustomUserDetails usuario) {
+        MaterialDeAula material = materialRepository.findById(idMaterial)
+                .orElseThrow(() -> new ResourceNotFoundException("Material com ID " + idMaterial + " nao encontrado"));
+
+        if (!podeBaixar(material, usuario)) {
+            throw new AccessDeniedException("Você não tem acesso aos materiais desta turma.");
+        }
+
+        return paraDownload(nomeArmazenado(material.getUrlArquivo()), material.getNomeArquivo(),
+                material.getTipoArquivo(), material.getChecksumArquivo());
+    }
+
+    // Tentativa: o aluno que enviou, o professor da turma da atividade ou administrador.
+    @Transactional(readOnly = true)
+    public ArquivoParaDownload tentativa(Long idTentativa, CustomUserDetails usuario) {
+        TentativaArquivo tentativa = tentativaArquivoRepository.findById(idTentativa)
+                .orElseThrow(() -> new ResourceNotFoundException("Tentativa com ID " + idTentativa + " nao encontrada"));
+
+        if (!podeBaixar(tentativa, usuario)) {
+            throw new AccessDeniedException("Você não tem acesso a esta tentativa.");
+        }
+
+        return paraDownload(nomeArmazenado(tentativa.getUrlArquivo()), tentativa.getNomeArquivo(),
+                tentativa.getTipoArquivo(), tentativa.getChecksumArquivo());
+    }
+
+    // URLs /uploads/<nome> guardadas nas linhas: o nome volta para os
+    // materiais e tentativas que apontam para ele (com o conteúdo endereçado
+    // podem ser vários) e vale a mesma regra dos downloads por ID; basta ter
+    // acesso a um deles. Nome sem linha é tratado como inexistente.
+    @Transactional(readOnly = true)
+    public ArquivoParaDownload porNome(String nomeArmazenado, CustomUserDetails usuario) {
+        String sufixo = "/uploads/" + StorageService.nomeNaUrl(nomeArmazenado);
+        List<MaterialDeAula> materiais = materialRepository.findByUrlArquivoEndingWith(sufixo);
+        for (MaterialDeAula material : materiais) {
+            if (podeBaixar(material, usuario)) {
+                return paraDownload(nomeArmazenado, material.getNomeArquivo(), material.getTipoArquivo(),
+                        material.getChecksumArquivo());
+            }
+        }
+
+        List<TentativaArquivo> tentativas = tentativaArquivoRepository.findByUrlArquivoEndingWith(sufixo);
+        for (TentativaArquivo tentativa : tentativas) {
+            if (podeBaixar(tentativa, usuario)) {
+                return paraDownload(nomeArmazenado, tentativa.getNomeArquivo(), tentativa.getTipoArquivo(),
+                        tentativa.getChecksumArquivo());
+            }
+        }
+
+        if (materiais.isEmpty() && tentativas.isEmpty()) {
+            throw new ResourceNotFoundException("Arquivo " + nomeArmazenado + " não encontrado");
+        }
+        throw new AccessDeniedException("Você não tem acesso a este arquivo.");
+    }
+
+    private boolean podeBaixar(MaterialDeAula material, CustomUserDetails usuario) {
+        Turma turma = material.getTopico().getTurma();
+        return temPapel(usuario, "ROLE_ADMIN")
+                || (temPapel(usuario, "ROLE_PROFESSOR") && turma.getProfessor().getIdUsuario().equals(usuario.getId()))
+                || (temPapel(usuario, "ROLE_ALUNO")
+                        && matriculaRepository.existsByAluno_IdUsuarioAndTurma_IdTurma(usuario.getId(), turma.getIdTurma()));
+    }
+
+    private boolean podeBaixar(TentativaArquivo tentativa, CustomUserDetails usuario) {
+        return temPapel(usuario, "ROLE_ADMIN")
+                || tentativa.getAluno().getIdUsuario().equals(usuario.getId())
+                || (temPapel(usuario, "ROLE_PROFESSOR") && tentativa.getAtividadeArquivo().getTopico().getTurma()
+                        .getProfessor().getIdUsuario().equals(usuario.getId()));
+    }
+
+    // O nome vindo do caminho da requisição já chega decodificado; o da
+    // linha sai da URL guardada.
+    private static String nomeArmazenado(String urlArquivo) {
+        if (urlArquivo == null || urlArquivo.isEmpty()) {
+            throw new ResourceNotFoundException("Arquivo não encontrado");
+        }
+        return StorageService.nomeDaUrl(urlArquivo);
+    }
+
+    private ArquivoParaDownload paraDownload(String nomeArmazenado, String nomeArquivo, String tipoArquivo,
+                                             String checksum) {
+        Path caminho = storageService.caminho(nomeArmazenado);
+        try {
+            long tamanho = Files.size(caminho);
+            long ultimaModificacao = Files.getLastModifiedTime(caminho).toMillis();
+            String etag = StorageService.chaveDoConteudo(nomeArmazenado);
+            if (etag == null) {
+                etag = checksum != null ? checksum : hashDoArquivo(nomeArmazenado, caminho);
+            }
+            return new ArquivoParaDownload(caminho, StorageService.nomeSeguro(nomeArquivo),
+                    StorageService.tipoArquivo(tipoArquivo, nomeArquivo), tamanho, ultimaModificacao, etag);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Arquivo " + nomeArmazenado + " não encontrado");
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao ler o arquivo.", e);
+        }
+    }
+
+    private String hashDoArquivo(String nomeArmazenado, Path caminho) throws IOException {
+        String hash = hashesCalculados.get(nomeArmazenado);
+        if (hash != null) {
+            return hash;
+        }
+
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel arquivo = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            while (arquivo.read(buffer) != -1) {
+                buffer.flip();
+                sha256.update(buffer);
+                buffer.clear();
+            }
+        }
+        hash = HexFormat.of().formatHex(sha256.digest());
+
+        if (hashesCalculados.size() >= CAPACIDADE_MAXIMA) {
+            hashesCalculados.clear();
+        }
+        hashesCalculados.put(nomeArmazenado, hash);
+        return hash;
+    }
+
+    private static boolean temPapel(CustomUserDetails usuario, String papel) {
+        for (GrantedAuthority autoridade : usuario.getAuthorities()) {
+            if (papel.equals(autoridade.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
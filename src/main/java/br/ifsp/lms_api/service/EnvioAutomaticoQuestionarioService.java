@@ -0,0 +1,68 @@
+package br.ifsp.lms_api.service;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import br.ifsp.lms_api.service.SessaoQuestionarioService.SessaoAberta;
+import jakarta.annotation.PreDestroy;
+
+// Envia a tentativa das sessões de questionário cujo tempo acabou. Uma única
+// thread espera na fila de expirações, então não há varredura periódica do
+// banco: ela só acorda quando alguma sessão vence.
+@Service
+public class EnvioAutomaticoQuestionarioService {
+
+    private static final Duration ESPERA_NOVO_ENVIO = Duration.ofSeconds(30);
+
+    private final SessaoQuestionarioService sessaoQuestionarioService;
+    private final TentativaQuestionarioService tentativaQuestionarioService;
+
+    private volatile Thread worker;
+
+    public EnvioAutomaticoQuestionarioService(SessaoQuestionarioService sessaoQuestionarioService,
+                                              TentativaQuestionarioService tentativaQuestionarioService) {
+        this.sessaoQuestionarioService = sessaoQuestionarioService;
+        this.tentativaQuestionarioService = tentativaQuestionarioService;
+    }
+
+    // Sessões que venceram com a aplicação parada são enviadas logo no início.
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        sessaoQuestionarioService.recuperar();
+
+        Thread thread = new Thread(this::processar, "envio-automatico-questionario");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void processar() {
+        while (!Thread.currentThread().isInterrupted()) {
+            SessaoAberta sessao;
+            try {
+                sessao = sessaoQuestionarioService.aguardarExpirada();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                tentativaQuestionarioService.enviarSessaoExpirada(sessao.getIdAluno(), sessao.getIdQuestionario(),
+                        sessao.getRespostas(), sessao.getExpiraEm());
+            } catch (RuntimeException e) {
+                // a linha da sessão continua no banco; tenta de novo mais tarde
+                sessaoQuestionarioService.reagendar(sessao, ESPERA_NOVO_ENVIO);
+            }
+        }
+    }
+}
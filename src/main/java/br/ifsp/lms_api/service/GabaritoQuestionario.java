@@ -0,0 +1,255 @@
+package br.ifsp.lms_api.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
+
+// Gabarito imutável de um questionário, montado a partir de uma única consulta.
+// Corrigir uma tentativa só faz buscas binárias em arrays, sem tocar nas
+// coleções lazy de questões e alternativas.
+//
+// Cada questão tem um bitset das suas alternativas (uma palavra de 64 bits
+// na prática) com as corretas marcadas. As respostas viram um bitset do mesmo
+// formato e o crédito de uma questão sai de dois bitCount sobre as palavras
+// dela; a estratégia do questionário decide quanto esse resultado vale.
+public final class GabaritoQuestionario {
+
+    private static final double PESO_PADRAO = 1.0;
+
+    private final Long idQuestionario;
+    private final EstrategiaCorrecao estrategia;
+    private final long[] idsQuestoes;
+    private final double[] pesos;
+    private final double somaPesos;
+    private final int[] primeiraPalavra;
+    private final long[] mascaraCorretas;
+    private final int[] quantidadeCorretas;
+    private final int[] quantidadeAlternativas;
+    private final long[] idsAlternativas;
+    private final int[] bitDaAlternativa;
+    private final long[][] idsTagsPorQuestao;
+    private final String[][] nomesTagsPorQuestao;
+
+    private GabaritoQuestionario(Long idQuestionario, EstrategiaCorrecao estrategia, long[] idsQuestoes,
+            double[] pesos, int[] primeiraPalavra, long[] mascaraCorretas, int[] quantidadeCorretas,
+            int[] quantidadeAlternativas, long[] idsAlternativas, int[] bitDaAlternativa,
+            long[][] idsTagsPorQuestao, String[][] nomesTagsPorQuestao) {
+        this.idQuestionario = idQuestionario;
+        this.estrategia = estrategia;
+        this.idsQuestoes = idsQuestoes;
+        this.pesos = pesos;
+        this.somaPesos = Arrays.stream(pesos).sum();
+        this.primeiraPalavra = primeiraPalavra;
+        this.mascaraCorretas = mascaraCorretas;
+        this.quantidadeCorretas = quantidadeCorretas;
+        this.quantidadeAlternativas = quantidadeAlternativas;
+        this.idsAlternativas = idsAlternativas;
+        this.bitDaAlternativa = bitDaAlternativa;
+        this.idsTagsPorQuestao = idsTagsPorQuestao;
+        this.nomesTagsPorQuestao = nomesTagsPorQuestao;
+    }
+
+    public static GabaritoQuestionario compilar(Long idQuestionario, List<GabaritoQuestaoTag> linhas) {
+        EstrategiaCorrecao estrategia = null;
+        Map<Long, TreeMap<Long, Boolean>> alternativasPorQuestao = new TreeMap<>();
+        Map<Long, Double> pesoPorQuestao = new TreeMap<>();
+        Map<Long, Map<Long, String>> tagsPorQuestao = new TreeMap<>();
+
+        for (GabaritoQuestaoTag linha : linhas) {
+            alternativasPorQuestao.computeIfAbsent(linha.getIdQuestao(), id -> new TreeMap<>());
+            tagsPorQuestao.computeIfAbsent(linha.getIdQuestao(), id -> new LinkedHashMap<>());
+
+            if (estrategia == null) {
+                estrategia = linha.getEstrategiaCorrecao();
+            }
+            if (linha.getPesoQuestao() != null) {
+                pesoPorQuestao.put(linha.getIdQuestao(), linha.getPesoQuestao());
+            }
+            if (linha.getIdAlternativa() != null) {
+                alternativasPorQuestao.get(linha.getIdQuestao())
+                        .merge(linha.getIdAlternativa(), Boolean.TRUE.equals(linha.getAlternativaCorreta()), Boolean::logicalOr);
+            }
+            if (linha.getIdTag() != null) {
+                tagsPorQuestao.get(linha.getIdQuestao()).put(linha.getIdTag(), linha.getNomeTag());
+            }
+        }
+
+        int quantidade = alternativasPorQuestao.size();
+        long[] idsQuestoes = new long[quantidade];
+        double[] pesos = new double[quantidade];
+        int[] primeiraPalavra = new int[quantidade + 1];
+        int[] quantidadeCorretas = new int[quantidade];
+        int[] quantidadeAlternativas = new int[quantidade];
+        long[][] idsTags = new long[quantidade][];
+        String[][] nomesTags = new String[quantidade][];
+
+        int i = 0;
+        int totalAlternativas = 0;
+        for (Map.Entry<Long, TreeMap<Long, Boolean>> entry : alternativasPorQuestao.entrySet()) {
+            idsQuestoes[i] = entry.getKey();
+            pesos[i] = pesoPorQuestao.getOrDefault(entry.getKey(), PESO_PADRAO);
+            quantidadeAlternativas[i] = entry.getValue().size();
+            primeiraPalavra[i + 1] = primeiraPalavra[i] + (quantidadeAlternativas[i] + 63) / 64;
+            totalAlternativas += quantidadeAlternativas[i];
+
+            Map<Long, String> tags = tagsPorQuestao.get(entry.getKey());
+            idsTags[i] = tags.keySet().stream().mapToLong(Long::longValue).toArray();
+            nomesTags[i] = tags.values().toArray(new String[0]);
+            i++;
+        }
+
+        long[] mascaraCorretas = new long[primeiraPalavra[quantidade]];
+        long[][] alternativas = new long[totalAlternativas][];
+        int a = 0;
+        i = 0;
+        for (TreeMap<Long, Boolean> alternativasDaQuestao : alternativasPorQuestao.values()) {
+            int posicao = 0;
+            for (Map.Entry<Long, Boolean> alternativa : alternativasDaQuestao.entrySet()) {
+                int bit = primeiraPalavra[i] * 64 + posicao++;
+                if (alternativa.getValue()) {
+                    mascaraCorretas[bit >>> 6] |= 1L << bit;
+                    quantidadeCorretas[i]++;
+                }
+                alternativas[a++] = new long[] { alternativa.getKey(), bit };
+            }
+            i++;
+        }
+
+        Arrays.sort(alternativas, (x, y) -> Long.compare(x[0], y[0]));
+        long[] idsAlternativas = new long[totalAlternativas];
+        int[] bitDaAlternativa = new int[totalAlternativas];
+        for (a = 0; a < totalAlternativas; a++) {
+            idsAlternativas[a] = alternativas[a][0];
+            bitDaAlternativa[a] = (int) alternativas[a][1];
+        }
+
+        return new GabaritoQuestionario(idQuestionario, EstrategiaCorrecao.ouPadrao(estrategia), idsQuestoes, pesos,
+                primeiraPalavra, mascaraCorretas, quantidadeCorretas, quantidadeAlternativas, idsAlternativas,
+                bitDaAlternativa, idsTags, nomesTags);
+    }
+
+    public static long[] ordenarRespostas(List<Long> respostas) {
+        if (respostas == null) {
+            return new long[0];
+        }
+        long[] ordenadas = respostas.stream()
+                .filter(id -> id != null)
+                .mapToLong(Long::longValue)
+                .toArray();
+        Arrays.sort(ordenadas);
+        return ordenadas;
+    }
+
+    // Bitset das alternativas marcadas, no formato das máscaras do gabarito.
+    // Respostas repetidas ou de fora do questionário não contam.
+    public long[] marcar(long[] respostasOrdenadas) {
+        long[] marcadas = new long[mascaraCorretas.length];
+        for (long idResposta : respostasOrdenadas) {
+            int posicao = Arrays.binarySearch(idsAlternativas, idResposta);
+            if (posicao >= 0) {
+                int bit = bitDaAlternativa[posicao];
+                marcadas[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return marcadas;
+    }
+
+    // Crédito da questão pela estratégia do questionário, antes do peso.
+    public double credito(int questao, long[] marcadas) {
+        int corretasMarcadas = 0;
+        int erradasMarcadas = 0;
+        for (int palavra = primeiraPalavra[questao]; palavra < primeiraPalavra[questao + 1]; palavra++) {
+            corretasMarcadas += Long.bitCount(marcadas[palavra] & mascaraCorretas[palavra]);
+            erradasMarcadas += Long.bitCount(marcadas[palavra] & ~mascaraCorretas[palavra]);
+        }
+        return estrategia.credito(corretasMarcadas, erradasMarcadas,
+                quantidadeCorretas[questao], quantidadeAlternativas[questao]);
+    }
+
+    // Soma dos créditos ponderados sobre a soma dos pesos de todas as
+    // questões do questionário, em escala de 0 a 10.
+    public double calcularNota(long[] respostasOrdenadas) {
+        if (idsQuestoes.length == 0 || respostasOrdenadas.length == 0 || somaPesos <= 0) {
+            return 0.0;
+        }
+
+        long[] marcadas = marcar(respostasOrdenadas);
+        double pontos = 0;
+        for (int questao = 0; questao < idsQuestoes.length; questao++) {
+            pontos += pesos[questao] * credito(questao, marcadas);
+        }
+
+        return (pontos / somaPesos) * 10.0;
+    }
+
+    // Nota de 0 a 10 de cada questão com gabarito, entregue uma vez por tag da questão.
+    public void corrigirPorTag(long[] respostasOrdenadas, NotaPorTag consumidor) {
+        long[] marcadas = marcar(respostasOrdenadas);
+        for (int questao = 0; questao < idsQuestoes.length; questao++) {
+            if (!possuiAlternativaCorreta(questao)) continue;
+
+            double notaDaQuestao = Math.min(1.0, credito(questao, marcadas)) * 10.0;
+
+            for (int tag = 0; tag < idsTagsPorQuestao[questao].length; tag++) {
+                consumidor.aceitar(idsTagsPorQuestao[questao][tag], nomesTagsPorQuestao[questao][tag], notaDaQuestao);
+            }
+        }
+    }
+
+    public boolean possuiAlternativaCorreta(int questao) {
+        return quantidadeCorretas[questao] > 0;
+    }
+
+    public boolean acertou(int questao, long[] respostasOrdenadas) {
+        return acertouMarcadas(questao, marcar(respostasOrdenadas));
+    }
+
+    // Questão com crédito inteiro, para quem corrige várias questões da mesma
+    // tentativa e já tem o bitset das marcadas.
+    public boolean acertouMarcadas(int questao, long[] marcadas) {
+        return possuiAlternativaCorreta(questao) && credito(questao, marcadas) >= 1.0;
+    }
+
+    public boolean contemQuestao(long idQuestao) {
+        return Arrays.binarySearch(idsQuestoes, idQuestao) >= 0;
+    }
+
+    // Posição da questão no gabarito, ou negativo quando ela não faz parte.
+    public int indiceDaQuestao(long idQuestao) {
+        return Arrays.binarySearch(idsQuestoes, idQuestao);
+    }
+
+    public Long getIdQuestionario() {
+        return idQuestionario;
+    }
+
+    public EstrategiaCorrecao getEstrategia() {
+        return estrategia;
+    }
+
+    public int getQuantidadeQuestoes() {
+        return idsQuestoes.length;
+    }
+
+    public long getIdQuestao(int questao) {
+        return idsQuestoes[questao];
+    }
+
+    public double getPeso(int questao) {
+        return pesos[questao];
+    }
+
+    public int getQuantidadeTags(int questao) {
+        return idsTagsPorQuestao[questao].length;
+    }
+
+    @FunctionalInterface
+    public interface NotaPorTag {
+        void aceitar(long idTag, String nomeTag, double nota);
+    }
+}
@@ -0,0 +1,187 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+
+@Service
+public class GabaritoQuestionarioService {
+
+    private static final int CAPACIDADE_MAXIMA = 512;
+
+    private final AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+
+    private final Map<Long, GabaritoQuestionario> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, GabaritoQuestionario> eldest) {
+                    return size() > CAPACIDADE_MAXIMA;
+                }
+            });
+
+    // Incrementada a cada invalidação; um gabarito compilado durante uma
+    // invalidação pode estar desatualizado e não entra no cache.
+    private final AtomicLong geracao = new AtomicLong();
+
+    public GabaritoQuestionarioService(AtividadeQuestionarioRepository atividadeQuestionarioRepository) {
+        this.atividadeQuestionarioRepository = atividadeQuestionarioRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public GabaritoQuestionario obter(Long idQuestionario) {
+        return obterTodos(List.of(idQuestionario)).get(idQuestionario);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, GabaritoQuestionario> obterTodos(Collection<Long> idsQuestionarios) {
+        Map<Long, GabaritoQuestionario> gabaritos = new HashMap<>();
+        List<Long> ausentes = new ArrayList<>();
+
+        for (Long idQuestionario : idsQuestionarios) {
+            GabaritoQuestionario gabarito = cache.get(idQuestionario);
+            if (gabarito != null) {
+                gabaritos.put(idQuestionario, gabarito);
+            } else if (!ausentes.contains(idQuestionario)) {
+                ausentes.add(idQuestionario);
+            }
+        }
+
+        if (ausentes.isEmpty()) {
+            return gabaritos;
+        }
+
+        long geracaoInicial = geracao.get();
+
+        Map<Long, List<GabaritoQuestaoTag>> linhasPorQuestionario = atividadeQuestionarioRepository
+                .findGabaritos(ausentes).stream()
+                .collect(Collectors.groupingBy(GabaritoQuestaoTag::getIdQuestionario));
+
+        for (Long idQuestionario : ausentes) {
+            GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario,
+                    linhasPorQuestionario.getOrDefault(idQuestionario, List.of()));
+            gabaritos.put(idQuestionario, gabarito);
+
+            if (geracao.get() == geracaoInicial) {
+                cache.put(idQuestionario, gabarito);
+            }
+        }
+
+        return gabaritos;
+    }
+
+    // Gabarito das questões sorteadas de uma tentativa. Não passa pelo cache:
+    // cada tentativa tem a sua lista.
+    @Transactional(readOnly = true)
+    public GabaritoQuestionario obterParaSorteio(Long idQuestionario, List<Long> idsQuestoes) {
+        return obterParaSorteios(idQuestionario, List.of(idsQuestoes)).get(0);
+    }
+
+    // Uma consulta para as questões de todas as tentativas; devolve os
+    // gabaritos na mesma ordem das listas recebidas.
+    @Transactional(readOnly = true)
+    public List<GabaritoQuestionario> obterParaSorteios(Long idQuestionario, List<List<Long>> questoesPorTentativa) {
+        Set<Long> todas = new HashSet<>();
+        questoesPorTentativa.forEach(todas::addAll);
+
+        Map<Long, List<GabaritoQuestaoTag>> linhasPorQuestao = todas.isEmpty()
+                ? Map.of()
+                : atividadeQuestionarioRepository.findGabaritosPorQuestoes(idQuestionario, todas).stream()
+                        .collect(Collectors.groupingBy(GabaritoQuestaoTag::getIdQuestao));
+
+        List<GabaritoQuestionario> gabaritos = new ArrayList<>(questoesPorTentativa.size());
+        for (List<Long> idsQuestoes : questoesPorTentativa) {
+            List<GabaritoQuestaoTag> linhas = new ArrayList<>();
+            for (Long idQuestao : idsQuestoes) {
+                linhas.addAll(linhasPorQuestao.getOrDefault(idQuestao, List.of()));
+            }
+            gabaritos.add(GabaritoQuestionario.compilar(idQuestionario, linhas));
+        }
+        return gabaritos;
+    }
+
+    // Gabarito de cada tentativa, na ordem recebida: o fixo do questionário
+    // (pelo cache) ou, nas tentativas com sorteio, o das questões sorteadas,
+    // com uma consulta por questionário. Mesma correção de registrarTentativa
+    // e recorrigirLote, para que relatório refeito do zero e agregado
+    // incremental deem a mesma nota.
+    @Transactional(readOnly = true)
+    public <T> List<GabaritoQuestionario> obterParaTentativas(List<T> tentativas, Function<T, Long> questionario,
+                                                              Function<T, List<Long>> questoesSorteadas) {
+        Set<Long> fixos = new HashSet<>();
+        Map<Long, List<List<Long>>> sorteiosPorQuestionario = new HashMap<>();
+        for (T tentativa : tentativas) {
+            List<Long> sorteadas = questoesSorteadas.apply(tentativa);
+            if (sorteadas == null) {
+                fixos.add(questionario.apply(tentativa));
+            } else {
+                sorteiosPorQuestionario.computeIfAbsent(questionario.apply(tentativa), id -> new ArrayList<>())
+                        .add(sorteadas);
+            }
+        }
+
+        Map<Long, GabaritoQuestionario> gabaritosFixos = fixos.isEmpty() ? Map.of() : obterTodos(fixos);
+        Map<Long, Iterator<GabaritoQuestionario>> gabaritosSorteio = new HashMap<>();
+        sorteiosPorQuestionario.forEach((idQuestionario, sorteios) ->
+                gabaritosSorteio.put(idQuestionario, obterParaSorteios(idQuestionario, sorteios).iterator()));
+
+        List<GabaritoQuestionario> gabaritos = new ArrayList<>(tentativas.size());
+        for (T tentativa : tentativas) {
+            Long idQuestionario = questionario.apply(tentativa);
+            gabaritos.add(questoesSorteadas.apply(tentativa) == null
+                    ? gabaritosFixos.get(idQuestionario)
+                    : gabaritosSorteio.get(idQuestionario).next());
+        }
+        return gabaritos;
+    }
+
+    public void invalidar(Long idQuestionario) {
+        aplicarInvalidacao(() -> cache.remove(idQuestionario));
+    }
+
+    public void invalidarPorQuestao(Long idQuestao) {
+        aplicarInvalidacao(() -> {
+            synchronized (cache) {
+                cache.values().removeIf(gabarito -> gabarito.contemQuestao(idQuestao));
+            }
+        });
+    }
+
+    public void invalidarTodos() {
+        aplicarInvalidacao(cache::clear);
+    }
+
+    // Remove na hora e de novo após o commit, para que uma leitura concorrente
+    // feita antes do commit não deixe o gabarito antigo no cache.
+    private void aplicarInvalidacao(Runnable remocao) {
+        geracao.incrementAndGet();
+        remocao.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    geracao.incrementAndGet();
+                    remocao.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package br.ifsp.lms_api.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Guarda das materializações preguiçosas (marcador + agregados gravados a
+// partir de uma leitura completa). Os incrementais só atualizam quem já tem
+// marcador, então uma nota commitada entre a leitura e o commit do marcador
+// ficaria fora dos dois. Quem materializa lê a geração antes da leitura e,
+// depois do commit, descarta o que gravou se ela mudou ou se ainda há escrita
+// da mesma chave em andamento; quem escreve registra a escrita antes de olhar
+// o marcador. As chaves caem em faixas fixas: colisão só causa descarte a mais.
+final class GeracoesMaterializacao {
+
+    private static final int FAIXAS = 1024;
+
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+    private final AtomicIntegerArray escritasEmAndamento = new AtomicIntegerArray(FAIXAS);
+
+    long ler(Long id) {
+        return geracoes.get(faixa(id));
+    }
+
+    // Escritas em andamento são lidas antes da geração: uma escrita que
+    // terminou no meio já incrementou a geração ao terminar.
+    boolean continuaValida(Long id, long geracaoLida) {
+        int faixa = faixa(id);
+        return escritasEmAndamento.get(faixa) == 0 && geracoes.get(faixa) == geracaoLida;
+    }
+
+    // Incrementa na hora e de novo ao fim da transação, que conta como em
+    // andamento até lá, commit ou rollback.
+    void registrarEscrita(Long id) {
+        int faixa = faixa(id);
+        geracoes.incrementAndGet(faixa);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        escritasEmAndamento.incrementAndGet(faixa);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                geracoes.incrementAndGet(faixa);
+                escritasEmAndamento.decrementAndGet(faixa);
+            }
+        });
+    }
+
+    private static int faixa(Long id) {
+        return Long.hashCode(id) & (FAIXAS - 1);
+    }
+}
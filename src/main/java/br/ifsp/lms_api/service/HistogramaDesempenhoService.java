@@ -0,0 +1,225 @@
+package br.ifsp.lms_api.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.dto.analise.FaixaNotaTag;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.model.HistogramaTurma;
+import br.ifsp.lms_api.model.HistogramaTurmaTag;
+import br.ifsp.lms_api.repository.HistogramaTurmaRepository;
+import br.ifsp.lms_api.repository.HistogramaTurmaTagRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+
+@Service
+public class HistogramaDesempenhoService {
+
+    private final HistogramaTurmaRepository histogramaTurmaRepository;
+    private final HistogramaTurmaTagRepository histogramaTurmaTagRepository;
+    private final RelatorioDesempenhoRepository relatorioRepo;
+    private final MatriculaRepository matriculaRepository;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    private final GeracoesMaterializacao geracoes = new GeracoesMaterializacao();
+
+    public HistogramaDesempenhoService(HistogramaTurmaRepository histogramaTurmaRepository,
+                                       HistogramaTurmaTagRepository histogramaTurmaTagRepository,
+                                       RelatorioDesempenhoRepository relatorioRepo,
+                                       MatriculaRepository matriculaRepository,
+                                       GabaritoQuestionarioService gabaritoQuestionarioService) {
+        this.histogramaTurmaRepository = histogramaTurmaRepository;
+        this.histogramaTurmaTagRepository = histogramaTurmaTagRepository;
+        this.relatorioRepo = relatorioRepo;
+        this.matriculaRepository = matriculaRepository;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> turmasNaoMaterializadas(Collection<Long> idsTurmas) {
+        if (idsTurmas.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> materializadas = new HashSet<>(histogramaTurmaRepository.findIdsMaterializados(idsTurmas));
+        return idsTurmas.stream()
+                .filter(idTurma -> !materializadas.contains(idTurma))
+                .distinct()
+                .toList();
+    }
+
+    // Faixas já gravadas, somadas entre as turmas informadas.
+    @Transactional(readOnly = true)
+    public List<FaixaNotaTag> buscarFaixas(Collection<Long> idsTurmas) {
+        if (idsTurmas.isEmpty()) {
+            return List.of();
+        }
+        return histogramaTurmaTagRepository.somarFaixasPorTurmas(idsTurmas);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FaixaNotaTag> calcularFaixasDaTurma(Long idTurma) {
+        Map<Long, long[]> contagensPorTag = new HashMap<>();
+        Map<Long, String> nomesTags = new HashMap<>();
+
+        List<FaixaNotaTag> faixas = new ArrayList<>();
+        faixas.addAll(relatorioRepo.contarFaixasTextoPorTurma(idTurma));
+        faixas.addAll(relatorioRepo.contarFaixasArquivoPorTurma(idTurma));
+        for (FaixaNotaTag faixa : faixas) {
+            int indice = Math.max(0, Math.min(HistogramaNotas.QUANTIDADE_FAIXAS - 1, faixa.getFaixa()));
+            contagens(contagensPorTag, faixa.getIdTag())[indice] += faixa.getQuantidade();
+            nomesTags.put(faixa.getIdTag(), faixa.getNomeTag());
+        }
+
+        List<RespostasQuestionario> tentativas = relatorioRepo.findRespostasQuestionarioPorTurma(idTurma);
+        if (!tentativas.isEmpty()) {
+            List<GabaritoQuestionario> gabaritos = gabaritoQuestionarioService.obterParaTentativas(tentativas,
+                    RespostasQuestionario::getIdQuestionario, RespostasQuestionario::getQuestoesSorteadas);
+
+            for (int i = 0; i < tentativas.size(); i++) {
+                gabaritos.get(i).corrigirPorTag(
+                        GabaritoQuestionario.ordenarRespostas(tentativas.get(i).getRespostas()),
+                        (idTag, nomeTag, nota) -> {
+                            contagens(contagensPorTag, idTag)[HistogramaNotas.faixa(nota)]++;
+                            nomesTags.put(idTag, nomeTag);
+                        });
+            }
+        }
+
+        List<FaixaNotaTag> resultado = new ArrayList<>();
+        for (Map.Entry<Long, long[]> entry : contagensPorTag.entrySet()) {
+            long[] contagens = entry.getValue();
+            for (int faixa = 0; faixa < contagens.length; faixa++) {
+                if (contagens[faixa] > 0) {
+                    resultado.add(new FaixaNotaTag(entry.getKey(), nomesTags.get(entry.getKey()), faixa, contagens[faixa]));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Lida antes de calcularFaixasDaTurma.
+    public long geracaoTurma(Long idTurma) {
+        return geracoes.ler(idTurma);
+    }
+
+    // Só grava o que já foi calculado na transação do relatório, que é readOnly,
+    // pelo mesmo motivo de DesempenhoAgregadoService.materializar, e com a
+    // mesma conferência da geração antes e depois do commit.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void materializarTurma(Long idTurma, List<FaixaNotaTag> faixas, long geracao) {
+        if (!geracoes.continuaValida(idTurma, geracao)) {
+            return;
+        }
+
+        histogramaTurmaTagRepository.deleteByIdTurmaIn(List.of(idTurma));
+
+        histogramaTurmaTagRepository.saveAll(faixas.stream()
+                .map(faixa -> new HistogramaTurmaTag(null, idTurma, faixa.getIdTag(), faixa.getFaixa(), faixa.getQuantidade()))
+                .toList());
+        histogramaTurmaRepository.save(new HistogramaTurma(idTurma, LocalDateTime.now()));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void descartarSeAlterada(Long idTurma, long geracao) {
+        if (!geracoes.continuaValida(idTurma, geracao)) {
+            invalidarTurmas(List.of(idTurma));
+        }
+    }
+
+    public static Map<String, HistogramaNotas> agruparPorTag(Collection<FaixaNotaTag> faixas) {
+        Map<String, HistogramaNotas> histogramas = new HashMap<>();
+        for (FaixaNotaTag faixa : faixas) {
+            histogramas.computeIfAbsent(faixa.getNomeTag(), nome -> new HistogramaNotas())
+                    .adicionar(faixa.getFaixa(), faixa.getQuantidade());
+        }
+        return histogramas;
+    }
+
+    @Transactional
+    public void registrarCorrecao(Long idAluno, Collection<Long> idsTags, Double notaAnterior, Double notaNova) {
+        List<Long> idsTurmas = turmasMaterializadasDoAluno(idAluno);
+
+        for (Long idTurma : idsTurmas) {
+            for (Long idTag : idsTags) {
+                if (notaAnterior != null) {
+                    somarNaFaixa(idTurma, idTag, HistogramaNotas.faixa(notaAnterior), -1L);
+                }
+                if (notaNova != null) {
+                    somarNaFaixa(idTurma, idTag, HistogramaNotas.faixa(notaNova), 1L);
+                }
+            }
+        }
+    }
+
+    @Transactional
+    public void registrarTentativaQuestionario(Long idAluno, GabaritoQuestionario gabarito, long[] respostasOrdenadas) {
+        List<Long> idsTurmas = turmasMaterializadasDoAluno(idAluno);
+
+        for (Long idTurma : idsTurmas) {
+            gabarito.corrigirPorTag(respostasOrdenadas,
+                    (idTag, nomeTag, nota) -> somarNaFaixa(idTurma, idTag, HistogramaNotas.faixa(nota), 1L));
+        }
+    }
+
+    @Transactional
+    public void invalidarTurmasDoAluno(Long idAluno) {
+        List<Long> idsTurmas = matriculaRepository.findIdsTurmaByIdAluno(idAluno);
+        if (!idsTurmas.isEmpty()) {
+            invalidarTurmas(idsTurmas);
+        }
+    }
+
+    @Transactional
+    public void invalidarTurma(Long idTurma) {
+        invalidarTurmas(List.of(idTurma));
+    }
+
+    // Mantém repetições: um aluno matriculado duas vezes na turma conta duas,
+    // como no relatório. A escrita é registrada em todas as turmas do aluno
+    // antes de olhar os marcadores.
+    private List<Long> turmasMaterializadasDoAluno(Long idAluno) {
+        List<Long> idsTurmas = matriculaRepository.findIdsTurmaByIdAluno(idAluno);
+        if (idsTurmas.isEmpty()) {
+            return idsTurmas;
+        }
+        idsTurmas.forEach(geracoes::registrarEscrita);
+
+        Set<Long> materializadas = new HashSet<>(histogramaTurmaRepository.findIdsMaterializados(idsTurmas));
+        return idsTurmas.stream().filter(materializadas::contains).toList();
+    }
+
+    private static long[] contagens(Map<Long, long[]> contagensPorTag, long idTag) {
+        return contagensPorTag.computeIfAbsent(idTag, id -> new long[HistogramaNotas.QUANTIDADE_FAIXAS]);
+    }
+
+    @Transactional
+    public void invalidarTurmas(Collection<Long> idsTurmas) {
+        idsTurmas.forEach(geracoes::registrarEscrita);
+        histogramaTurmaRepository.deleteByIdTurmaIn(idsTurmas);
+        histogramaTurmaTagRepository.deleteByIdTurmaIn(idsTurmas);
+    }
+
+    private void somarNaFaixa(Long idTurma, Long idTag, int faixa, long delta) {
+        if (histogramaTurmaTagRepository.somarNaFaixa(idTurma, idTag, faixa, delta) > 0) {
+            return;
+        }
+
+        if (delta > 0) {
+            histogramaTurmaTagRepository.save(new HistogramaTurmaTag(null, idTurma, idTag, faixa, delta));
+        } else {
+            // a nota anterior não estava no histograma; reconstrói na próxima leitura
+            invalidarTurma(idTurma);
+        }
+    }
+}
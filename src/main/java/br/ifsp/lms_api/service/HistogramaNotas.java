@@ -0,0 +1,80 @@
+package br.ifsp.lms_api.service;
+
+// Histograma de notas de 0 a 10 em faixas de 0,5 ponto. A faixa i cobre
+// [i * 0,5, i * 0,5 + 0,5) e a última guarda só o 10. Como o número de faixas
+// é fixo, somar histogramas e extrair percentis custa tempo constante.
+public final class HistogramaNotas {
+
+    public static final int QUANTIDADE_FAIXAS = 21;
+
+    private static final double LARGURA_FAIXA = 0.5;
+
+    private final long[] contagens = new long[QUANTIDADE_FAIXAS];
+    private long total;
+
+    public static int faixa(double nota) {
+        int faixa = (int) Math.floor(nota / LARGURA_FAIXA);
+        return Math.max(0, Math.min(QUANTIDADE_FAIXAS - 1, faixa));
+    }
+
+    public static double limiteInferior(int faixa) {
+        return faixa * LARGURA_FAIXA;
+    }
+
+    public void registrar(double nota) {
+        adicionar(faixa(nota), 1);
+    }
+
+    public void adicionar(int faixa, long quantidade) {
+        contagens[Math.max(0, Math.min(QUANTIDADE_FAIXAS - 1, faixa))] += quantidade;
+        total += quantidade;
+    }
+
+    public void somar(HistogramaNotas outro) {
+        for (int i = 0; i < QUANTIDADE_FAIXAS; i++) {
+            contagens[i] += outro.contagens[i];
+        }
+        total += outro.total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getQuantidade(int faixa) {
+        return contagens[faixa];
+    }
+
+    // Percentil pelo posto mais próximo, devolvido como o início da faixa.
+    public double percentil(double fracao) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+
+        long posto = Math.max(1, (long) Math.ceil(fracao * total));
+        long acumulado = 0;
+        for (int i = 0; i < QUANTIDADE_FAIXAS; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= posto) {
+                return limiteInferior(i);
+            }
+        }
+        return limiteInferior(QUANTIDADE_FAIXAS - 1);
+    }
+
+    public double mediana() {
+        return percentil(0.5);
+    }
+
+    public double fracaoAbaixo(double limiar) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+
+        long abaixo = 0;
+        for (int i = 0; i < faixa(limiar); i++) {
+            abaixo += contagens[i];
+        }
+        return (double) abaixo / total;
+    }
+}
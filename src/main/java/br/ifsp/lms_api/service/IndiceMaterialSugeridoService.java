@@ -0,0 +1,150 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.dto.analise.MaterialSugeridoDto;
+import br.ifsp.lms_api.dto.analise.MaterialTagTurma;
+import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+
+// Índice invertido tag -> materiais sugeridos, separado por turma para que
+// cada relatório só sugira material das turmas a que se refere. A turma é
+// carregada numa consulta na primeira leitura e descartada quando seus
+// materiais ou tópicos mudam.
+@Service
+public class IndiceMaterialSugeridoService {
+
+    private static final int CAPACIDADE_MAXIMA = 1024;
+
+    private final MaterialDeAulaRepository materialDeAulaRepository;
+    private final MatriculaRepository matriculaRepository;
+    private final VersaoDadosAnaliseService versaoDadosAnaliseService;
+
+    private final Map<Long, Map<String, List<MaterialSugeridoDto>>> indicePorTurma = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Map<String, List<MaterialSugeridoDto>>> eldest) {
+                    return size() > CAPACIDADE_MAXIMA;
+                }
+            });
+
+    // Mesmo controle de GabaritoQuestionarioService: uma turma lida durante
+    // uma invalidação pode estar desatualizada e não entra no índice.
+    private final AtomicLong geracao = new AtomicLong();
+
+    public IndiceMaterialSugeridoService(MaterialDeAulaRepository materialDeAulaRepository,
+                                         MatriculaRepository matriculaRepository,
+                                         VersaoDadosAnaliseService versaoDadosAnaliseService) {
+        this.materialDeAulaRepository = materialDeAulaRepository;
+        this.matriculaRepository = matriculaRepository;
+        this.versaoDadosAnaliseService = versaoDadosAnaliseService;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MaterialSugeridoDto> sugerirParaAluno(Long idAluno, Set<String> nomesTags) {
+        if (nomesTags.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return sugerir(matriculaRepository.findIdsTurmaByIdAluno(idAluno), nomesTags);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MaterialSugeridoDto> sugerir(Collection<Long> idsTurmas, Set<String> nomesTags) {
+        if (idsTurmas.isEmpty() || nomesTags.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<MaterialSugeridoDto> sugestoes = new LinkedHashSet<>();
+        for (Map<String, List<MaterialSugeridoDto>> indice : obterIndices(idsTurmas)) {
+            for (String nomeTag : nomesTags) {
+                sugestoes.addAll(indice.getOrDefault(nomeTag, List.of()));
+            }
+        }
+        return new ArrayList<>(sugestoes);
+    }
+
+    public void invalidarTurma(Long idTurma) {
+        aplicarInvalidacao(() -> indicePorTurma.remove(idTurma));
+        versaoDadosAnaliseService.alterarTurma(idTurma);
+    }
+
+    public void invalidarTodos() {
+        aplicarInvalidacao(indicePorTurma::clear);
+        versaoDadosAnaliseService.alterarTodos();
+    }
+
+    private List<Map<String, List<MaterialSugeridoDto>>> obterIndices(Collection<Long> idsTurmas) {
+        List<Map<String, List<MaterialSugeridoDto>>> indices = new ArrayList<>();
+        List<Long> ausentes = new ArrayList<>();
+
+        for (Long idTurma : idsTurmas) {
+            Map<String, List<MaterialSugeridoDto>> indice = indicePorTurma.get(idTurma);
+            if (indice != null) {
+                indices.add(indice);
+            } else if (!ausentes.contains(idTurma)) {
+                ausentes.add(idTurma);
+            }
+        }
+
+        if (ausentes.isEmpty()) {
+            return indices;
+        }
+
+        long geracaoInicial = geracao.get();
+
+        Map<Long, Map<String, Set<MaterialSugeridoDto>>> carregados = new HashMap<>();
+        for (MaterialTagTurma linha : materialDeAulaRepository.findMateriaisPorTagDasTurmas(ausentes)) {
+            MaterialSugeridoDto dto = new MaterialSugeridoDto();
+            dto.setNomeTopicoRelacionado(linha.getTituloTopico());
+            dto.setNomeMaterial(linha.getNomeArquivo());
+            dto.setUrlMaterial(linha.getUrlArquivo());
+
+            carregados.computeIfAbsent(linha.getIdTurma(), id -> new HashMap<>())
+                    .computeIfAbsent(linha.getNomeTag(), nome -> new LinkedHashSet<>())
+                    .add(dto);
+        }
+
+        for (Long idTurma : ausentes) {
+            Map<String, List<MaterialSugeridoDto>> indice = new HashMap<>();
+            carregados.getOrDefault(idTurma, Map.of())
+                    .forEach((nomeTag, materiais) -> indice.put(nomeTag, List.copyOf(materiais)));
+            indices.add(indice);
+
+            if (geracao.get() == geracaoInicial) {
+                indicePorTurma.put(idTurma, indice);
+            }
+        }
+
+        return indices;
+    }
+
+    // Remove na hora e de novo após o commit, como em GabaritoQuestionarioService.
+    private void aplicarInvalidacao(Runnable remocao) {
+        geracao.incrementAndGet();
+        remocao.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    geracao.incrementAndGet();
+                    remocao.run();
+                }
+            });
+        }
+    }
+}
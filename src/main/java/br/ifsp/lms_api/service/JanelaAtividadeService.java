@@ -0,0 +1,110 @@
+package br.ifsp.lms_api.service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.dto.atividadesDto.JanelaAtividade;
+import br.ifsp.lms_api.exception.PrazoAtividadeException;
+import br.ifsp.lms_api.repository.AtividadeRepository;
+
+// Barra envios fora do prazo antes de carregar aluno ou atividade e antes de
+// gravar arquivo. As janelas ficam em memória por atividade; como o dia de
+// hoje é conferido a cada envio, a entrada só muda quando a atividade é
+// editada ou apagada, e quem edita chama invalidar. No fim de uma prova todos
+// os envios (e as repetições depois do prazo) caem no mesmo punhado de
+// entradas, sem consulta ao banco.
+@Service
+public class JanelaAtividadeService {
+
+    // Entradas têm poucos campos; passar disso só acontece com muitas
+    // atividades diferentes recebendo envios, e aí recomeçar do zero basta.
+    private static final int CAPACIDADE_MAXIMA = 4096;
+
+    private final AtividadeRepository atividadeRepository;
+
+    private final Map<Long, JanelaAtividade> cache = new ConcurrentHashMap<>();
+
+    // Mesmo esquema do GabaritoQuestionarioService: janela lida durante uma
+    // invalidação não entra no cache.
+    private final AtomicLong geracao = new AtomicLong();
+
+    public JanelaAtividadeService(AtividadeRepository atividadeRepository) {
+        this.atividadeRepository = atividadeRepository;
+    }
+
+    // Atividade inexistente passa: quem chamou já responde 404 ao buscá-la.
+    public void exigirAberta(Long idAtividade) {
+        obter(idAtividade).ifPresent(janela -> conferir(janela, LocalDate.now()));
+    }
+
+    // Questionário cronometrado foi conferido ao iniciar a sessão, e o prazo
+    // do envio é o da sessão; aqui só vale o status.
+    public void exigirEnvio(Long idAtividade) {
+        obter(idAtividade).ifPresent(janela -> {
+            if (janela.isCronometrada()) {
+                conferirStatus(janela);
+            } else {
+                conferir(janela, LocalDate.now());
+            }
+        });
+    }
+
+    public void invalidar(Long idAtividade) {
+        geracao.incrementAndGet();
+        cache.remove(idAtividade);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    geracao.incrementAndGet();
+                    cache.remove(idAtividade);
+                }
+            });
+        }
+    }
+
+    static void conferir(JanelaAtividade janela, LocalDate hoje) {
+        conferirStatus(janela);
+        if (janela.getDataInicioAtividade() != null && hoje.isBefore(janela.getDataInicioAtividade())) {
+            throw new PrazoAtividadeException("A atividade só recebe envios a partir de "
+                    + janela.getDataInicioAtividade() + ".");
+        }
+        if (janela.getDataFechamentoAtividade() != null && hoje.isAfter(janela.getDataFechamentoAtividade())) {
+            throw new PrazoAtividadeException("O prazo da atividade terminou em "
+                    + janela.getDataFechamentoAtividade() + ".");
+        }
+    }
+
+    private static void conferirStatus(JanelaAtividade janela) {
+        if (Boolean.FALSE.equals(janela.getStatusAtividade())) {
+            throw new PrazoAtividadeException("A atividade não está recebendo envios.");
+        }
+    }
+
+    private Optional<JanelaAtividade> obter(Long idAtividade) {
+        JanelaAtividade janela = cache.get(idAtividade);
+        if (janela != null) {
+            return Optional.of(janela);
+        }
+
+        long geracaoInicial = geracao.get();
+        Optional<JanelaAtividade> lida = atividadeRepository.findJanela(idAtividade);
+        lida.ifPresent(nova -> {
+            if (geracao.get() == geracaoInicial) {
+                if (cache.size() >= CAPACIDADE_MAXIMA) {
+                    cache.clear();
+                }
+                cache.put(idAtividade, nova);
+            }
+        });
+        return lida;
+    }
+}
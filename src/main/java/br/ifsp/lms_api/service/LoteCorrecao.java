@@ -0,0 +1,67 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemResultadoDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
+import br.ifsp.lms_api.dto.correcaoDto.StatusCorrecaoItem;
+
+// Resultado de cada item de uma correção em lote, na ordem do pedido. Itens
+// vazios ou repetidos já falham aqui; os demais ficam pendentes até o serviço
+// achar a tentativa.
+public final class LoteCorrecao {
+
+    private final List<CorrecaoItemRequestDto> itens;
+    private final CorrecaoItemResultadoDto[] resultados;
+    private final List<Integer> pendentes = new ArrayList<>();
+
+    public LoteCorrecao(List<CorrecaoItemRequestDto> itens) {
+        this.itens = itens;
+        this.resultados = new CorrecaoItemResultadoDto[itens.size()];
+
+        Set<Long> idsVistos = new HashSet<>();
+        for (int i = 0; i < itens.size(); i++) {
+            CorrecaoItemRequestDto item = itens.get(i);
+            if (item.getNota() == null && item.getFeedback() == null) {
+                falhar(i, StatusCorrecaoItem.SEM_ALTERACAO, "Informe a nota ou o feedback.");
+            } else if (!idsVistos.add(item.getIdTentativa())) {
+                falhar(i, StatusCorrecaoItem.DUPLICADA, "Tentativa repetida no lote; só a primeira foi aplicada.");
+            } else {
+                pendentes.add(i);
+            }
+        }
+    }
+
+    public List<Integer> getPendentes() {
+        return pendentes;
+    }
+
+    public List<Long> getIdsPendentes() {
+        return pendentes.stream().map(i -> itens.get(i).getIdTentativa()).toList();
+    }
+
+    public CorrecaoItemRequestDto getItem(int i) {
+        return itens.get(i);
+    }
+
+    public void concluir(int i, Double nota) {
+        resultados[i] = new CorrecaoItemResultadoDto(itens.get(i).getIdTentativa(), StatusCorrecaoItem.CORRIGIDA, nota, null);
+    }
+
+    public void falhar(int i, StatusCorrecaoItem status, String mensagem) {
+        resultados[i] = new CorrecaoItemResultadoDto(itens.get(i).getIdTentativa(), status, null, mensagem);
+    }
+
+    public CorrecaoLoteResponseDto paraResposta() {
+        int corrigidas = (int) Arrays.stream(resultados)
+                .filter(resultado -> resultado.getStatus() == StatusCorrecaoItem.CORRIGIDA)
+                .count();
+        return new CorrecaoLoteResponseDto(resultados.length, corrigidas, resultados.length - corrigidas,
+                Arrays.asList(resultados));
+    }
+}
@@ -0,0 +1,28 @@
+package br.ifsp.lms_api.service;
+
+// Resultado de um lote da recorreção: quantas tentativas foram lidas, quantas
+// notas mudaram e o id da última, de onde parte o próximo lote.
+public final class LoteRecorrecao {
+
+    private final Long ultimoId;
+    private final int processadas;
+    private final int alteradas;
+
+    public LoteRecorrecao(Long ultimoId, int processadas, int alteradas) {
+        this.ultimoId = ultimoId;
+        this.processadas = processadas;
+        this.alteradas = alteradas;
+    }
+
+    public Long getUltimoId() {
+        return ultimoId;
+    }
+
+    public int getProcessadas() {
+        return processadas;
+    }
+
+    public int getAlteradas() {
+        return alteradas;
+    }
+}
@@ -1,5 +1,7 @@
 package br.ifsp.lms_api.service;
 
+import java.io.InputStream;
+
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,17 +27,20 @@ public class MaterialDeAulaService {
     private final StorageService storageService;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final IndiceMaterialSugeridoService indiceMaterialSugeridoService;
 
     public MaterialDeAulaService(MaterialDeAulaRepository materialRepository,
                                  TopicosRepository topicosRepository,
                                  StorageService storageService,
                                  ModelMapper modelMapper,
-                                 PagedResponseMapper pagedResponseMapper) {
+                                 PagedResponseMapper pagedResponseMapper,
+                                 IndiceMaterialSugeridoService indiceMaterialSugeridoService) {
         this.materialRepository = materialRepository;
         this.topicosRepository = topicosRepository;
         this.storageService = storageService;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.indiceMaterialSugeridoService = indiceMaterialSugeridoService;
     }
 
     public MaterialDeAulaResponseDto createMaterial(MultipartFile file, Long idTopico, Long idProfessor) {
@@ -46,18 +51,79 @@ public class MaterialDeAulaService {
             throw new AccessDeniedException("Acesso negado");
         }
 
-        String urlArquivo = storageService.createArquivo(file);
+        ArquivoRecebido recebido = storageService.createArquivo(file);
 
         MaterialDeAula novoMaterial = new MaterialDeAula();
         novoMaterial.setNomeArquivo(file.getOriginalFilename());
         novoMaterial.setTipoArquivo(file.getContentType());
-        novoMaterial.setUrlArquivo(urlArquivo);
+        novoMaterial.setUrlArquivo(recebido.getUrlArquivo());
+        novoMaterial.setTamanhoArquivo(recebido.getTamanho());
+        novoMaterial.setChecksumArquivo(recebido.getSha256());
         novoMaterial.setTopico(topico); 
 
         novoMaterial = materialRepository.save(novoMaterial);
+        indiceMaterialSugeridoService.invalidarTurma(topico.getTurma().getIdTurma());
+        return modelMapper.map(novoMaterial, MaterialDeAulaResponseDto.class);
+    }
+
+    // Envio direto (application/octet-stream), mesmo fluxo do
+    // TentativaArquivoService: o corpo vai para o disco sem o buffer do
+    // multipart, depois das conferências.
+    public MaterialDeAulaResponseDto createMaterial(InputStream corpo, String nomeArquivo, String tipoArquivo,
+                                                    long tamanhoDeclarado, Long idTopico, Long idProfessor) {
+        Topicos topico = topicosRepository.findById(idTopico)
+                .orElseThrow(() -> new ResourceNotFoundException("Tópico com ID " + idTopico + " não encontrado"));
+
+        if (!topico.getTurma().getProfessor().getIdUsuario().equals(idProfessor)) {
+            throw new AccessDeniedException("Acesso negado");
+        }
+
+        ArquivoRecebido recebido = storageService.receberArquivo(corpo, nomeArquivo, tamanhoDeclarado);
+
+        MaterialDeAula novoMaterial = new MaterialDeAula();
+        preencherArquivo(novoMaterial, nomeArquivo, tipoArquivo, recebido);
+        novoMaterial.setTopico(topico);
+
+        try {
+            novoMaterial = materialRepository.save(novoMaterial);
+        } catch (RuntimeException e) {
+            apagarArquivo(recebido.getUrlArquivo());
+            throw e;
+        }
+        indiceMaterialSugeridoService.invalidarTurma(topico.getTurma().getIdTurma());
         return modelMapper.map(novoMaterial, MaterialDeAulaResponseDto.class);
     }
 
+    // Cópia para outro tópico (de outra turma ou semestre) do mesmo
+    // professor. Com o armazenamento por conteúdo o arquivo não é copiado:
+    // o material novo é só mais uma referência ao mesmo conteúdo.
+    @Transactional
+    public MaterialDeAulaResponseDto copiarMaterial(Long id, Long idTopicoDestino, Long idProfessor) {
+        MaterialDeAula origem = materialRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Material com ID " + id + " nao encontrado"));
+        Topicos destino = topicosRepository.findById(idTopicoDestino)
+            .orElseThrow(() -> new ResourceNotFoundException("Tópico com ID " + idTopicoDestino + " não encontrado"));
+
+        if (!origem.getTopico().getTurma().getProfessor().getIdUsuario().equals(idProfessor)
+                || !destino.getTurma().getProfessor().getIdUsuario().equals(idProfessor)) {
+            throw new AccessDeniedException("Acesso negado");
+        }
+
+        ArquivoRecebido recebido = storageService.compartilharArquivo(origem.getUrlArquivo(), origem.getNomeArquivo());
+
+        MaterialDeAula copia = new MaterialDeAula();
+        copia.setNomeArquivo(origem.getNomeArquivo());
+        copia.setTipoArquivo(origem.getTipoArquivo());
+        copia.setUrlArquivo(recebido.getUrlArquivo());
+        copia.setTamanhoArquivo(recebido.getTamanho());
+        copia.setChecksumArquivo(recebido.getSha256());
+        copia.setTopico(destino);
+
+        copia = materialRepository.save(copia);
+        indiceMaterialSugeridoService.invalidarTurma(destino.getTurma().getIdTurma());
+        return modelMapper.map(copia, MaterialDeAulaResponseDto.class);
+    }
+
     @Transactional(readOnly = true)
     public MaterialDeAulaResponseDto getMaterialById(Long id) {
         MaterialDeAula material = materialRepository.findById(id)
@@ -89,7 +155,7 @@ public class MaterialDeAulaService {
             String urlArquivo = material.getUrlArquivo(); 
 
             if (urlArquivo != null && !urlArquivo.isEmpty()) {
-                String nomeArquivo = urlArquivo.substring(urlArquivo.lastIndexOf('/') + 1);
+                String nomeArquivo = StorageService.nomeDaUrl(urlArquivo);
                 storageService.deleteFile(nomeArquivo);
             }
         } catch (Exception e) {
@@ -98,6 +164,7 @@ public class MaterialDeAulaService {
         }
 
         materialRepository.delete(material);
+        indiceMaterialSugeridoService.invalidarTurma(material.getTopico().getTurma().getIdTurma());
 
         return modelMapper.map(material, MaterialDeAulaResponseDto.class);
     }
@@ -113,18 +180,20 @@ public class MaterialDeAulaService {
 
         String urlArquivoAntigo = materialToUpdate.getUrlArquivo();
 
-        String urlNovoArquivo = storageService.createArquivo(novoArquivo);
-
+        ArquivoRecebido recebido = storageService.createArquivo(novoArquivo);
 
         materialToUpdate.setNomeArquivo(novoArquivo.getOriginalFilename());
         materialToUpdate.setTipoArquivo(novoArquivo.getContentType());
-        materialToUpdate.setUrlArquivo(urlNovoArquivo); 
+        materialToUpdate.setUrlArquivo(recebido.getUrlArquivo());
+        materialToUpdate.setTamanhoArquivo(recebido.getTamanho());
+        materialToUpdate.setChecksumArquivo(recebido.getSha256());
         
         materialToUpdate = materialRepository.save(materialToUpdate);
+        indiceMaterialSugeridoService.invalidarTurma(materialToUpdate.getTopico().getTurma().getIdTurma());
 
         try {
             if (urlArquivoAntigo != null && !urlArquivoAntigo.isEmpty()) {
-                String nomeArquivoAntigo = urlArquivoAntigo.substring(urlArquivoAntigo.lastIndexOf('/') + 1);
+                String nomeArquivoAntigo = StorageService.nomeDaUrl(urlArquivoAntigo);
                 storageService.deleteFile(nomeArquivoAntigo);
             }
         } catch (Exception e) {
@@ -132,5 +201,48 @@ public class MaterialDeAulaService {
         }
         return modelMapper.map(materialToUpdate, MaterialDeAulaResponseDto.class);
     }
-}
 
+    public MaterialDeAulaResponseDto updateMaterial(Long id, InputStream corpo, String nomeArquivo, String tipoArquivo,
+                                                    long tamanhoDeclarado, Long idProfessor) {
+        MaterialDeAula materialToUpdate = materialRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Material com ID " + id + " nao encontrado"));
+
+        if (!materialToUpdate.getTopico().getTurma().getProfessor().getIdUsuario().equals(idProfessor)) {
+            throw new AccessDeniedException("Acesso negado");
+        }
+
+        String urlArquivoAntigo = materialToUpdate.getUrlArquivo();
+
+        ArquivoRecebido recebido = storageService.receberArquivo(corpo, nomeArquivo, tamanhoDeclarado);
+        try {
+            preencherArquivo(materialToUpdate, nomeArquivo, tipoArquivo, recebido);
+            materialToUpdate = materialRepository.save(materialToUpdate);
+        } catch (RuntimeException e) {
+            apagarArquivo(recebido.getUrlArquivo());
+            throw e;
+        }
+        indiceMaterialSugeridoService.invalidarTurma(materialToUpdate.getTopico().getTurma().getIdTurma());
+
+        apagarArquivo(urlArquivoAntigo);
+        return modelMapper.map(materialToUpdate, MaterialDeAulaResponseDto.class);
+    }
+
+    private void preencherArquivo(MaterialDeAula material, String nomeArquivo, String tipoArquivo,
+                                  ArquivoRecebido recebido) {
+        material.setNomeArquivo(StorageService.nomeSeguro(nomeArquivo));
+        material.setTipoArquivo(StorageService.tipoArquivo(tipoArquivo, nomeArquivo));
+        material.setUrlArquivo(recebido.getUrlArquivo());
+        material.setTamanhoArquivo(recebido.getTamanho());
+        material.setChecksumArquivo(recebido.getSha256());
+    }
+
+    private void apagarArquivo(String urlArquivo) {
+        try {
+            if (urlArquivo != null && !urlArquivo.isEmpty()) {
+                storageService.deleteFile(StorageService.nomeDaUrl(urlArquivo));
+            }
+        } catch (Exception e) {
+            System.err.println("Falha ao deletar arquivo fisico: " + e.getMessage());
+        }
+    }
+}
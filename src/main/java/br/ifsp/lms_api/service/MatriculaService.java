@@ -28,14 +28,26 @@ public class MatriculaService {
     private final TurmaRepository turmaRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final HistogramaDesempenhoService histogramaDesempenhoService;
+    private final DesempenhoSemanalService desempenhoSemanalService;
+    private final VersaoDadosAnaliseService versaoDadosAnaliseService;
+    private final RankingDesempenhoService rankingDesempenhoService;
 
     public MatriculaService(MatriculaRepository matriculaRepository, AlunoRepository alunoRepository,
-            TurmaRepository turmaRepository, ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper) {
+            TurmaRepository turmaRepository, ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper,
+            HistogramaDesempenhoService histogramaDesempenhoService,
+            DesempenhoSemanalService desempenhoSemanalService,
+            VersaoDadosAnaliseService versaoDadosAnaliseService,
+            RankingDesempenhoService rankingDesempenhoService) {
         this.matriculaRepository = matriculaRepository;
         this.alunoRepository = alunoRepository;
         this.turmaRepository = turmaRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.histogramaDesempenhoService = histogramaDesempenhoService;
+        this.desempenhoSemanalService = desempenhoSemanalService;
+        this.versaoDadosAnaliseService = versaoDadosAnaliseService;
+        this.rankingDesempenhoService = rankingDesempenhoService;
     }
 
     @Transactional
@@ -52,6 +64,10 @@ public class MatriculaService {
         matricula.setStatusMatricula(dto.getStatusMatricula());
 
         Matricula savedMatricula = matriculaRepository.save(matricula);
+        histogramaDesempenhoService.invalidarTurma(turma.getIdTurma());
+        desempenhoSemanalService.invalidarTurma(turma.getIdTurma());
+        versaoDadosAnaliseService.alterarTurma(turma.getIdTurma());
+        rankingDesempenhoService.registrarMatricula(turma.getIdTurma(), aluno.getIdUsuario());
 
         return new MatriculaResponseDto(savedMatricula);
     }
@@ -74,6 +90,15 @@ public class MatriculaService {
         Matricula matricula = matriculaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Matrícula com ID " + id + " não encontrada."));
         matriculaRepository.delete(matricula);
+        if (matricula.getTurma() != null) {
+            histogramaDesempenhoService.invalidarTurma(matricula.getTurma().getIdTurma());
+            desempenhoSemanalService.invalidarTurma(matricula.getTurma().getIdTurma());
+            versaoDadosAnaliseService.alterarTurma(matricula.getTurma().getIdTurma());
+            if (matricula.getAluno() != null) {
+                rankingDesempenhoService.registrarMatricula(
+                        matricula.getTurma().getIdTurma(), matricula.getAluno().getIdUsuario());
+            }
+        }
     }
 
     @Transactional
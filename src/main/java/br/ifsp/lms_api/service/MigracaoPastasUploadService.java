@@ -0,0 +1,121 @@
+package br.ifsp.lms_api.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Leva para as subpastas ab/cd/ os arquivos que ainda estão soltos na raiz
+// de uploads, sem parar a aplicação. A cada intervalo trata no máximo `lote`
+// arquivos: primeiro cria o hard link na subpasta e, passada a carência,
+// apaga a cópia solta; nesse meio-tempo os dois caminhos servem o mesmo
+// arquivo. A listagem da pasta é percorrida em fluxo, sem carregar tudo na
+// memória. Quando uma passada não encontra mais nada solto, o agendamento
+// termina; se a aplicação parar no meio, a próxima subida continua.
+@Service
+public class MigracaoPastasUploadService {
+
+    private final StorageService storageService;
+    private final boolean ativa;
+    private final int lote;
+    private final long intervaloMs;
+    private final long carenciaMs;
+    private final ScheduledExecutorService agendador;
+
+    // Quando cada arquivo ganhou o link; só guarda os que ainda estão na carência.
+    private final Map<String, Long> vinculadosEm = new HashMap<>();
+
+    // Lotes que falharam desde a subida, para o relatório da reconciliação.
+    private final AtomicLong lotesComFalha = new AtomicLong();
+    private volatile String ultimaFalha;
+
+    public MigracaoPastasUploadService(StorageService storageService,
+                                       @Value("${storage.upload.migracao.ativa:true}") boolean ativa,
+                                       @Value("${storage.upload.migracao.lote:200}") int lote,
+                                       @Value("${storage.upload.migracao.intervalo-ms:1000}") long intervaloMs,
+                                       @Value("${storage.upload.migracao.carencia-ms:60000}") long carenciaMs) {
+        this.storageService = storageService;
+        this.ativa = ativa;
+        this.lote = lote;
+        this.intervaloMs = intervaloMs;
+        this.carenciaMs = carenciaMs;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "migracao-pastas-upload");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (ativa) {
+            agendador.scheduleWithFixedDelay(this::executarLote, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        agendador.shutdownNow();
+    }
+
+    private void executarLote() {
+        try {
+            if (!migrarLote(System.currentTimeMillis())) {
+                agendador.shutdown();
+            }
+        } catch (IOException | RuntimeException e) {
+            // uma falha não pode matar o agendamento; o próximo lote tenta de novo
+            lotesComFalha.incrementAndGet();
+            ultimaFalha = e.getMessage();
+        }
+    }
+
+    long getLotesComFalha() {
+        return lotesComFalha.get();
+    }
+
+    String getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    // false quando não sobrou nenhum arquivo solto na raiz.
+    boolean migrarLote(long agora) throws IOException {
+        int tratados = 0;
+        boolean restam = false;
+        try (DirectoryStream<Path> soltos = storageService.listarSoltos()) {
+            Iterator<Path> iterador = soltos.iterator();
+            while (tratados < lote && iterador.hasNext()) {
+                String nome = iterador.next().getFileName().toString();
+                restam = true;
+
+                if (storageService.vincularNaSubpasta(nome)) {
+                    vinculadosEm.put(nome, agora);
+                    tratados++;
+                    continue;
+                }
+
+                // Link já existe: de um lote anterior ou de antes de reiniciar.
+                Long vinculado = vinculadosEm.putIfAbsent(nome, agora);
+                if (vinculado != null && agora - vinculado >= carenciaMs) {
+                    storageService.apagarSolto(nome);
+                    vinculadosEm.remove(nome);
+                    tratados++;
+                }
+            }
+        }
+        return restam;
+    }
+}
@@ -12,6 +12,7 @@ import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.ifsp.lms_api.dto.page.PagedResponse;
 import br.ifsp.lms_api.dto.questoesDto.QuestoesRequestDto;
@@ -32,12 +33,21 @@ public class QuestoesService {
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
     private final TagRepository tagRepository;
-
-    public QuestoesService(QuestoesRepository questoesRepository, ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper, TagRepository tagRepository) {
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+    private final RecorrecaoQuestionarioService recorrecaoQuestionarioService;
+
+    public QuestoesService(QuestoesRepository questoesRepository, ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper, TagRepository tagRepository,
+            DesempenhoAgregadoService desempenhoAgregadoService,
+            GabaritoQuestionarioService gabaritoQuestionarioService,
+            RecorrecaoQuestionarioService recorrecaoQuestionarioService) {
         this.questoesRepository = questoesRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
         this.tagRepository = tagRepository;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+        this.recorrecaoQuestionarioService = recorrecaoQuestionarioService;
     }
 
     public QuestoesResponseDto createQuestao(QuestoesRequestDto questaoRequestDto) {
@@ -85,6 +95,7 @@ public class QuestoesService {
         return pagedResponseMapper.toPagedResponse(questoesPage, QuestoesResponseDto.class);
     }
 
+    @Transactional
     public QuestoesResponseDto updateQuestao(Long id, QuestoesUpdateDto updateDto) {
         Questoes existingQuestao = questoesRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Questão not found with id: " + id));
@@ -92,13 +103,24 @@ public class QuestoesService {
 
         updateDto.getEnunciado().ifPresent(existingQuestao::setEnunciado);
 
+        updateDto.getPeso().ifPresent(peso -> {
+            if (!peso.equals(existingQuestao.getPeso())) {
+                existingQuestao.setPeso(peso);
+                gabaritoQuestionarioService.invalidarPorQuestao(id);
+                recorrecaoQuestionarioService.agendarPorQuestao(id);
+            }
+        });
+
         updateDto.getTagIds().ifPresent(tagIds -> {
+            // antes da troca, para pegar os questionários que sorteiam pela tag antiga
+            desempenhoAgregadoService.invalidarPorQuestao(id);
             if (tagIds.isEmpty()) {
                 existingQuestao.getTags().clear();
             } else {
                 List<Tag> tags = tagRepository.findAllById(tagIds);
                 existingQuestao.setTags(new HashSet<>(tags));
             }
+            gabaritoQuestionarioService.invalidarPorQuestao(id);
         });
         Questoes updatedQuestao = questoesRepository.save(existingQuestao);
         return modelMapper.map(updatedQuestao, QuestoesResponseDto.class);
@@ -108,5 +130,6 @@ public class QuestoesService {
         Questoes questao = questoesRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Questão not found with id: " + id));
         questoesRepository.delete(questao);
+        gabaritoQuestionarioService.invalidarPorQuestao(id);
     }   
 }
@@ -0,0 +1,258 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.dto.analise.PosicaoRankingDto;
+import br.ifsp.lms_api.dto.analise.RankingResponseDto;
+import br.ifsp.lms_api.dto.analise.SomaNotasAluno;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.Atividade;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.repository.AlunoRepository;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+import br.ifsp.lms_api.repository.TurmaRepository;
+
+// Ranking de alunos pela média das notas, por turma (atividades da turma,
+// só alunos matriculados) e por questionário. Cada ranking é montado numa
+// consulta agrupada na primeira leitura e depois só o aluno que recebeu nota
+// é reposicionado: a soma dele é relida do banco após o commit, então aplicar
+// a mesma atualização duas vezes não conta a nota em dobro.
+@Service
+public class RankingDesempenhoService {
+
+    private static final int CAPACIDADE_MAXIMA = 512;
+
+    private final RelatorioDesempenhoRepository relatorioRepo;
+    private final TurmaRepository turmaRepo;
+    private final AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+    private final AlunoRepository alunoRepository;
+
+    private final Map<String, RankingNotas> rankings = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RankingNotas> eldest) {
+                    return size() > CAPACIDADE_MAXIMA;
+                }
+            });
+
+    // Um ranking lido enquanto alguma nota era atualizada pode ter perdido
+    // essa nota e não entra no cache.
+    private final AtomicLong geracao = new AtomicLong();
+
+    public RankingDesempenhoService(RelatorioDesempenhoRepository relatorioRepo,
+                                    TurmaRepository turmaRepo,
+                                    AtividadeQuestionarioRepository atividadeQuestionarioRepository,
+                                    AlunoRepository alunoRepository) {
+        this.relatorioRepo = relatorioRepo;
+        this.turmaRepo = turmaRepo;
+        this.atividadeQuestionarioRepository = atividadeQuestionarioRepository;
+        this.alunoRepository = alunoRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public RankingResponseDto rankingTurma(Long idTurma, int limite, Long idAluno) {
+        if (!turmaRepo.existsById(idTurma)) {
+            throw new ResourceNotFoundException("Turma não encontrada com ID: " + idTurma);
+        }
+        RankingNotas ranking = obter(chaveTurma(idTurma), () -> somasDaTurma(idTurma, null));
+        return montarResposta(idTurma, ranking, limite, idAluno);
+    }
+
+    @Transactional(readOnly = true)
+    public RankingResponseDto rankingQuestionario(Long idQuestionario, int limite, Long idAluno) {
+        if (!atividadeQuestionarioRepository.existsById(idQuestionario)) {
+            throw new ResourceNotFoundException("Questionário não encontrado com ID: " + idQuestionario);
+        }
+        RankingNotas ranking = obter(chaveQuestionario(idQuestionario),
+                () -> relatorioRepo.somarNotasPorAlunoNoQuestionario(idQuestionario, null));
+        return montarResposta(idQuestionario, ranking, limite, idAluno);
+    }
+
+    public void registrarCorrecao(Long idAluno, Atividade atividade) {
+        Long idTurma = turmaDaAtividade(atividade);
+        if (idTurma != null) {
+            aposCommit(() -> reposicionarNaTurma(idTurma, idAluno));
+        }
+    }
+
+    public void registrarTentativaQuestionario(Long idAluno, AtividadeQuestionario questionario) {
+        Long idTurma = turmaDaAtividade(questionario);
+        Long idQuestionario = questionario.getIdAtividade();
+        aposCommit(() -> {
+            if (idTurma != null) {
+                reposicionarNaTurma(idTurma, idAluno);
+            }
+            reposicionar(chaveQuestionario(idQuestionario), idAluno,
+                    () -> relatorioRepo.somarNotasPorAlunoNoQuestionario(idQuestionario, idAluno));
+        });
+    }
+
+    // Entrada ou saída de matrícula muda quem aparece no ranking da turma.
+    public void registrarMatricula(Long idTurma, Long idAluno) {
+        aposCommit(() -> reposicionarNaTurma(idTurma, idAluno));
+    }
+
+    public void invalidarAluno(Long idAluno) {
+        aplicarInvalidacao(() -> rankings.values().removeIf(ranking -> ranking.contem(idAluno)));
+    }
+
+    public void invalidarAlunos(Collection<Long> idsAlunos) {
+        Set<Long> alunos = new HashSet<>(idsAlunos);
+        aplicarInvalidacao(() -> rankings.values().removeIf(ranking -> alunos.stream().anyMatch(ranking::contem)));
+    }
+
+    public void invalidarTodos() {
+        aplicarInvalidacao(rankings::clear);
+    }
+
+    private RankingNotas obter(String chave, Supplier<List<SomaNotasAluno>> consulta) {
+        RankingNotas ranking = rankings.get(chave);
+        if (ranking != null) {
+            return ranking;
+        }
+
+        long geracaoInicial = geracao.get();
+        ranking = new RankingNotas();
+        for (SomaNotasAluno soma : consulta.get()) {
+            ranking.definir(soma.getIdAluno(), soma.getSomaNotas(), soma.getQuantidadeNotas());
+        }
+
+        if (geracao.get() == geracaoInicial) {
+            RankingNotas existente = rankings.putIfAbsent(chave, ranking);
+            if (existente != null) {
+                return existente;
+            }
+        }
+        return ranking;
+    }
+
+    private void reposicionarNaTurma(Long idTurma, Long idAluno) {
+        reposicionar(chaveTurma(idTurma), idAluno, () -> somasDaTurma(idTurma, idAluno));
+    }
+
+    // Relê a soma com o ranking travado: quem chega por último lê o estado
+    // mais recente e prevalece.
+    private void reposicionar(String chave, Long idAluno, Supplier<List<SomaNotasAluno>> consulta) {
+        geracao.incrementAndGet();
+
+        RankingNotas ranking = rankings.get(chave);
+        if (ranking == null) {
+            return;
+        }
+
+        synchronized (ranking) {
+            double soma = 0;
+            long quantidade = 0;
+            for (SomaNotasAluno parcial : consulta.get()) {
+                soma += parcial.getSomaNotas();
+                quantidade += parcial.getQuantidadeNotas();
+            }
+            ranking.definir(idAluno, soma, quantidade);
+        }
+    }
+
+    private List<SomaNotasAluno> somasDaTurma(Long idTurma, Long idAluno) {
+        Map<Long, SomaNotasAluno> somasPorAluno = new HashMap<>();
+
+        List<SomaNotasAluno> parciais = new ArrayList<>();
+        parciais.addAll(relatorioRepo.somarNotasTextoPorAlunoNaTurma(idTurma, idAluno));
+        parciais.addAll(relatorioRepo.somarNotasArquivoPorAlunoNaTurma(idTurma, idAluno));
+        parciais.addAll(relatorioRepo.somarNotasQuestionarioPorAlunoNaTurma(idTurma, idAluno));
+        for (SomaNotasAluno parcial : parciais) {
+            somasPorAluno.merge(parcial.getIdAluno(), parcial, (a, b) -> new SomaNotasAluno(a.getIdAluno(),
+                    a.getSomaNotas() + b.getSomaNotas(), a.getQuantidadeNotas() + b.getQuantidadeNotas()));
+        }
+        return new ArrayList<>(somasPorAluno.values());
+    }
+
+    private RankingResponseDto montarResposta(Long idAlvo, RankingNotas ranking, int limite, Long idAluno) {
+        List<Long> idsPrimeiros = ranking.primeiros(limite);
+
+        List<Long> idsComNome = new ArrayList<>(idsPrimeiros);
+        if (idAluno != null && !idsComNome.contains(idAluno)) {
+            idsComNome.add(idAluno);
+        }
+        Map<Long, String> nomes = new HashMap<>();
+        for (Aluno aluno : alunoRepository.findAllById(idsComNome)) {
+            nomes.put(aluno.getIdUsuario(), aluno.getNome());
+        }
+
+        List<PosicaoRankingDto> primeiros = new ArrayList<>();
+        for (Long id : idsPrimeiros) {
+            primeiros.add(posicao(ranking, id, nomes));
+        }
+
+        PosicaoRankingDto posicaoAluno = idAluno != null && ranking.contem(idAluno)
+                ? posicao(ranking, idAluno, nomes)
+                : null;
+
+        return new RankingResponseDto(idAlvo, ranking.getTotal(), primeiros, posicaoAluno);
+    }
+
+    private static PosicaoRankingDto posicao(RankingNotas ranking, Long idAluno, Map<Long, String> nomes) {
+        return new PosicaoRankingDto(ranking.posicao(idAluno), idAluno, nomes.get(idAluno),
+                ranking.media(idAluno), ranking.quantidadeNotas(idAluno));
+    }
+
+    private static Long turmaDaAtividade(Atividade atividade) {
+        if (atividade.getTopico() == null || atividade.getTopico().getTurma() == null) {
+            return null;
+        }
+        return atividade.getTopico().getTurma().getIdTurma();
+    }
+
+    private static String chaveTurma(Long idTurma) {
+        return "TURMA:" + idTurma;
+    }
+
+    private static String chaveQuestionario(Long idQuestionario) {
+        return "QUESTIONARIO:" + idQuestionario;
+    }
+
+    // Sem transação (ou fora dela) aplica na hora.
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    // Remove na hora e de novo após o commit, como em GabaritoQuestionarioService.
+    private void aplicarInvalidacao(Runnable remocao) {
+        geracao.incrementAndGet();
+        remocao.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    geracao.incrementAndGet();
+                    remocao.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package br.ifsp.lms_api.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Alunos ordenados pela média (maior primeiro, empate pelo id) numa treap em
+// que cada nó guarda o tamanho da subárvore. Atualizar um aluno, achar a
+// posição dele e ler os primeiros k custam O(log n) (mais k na leitura).
+// A posição é a de competição: empatados dividem a mesma, como em 1, 2, 2, 4.
+public final class RankingNotas {
+
+    private final Map<Long, No> nosPorAluno = new HashMap<>();
+    private No raiz;
+
+    public synchronized void definir(long idAluno, double somaNotas, long quantidadeNotas) {
+        No anterior = nosPorAluno.remove(idAluno);
+        if (anterior != null) {
+            raiz = remover(raiz, anterior);
+        }
+
+        if (quantidadeNotas > 0) {
+            No no = new No(idAluno, somaNotas / quantidadeNotas, quantidadeNotas);
+            nosPorAluno.put(idAluno, no);
+            raiz = inserir(raiz, no);
+        }
+    }
+
+    public synchronized boolean contem(long idAluno) {
+        return nosPorAluno.containsKey(idAluno);
+    }
+
+    public synchronized int getTotal() {
+        return tamanho(raiz);
+    }
+
+    // 0 quando o aluno não tem nota no ranking.
+    public synchronized int posicao(long idAluno) {
+        No no = nosPorAluno.get(idAluno);
+        return no == null ? 0 : contarAcimaDe(no.media) + 1;
+    }
+
+    public synchronized double media(long idAluno) {
+        No no = nosPorAluno.get(idAluno);
+        return no == null ? Double.NaN : no.media;
+    }
+
+    public synchronized long quantidadeNotas(long idAluno) {
+        No no = nosPorAluno.get(idAluno);
+        return no == null ? 0L : no.quantidadeNotas;
+    }
+
+    // Ids dos k primeiros, em ordem.
+    public synchronized List<Long> primeiros(int k) {
+        List<Long> primeiros = new ArrayList<>(Math.min(k, tamanho(raiz)));
+        Deque<No> pilha = new ArrayDeque<>();
+        No atual = raiz;
+
+        while ((atual != null || !pilha.isEmpty()) && primeiros.size() < k) {
+            while (atual != null) {
+                pilha.push(atual);
+                atual = atual.esquerda;
+            }
+            atual = pilha.pop();
+            primeiros.add(atual.idAluno);
+            atual = atual.direita;
+        }
+        return primeiros;
+    }
+
+    private int contarAcimaDe(double media) {
+        int acima = 0;
+        No atual = raiz;
+        while (atual != null) {
+            if (atual.media > media) {
+                acima += tamanho(atual.esquerda) + 1;
+                atual = atual.direita;
+            } else {
+                atual = atual.esquerda;
+            }
+        }
+        return acima;
+    }
+
+    private static No inserir(No raiz, No no) {
+        if (raiz == null) {
+            return no;
+        }
+        if (no.prioridade > raiz.prioridade) {
+            No[] partes = dividir(raiz, no);
+            no.esquerda = partes[0];
+            no.direita = partes[1];
+            atualizarTamanho(no);
+            return no;
+        }
+        if (antes(no, raiz)) {
+            raiz.esquerda = inserir(raiz.esquerda, no);
+        } else {
+            raiz.direita = inserir(raiz.direita, no);
+        }
+        atualizarTamanho(raiz);
+        return raiz;
+    }
+
+    private static No remover(No raiz, No no) {
+        if (raiz == no) {
+            return juntar(raiz.esquerda, raiz.direita);
+        }
+        if (antes(no, raiz)) {
+            raiz.esquerda = remover(raiz.esquerda, no);
+        } else {
+            raiz.direita = remover(raiz.direita, no);
+        }
+        atualizarTamanho(raiz);
+        return raiz;
+    }
+
+    // Separa em {nós antes de chave, nós depois de chave}.
+    private static No[] dividir(No raiz, No chave) {
+        if (raiz == null) {
+            return new No[2];
+        }
+        if (antes(raiz, chave)) {
+            No[] partes = dividir(raiz.direita, chave);
+            raiz.direita = partes[0];
+            atualizarTamanho(raiz);
+            partes[0] = raiz;
+            return partes;
+        }
+        No[] partes = dividir(raiz.esquerda, chave);
+        raiz.esquerda = partes[1];
+        atualizarTamanho(raiz);
+        partes[1] = raiz;
+        return partes;
+    }
+
+    private static No juntar(No esquerda, No direita) {
+        if (esquerda == null) return direita;
+        if (direita == null) return esquerda;
+
+        if (esquerda.prioridade > direita.prioridade) {
+            esquerda.direita = juntar(esquerda.direita, direita);
+            atualizarTamanho(esquerda);
+            return esquerda;
+        }
+        direita.esquerda = juntar(esquerda, direita.esquerda);
+        atualizarTamanho(direita);
+        return direita;
+    }
+
+    private static boolean antes(No a, No b) {
+        if (a.media != b.media) {
+            return a.media > b.media;
+        }
+        return a.idAluno < b.idAluno;
+    }
+
+    private static int tamanho(No no) {
+        return no == null ? 0 : no.tamanho;
+    }
+
+    private static void atualizarTamanho(No no) {
+        no.tamanho = tamanho(no.esquerda) + tamanho(no.direita) + 1;
+    }
+
+    private static final class No {
+
+        private final long idAluno;
+        private final double media;
+        private final long quantidadeNotas;
+        private final int prioridade = ThreadLocalRandom.current().nextInt();
+
+        private No esquerda;
+        private No direita;
+        private int tamanho = 1;
+
+        No(long idAluno, double media, long quantidadeNotas) {
+            this.idAluno = idAluno;
+            this.media = media;
+            this.quantidadeNotas = quantidadeNotas;
+        }
+    }
+}
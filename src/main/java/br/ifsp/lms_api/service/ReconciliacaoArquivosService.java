@@ -0,0 +1,135 @@
+package br.ifsp.lms_api.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.ifsp.lms_api.dto.arquivoDto.RelatorioReconciliacaoResponseDto;
+import br.ifsp.lms_api.service.VarreduraArquivosService.Varredura;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Acerta de tempos em tempos o disco de uploads com o banco. Sobram arquivos
+// sem linha quando o deleteFile falha depois do commit ou quando a transação
+// do upload é desfeita com o arquivo já gravado; somem arquivos de linhas que
+// continuam lá. Os órfãos com mais que a carência são apagados (no máximo
+// `lote` por rodada, o resto fica para a próxima); as referências quebradas
+// só entram no relatório, que fica disponível em GET /arquivos/reconciliacao.
+@Service
+public class ReconciliacaoArquivosService {
+
+    private final VarreduraArquivosService varreduraArquivosService;
+    private final StorageService storageService;
+    private final MigracaoPastasUploadService migracaoPastasUploadService;
+    private final boolean ativa;
+    private final long intervaloMs;
+    private final long carenciaMs;
+    private final int lote;
+    private final ScheduledExecutorService agendador;
+
+    private volatile RelatorioReconciliacaoResponseDto ultimoRelatorio;
+
+    public ReconciliacaoArquivosService(VarreduraArquivosService varreduraArquivosService,
+                                        StorageService storageService,
+                                        MigracaoPastasUploadService migracaoPastasUploadService,
+                                        @Value("${storage.upload.reconciliacao.ativa:true}") boolean ativa,
+                                        @Value("${storage.upload.reconciliacao.intervalo-ms:21600000}") long intervaloMs,
+                                        @Value("${storage.upload.reconciliacao.carencia-ms:3600000}") long carenciaMs,
+                                        @Value("${storage.upload.reconciliacao.lote:1000}") int lote) {
+        this.varreduraArquivosService = varreduraArquivosService;
+        this.storageService = storageService;
+        this.migracaoPastasUploadService = migracaoPastasUploadService;
+        this.ativa = ativa;
+        this.intervaloMs = intervaloMs;
+        this.carenciaMs = carenciaMs;
+        this.lote = lote;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "reconciliacao-arquivos");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (ativa) {
+            agendador.scheduleWithFixedDelay(() -> reconciliar(System.currentTimeMillis()),
+                    intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        agendador.shutdownNow();
+    }
+
+    // null até a primeira rodada terminar.
+    public RelatorioReconciliacaoResponseDto getUltimoRelatorio() {
+        return ultimoRelatorio;
+    }
+
+    RelatorioReconciliacaoResponseDto reconciliar(long agora) {
+        long inicio = System.nanoTime();
+        long limiteModificacao = agora - carenciaMs;
+        RelatorioReconciliacaoResponseDto relatorio = new RelatorioReconciliacaoResponseDto();
+        relatorio.setIniciadaEm(LocalDateTime.now());
+
+        try {
+            relatorio.setParciaisApagados(storageService.apagarParciaisAntigos(limiteModificacao));
+            relatorio.setSoltosNaRaiz(contarSoltos());
+
+            Varredura varredura = varreduraArquivosService.varrer(limiteModificacao, lote);
+            relatorio.setArquivosNoDisco(varredura.getArquivosNoDisco());
+            relatorio.setNomesNoBanco(varredura.getNomesNoBanco());
+            relatorio.setOrfaos(varredura.getOrfaos());
+            relatorio.setOrfaosNaCarencia(varredura.getOrfaosNaCarencia());
+            relatorio.setReferenciasQuebradas(varredura.getReferenciasQuebradas());
+            relatorio.setExemplosReferenciasQuebradas(varredura.getExemplosReferenciasQuebradas());
+
+            for (String nome : varredura.getOrfaosParaApagar()) {
+                apagarOrfao(nome, limiteModificacao, relatorio);
+            }
+        } catch (IOException | RuntimeException e) {
+            // uma falha não pode matar o agendamento; a próxima rodada recomeça do zero
+            relatorio.setErro(e.getMessage());
+        }
+
+        relatorio.setLimpezasComFalha(storageService.getLimpezasComFalha());
+        relatorio.setLotesMigracaoComFalha(migracaoPastasUploadService.getLotesComFalha());
+        relatorio.setUltimaFalhaMigracao(migracaoPastasUploadService.getUltimaFalha());
+
+        relatorio.setConcluidaEm(LocalDateTime.now());
+        relatorio.setDuracaoMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        ultimoRelatorio = relatorio;
+        return relatorio;
+    }
+
+    private void apagarOrfao(String nome, long limiteModificacao, RelatorioReconciliacaoResponseDto relatorio) {
+        try {
+            if (!varreduraArquivosService.referenciado(nome) && storageService.apagarOrfao(nome, limiteModificacao)) {
+                relatorio.setOrfaosApagados(relatorio.getOrfaosApagados() + 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            // fica no disco e volta a ser órfão na próxima rodada
+            relatorio.setOrfaosComFalha(relatorio.getOrfaosComFalha() + 1);
+        }
+    }
+
+    private long contarSoltos() throws IOException {
+        long soltos = 0;
+        try (DirectoryStream<Path> arquivos = storageService.listarSoltos()) {
+            for (Path arquivo : arquivos) {
+                soltos++;
+            }
+        }
+        return soltos;
+    }
+}
@@ -0,0 +1,222 @@
+package br.ifsp.lms_api.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.RecorrecaoQuestionarioResponseDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.StatusRecorrecao;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
+import jakarta.annotation.PreDestroy;
+
+// Recalcula as notas das tentativas de um questionário depois que o gabarito
+// muda. As tentativas são lidas em lotes por id crescente, cada lote numa
+// transação curta, então a memória usada não depende do total e os envios
+// normais continuam enquanto o job roda. Há no máximo um job por
+// questionário: pedir de novo durante a execução faz o job recomeçar do
+// início com o gabarito mais novo.
+@Service
+public class RecorrecaoQuestionarioService {
+
+    private static final int TENTATIVAS_POR_LOTE = 3;
+
+    private final TentativaQuestionarioService tentativaQuestionarioService;
+    private final TentativaQuestionarioRepository tentativaQuestionarioRepository;
+    private final AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final int tamanhoLote;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<Long, Recorrecao> recorrecoes = new ConcurrentHashMap<>();
+
+    public RecorrecaoQuestionarioService(TentativaQuestionarioService tentativaQuestionarioService,
+                                         TentativaQuestionarioRepository tentativaQuestionarioRepository,
+                                         AtividadeQuestionarioRepository atividadeQuestionarioRepository,
+                                         DesempenhoAgregadoService desempenhoAgregadoService,
+                                         @Value("${questionario.recorrecao.lote:200}") int tamanhoLote) {
+        this.tentativaQuestionarioService = tentativaQuestionarioService;
+        this.tentativaQuestionarioRepository = tentativaQuestionarioRepository;
+        this.atividadeQuestionarioRepository = atividadeQuestionarioRepository;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.tamanhoLote = tamanhoLote;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), tarefa -> {
+            Thread thread = new Thread(tarefa, "recorrecao-questionario");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // Chamado na transação que alterou o gabarito; os jobs só começam depois
+    // do commit, para lerem o gabarito novo.
+    public void agendarPorQuestao(Long idQuestao) {
+        List<Long> idsQuestionarios = atividadeQuestionarioRepository.findIdsPorQuestao(idQuestao);
+        if (idsQuestionarios.isEmpty()) {
+            return;
+        }
+        aposCommit(() -> idsQuestionarios.forEach(this::agendar));
+    }
+
+    // Para mudanças no próprio questionário, como a estratégia de correção.
+    public void agendarAposCommit(Long idQuestionario) {
+        aposCommit(() -> agendar(idQuestionario));
+    }
+
+    public RecorrecaoQuestionarioResponseDto agendarQuestionario(Long idQuestionario) {
+        if (!atividadeQuestionarioRepository.existsById(idQuestionario)) {
+            throw new ResourceNotFoundException("Questionário não encontrado com ID: " + idQuestionario);
+        }
+        return agendar(idQuestionario).paraDto();
+    }
+
+    public RecorrecaoQuestionarioResponseDto consultar(Long idQuestionario) {
+        Recorrecao recorrecao = recorrecoes.get(idQuestionario);
+        if (recorrecao == null) {
+            throw new ResourceNotFoundException("Nenhuma recorreção registrada para o questionário: " + idQuestionario);
+        }
+        return recorrecao.paraDto();
+    }
+
+    private synchronized Recorrecao agendar(Long idQuestionario) {
+        Recorrecao atual = recorrecoes.get(idQuestionario);
+        if (atual != null && atual.pedirReinicio()) {
+            return atual;
+        }
+
+        Recorrecao nova = new Recorrecao(idQuestionario);
+        recorrecoes.put(idQuestionario, nova);
+        executor.execute(() -> executar(nova));
+        return nova;
+    }
+
+    private void executar(Recorrecao recorrecao) {
+        Long idQuestionario = recorrecao.idQuestionario;
+        try {
+            do {
+                recorrecao.iniciar(tentativaQuestionarioRepository.contarPorQuestionario(idQuestionario));
+                Long ultimoId = 0L;
+                while (!recorrecao.reinicioPedido()) {
+                    LoteRecorrecao lote = recorrigirLote(idQuestionario, ultimoId);
+                    if (lote.getProcessadas() == 0) {
+                        break;
+                    }
+                    ultimoId = lote.getUltimoId();
+                    recorrecao.avancar(lote.getProcessadas(), lote.getAlteradas());
+                }
+            } while (!recorrecao.concluir());
+
+            // rankings e agregados usam as notas gravadas
+            if (recorrecao.alteradas > 0) {
+                desempenhoAgregadoService.invalidarAtividades(List.of(idQuestionario));
+            }
+        } catch (RuntimeException e) {
+            recorrecao.falhar(e.getMessage());
+        }
+    }
+
+    // Um lote pode falhar se uma tentativa dele for apagada ao mesmo tempo; na
+    // nova leitura ela já não aparece.
+    private LoteRecorrecao recorrigirLote(Long idQuestionario, Long ultimoId) {
+        RuntimeException ultimaFalha = null;
+        for (int tentativa = 0; tentativa < TENTATIVAS_POR_LOTE; tentativa++) {
+            try {
+                return tentativaQuestionarioService.recorrigirLote(idQuestionario, ultimoId, tamanhoLote);
+            } catch (RuntimeException e) {
+                ultimaFalha = e;
+            }
+        }
+        throw ultimaFalha;
+    }
+
+    // Sem transação (ou fora dela) aplica na hora.
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    private static final class Recorrecao {
+
+        private final Long idQuestionario;
+        private final LocalDateTime criadaEm = LocalDateTime.now();
+        private volatile StatusRecorrecao status = StatusRecorrecao.PENDENTE;
+        private volatile long totalTentativas;
+        private volatile long processadas;
+        private volatile long alteradas;
+        private volatile LocalDateTime concluidaEm;
+        private volatile String erro;
+        private boolean reinicio;
+
+        private Recorrecao(Long idQuestionario) {
+            this.idQuestionario = idQuestionario;
+        }
+
+        // Falso se o job já terminou e um novo precisa ser criado.
+        synchronized boolean pedirReinicio() {
+            if (status != StatusRecorrecao.PENDENTE && status != StatusRecorrecao.EM_EXECUCAO) {
+                return false;
+            }
+            reinicio = true;
+            return true;
+        }
+
+        synchronized boolean reinicioPedido() {
+            return reinicio;
+        }
+
+        synchronized void iniciar(long total) {
+            reinicio = false;
+            status = StatusRecorrecao.EM_EXECUCAO;
+            totalTentativas = total;
+            processadas = 0;
+        }
+
+        synchronized void avancar(int lidas, int notasAlteradas) {
+            processadas += lidas;
+            alteradas += notasAlteradas;
+        }
+
+        // Falso se um reinício foi pedido depois da última passada.
+        synchronized boolean concluir() {
+            if (reinicio) {
+                return false;
+            }
+            status = StatusRecorrecao.CONCLUIDA;
+            concluidaEm = LocalDateTime.now();
+            return true;
+        }
+
+        synchronized void falhar(String mensagem) {
+            status = StatusRecorrecao.FALHOU;
+            erro = mensagem;
+            concluidaEm = LocalDateTime.now();
+        }
+
+        synchronized RecorrecaoQuestionarioResponseDto paraDto() {
+            return new RecorrecaoQuestionarioResponseDto(idQuestionario, status, totalTentativas, processadas,
+                    alteradas, criadaEm, concluidaEm, erro);
+        }
+    }
+}
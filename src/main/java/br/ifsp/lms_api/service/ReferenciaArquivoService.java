@@ -0,0 +1,53 @@
+package br.ifsp.lms_api.service;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.model.ArquivoArmazenado;
+import br.ifsp.lms_api.repository.ArquivoArmazenadoRepository;
+
+// Contagem de referências dos arquivos endereçados pelo conteúdo. Cada
+// operação tem transação própria: o StorageService chama sob a trava do
+// arquivo e precisa da contagem já gravada quando solta a trava, mesmo que
+// esteja dentro da transação de quem pediu o upload.
+@Service
+public class ReferenciaArquivoService {
+
+    private final ArquivoArmazenadoRepository arquivoArmazenadoRepository;
+
+    public ReferenciaArquivoService(ArquivoArmazenadoRepository arquivoArmazenadoRepository) {
+        this.arquivoArmazenadoRepository = arquivoArmazenadoRepository;
+    }
+
+    // Nome do arquivo já armazenado, agora com mais uma referência; vazio se
+    // o conteúdo ainda não existe.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<String> referenciar(String sha256) {
+        if (arquivoArmazenadoRepository.incrementarReferencias(sha256) == 0) {
+            return Optional.empty();
+        }
+        return arquivoArmazenadoRepository.findNomeArmazenado(sha256);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void registrar(String sha256, String nomeArmazenado, long tamanho) {
+        arquivoArmazenadoRepository.save(new ArquivoArmazenado(sha256, nomeArmazenado, tamanho, 1, null));
+    }
+
+    // true quando era a última referência: a linha saiu e o arquivo pode ser apagado.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean liberar(String sha256) {
+        arquivoArmazenadoRepository.decrementarReferencias(sha256);
+        return arquivoArmazenadoRepository.deleteSemReferencias(sha256) == 1;
+    }
+
+    // Arquivo órfão apagado pela reconciliação: nenhuma linha aponta para
+    // ele, então a contagem que sobrou não vale mais.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void esquecer(String sha256) {
+        arquivoArmazenadoRepository.deleteById(sha256);
+    }
+}
@@ -0,0 +1,208 @@
+package br.ifsp.lms_api.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import br.ifsp.lms_api.dto.analise.EscopoRelatorio;
+import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobRequestDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobResponseDto;
+import br.ifsp.lms_api.dto.analise.StatusRelatorioJob;
+import br.ifsp.lms_api.exception.FilaRelatoriosCheiaException;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.DisciplinaRepository;
+import br.ifsp.lms_api.repository.TurmaRepository;
+import jakarta.annotation.PreDestroy;
+
+// Relatórios de turma e disciplina calculados fora da requisição HTTP, num
+// pool de tamanho fixo com fila limitada; fila cheia devolve 429 em vez de
+// acumular trabalho. O resultado fica guardado por (escopo, id, versão dos
+// dados), então pedir de novo o relatório de uma turma que não mudou não
+// recalcula nada, e pedidos iguais em andamento são atendidos pelo mesmo job.
+@Service
+public class RelatorioJobService {
+
+    private static final int CAPACIDADE_RESULTADOS = 256;
+    private static final Duration RETENCAO_JOBS = Duration.ofMinutes(30);
+
+    private final AnaliseDesempenhoService analiseService;
+    private final TurmaRepository turmaRepo;
+    private final DisciplinaRepository disciplinaRepo;
+    private final VersaoDadosAnaliseService versaoDadosAnaliseService;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobsEmAndamentoPorChave = new ConcurrentHashMap<>();
+
+    private final Map<String, RelatorioDesempenhoResponseDto> resultadosPorChave = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RelatorioDesempenhoResponseDto> eldest) {
+                    return size() > CAPACIDADE_RESULTADOS;
+                }
+            });
+
+    public RelatorioJobService(AnaliseDesempenhoService analiseService,
+                               TurmaRepository turmaRepo,
+                               DisciplinaRepository disciplinaRepo,
+                               VersaoDadosAnaliseService versaoDadosAnaliseService,
+                               @Value("${analise.jobs.threads:2}") int threads,
+                               @Value("${analise.jobs.capacidade-fila:20}") int capacidadeFila) {
+        this.analiseService = analiseService;
+        this.turmaRepo = turmaRepo;
+        this.disciplinaRepo = disciplinaRepo;
+        this.versaoDadosAnaliseService = versaoDadosAnaliseService;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), novaThread(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public RelatorioJobResponseDto submeter(RelatorioJobRequestDto pedido) {
+        descartarJobsAntigos();
+
+        String chave = chave(pedido.getEscopo(), pedido.getIdAlvo());
+
+        RelatorioDesempenhoResponseDto pronto = resultadosPorChave.get(chave);
+        if (pronto != null) {
+            Job job = new Job(pedido);
+            job.concluir(pronto);
+            jobs.put(job.id, job);
+            return job.paraDto();
+        }
+
+        Job job = new Job(pedido);
+        jobs.put(job.id, job);
+
+        Job emAndamento = jobsEmAndamentoPorChave.putIfAbsent(chave, job);
+        if (emAndamento != null) {
+            jobs.remove(job.id);
+            return emAndamento.paraDto();
+        }
+
+        try {
+            executor.execute(() -> executar(job, chave));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            jobsEmAndamentoPorChave.remove(chave, job);
+            throw new FilaRelatoriosCheiaException(
+                    "Há relatórios demais na fila. Tente novamente em alguns segundos.");
+        }
+
+        return job.paraDto();
+    }
+
+    // Mesmas regras dos relatórios síncronos: o da disciplina é só do
+    // administrador, e para os demais o job é tratado como inexistente.
+    public RelatorioJobResponseDto consultar(String idJob, boolean administrador) {
+        Job job = jobs.get(idJob);
+        if (job == null || (!administrador && job.escopo == EscopoRelatorio.DISCIPLINA)) {
+            throw new ResourceNotFoundException("Job de relatório não encontrado com ID: " + idJob);
+        }
+        return job.paraDto();
+    }
+
+    private void executar(Job job, String chave) {
+        job.iniciar();
+        try {
+            RelatorioDesempenhoResponseDto resultado = job.escopo == EscopoRelatorio.TURMA
+                    ? analiseService.gerarRelatorioTurma(job.idAlvo)
+                    : analiseService.gerarRelatorioDisciplina(job.idAlvo);
+
+            resultadosPorChave.put(chave, resultado);
+            job.concluir(resultado);
+        } catch (RuntimeException e) {
+            job.falhar(e.getMessage());
+        } finally {
+            jobsEmAndamentoPorChave.remove(chave, job);
+        }
+    }
+
+    // A versão é lida antes do cálculo; se os dados mudarem durante o job, o
+    // resultado fica guardado numa chave que ninguém mais vai pedir. Na
+    // disciplina, a chave inclui as turmas, que podem ser criadas ou removidas.
+    private String chave(EscopoRelatorio escopo, Long idAlvo) {
+        if (escopo == EscopoRelatorio.TURMA) {
+            if (!turmaRepo.existsById(idAlvo)) {
+                throw new ResourceNotFoundException("Turma não encontrada com ID: " + idAlvo);
+            }
+            return escopo + ":" + idAlvo + ":" + versaoDadosAnaliseService.versaoTurma(idAlvo);
+        }
+
+        if (!disciplinaRepo.existsById(idAlvo)) {
+            throw new ResourceNotFoundException("Disciplina não encontrada com ID: " + idAlvo);
+        }
+        List<Long> idsTurmas = turmaRepo.findIdsByIdDisciplina(idAlvo).stream().sorted().toList();
+        return escopo + ":" + idAlvo + ":" + versaoDadosAnaliseService.versaoTurmas(idsTurmas) + ":" + idsTurmas;
+    }
+
+    private void descartarJobsAntigos() {
+        LocalDateTime limite = LocalDateTime.now().minus(RETENCAO_JOBS);
+        jobs.values().removeIf(job -> job.concluidoEm != null && job.concluidoEm.isBefore(limite));
+    }
+
+    private static ThreadFactory novaThread() {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, "relatorio-job-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Job {
+
+        private final String id = UUID.randomUUID().toString();
+        private final EscopoRelatorio escopo;
+        private final Long idAlvo;
+        private final LocalDateTime criadoEm = LocalDateTime.now();
+
+        private volatile StatusRelatorioJob status = StatusRelatorioJob.PENDENTE;
+        private volatile LocalDateTime concluidoEm;
+        private volatile RelatorioDesempenhoResponseDto resultado;
+        private volatile String erro;
+
+        Job(RelatorioJobRequestDto pedido) {
+            this.escopo = pedido.getEscopo();
+            this.idAlvo = pedido.getIdAlvo();
+        }
+
+        void iniciar() {
+            status = StatusRelatorioJob.EM_EXECUCAO;
+        }
+
+        void concluir(RelatorioDesempenhoResponseDto resultado) {
+            this.resultado = resultado;
+            this.concluidoEm = LocalDateTime.now();
+            this.status = StatusRelatorioJob.CONCLUIDO;
+        }
+
+        void falhar(String erro) {
+            this.erro = erro;
+            this.concluidoEm = LocalDateTime.now();
+            this.status = StatusRelatorioJob.FALHOU;
+        }
+
+        RelatorioJobResponseDto paraDto() {
+            return new RelatorioJobResponseDto(id, escopo, idAlvo, status, criadoEm, concluidoEm, resultado, erro);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package br.ifsp.lms_api.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.SessaoQuestionarioResponseDto;
+import br.ifsp.lms_api.exception.LimiteTentativasException;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.exception.SessaoQuestionarioException;
+import br.ifsp.lms_api.exception.TentativaSimultaneaException;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.SessaoQuestionario;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.ContadorTentativasQuestionarioRepository;
+import br.ifsp.lms_api.repository.SessaoQuestionarioRepository;
+import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
+
+// Sessões abertas de questionários com tempo, por (aluno, questionário). Quem
+// consulta se a sessão ainda vale olha só o mapa em memória; o banco guarda uma
+// linha por sessão aberta para recuperar o mapa num reinício. As expirações
+// ficam numa DelayQueue que EnvioAutomaticoQuestionarioService consome.
+//
+// O salvamento automático das respostas só troca a lista na sessão em memória
+// e a põe na fila de pendentes uma única vez, por mais salvamentos que cheguem
+// antes da próxima gravação; AutosaveQuestionarioService grava a fila em lotes.
+@Service
+public class SessaoQuestionarioService {
+
+    // Envio que chega logo depois do fim (latência da rede) ainda é aceito.
+    static final Duration TOLERANCIA_ENVIO = Duration.ofSeconds(5);
+
+    private final SessaoQuestionarioRepository sessaoRepository;
+    private final AtividadeQuestionarioRepository questionarioRepository;
+    private final ContadorTentativasQuestionarioRepository contadorTentativasRepository;
+    private final TentativaQuestionarioRepository tentativaQuestionarioRepository;
+    private final JanelaAtividadeService janelaAtividadeService;
+
+    private final Map<String, SessaoAberta> sessoes = new ConcurrentHashMap<>();
+    private final DelayQueue<SessaoAberta> expiracoes = new DelayQueue<>();
+    private final Queue<SessaoAberta> respostasPendentes = new ConcurrentLinkedQueue<>();
+
+    public SessaoQuestionarioService(SessaoQuestionarioRepository sessaoRepository,
+                                     AtividadeQuestionarioRepository questionarioRepository,
+                                     ContadorTentativasQuestionarioRepository contadorTentativasRepository,
+                                     TentativaQuestionarioRepository tentativaQuestionarioRepository,
+                                     JanelaAtividadeService janelaAtividadeService) {
+        this.sessaoRepository = sessaoRepository;
+        this.questionarioRepository = questionarioRepository;
+        this.contadorTentativasRepository = contadorTentativasRepository;
+        this.tentativaQuestionarioRepository = tentativaQuestionarioRepository;
+        this.janelaAtividadeService = janelaAtividadeService;
+    }
+
+    // Iniciar de novo uma sessão ainda aberta devolve a mesma sessão, sem
+    // reiniciar o tempo.
+    @Transactional
+    public SessaoQuestionarioResponseDto iniciar(Long idQuestionario, Long idAluno) {
+        janelaAtividadeService.exigirAberta(idQuestionario);
+
+        AtividadeQuestionario questionario = questionarioRepository.findById(idQuestionario)
+                .orElseThrow(() -> new ResourceNotFoundException("Questionário não encontrado com ID: " + idQuestionario));
+        if (questionario.getDuracaoQuestionario() <= 0) {
+            throw new SessaoQuestionarioException("Este questionário não tem tempo limite; envie as respostas diretamente.");
+        }
+
+        SessaoAberta aberta = sessoes.get(chave(idAluno, idQuestionario));
+        if (aberta != null) {
+            if (aberta.expirada()) {
+                throw new SessaoQuestionarioException("O tempo da sessão anterior acabou e a tentativa está sendo enviada.");
+            }
+            return resposta(aberta);
+        }
+
+        int usadas = contadorTentativasRepository.findQuantidade(idAluno, idQuestionario)
+                .orElseGet(() -> (int) tentativaQuestionarioRepository.contarPorQuestionarioEAluno(idQuestionario, idAluno));
+        if (usadas >= questionario.getNumeroTentativas()) {
+            throw new LimiteTentativasException("Limite de tentativas atingido.");
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        SessaoQuestionario sessao;
+        try {
+            sessao = sessaoRepository.saveAndFlush(new SessaoQuestionario(null, idAluno, idQuestionario,
+                    agora, agora.plusMinutes(questionario.getDuracaoQuestionario()), new ArrayList<>(), null));
+        } catch (DataIntegrityViolationException e) {
+            throw new TentativaSimultaneaException("Esta sessão já está sendo iniciada. Tente novamente.");
+        }
+
+        SessaoAberta nova = new SessaoAberta(sessao);
+        aposCommit(() -> registrar(nova));
+        return resposta(nova);
+    }
+
+    public void exigirAberta(Long idAluno, Long idQuestionario) {
+        aberta(idAluno, idQuestionario);
+    }
+
+    // Não toca no banco: a lista fica na sessão até a próxima gravação em lote.
+    public SessaoQuestionarioResponseDto salvarRespostas(Long idQuestionario, Long idAluno, List<Long> respostas) {
+        SessaoAberta sessao = aberta(idAluno, idQuestionario);
+        sessao.respostas = respostas == null
+                ? List.of()
+                : respostas.stream().filter(Objects::nonNull).toList();
+        if (sessao.pendente.compareAndSet(false, true)) {
+            respostasPendentes.add(sessao);
+        }
+        return resposta(sessao);
+    }
+
+    // Retira da fila até `limite` sessões com respostas ainda não gravadas.
+    public List<SessaoAberta> retirarPendentes(int limite) {
+        List<SessaoAberta> lote = new ArrayList<>();
+        SessaoAberta sessao;
+        while (lote.size() < limite && (sessao = respostasPendentes.poll()) != null) {
+            // liberada antes da gravação: um salvamento que chegar agora volta para a fila
+            sessao.pendente.set(false);
+            lote.add(sessao);
+        }
+        return lote;
+    }
+
+    // Grava o lote numa transação; os UPDATEs saem agrupados no flush
+    // (hibernate.jdbc.batch_size). Sessão já encerrada não tem mais linha e
+    // fica de fora.
+    @Transactional
+    public void gravarRespostas(List<SessaoAberta> lote) {
+        Map<Long, List<Long>> respostasPorSessao = new HashMap<>();
+        for (SessaoAberta sessao : lote) {
+            respostasPorSessao.put(sessao.idSessao, sessao.respostas);
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        for (SessaoQuestionario linha : sessaoRepository.findAllById(respostasPorSessao.keySet())) {
+            linha.setRespostas(new ArrayList<>(respostasPorSessao.get(linha.getIdSessao())));
+            linha.setRespostasSalvasEm(agora);
+        }
+    }
+
+    // Lote que falhou volta para a fila, menos as sessões que já foram encerradas.
+    public void devolverPendentes(List<SessaoAberta> lote) {
+        for (SessaoAberta sessao : lote) {
+            if (sessoes.get(sessao.chave()) == sessao && sessao.pendente.compareAndSet(false, true)) {
+                respostasPendentes.add(sessao);
+            }
+        }
+    }
+
+    public boolean temRespostasPendentes() {
+        return !respostasPendentes.isEmpty();
+    }
+
+    // Roda na transação do envio. Apagar a linha decide quem envia: se o aluno
+    // e o envio automático chegarem juntos, o segundo a apagar recebe false.
+    @Transactional
+    public boolean encerrar(Long idAluno, Long idQuestionario) {
+        if (sessaoRepository.encerrar(idAluno, idQuestionario) == 0) {
+            return false;
+        }
+        String chave = chave(idAluno, idQuestionario);
+        SessaoAberta sessao = sessoes.get(chave);
+        if (sessao != null) {
+            aposCommit(() -> sessoes.remove(chave, sessao));
+        }
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public int recuperar() {
+        List<SessaoQuestionario> abertas = sessaoRepository.findAll();
+        for (SessaoQuestionario sessao : abertas) {
+            registrar(new SessaoAberta(sessao));
+        }
+        return abertas.size();
+    }
+
+    // Bloqueia até alguma sessão passar do prazo. Sessões já encerradas pelo
+    // aluno continuam na fila e são ignoradas aqui.
+    public SessaoAberta aguardarExpirada() throws InterruptedException {
+        while (true) {
+            SessaoAberta sessao = expiracoes.take();
+            if (sessoes.get(sessao.chave()) == sessao) {
+                return sessao;
+            }
+        }
+    }
+
+    // Envio automático que falhou volta para a fila e é tentado de novo.
+    public void reagendar(SessaoAberta sessao, Duration espera) {
+        sessao.proximaVerificacao = System.currentTimeMillis() + espera.toMillis();
+        expiracoes.offer(sessao);
+    }
+
+    private SessaoAberta aberta(Long idAluno, Long idQuestionario) {
+        SessaoAberta sessao = sessoes.get(chave(idAluno, idQuestionario));
+        if (sessao == null) {
+            throw new SessaoQuestionarioException("Inicie o questionário antes de enviar as respostas.");
+        }
+        if (sessao.expirada()) {
+            throw new SessaoQuestionarioException("O tempo do questionário acabou; a tentativa será enviada automaticamente.");
+        }
+        return sessao;
+    }
+
+    private void registrar(SessaoAberta sessao) {
+        sessoes.put(sessao.chave(), sessao);
+        expiracoes.offer(sessao);
+    }
+
+    private static SessaoQuestionarioResponseDto resposta(SessaoAberta sessao) {
+        long restantes = Math.max(0, Duration.between(LocalDateTime.now(), sessao.getExpiraEm()).getSeconds());
+        return new SessaoQuestionarioResponseDto(sessao.getIdQuestionario(), sessao.getIdAluno(),
+                sessao.getIniciadaEm(), sessao.getExpiraEm(), restantes);
+    }
+
+    private static String chave(Long idAluno, Long idQuestionario) {
+        return idAluno + ":" + idQuestionario;
+    }
+
+    // Sem transação (ou fora dela) aplica na hora.
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    public static final class SessaoAberta implements Delayed {
+
+        private final Long idSessao;
+        private final Long idAluno;
+        private final Long idQuestionario;
+        private final LocalDateTime iniciadaEm;
+        private final LocalDateTime expiraEm;
+        private final long fimMillis;
+        private volatile long proximaVerificacao;
+        private volatile List<Long> respostas;
+        private final AtomicBoolean pendente = new AtomicBoolean();
+
+        SessaoAberta(SessaoQuestionario sessao) {
+            this.idSessao = sessao.getIdSessao();
+            this.idAluno = sessao.getIdAluno();
+            this.idQuestionario = sessao.getIdQuestionario();
+            this.iniciadaEm = sessao.getIniciadaEm();
+            this.expiraEm = sessao.getExpiraEm();
+            this.fimMillis = expiraEm.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    + TOLERANCIA_ENVIO.toMillis();
+            this.proximaVerificacao = fimMillis;
+            this.respostas = sessao.getRespostas() == null ? List.of() : List.copyOf(sessao.getRespostas());
+        }
+
+        public Long getIdAluno() {
+            return idAluno;
+        }
+
+        public Long getIdQuestionario() {
+            return idQuestionario;
+        }
+
+        public LocalDateTime getIniciadaEm() {
+            return iniciadaEm;
+        }
+
+        public LocalDateTime getExpiraEm() {
+            return expiraEm;
+        }
+
+        public List<Long> getRespostas() {
+            return respostas;
+        }
+
+        boolean expirada() {
+            return System.currentTimeMillis() > fimMillis;
+        }
+
+        String chave() {
+            return SessaoQuestionarioService.chave(idAluno, idQuestionario);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(proximaVerificacao - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed outra) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), outra.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
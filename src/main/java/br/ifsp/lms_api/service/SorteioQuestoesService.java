@@ -0,0 +1,112 @@
+package br.ifsp.lms_api.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.exception.TentativaSimultaneaException;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.SorteioQuestoes;
+import br.ifsp.lms_api.repository.QuestoesRepository;
+import br.ifsp.lms_api.repository.SorteioQuestoesRepository;
+
+// Sorteia as questões de questionários que usam o banco de questões por tag.
+// O sorteio é uma amostragem de reservatório sobre os ids da tag em ordem
+// crescente, com semente tirada de questionário, aluno e número da tentativa:
+// a memória fica em N ids, nenhuma questão é carregada, e o mesmo aluno na
+// mesma tentativa sempre recebe as mesmas questões.
+@Service
+public class SorteioQuestoesService {
+
+    private final QuestoesRepository questoesRepository;
+    private final SorteioQuestoesRepository sorteioQuestoesRepository;
+
+    public SorteioQuestoesService(QuestoesRepository questoesRepository,
+                                  SorteioQuestoesRepository sorteioQuestoesRepository) {
+        this.questoesRepository = questoesRepository;
+        this.sorteioQuestoesRepository = sorteioQuestoesRepository;
+    }
+
+    public static boolean usaSorteio(AtividadeQuestionario questionario) {
+        return questionario.getQuantidadeSorteada() > 0;
+    }
+
+    // Questões que o aluno vai responder; a primeira consulta grava o sorteio.
+    @Transactional
+    public List<Long> reservar(AtividadeQuestionario questionario, Long idAluno, int numeroDaTentativa) {
+        Optional<SorteioQuestoes> existente = sorteioQuestoesRepository.buscar(
+                idAluno, questionario.getIdAtividade(), numeroDaTentativa);
+        if (existente.isPresent()) {
+            return existente.get().getQuestoes();
+        }
+
+        List<Long> questoes = sortear(questionario, idAluno, numeroDaTentativa);
+        try {
+            sorteioQuestoesRepository.saveAndFlush(new SorteioQuestoes(null, idAluno, questionario.getIdAtividade(),
+                    numeroDaTentativa, questoes, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            throw new TentativaSimultaneaException("As questões desta tentativa estão sendo sorteadas. Tente novamente.");
+        }
+        return questoes;
+    }
+
+    // No envio: devolve o sorteio gravado e o apaga, ou sorteia agora se o
+    // aluno enviou sem consultar as questões.
+    @Transactional
+    public List<Long> consumir(AtividadeQuestionario questionario, Long idAluno, int numeroDaTentativa) {
+        Optional<SorteioQuestoes> existente = sorteioQuestoesRepository.buscar(
+                idAluno, questionario.getIdAtividade(), numeroDaTentativa);
+        if (existente.isPresent()) {
+            sorteioQuestoesRepository.delete(existente.get());
+            return existente.get().getQuestoes();
+        }
+        return sortear(questionario, idAluno, numeroDaTentativa);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> sortear(AtividadeQuestionario questionario, Long idAluno, int numeroDaTentativa) {
+        int quantidade = questionario.getQuantidadeSorteada();
+        if (quantidade <= 0 || questionario.getIdTagSorteio() == null) {
+            return List.of();
+        }
+
+        SplittableRandom random = new SplittableRandom(semente(questionario.getIdAtividade(), idAluno, numeroDaTentativa));
+        long[] amostra = new long[quantidade];
+        long vistos = 0;
+
+        try (Stream<Long> ids = questoesRepository.streamIdsPorTag(questionario.getIdTagSorteio())) {
+            Iterator<Long> iterador = ids.iterator();
+            while (iterador.hasNext()) {
+                long id = iterador.next();
+                if (vistos < quantidade) {
+                    amostra[(int) vistos] = id;
+                } else {
+                    long posicao = random.nextLong(vistos + 1);
+                    if (posicao < quantidade) {
+                        amostra[(int) posicao] = id;
+                    }
+                }
+                vistos++;
+            }
+        }
+
+        long[] sorteadas = Arrays.copyOf(amostra, (int) Math.min(vistos, quantidade));
+        Arrays.sort(sorteadas);
+        return Arrays.stream(sorteadas).boxed().toList();
+    }
+
+    static long semente(Long idQuestionario, Long idAluno, int numeroDaTentativa) {
+        long semente = idQuestionario;
+        semente = semente * 0x9E3779B97F4A7C15L + idAluno;
+        semente = semente * 0x9E3779B97F4A7C15L + numeroDaTentativa;
+        return semente;
+    }
+}
@@ -2,22 +2,90 @@ package br.ifsp.lms_api.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import br.ifsp.lms_api.exception.ArquivoGrandeDemaisException;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
 
 @Service
 public class StorageService {
 
-    private final Path rootLocation = Paths.get("uploads");
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String SUFIXO_PARCIAL = ".parcial";
+
+    // Um byte[] por thread de requisição, reaproveitado entre envios: o
+    // InputStream do servlet só entrega em byte[], então essa cópia no heap é
+    // inevitável; o SHA-256 lê dele direto e o FileChannel.write passa pelo
+    // buffer direto temporário que o próprio JDK reaproveita. O número de
+    // buffers fica preso ao tamanho do pool do servidor, não ao de envios.
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[TAMANHO_BUFFER]);
+
+    private static final Pattern CHAVE_CONTEUDO = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+
+    private static final Pattern EXTENSAO = Pattern.compile("[a-z0-9]{1,10}");
+
+    private static final Pattern FRAGMENTAVEL = Pattern.compile("[0-9a-f]{4}");
+
+    private static final Pattern SUBPASTA = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path rootLocation;
+    private final long tamanhoMaximo;
+    private final boolean conteudoEnderecado;
+    private final ReferenciaArquivoService referenciaArquivoService;
+
+    // Liberações de arquivo e parciais que não saíram do disco desde a
+    // subida; o que ficou para trás a reconciliação apaga e o relatório dela
+    // mostra a contagem.
+    private final AtomicLong limpezasComFalha = new AtomicLong();
 
-    public StorageService() {
+    private final Object[] travas = new Object[64];
+
+    public StorageService(@Value("${storage.upload.pasta:uploads}") String pasta,
+                          @Value("${storage.upload.tamanho-maximo:10MB}") DataSize tamanhoMaximo,
+                          @Value("${storage.upload.conteudo-enderecado:true}") boolean conteudoEnderecado,
+                          ReferenciaArquivoService referenciaArquivoService) {
+        this.rootLocation = Paths.get(pasta);
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+        this.conteudoEnderecado = conteudoEnderecado;
+        this.referenciaArquivoService = referenciaArquivoService;
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new Object();
+        }
         try {
             Files.createDirectories(rootLocation);
         } catch (IOException e) {
@@ -25,41 +93,474 @@ public class StorageService {
         }
     }
 
-    public String createArquivo(MultipartFile file) {
-        try {
-            if (file.isEmpty()) {
-                throw new RuntimeException("Falha ao salvar arquivo vazio.");
-            }
+    public ArquivoRecebido createArquivo(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Falha ao salvar arquivo vazio.");
+        }
 
-            String originalFilename = file.getOriginalFilename();
-            String uniqueFilename = UUID.randomUUID().toString() + "_" + originalFilename;
+        try (InputStream inputStream = file.getInputStream()) {
+            return receberArquivo(inputStream, file.getOriginalFilename(), file.getSize());
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao salvar o arquivo.", e);
+        }
+    }
+
+    // Envio direto do corpo da requisição: lê em blocos para um arquivo
+    // parcial, contando bytes e atualizando o SHA-256 a cada bloco, e só põe
+    // o arquivo no lugar quando o corpo termina. Passou do limite, o envio é
+    // cortado ali mesmo e o parcial apagado.
+    // tamanhoDeclarado é o Content-Length (-1 quando não informado) e serve
+    // só para recusar antes de ler o primeiro byte.
+    public ArquivoRecebido receberArquivo(InputStream corpo, String nomeOriginal, long tamanhoDeclarado) {
+        if (tamanhoDeclarado > tamanhoMaximo) {
+            throw new ArquivoGrandeDemaisException(mensagemLimite());
+        }
 
-            Path destinationFile = this.rootLocation.resolve(Paths.get(uniqueFilename))
-                                      .normalize().toAbsolutePath();
+        String uniqueFilename = UUID.randomUUID().toString() + "_" + nomeSeguro(nomeOriginal);
+        Path parcial = resolver(uniqueFilename + SUFIXO_PARCIAL);
 
-            try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+        MessageDigest sha256 = novoSha256();
+        long tamanho = 0;
+        String nomeArmazenado;
+        boolean concluido = false;
+        try {
+            byte[] buffer = BUFFER.get();
+            try (FileChannel arquivo = FileChannel.open(parcial,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                int lidos;
+                while ((lidos = corpo.read(buffer)) != -1) {
+                    tamanho += lidos;
+                    if (tamanho > tamanhoMaximo) {
+                        throw new ArquivoGrandeDemaisException(mensagemLimite());
+                    }
+                    sha256.update(buffer, 0, lidos);
+                    ByteBuffer bloco = ByteBuffer.wrap(buffer, 0, lidos);
+                    while (bloco.hasRemaining()) {
+                        arquivo.write(bloco);
+                    }
+                }
             }
 
-            return ServletUriComponentsBuilder
-                .fromCurrentContextPath()
-                .path("/uploads/")
-                .path(uniqueFilename)
-                .toUriString();
+            if (tamanho == 0) {
+                throw new RuntimeException("Falha ao salvar arquivo vazio.");
+            }
 
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            if (conteudoEnderecado) {
+                nomeArmazenado = guardarPorConteudo(parcial, hash, nomeOriginal, tamanho);
+            } else {
+                nomeArmazenado = uniqueFilename;
+                moverParaSubpasta(parcial, nomeArmazenado);
+            }
+            concluido = true;
+            liberarSeDesfeito(nomeArmazenado);
+            return new ArquivoRecebido(nomeArmazenado, url(nomeArmazenado), tamanho, hash);
         } catch (IOException e) {
             throw new RuntimeException("Falha ao salvar o arquivo.", e);
+        } finally {
+            if (!concluido) {
+                apagarParcial(parcial);
+            }
         }
     }
-public void deleteFile(String filename) throws IOException { 
+
+    // Mais uma referência a um arquivo já guardado, sem copiar bytes quando
+    // ele é endereçado pelo conteúdo (copiar material entre turmas). Arquivo
+    // antigo, de nome UUID_, é relido e entra no armazenamento como novo.
+    public ArquivoRecebido compartilharArquivo(String urlArquivo, String nomeOriginal) {
+        String nome = nomeDaUrl(urlArquivo);
+        String hash = chaveDoConteudo(nome);
+        try {
+            if (hash != null) {
+                Optional<String> existente;
+                synchronized (trava(hash)) {
+                    existente = referenciaArquivoService.referenciar(hash);
+                    if (existente.isPresent()) {
+                        renovar(existente.get());
+                    }
+                }
+                if (existente.isPresent()) {
+                    liberarSeDesfeito(existente.get());
+                    return new ArquivoRecebido(existente.get(), url(existente.get()),
+                            Files.size(localizar(existente.get())), hash);
+                }
+            }
+
+            try (InputStream inputStream = Files.newInputStream(localizar(nome))) {
+                return receberArquivo(inputStream, nomeOriginal, -1);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao copiar o arquivo.", e);
+        }
+    }
+
+    // Arquivo endereçado pelo conteúdo é só uma referência a menos: sai do
+    // disco quando era a última. Dentro de uma transação a referência só é
+    // solta depois do commit, para que um rollback não deixe a linha
+    // apontando para um arquivo já apagado.
+    public void deleteFile(String filename) throws IOException {
         if (filename == null || filename.isEmpty()) {
-            return; 
+            return;
+        }
+
+        if (chaveDoConteudo(filename) != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    liberarSemFalhar(filename);
+                }
+            });
+            return;
+        }
+        liberar(filename);
+    }
+
+    private void liberar(String filename) throws IOException {
+        String hash = chaveDoConteudo(filename);
+        if (hash == null) {
+            synchronized (trava(filename)) {
+                if (!apagarCopias(filename)) {
+                    throw new NoSuchFileException(filename);
+                }
+            }
+            return;
+        }
+
+        synchronized (trava(hash)) {
+            if (referenciaArquivoService.liberar(hash)) {
+                apagarCopias(filename);
+            }
+        }
+    }
+
+    // Durante a migração o arquivo pode estar na subpasta e solto na raiz.
+    private boolean apagarCopias(String nomeArmazenado) throws IOException {
+        boolean naSubpasta = Files.deleteIfExists(fragmentado(nomeArmazenado));
+        boolean solto = Files.deleteIfExists(resolver(nomeArmazenado));
+        return naSubpasta || solto;
+    }
+
+    private void liberarSemFalhar(String filename) {
+        try {
+            liberar(filename);
+        } catch (Exception e) {
+            limpezasComFalha.incrementAndGet();
+        }
+    }
+
+    // Upload feito dentro de uma transação que acabou desfeita: a linha que
+    // apontaria para o arquivo não existe, então a referência volta.
+    private void liberarSeDesfeito(String nomeArmazenado) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        liberarSemFalhar(nomeArmazenado);
+                    }
+                }
+            });
+        }
+    }
+
+    // Conteúdo repetido não é gravado de novo: o parcial é descartado e o
+    // arquivo existente ganha uma referência. A trava por hash garante que
+    // um envio não mova o arquivo para o lugar enquanto outro, liberando a
+    // última referência, o apaga.
+    private String guardarPorConteudo(Path parcial, String hash, String nomeOriginal, long tamanho)
+            throws IOException {
+        synchronized (trava(hash)) {
+            Optional<String> existente = referenciaArquivoService.referenciar(hash);
+            if (existente.isPresent()) {
+                if (renovar(existente.get())) {
+                    Files.delete(parcial);
+                } else {
+                    // a contagem sobreviveu ao arquivo: este envio o repõe
+                    moverParaSubpasta(parcial, existente.get());
+                }
+                return existente.get();
+            }
+
+            String nomeArmazenado = hash + extensao(nomeOriginal);
+            moverParaSubpasta(parcial, nomeArmazenado);
+            referenciaArquivoService.registrar(hash, nomeArmazenado, tamanho);
+            return nomeArmazenado;
+        }
+    }
+
+    // Conteúdo reaproveitado conta como recém-gravado: a reconciliação só
+    // apaga órfãos sem modificação há mais que a carência, e a linha de quem
+    // acabou de ganhar a referência ainda pode não ter sido commitada.
+    private boolean renovar(String nomeArmazenado) throws IOException {
+        try {
+            Files.setLastModifiedTime(localizar(nomeArmazenado), FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // Hash do conteúdo se o nome é de um arquivo endereçado pelo conteúdo
+    // (64 hex + extensão), null para os nomes antigos UUID_nome.
+    static String chaveDoConteudo(String nomeArmazenado) {
+        return CHAVE_CONTEUDO.matcher(nomeArmazenado).matches() ? nomeArmazenado.substring(0, 64) : null;
+    }
+
+    // A extensão do primeiro envio fica no nome para o arquivo continuar
+    // sendo servido com o tipo certo em /uploads.
+    static String extensao(String nomeOriginal) {
+        String nome = nomeSeguro(nomeOriginal);
+        int ponto = nome.lastIndexOf('.');
+        if (ponto <= 0) {
+            return "";
+        }
+        String extensao = nome.substring(ponto + 1).toLowerCase(Locale.ROOT);
+        return EXTENSAO.matcher(extensao).matches() ? "." + extensao : "";
+    }
+
+    // Caminho no disco de um nome guardado; nome que sairia da pasta de
+    // uploads é tratado como inexistente.
+    public Path caminho(String nomeArmazenado) {
+        Path caminho = resolver(nomeArmazenado);
+        if (!caminho.getParent().equals(this.rootLocation.toAbsolutePath().normalize())) {
+            throw new ResourceNotFoundException("Arquivo " + nomeArmazenado + " não encontrado");
+        }
+        return localizar(nomeArmazenado);
+    }
+
+    // A URL guardada vem do UriComponentsBuilder, com o nome codificado
+    // (espaço vira %20); o arquivo no disco tem o nome original.
+    public static String nomeDaUrl(String urlArquivo) {
+        return UriUtils.decode(urlArquivo.substring(urlArquivo.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+    }
+
+    // O inverso de nomeDaUrl: como o nome aparece no fim da urlArquivo.
+    static String nomeNaUrl(String nomeArmazenado) {
+        return UriUtils.encodePath(nomeArmazenado, StandardCharsets.UTF_8);
+    }
+
+    // Arquivos soltos na raiz que a MigracaoPastasUploadService ainda vai
+    // pôr nas subpastas (parciais de upload em andamento ficam de fora).
+    DirectoryStream<Path> listarSoltos() throws IOException {
+        return Files.newDirectoryStream(this.rootLocation, caminho -> {
+            String nome = caminho.getFileName().toString();
+            return fragmentavel(nome) && !nome.endsWith(SUFIXO_PARCIAL) && Files.isRegularFile(caminho);
+        });
+    }
+
+    // Cria na subpasta um hard link para o arquivo solto: os dois caminhos
+    // valem até apagarSolto, então quem resolveu o caminho antigo um instante
+    // antes ainda abre o arquivo. Sem hard link no sistema de arquivos o
+    // arquivo é movido. false se não havia o que fazer.
+    boolean vincularNaSubpasta(String nomeArmazenado) throws IOException {
+        synchronized (trava(chaveDaTrava(nomeArmazenado))) {
+            Path solto = resolver(nomeArmazenado);
+            Path destino = fragmentado(nomeArmazenado);
+            if (Files.exists(destino) || !Files.exists(solto)) {
+                return false;
+            }
+            Files.createDirectories(destino.getParent());
+            try {
+                Files.createLink(destino, solto);
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.move(solto, destino, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return true;
         }
+    }
 
-        Path fileToDelete = this.rootLocation.resolve(Paths.get(filename))
-                                .normalize().toAbsolutePath();
+    void apagarSolto(String nomeArmazenado) throws IOException {
+        synchronized (trava(chaveDaTrava(nomeArmazenado))) {
+            if (Files.exists(fragmentado(nomeArmazenado))) {
+                Files.deleteIfExists(resolver(nomeArmazenado));
+            }
+        }
+    }
+
+    // Visita os arquivos das subpastas ab/cd/ na ordem do nome como aparece
+    // na URL (a mesma do ORDER BY em urlArquivo). Como a subpasta é o começo
+    // do nome, basta ordenar cada pasta separadamente: só os nomes de uma
+    // pasta ficam em memória por vez.
+    void percorrerSubpastas(VisitaArquivo visita) throws IOException {
+        for (Path primeiro : subpastasEmOrdem(this.rootLocation)) {
+            for (Path segundo : subpastasEmOrdem(primeiro)) {
+                String prefixo = primeiro.getFileName().toString() + segundo.getFileName();
+                List<String> nomes = new ArrayList<>();
+                try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(segundo, prefixo + "*")) {
+                    for (Path arquivo : arquivos) {
+                        nomes.add(arquivo.getFileName().toString());
+                    }
+                }
+                nomes.sort(Comparator.comparing(StorageService::nomeNaUrl));
+                for (String nome : nomes) {
+                    BasicFileAttributes atributos;
+                    try {
+                        atributos = Files.readAttributes(segundo.resolve(nome), BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                    if (atributos.isRegularFile()) {
+                        visita.visitar(nome, atributos.lastModifiedTime().toMillis());
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Path> subpastasEmOrdem(Path pasta) throws IOException {
+        List<Path> subpastas = new ArrayList<>();
+        try (DirectoryStream<Path> conteudo = Files.newDirectoryStream(pasta, caminho ->
+                SUBPASTA.matcher(caminho.getFileName().toString()).matches() && Files.isDirectory(caminho))) {
+            for (Path subpasta : conteudo) {
+                subpastas.add(subpasta);
+            }
+        }
+        subpastas.sort(null);
+        return subpastas;
+    }
+
+    // Arquivo sem linha no banco, achado pela reconciliação. Sob a trava do
+    // arquivo confere de novo a data: um envio que reaproveitou o conteúdo
+    // no meio tempo a renovou, e aí o arquivo fica.
+    boolean apagarOrfao(String nomeArmazenado, long limiteModificacao) throws IOException {
+        String hash = chaveDoConteudo(nomeArmazenado);
+        synchronized (trava(chaveDaTrava(nomeArmazenado))) {
+            try {
+                if (Files.getLastModifiedTime(localizar(nomeArmazenado)).toMillis() > limiteModificacao) {
+                    return false;
+                }
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            if (hash != null) {
+                referenciaArquivoService.esquecer(hash);
+            }
+            return apagarCopias(nomeArmazenado);
+        }
+    }
+
+    // Parciais deixados por uploads interrompidos com o processo (os que
+    // falham normalmente já são apagados em receberArquivo).
+    int apagarParciaisAntigos(long limiteModificacao) throws IOException {
+        int apagados = 0;
+        try (DirectoryStream<Path> parciais = Files.newDirectoryStream(this.rootLocation, "*" + SUFIXO_PARCIAL)) {
+            for (Path parcial : parciais) {
+                try {
+                    if (Files.getLastModifiedTime(parcial).toMillis() <= limiteModificacao
+                            && Files.deleteIfExists(parcial)) {
+                        apagados++;
+                    }
+                } catch (NoSuchFileException e) {
+                    // o upload terminou durante a listagem
+                }
+            }
+        }
+        return apagados;
+    }
+
+    interface VisitaArquivo {
+        void visitar(String nomeArmazenado, long ultimaModificacao) throws IOException;
+    }
 
+    // Nomes começam com hex (UUID ou SHA-256): os dois primeiros pares viram
+    // as subpastas, ab/cd/abcd..., e nenhuma pasta passa de 256 entradas por
+    // nível até a casa dos milhões de arquivos.
+    static boolean fragmentavel(String nomeArmazenado) {
+        return FRAGMENTAVEL.matcher(nomeArmazenado).lookingAt();
+    }
+
+    private Path fragmentado(String nomeArmazenado) {
+        if (!fragmentavel(nomeArmazenado)) {
+            return resolver(nomeArmazenado);
+        }
+        return this.rootLocation.resolve(nomeArmazenado.substring(0, 2))
+                .resolve(nomeArmazenado.substring(2, 4))
+                .resolve(nomeArmazenado)
+                .normalize().toAbsolutePath();
+    }
+
+    // A subpasta primeiro; na raiz só o que a migração ainda não alcançou.
+    private Path localizar(String nomeArmazenado) {
+        Path naSubpasta = fragmentado(nomeArmazenado);
+        return Files.exists(naSubpasta) ? naSubpasta : resolver(nomeArmazenado);
+    }
+
+    private void moverParaSubpasta(Path parcial, String nomeArmazenado) throws IOException {
+        Path destino = fragmentado(nomeArmazenado);
+        Files.createDirectories(destino.getParent());
+        Files.move(parcial, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String chaveDaTrava(String nomeArmazenado) {
+        String hash = chaveDoConteudo(nomeArmazenado);
+        return hash != null ? hash : nomeArmazenado;
+    }
+
+    private Object trava(String chave) {
+        return travas[Math.floorMod(chave.hashCode(), travas.length)];
+    }
+
+    private Path resolver(String nomeArmazenado) {
+        return this.rootLocation.resolve(Paths.get(nomeArmazenado)).normalize().toAbsolutePath();
+    }
+
+    private String url(String nomeArmazenado) {
+        return ServletUriComponentsBuilder
+            .fromCurrentContextPath()
+            .path("/uploads/")
+            .path(nomeArmazenado)
+            .toUriString();
+    }
+
+    // No envio direto o Content-Type da requisição é o do corpo cru; o tipo
+    // do arquivo vem do parâmetro ou, na falta dele, da extensão.
+    public static String tipoArquivo(String tipoDeclarado, String nomeOriginal) {
+        if (tipoDeclarado != null && !tipoDeclarado.isBlank()) {
+            return tipoDeclarado;
+        }
+        return MediaTypeFactory.getMediaType(nomeSeguro(nomeOriginal))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+    }
+
+    // O nome vem do cliente (parâmetro ou parte do multipart): fica só o
+    // último segmento, para não sair da pasta de uploads.
+    static String nomeSeguro(String nomeOriginal) {
+        if (nomeOriginal == null) {
+            return "arquivo";
+        }
+        String nome = nomeOriginal.substring(Math.max(nomeOriginal.lastIndexOf('/'), nomeOriginal.lastIndexOf('\\')) + 1)
+                .replaceAll("[\\p{Cntrl}]", "")
+                .trim();
+        if (nome.isEmpty() || nome.equals(".") || nome.equals("..")) {
+            return "arquivo";
+        }
+        return nome;
+    }
+
+    private String mensagemLimite() {
+        return "O arquivo passa do limite de " + DataSize.ofBytes(tamanhoMaximo).toMegabytes() + " MB.";
+    }
+
+    private static MessageDigest novoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void apagarParcial(Path parcial) {
+        try {
+            Files.deleteIfExists(parcial);
+        } catch (IOException e) {
+            limpezasComFalha.incrementAndGet();
+        }
+    }
 
-        Files.delete(fileToDelete); 
+    long getLimpezasComFalha() {
+        return limpezasComFalha.get();
     }
-}
\ No newline at end of file
+}
@@ -21,15 +21,21 @@ public class TagService {
     private final TagRepository tagRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+    private final IndiceMaterialSugeridoService indiceMaterialSugeridoService;
 
     private static final String NOT_FOUND_MSG = "Tag com ID %d não encontrada.";
 
     public TagService(TagRepository tagRepository,
                       ModelMapper modelMapper,
-                      PagedResponseMapper pagedResponseMapper) {
+                      PagedResponseMapper pagedResponseMapper,
+                      GabaritoQuestionarioService gabaritoQuestionarioService,
+                      IndiceMaterialSugeridoService indiceMaterialSugeridoService) {
         this.tagRepository = tagRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+        this.indiceMaterialSugeridoService = indiceMaterialSugeridoService;
     }
 
     @Transactional
@@ -56,7 +62,11 @@ public class TagService {
     public TagResponseDto updateTag(Long id, TagUpdateDto dto) {
         Tag tag = findEntityById(id);
         
-        dto.getNome().ifPresent(tag::setNome);
+        dto.getNome().ifPresent(nome -> {
+            tag.setNome(nome);
+            gabaritoQuestionarioService.invalidarTodos();
+            indiceMaterialSugeridoService.invalidarTodos();
+        });
 
         Tag updatedTag = tagRepository.save(tag);
         return modelMapper.map(updatedTag, TagResponseDto.class);
@@ -66,6 +76,7 @@ public class TagService {
     public void deleteTag(Long id) {
         Tag tag = findEntityById(id);
         tagRepository.delete(tag);
+        indiceMaterialSugeridoService.invalidarTodos();
     }
 
     private Tag findEntityById(Long id) {
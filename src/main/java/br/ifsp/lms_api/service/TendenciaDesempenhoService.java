@@ -0,0 +1,154 @@
+package br.ifsp.lms_api.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.dto.analise.ReconstrucaoTendenciaResponseDto;
+import br.ifsp.lms_api.dto.analise.SemanaNotaTag;
+import br.ifsp.lms_api.dto.analise.SemanaTendenciaDto;
+import br.ifsp.lms_api.dto.analise.TendenciaTagDto;
+import br.ifsp.lms_api.dto.analise.TendenciaTurmaResponseDto;
+import br.ifsp.lms_api.repository.TurmaRepository;
+import jakarta.persistence.EntityNotFoundException;
+
+@Service
+public class TendenciaDesempenhoService {
+
+    private static final int TURMAS_POR_LOTE = 50;
+
+    // Limites usados quando o período não é informado; LocalDate.MIN/MAX não
+    // cabem nos tipos de data do banco.
+    private static final LocalDate PRIMEIRA_DATA = LocalDate.of(1970, 1, 1);
+    private static final LocalDate ULTIMA_DATA = LocalDate.of(9999, 12, 31);
+
+    private final TurmaRepository turmaRepo;
+    private final DesempenhoSemanalService desempenhoSemanalService;
+
+    public TendenciaDesempenhoService(TurmaRepository turmaRepo, DesempenhoSemanalService desempenhoSemanalService) {
+        this.turmaRepo = turmaRepo;
+        this.desempenhoSemanalService = desempenhoSemanalService;
+    }
+
+    @Transactional(readOnly = true)
+    public TendenciaTurmaResponseDto gerarTendenciaTurma(Long idTurma, LocalDate inicio, LocalDate fim) {
+        if (!turmaRepo.existsById(idTurma)) {
+            throw new EntityNotFoundException("Turma não encontrada com ID: " + idTurma);
+        }
+
+        LocalDate primeiraSemana = inicio != null ? DesempenhoSemanalService.inicioSemana(inicio) : PRIMEIRA_DATA;
+        LocalDate ultimaSemana = fim != null ? fim : ULTIMA_DATA;
+
+        List<SemanaNotaTag> semanas;
+        if (desempenhoSemanalService.turmaMaterializada(idTurma)) {
+            semanas = desempenhoSemanalService.buscarSemanas(idTurma, primeiraSemana, ultimaSemana);
+        } else {
+            long geracao = desempenhoSemanalService.geracaoTurma(idTurma);
+            List<SemanaNotaTag> calculadas = desempenhoSemanalService.calcularSemanasDaTurma(idTurma);
+            materializar(idTurma, calculadas, geracao);
+
+            semanas = calculadas.stream()
+                    .filter(semana -> !semana.getInicioSemana().isBefore(primeiraSemana)
+                            && !semana.getInicioSemana().isAfter(ultimaSemana))
+                    .sorted(Comparator.comparing(SemanaNotaTag::getNomeTag)
+                            .thenComparing(SemanaNotaTag::getInicioSemana))
+                    .toList();
+        }
+
+        return new TendenciaTurmaResponseDto(idTurma, montarTendencias(semanas));
+    }
+
+    // Reconstrói a série de todas as turmas, de lote em lote, cada turma na sua
+    // própria transação; pode rodar com o sistema em uso.
+    public ReconstrucaoTendenciaResponseDto reconstruirTodas() {
+        int turmasProcessadas = 0;
+        long semanasGravadas = 0;
+
+        Long ultimoId = 0L;
+        List<Long> lote;
+        do {
+            lote = turmaRepo.findIdsAposId(ultimoId, PageRequest.of(0, TURMAS_POR_LOTE));
+
+            for (Long idTurma : lote) {
+                long geracao = desempenhoSemanalService.geracaoTurma(idTurma);
+                List<SemanaNotaTag> semanas = desempenhoSemanalService.calcularSemanasDaTurma(idTurma);
+                materializar(idTurma, semanas, geracao);
+
+                turmasProcessadas++;
+                semanasGravadas += semanas.size();
+                ultimoId = idTurma;
+            }
+        } while (lote.size() == TURMAS_POR_LOTE);
+
+        return new ReconstrucaoTendenciaResponseDto(turmasProcessadas, semanasGravadas);
+    }
+
+    private void materializar(Long idTurma, List<SemanaNotaTag> semanas, long geracao) {
+        try {
+            desempenhoSemanalService.materializarTurma(idTurma, semanas, geracao);
+            desempenhoSemanalService.descartarSeAlterada(idTurma, geracao);
+        } catch (DataIntegrityViolationException e) {
+            // outra requisição materializou a mesma turma primeiro
+        }
+    }
+
+    // Espera as semanas ordenadas por tag e data.
+    private static List<TendenciaTagDto> montarTendencias(List<SemanaNotaTag> semanas) {
+        Map<String, List<SemanaTendenciaDto>> semanasPorTag = new LinkedHashMap<>();
+        for (SemanaNotaTag semana : semanas) {
+            LocalDate inicioSemana = semana.getInicioSemana();
+            semanasPorTag.computeIfAbsent(semana.getNomeTag(), nome -> new ArrayList<>())
+                    .add(new SemanaTendenciaDto(
+                            inicioSemana.get(IsoFields.WEEK_BASED_YEAR),
+                            inicioSemana.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+                            inicioSemana,
+                            semana.getSomaNotas() / semana.getQuantidadeNotas(),
+                            semana.getQuantidadeNotas()));
+        }
+
+        List<TendenciaTagDto> tendencias = new ArrayList<>();
+        for (Map.Entry<String, List<SemanaTendenciaDto>> entry : semanasPorTag.entrySet()) {
+            TendenciaTagDto dto = new TendenciaTagDto();
+            dto.setNomeTag(entry.getKey());
+            dto.setSemanas(entry.getValue());
+            dto.setVariacaoSemanal(calcularInclinacao(entry.getValue()));
+            tendencias.add(dto);
+        }
+        return tendencias;
+    }
+
+    private static Double calcularInclinacao(List<SemanaTendenciaDto> semanas) {
+        if (semanas.size() < 2) {
+            return null;
+        }
+
+        LocalDate origem = semanas.get(0).getInicioSemana();
+        double mediaX = 0;
+        double mediaY = 0;
+        for (SemanaTendenciaDto semana : semanas) {
+            mediaX += ChronoUnit.WEEKS.between(origem, semana.getInicioSemana());
+            mediaY += semana.getMediaNota();
+        }
+        mediaX /= semanas.size();
+        mediaY /= semanas.size();
+
+        double covariancia = 0;
+        double variancia = 0;
+        for (SemanaTendenciaDto semana : semanas) {
+            double dx = ChronoUnit.WEEKS.between(origem, semana.getInicioSemana()) - mediaX;
+            covariancia += dx * (semana.getMediaNota() - mediaY);
+            variancia += dx * dx;
+        }
+        return covariancia / variancia;
+    }
+}
@@ -1,5 +1,10 @@
 package br.ifsp.lms_api.service;
 
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,6 +20,10 @@ import br.ifsp.lms_api.model.AtividadeArquivos;
 import br.ifsp.lms_api.model.TentativaArquivo;
 import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoResponseDto;
 import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
+import br.ifsp.lms_api.dto.correcaoDto.StatusCorrecaoItem;
 import br.ifsp.lms_api.exception.AccessDeniedException; // <-- RE-ADICIONADO (pois o controller exige)
 
 @Service
@@ -25,18 +34,24 @@ public class TentativaArquivoService {
     private final AtividadeArquivosRepository atividadeArquivosRepository;
     private final StorageService storageService; 
     private final ModelMapper modelMapper;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final JanelaAtividadeService janelaAtividadeService;
 
     // Construtor completo
     public TentativaArquivoService(TentativaArquivoRepository tentativaArquivoRepository,
                                  AlunoRepository alunoRepository,
                                  AtividadeArquivosRepository atividadeArquivosRepository,
                                  StorageService storageService,
-                                 ModelMapper modelMapper) {
+                                 ModelMapper modelMapper,
+                                 DesempenhoAgregadoService desempenhoAgregadoService,
+                                 JanelaAtividadeService janelaAtividadeService) {
         this.tentativaArquivoRepository = tentativaArquivoRepository;
         this.alunoRepository = alunoRepository;
         this.atividadeArquivosRepository = atividadeArquivosRepository;
         this.storageService = storageService;
         this.modelMapper = modelMapper;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.janelaAtividadeService = janelaAtividadeService;
     }
 
     // Método CREATE (não muda)
@@ -46,23 +61,62 @@ public class TentativaArquivoService {
             Long idAlunoLogado,
             Long idAtividade) {
 
+        janelaAtividadeService.exigirEnvio(idAtividade);
+
         Aluno aluno = alunoRepository.findById(idAlunoLogado)
                 .orElseThrow(() -> new EntityNotFoundException("Aluno não encontrado"));
         AtividadeArquivos atividade = atividadeArquivosRepository.findById(idAtividade)
                 .orElseThrow(() -> new EntityNotFoundException("Atividade de Arquivo não encontrada"));
-        String urlArquivo = storageService.createArquivo(file);
+        ArquivoRecebido recebido = storageService.createArquivo(file);
 
         TentativaArquivo novaTentativa = new TentativaArquivo();
         novaTentativa.setAluno(aluno);
         novaTentativa.setAtividadeArquivo(atividade);
         novaTentativa.setNomeArquivo(file.getOriginalFilename());
         novaTentativa.setTipoArquivo(file.getContentType());
-        novaTentativa.setUrlArquivo(urlArquivo);
+        novaTentativa.setUrlArquivo(recebido.getUrlArquivo());
+        novaTentativa.setTamanhoArquivo(recebido.getTamanho());
+        novaTentativa.setChecksumArquivo(recebido.getSha256());
         
         TentativaArquivo tentativaSalva = tentativaArquivoRepository.save(novaTentativa);
         return modelMapper.map(tentativaSalva, TentativaArquivoResponseDto.class);
     }
 
+    // Envio direto (application/octet-stream): o corpo só é lido aqui, depois
+    // do prazo, e vai do socket para o disco sem o buffer do multipart. Sem
+    // @Transactional de propósito, para não segurar conexão do pool enquanto
+    // o cliente manda o arquivo; aluno e atividade são buscados depois, e se
+    // faltar algum o arquivo recém-gravado é apagado.
+    public TentativaArquivoResponseDto createTentativaArquivo(
+            InputStream corpo,
+            String nomeArquivo,
+            String tipoArquivo,
+            long tamanhoDeclarado,
+            Long idAlunoLogado,
+            Long idAtividade) {
+
+        janelaAtividadeService.exigirEnvio(idAtividade);
+
+        ArquivoRecebido recebido = storageService.receberArquivo(corpo, nomeArquivo, tamanhoDeclarado);
+        try {
+            Aluno aluno = alunoRepository.findById(idAlunoLogado)
+                    .orElseThrow(() -> new EntityNotFoundException("Aluno não encontrado"));
+            AtividadeArquivos atividade = atividadeArquivosRepository.findById(idAtividade)
+                    .orElseThrow(() -> new EntityNotFoundException("Atividade de Arquivo não encontrada"));
+
+            TentativaArquivo novaTentativa = new TentativaArquivo();
+            novaTentativa.setAluno(aluno);
+            novaTentativa.setAtividadeArquivo(atividade);
+            preencherArquivo(novaTentativa, nomeArquivo, tipoArquivo, recebido);
+
+            TentativaArquivo tentativaSalva = tentativaArquivoRepository.save(novaTentativa);
+            return modelMapper.map(tentativaSalva, TentativaArquivoResponseDto.class);
+        } catch (RuntimeException e) {
+            apagarArquivo(recebido.getUrlArquivo());
+            throw e;
+        }
+    }
+
     @Transactional
     public TentativaArquivoResponseDto updateTentativaArquivoProfessor(
             TentativaArquivoUpdateDto tentativaUpdate, Long idTentativa) {
@@ -70,13 +124,64 @@ public class TentativaArquivoService {
         TentativaArquivo tentativa = tentativaArquivoRepository.findById(idTentativa)
                 .orElseThrow(() -> new EntityNotFoundException("Tentativa de Arquivo nao encontrada"));
 
+        Double notaAnterior = tentativa.getNota();
+
         tentativaUpdate.getNota().ifPresent(tentativa::setNota);
         tentativaUpdate.getFeedback().ifPresent(tentativa::setFeedBack); 
 
         TentativaArquivo tentativaSalva = tentativaArquivoRepository.save(tentativa);
+
+        desempenhoAgregadoService.registrarCorrecao(
+                tentativaSalva.getAluno(), tentativaSalva.getAtividadeArquivo(), tentativaSalva.getDataEnvio(),
+                notaAnterior, tentativaSalva.getNota());
         return modelMapper.map(tentativaSalva, TentativaArquivoResponseDto.class);
     }
 
+    // Mesmo fluxo de TentativaTextoService.corrigirTentativasTextoEmLote.
+    @Transactional
+    public CorrecaoLoteResponseDto corrigirTentativasArquivoEmLote(CorrecaoLoteRequestDto lote) {
+        LoteCorrecao correcao = new LoteCorrecao(lote.getCorrecoes());
+        if (correcao.getPendentes().isEmpty()) {
+            return correcao.paraResposta();
+        }
+
+        Map<Long, TentativaArquivo> tentativasPorId = new HashMap<>();
+        for (TentativaArquivo tentativa : tentativaArquivoRepository.findAllParaCorrecao(correcao.getIdsPendentes())) {
+            tentativasPorId.put(tentativa.getIdTentativa(), tentativa);
+        }
+
+        Map<Integer, TentativaArquivo> corrigidas = new LinkedHashMap<>();
+        Map<Integer, Double> notasAnteriores = new HashMap<>();
+        for (int i : correcao.getPendentes()) {
+            CorrecaoItemRequestDto item = correcao.getItem(i);
+            TentativaArquivo tentativa = tentativasPorId.get(item.getIdTentativa());
+            if (tentativa == null) {
+                correcao.falhar(i, StatusCorrecaoItem.NAO_ENCONTRADA, "Tentativa de Arquivo nao encontrada");
+                continue;
+            }
+
+            notasAnteriores.put(i, tentativa.getNota());
+            if (item.getNota() != null) {
+                tentativa.setNota(item.getNota());
+            }
+            if (item.getFeedback() != null) {
+                tentativa.setFeedBack(item.getFeedback());
+            }
+            corrigidas.put(i, tentativa);
+        }
+
+        tentativaArquivoRepository.flush();
+
+        corrigidas.forEach((i, tentativa) -> {
+            desempenhoAgregadoService.registrarCorrecao(
+                    tentativa.getAluno(), tentativa.getAtividadeArquivo(), tentativa.getDataEnvio(),
+                    notasAnteriores.get(i), tentativa.getNota());
+            correcao.concluir(i, tentativa.getNota());
+        });
+
+        return correcao.paraResposta();
+    }
+
     @Transactional
     public TentativaArquivoResponseDto updateTentativaArquivoAluno(
             Long idTentativa, Long idAlunoLogado, MultipartFile novoArquivo) {
@@ -93,19 +198,23 @@ public class TentativaArquivoService {
             throw new AccessDeniedException("Não é possível editar uma tentativa que já foi avaliada.");
         }
 
+        janelaAtividadeService.exigirEnvio(tentativa.getAtividadeArquivo().getIdAtividade());
+
         String urlArquivoAntigo = tentativa.getUrlArquivo();
 
-        String urlNovoArquivo = storageService.createArquivo(novoArquivo);
+        ArquivoRecebido recebido = storageService.createArquivo(novoArquivo);
 
         tentativa.setNomeArquivo(novoArquivo.getOriginalFilename());
         tentativa.setTipoArquivo(novoArquivo.getContentType());
-        tentativa.setUrlArquivo(urlNovoArquivo); 
+        tentativa.setUrlArquivo(recebido.getUrlArquivo());
+        tentativa.setTamanhoArquivo(recebido.getTamanho());
+        tentativa.setChecksumArquivo(recebido.getSha256());
         
         TentativaArquivo tentativaSalva = tentativaArquivoRepository.save(tentativa);
 
         try {
             if (urlArquivoAntigo != null && !urlArquivoAntigo.isEmpty()) {
-                String nomeArquivoAntigo = urlArquivoAntigo.substring(urlArquivoAntigo.lastIndexOf('/') + 1);
+                String nomeArquivoAntigo = StorageService.nomeDaUrl(urlArquivoAntigo);
                 storageService.deleteFile(nomeArquivoAntigo);
             }
         } catch (Exception e) {
@@ -116,6 +225,69 @@ public class TentativaArquivoService {
     }
 
 
+    // Versão do envio direto; as conferências vêm antes de ler o corpo.
+    public TentativaArquivoResponseDto updateTentativaArquivoAluno(
+            Long idTentativa, Long idAlunoLogado,
+            InputStream corpo, String nomeArquivo, String tipoArquivo, long tamanhoDeclarado) {
+
+        TentativaArquivo tentativa = tentativaArquivoRepository.findById(idTentativa)
+                .orElseThrow(() -> new EntityNotFoundException("Tentativa de Arquivo nao encontrada"));
+
+        if (!tentativa.getAluno().getIdUsuario().equals(idAlunoLogado)) {
+            throw new AccessDeniedException("Você não tem permissão para editar a tentativa de outro aluno.");
+        }
+
+        if (tentativa.getNota() != null) {
+            throw new AccessDeniedException("Não é possível editar uma tentativa que já foi avaliada.");
+        }
+
+        janelaAtividadeService.exigirEnvio(tentativa.getAtividadeArquivo().getIdAtividade());
+
+        String urlArquivoAntigo = tentativa.getUrlArquivo();
+
+        // A tentativa lida acima envelhece enquanto o corpo chega: prazo e
+        // nota são conferidos de novo depois, e a troca é um UPDATE
+        // condicional em vez de um save da entidade desatualizada.
+        ArquivoRecebido recebido = storageService.receberArquivo(corpo, nomeArquivo, tamanhoDeclarado);
+        try {
+            janelaAtividadeService.exigirEnvio(tentativa.getAtividadeArquivo().getIdAtividade());
+            int trocadas = tentativaArquivoRepository.trocarArquivoSeNaoAvaliada(idTentativa, idAlunoLogado,
+                    StorageService.nomeSeguro(nomeArquivo), StorageService.tipoArquivo(tipoArquivo, nomeArquivo),
+                    recebido.getUrlArquivo(), recebido.getTamanho(), recebido.getSha256());
+            if (trocadas == 0) {
+                throw new AccessDeniedException("Não é possível editar uma tentativa que já foi avaliada.");
+            }
+        } catch (RuntimeException e) {
+            apagarArquivo(recebido.getUrlArquivo());
+            throw e;
+        }
+
+        apagarArquivo(urlArquivoAntigo);
+        TentativaArquivo tentativaSalva = tentativaArquivoRepository.findById(idTentativa)
+                .orElseThrow(() -> new EntityNotFoundException("Tentativa de Arquivo nao encontrada"));
+        return modelMapper.map(tentativaSalva, TentativaArquivoResponseDto.class);
+    }
+
+    private void preencherArquivo(TentativaArquivo tentativa, String nomeArquivo, String tipoArquivo,
+                                  ArquivoRecebido recebido) {
+        tentativa.setNomeArquivo(StorageService.nomeSeguro(nomeArquivo));
+        tentativa.setTipoArquivo(StorageService.tipoArquivo(tipoArquivo, nomeArquivo));
+        tentativa.setUrlArquivo(recebido.getUrlArquivo());
+        tentativa.setTamanhoArquivo(recebido.getTamanho());
+        tentativa.setChecksumArquivo(recebido.getSha256());
+    }
+
+    private void apagarArquivo(String urlArquivo) {
+        try {
+            if (urlArquivo != null && !urlArquivo.isEmpty()) {
+                storageService.deleteFile(StorageService.nomeDaUrl(urlArquivo));
+            }
+        } catch (Exception e) {
+            System.err.println("Falha ao deletar arquivo fisico: " + e.getMessage());
+        }
+    }
+
+
     @Transactional
     public TentativaArquivoResponseDto deleteTentativaArquivo(Long idTentativa, Long idAlunoLogado) { // <-- ASSINATURA MUDOU
         
@@ -133,7 +305,7 @@ public class TentativaArquivoService {
         try {
             String urlArquivo = tentativa.getUrlArquivo(); 
             if (urlArquivo != null && !urlArquivo.isEmpty()) {
-                String nomeArquivo = urlArquivo.substring(urlArquivo.lastIndexOf('/') + 1);
+                String nomeArquivo = StorageService.nomeDaUrl(urlArquivo);
                 storageService.deleteFile(nomeArquivo);
             }
         } catch (Exception e) {
@@ -1,27 +1,37 @@
 package br.ifsp.lms_api.service;
 
 import java.time.LocalDateTime; 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import br.ifsp.lms_api.dto.page.PagedResponse;
 
+import br.ifsp.lms_api.dto.questoesDto.QuestoesAlunoResponseDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioRequestDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioResponseDto;
 import br.ifsp.lms_api.exception.LimiteTentativasException;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.exception.SessaoQuestionarioException;
+import br.ifsp.lms_api.exception.TentativaSimultaneaException;
 import br.ifsp.lms_api.mapper.PagedResponseMapper;
 import br.ifsp.lms_api.model.Aluno;
 import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.ContadorTentativasQuestionario;
 import br.ifsp.lms_api.model.Questoes;
 import br.ifsp.lms_api.model.TentativaQuestionario;
 import br.ifsp.lms_api.repository.AlunoRepository;
 import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository; 
+import br.ifsp.lms_api.repository.ContadorTentativasQuestionarioRepository;
+import br.ifsp.lms_api.repository.QuestoesRepository;
 import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
 
 
@@ -34,15 +44,62 @@ public class TentativaQuestionarioService {
     private final AtividadeQuestionarioRepository questionarioRepository;
     private final ModelMapper modelMapper;
     private final PagedResponseMapper pagedResponseMapper;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final GabaritoQuestionarioService gabaritoQuestionarioService;
+    private final ContadorTentativasQuestionarioRepository contadorTentativasRepository;
+    private final SessaoQuestionarioService sessaoQuestionarioService;
+    private final SorteioQuestoesService sorteioQuestoesService;
+    private final QuestoesRepository questoesRepository;
+    private final JanelaAtividadeService janelaAtividadeService;
 
     public TentativaQuestionarioService(AlunoRepository alunoRepository,
             TentativaQuestionarioRepository tentativaQuestionarioRepository, AtividadeQuestionarioRepository questionarioRepository,
-             ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper) {
+             ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper,
+             DesempenhoAgregadoService desempenhoAgregadoService,
+             GabaritoQuestionarioService gabaritoQuestionarioService,
+             ContadorTentativasQuestionarioRepository contadorTentativasRepository,
+             SessaoQuestionarioService sessaoQuestionarioService,
+             SorteioQuestoesService sorteioQuestoesService,
+             QuestoesRepository questoesRepository,
+             JanelaAtividadeService janelaAtividadeService) {
         this.alunoRepository = alunoRepository;
         this.tentativaQuestionarioRepository = tentativaQuestionarioRepository;
         this.questionarioRepository = questionarioRepository;
         this.modelMapper = modelMapper;
         this.pagedResponseMapper = pagedResponseMapper;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.gabaritoQuestionarioService = gabaritoQuestionarioService;
+        this.contadorTentativasRepository = contadorTentativasRepository;
+        this.sessaoQuestionarioService = sessaoQuestionarioService;
+        this.sorteioQuestoesService = sorteioQuestoesService;
+        this.questoesRepository = questoesRepository;
+        this.janelaAtividadeService = janelaAtividadeService;
+    }
+
+    // Questões da próxima tentativa do aluno, sem o gabarito. Em questionário
+    // com sorteio a chamada reserva o sorteio (por isso é POST), e o envio é
+    // corrigido por essas mesmas questões.
+    @Transactional
+    public List<QuestoesAlunoResponseDto> getQuestoesDaProximaTentativa(Long idQuestionario, Long idAluno) {
+        AtividadeQuestionario questionario = questionarioRepository.findById(idQuestionario)
+                .orElseThrow(() -> new ResourceNotFoundException("Questionário não encontrado com ID: " + idQuestionario));
+
+        List<Questoes> questoes;
+        if (SorteioQuestoesService.usaSorteio(questionario)) {
+            int usadas = contadorTentativasRepository.findQuantidade(idAluno, idQuestionario)
+                    .orElseGet(() -> (int) tentativaQuestionarioRepository.contarPorQuestionarioEAluno(idQuestionario, idAluno));
+            if (usadas >= questionario.getNumeroTentativas()) {
+                throw new LimiteTentativasException("Limite de tentativas atingido.");
+            }
+            List<Long> idsQuestoes = sorteioQuestoesService.reservar(questionario, idAluno, usadas + 1);
+            questoes = idsQuestoes.isEmpty() ? List.of() : questoesRepository.findComAlternativas(idsQuestoes);
+        } else {
+            questoes = questionario.getQuestoes();
+        }
+
+        return questoes.stream()
+                .map(questao -> modelMapper.map(questao, QuestoesAlunoResponseDto.class))
+                .toList();
     }
 
 
@@ -50,32 +107,117 @@ public class TentativaQuestionarioService {
     public TentativaQuestionarioResponseDto createTentativaQuestionario(TentativaQuestionarioRequestDto dto, Long idAlunoLogado) {
 
         dto.setIdAluno(idAlunoLogado);
+        janelaAtividadeService.exigirEnvio(dto.getIdQuestionario());
+
         AtividadeQuestionario questionario = questionarioRepository.findById(dto.getIdQuestionario())
                 .orElseThrow(() -> new RuntimeException("Questionário não encontrado com ID: " + dto.getIdQuestionario()));
 
         Aluno aluno = alunoRepository.findById(dto.getIdAluno())
                 .orElseThrow(() -> new RuntimeException("Aluno não encontrado com ID: " + dto.getIdAluno()));
 
-        List<TentativaQuestionario> tentativasAnteriores = tentativaQuestionarioRepository
-                .findByAtividadeQuestionario_IdAndAluno_Id(dto.getIdQuestionario(), dto.getIdAluno());
-        
-        if (tentativasAnteriores.size() >= questionario.getNumeroTentativas()) {
-            throw new LimiteTentativasException("Limite de tentativas atingido.");
+        // Questionário com tempo só aceita envio de sessão aberta e dentro do prazo.
+        if (questionario.getDuracaoQuestionario() > 0) {
+            sessaoQuestionarioService.exigirAberta(dto.getIdAluno(), questionario.getIdAtividade());
+            if (!sessaoQuestionarioService.encerrar(dto.getIdAluno(), questionario.getIdAtividade())) {
+                throw new SessaoQuestionarioException("Esta sessão do questionário já foi enviada.");
+            }
+        }
+
+        return registrarTentativa(questionario, aluno, dto.getRespostas(), LocalDateTime.now());
+    }
+
+    // Sessão que venceu sem envio do aluno: vai com as últimas respostas salvas
+    // e a data do fim do prazo. Se o aluno enviou antes, a sessão já foi
+    // encerrada e nada é feito.
+    @Transactional
+    public void enviarSessaoExpirada(Long idAluno, Long idQuestionario, List<Long> respostas, LocalDateTime expiraEm) {
+        if (!sessaoQuestionarioService.encerrar(idAluno, idQuestionario)) {
+            return;
+        }
+        AtividadeQuestionario questionario = questionarioRepository.findById(idQuestionario).orElse(null);
+        Aluno aluno = alunoRepository.findById(idAluno).orElse(null);
+        if (questionario == null || aluno == null) {
+            return;
+        }
+
+        try {
+            registrarTentativa(questionario, aluno, new ArrayList<>(respostas), expiraEm);
+        } catch (LimiteTentativasException e) {
+            // tentativas esgotadas por outro caminho: a sessão só é encerrada
+        }
+    }
+
+    // Um lote da recorreção, na sua própria transação curta. Só as tentativas
+    // cuja nota mudou ficam sujas e viram UPDATEs agrupados no flush.
+    @Transactional
+    public LoteRecorrecao recorrigirLote(Long idQuestionario, Long ultimoId, int tamanho) {
+        List<TentativaQuestionario> tentativas = tentativaQuestionarioRepository
+                .findLoteParaRecorrecao(idQuestionario, ultimoId, PageRequest.of(0, tamanho));
+        if (tentativas.isEmpty()) {
+            return new LoteRecorrecao(ultimoId, 0, 0);
         }
 
+        // tentativas com sorteio são corrigidas pelas próprias questões, com
+        // uma consulta só para o lote inteiro
+        List<List<Long>> questoesSorteadas = tentativas.stream()
+                .map(TentativaQuestionario::getQuestoesSorteadas)
+                .filter(questoes -> questoes != null)
+                .toList();
+        Iterator<GabaritoQuestionario> gabaritosSorteio = questoesSorteadas.isEmpty()
+                ? Collections.emptyIterator()
+                : gabaritoQuestionarioService.obterParaSorteios(idQuestionario, questoesSorteadas).iterator();
+
+        GabaritoQuestionario gabaritoFixo = null;
+        int alteradas = 0;
+        for (TentativaQuestionario tentativa : tentativas) {
+            GabaritoQuestionario gabarito;
+            if (tentativa.getQuestoesSorteadas() != null) {
+                gabarito = gabaritosSorteio.next();
+            } else {
+                if (gabaritoFixo == null) {
+                    gabaritoFixo = gabaritoQuestionarioService.obter(idQuestionario);
+                }
+                gabarito = gabaritoFixo;
+            }
+            double nota = gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(tentativa.getRespostas()));
+            if (tentativa.getNota() == null || Double.compare(tentativa.getNota(), nota) != 0) {
+                tentativa.setNota(nota);
+                alteradas++;
+            }
+        }
+
+        Long ultimo = tentativas.get(tentativas.size() - 1).getIdTentativaQuestionario();
+        return new LoteRecorrecao(ultimo, tentativas.size(), alteradas);
+    }
+
+    private TentativaQuestionarioResponseDto registrarTentativa(AtividadeQuestionario questionario, Aluno aluno,
+                                                                List<Long> respostas, LocalDateTime dataEnvio) {
+        int numeroDaTentativa = admitirTentativa(questionario, aluno.getIdUsuario());
+
         TentativaQuestionario novaTentativa = new TentativaQuestionario();
         novaTentativa.setAtividadeQuestionario(questionario);
         novaTentativa.setAluno(aluno);
-        novaTentativa.setRespostas(dto.getRespostas());
-        novaTentativa.setNumeroDaTentativa(tentativasAnteriores.size() + 1);
-        novaTentativa.setDataEnvio(LocalDateTime.now());
+        novaTentativa.setRespostas(respostas);
+        novaTentativa.setNumeroDaTentativa(numeroDaTentativa);
+        novaTentativa.setDataEnvio(dataEnvio);
         novaTentativa.setIdTentativaQuestionario(null); 
 
-        Double nota = calcularNota(novaTentativa);
-        novaTentativa.setNota(nota);
+        GabaritoQuestionario gabarito;
+        if (SorteioQuestoesService.usaSorteio(questionario)) {
+            List<Long> questoesSorteadas = sorteioQuestoesService.consumir(
+                    questionario, aluno.getIdUsuario(), numeroDaTentativa);
+            novaTentativa.setQuestoesSorteadas(questoesSorteadas);
+            gabarito = gabaritoQuestionarioService.obterParaSorteio(questionario.getIdAtividade(), questoesSorteadas);
+        } else {
+            gabarito = gabaritoQuestionarioService.obter(questionario.getIdAtividade());
+        }
+        long[] respostasOrdenadas = GabaritoQuestionario.ordenarRespostas(novaTentativa.getRespostas());
+        novaTentativa.setNota(gabarito.calcularNota(respostasOrdenadas));
 
         TentativaQuestionario tentativaSalva = tentativaQuestionarioRepository.save(novaTentativa);
 
+        desempenhoAgregadoService.registrarTentativaQuestionario(tentativaSalva, gabarito);
+
         TentativaQuestionarioResponseDto responseDto = modelMapper.map(tentativaSalva, TentativaQuestionarioResponseDto.class);
 
         responseDto.setIdQuestionario(tentativaSalva.getAtividadeQuestionario().getIdAtividade());
@@ -95,47 +237,48 @@ public class TentativaQuestionarioService {
         return pagedResponseMapper.toPagedResponse(tentativas, TentativaQuestionarioResponseDto.class);
     }
 
+    @Transactional
     public TentativaQuestionarioResponseDto deleteTentativaQuestionario(Long idTentativa) {
         TentativaQuestionario tentativa = tentativaQuestionarioRepository.findById(idTentativa)
                 .orElseThrow(() -> new RuntimeException("Tentativa de questionário nao encontrada com ID: " + idTentativa));
         tentativaQuestionarioRepository.delete(tentativa);
+
+        if (tentativa.getAluno() != null && tentativa.getAtividadeQuestionario() != null) {
+            contadorTentativasRepository.decrementar(
+                    tentativa.getAluno().getIdUsuario(), tentativa.getAtividadeQuestionario().getIdAtividade());
+        }
+        if (tentativa.getAluno() != null) {
+            desempenhoAgregadoService.invalidarAluno(tentativa.getAluno().getIdUsuario());
+        }
         return modelMapper.map(tentativa, TentativaQuestionarioResponseDto.class);
     }
 
+    // Admite a tentativa com um UPDATE condicional no contador do aluno: o
+    // lock da linha faz envios simultâneos do mesmo aluno passarem um por vez,
+    // e alunos diferentes não disputam nada. Devolve o número da tentativa.
+    private int admitirTentativa(AtividadeQuestionario questionario, Long idAluno) {
+        Long idQuestionario = questionario.getIdAtividade();
+        int limite = questionario.getNumeroTentativas();
 
-
-
-
-    private Double calcularNota(TentativaQuestionario tentativa) {
-
-        AtividadeQuestionario questionario = tentativa.getAtividadeQuestionario();
-        List<Questoes> todasQuestoes = questionario.getQuestoes();
-
-        if (todasQuestoes == null || todasQuestoes.isEmpty()) {
-            return 0.0;
+        if (contadorTentativasRepository.incrementarAbaixoDoLimite(idAluno, idQuestionario, limite) > 0) {
+            return contadorTentativasRepository.findQuantidade(idAluno, idQuestionario).orElseThrow();
         }
-
-        List<Long> idsRespostasDoAluno = tentativa.getRespostas();
-
-        if (idsRespostasDoAluno == null || idsRespostasDoAluno.isEmpty()) {
-            return 0.0; 
+        if (contadorTentativasRepository.findQuantidade(idAluno, idQuestionario).isPresent()) {
+            throw new LimiteTentativasException("Limite de tentativas atingido.");
         }
 
-        Set<Long> idsAlternativasCorretas = todasQuestoes.stream()
-                .flatMap(questao -> questao.getAlternativas().stream())
-                .filter(alternativa -> alternativa.getAlternativaCorreta()) 
-                .map(alternativa -> alternativa.getIdAlternativa())
-                .collect(Collectors.toSet());
-
-        int acertos = 0;
-        for (Long idResposta : idsRespostasDoAluno) {
-            if (idsAlternativasCorretas.contains(idResposta)) {
-                acertos++;
-            }
+        // Primeira tentativa com contador: parte das tentativas já gravadas.
+        int anteriores = (int) tentativaQuestionarioRepository.contarPorQuestionarioEAluno(idQuestionario, idAluno);
+        if (anteriores >= limite) {
+            throw new LimiteTentativasException("Limite de tentativas atingido.");
         }
-
-        double nota = ((double) acertos / (double) todasQuestoes.size()) * 10.0;
-        
-        return nota;
+        try {
+            contadorTentativasRepository.saveAndFlush(
+                    new ContadorTentativasQuestionario(null, idAluno, idQuestionario, anteriores + 1));
+        } catch (DataIntegrityViolationException e) {
+            throw new TentativaSimultaneaException(
+                    "Outra tentativa deste aluno está sendo enviada. Tente novamente.");
+        }
+        return anteriores + 1;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,9 @@
 package br.ifsp.lms_api.service;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +12,10 @@ import org.springframework.stereotype.Service;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoRequestDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoResponseDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
+import br.ifsp.lms_api.dto.correcaoDto.StatusCorrecaoItem;
 import br.ifsp.lms_api.dto.page.PagedResponse;
 import br.ifsp.lms_api.exception.AccessDeniedException;
 import br.ifsp.lms_api.mapper.PagedResponseMapper;
@@ -30,15 +38,20 @@ public class TentativaTextoService {
 
     private final AlunoRepository alunoRepository;
     private final AtividadeTextoRepository atividadeTextoRepository;
+    private final DesempenhoAgregadoService desempenhoAgregadoService;
+    private final JanelaAtividadeService janelaAtividadeService;
 
     public TentativaTextoService(TentativaTextoRepository tentativaTextoRepository,
             ModelMapper mapper, PagedResponseMapper pagedResponseMapper, AlunoRepository alunoRepository,
-            AtividadeTextoRepository atividadeTextoRepository) {
+            AtividadeTextoRepository atividadeTextoRepository, DesempenhoAgregadoService desempenhoAgregadoService,
+            JanelaAtividadeService janelaAtividadeService) {
         this.tentativaTextoRepository = tentativaTextoRepository;
         this.mapper = mapper;
         this.pagedResponseMapper = pagedResponseMapper;
         this.alunoRepository = alunoRepository;
         this.atividadeTextoRepository = atividadeTextoRepository;
+        this.desempenhoAgregadoService = desempenhoAgregadoService;
+        this.janelaAtividadeService = janelaAtividadeService;
     }
 
     @Transactional
@@ -54,6 +67,8 @@ public class TentativaTextoService {
             Long idAlunoLogado, 
             Long idAtividade) {
 
+        janelaAtividadeService.exigirEnvio(idAtividade);
+
         Aluno aluno = alunoRepository.findById(idAlunoLogado)
                 .orElseThrow(() -> new EntityNotFoundException("Aluno não encontrado"));
         
@@ -75,21 +90,76 @@ public class TentativaTextoService {
     }
 
 
+    @Transactional
     public TentativaTextoResponseDto updateTentativaTextoProfessor(TentativaTextoUpdateDto tentativaUpdate, Long idTentativa) {
 
         TentativaTexto tentativa = tentativaTextoRepository.findById(idTentativa)
                 .orElseThrow(() -> new EntityNotFoundException("Tentativa de Texto nao encontrada"));
 
+        Double notaAnterior = tentativa.getNota();
+
         tentativaUpdate.getNota().ifPresent(tentativa::setNota);
         tentativaUpdate.getFeedback().ifPresent(tentativa::setFeedBack);
 
         TentativaTexto tentativaSalva = tentativaTextoRepository.save(tentativa);
 
+        desempenhoAgregadoService.registrarCorrecao(
+                tentativaSalva.getAluno(), tentativaSalva.getAtividadeTexto(), tentativaSalva.getDataEnvio(),
+                notaAnterior, tentativaSalva.getNota());
+
         return mapper.map(tentativaSalva, TentativaTextoResponseDto.class);
 
     }
 
 
+    // Todas as notas são aplicadas em memória e gravadas num único flush, que
+    // o Hibernate envia em batches JDBC (hibernate.jdbc.batch_size). Os
+    // agregados de desempenho só são avisados depois, para que as consultas
+    // deles não forcem um flush por tentativa.
+    @Transactional
+    public CorrecaoLoteResponseDto corrigirTentativasTextoEmLote(CorrecaoLoteRequestDto lote) {
+        LoteCorrecao correcao = new LoteCorrecao(lote.getCorrecoes());
+        if (correcao.getPendentes().isEmpty()) {
+            return correcao.paraResposta();
+        }
+
+        Map<Long, TentativaTexto> tentativasPorId = new HashMap<>();
+        for (TentativaTexto tentativa : tentativaTextoRepository.findAllParaCorrecao(correcao.getIdsPendentes())) {
+            tentativasPorId.put(tentativa.getIdTentativa(), tentativa);
+        }
+
+        Map<Integer, TentativaTexto> corrigidas = new LinkedHashMap<>();
+        Map<Integer, Double> notasAnteriores = new HashMap<>();
+        for (int i : correcao.getPendentes()) {
+            CorrecaoItemRequestDto item = correcao.getItem(i);
+            TentativaTexto tentativa = tentativasPorId.get(item.getIdTentativa());
+            if (tentativa == null) {
+                correcao.falhar(i, StatusCorrecaoItem.NAO_ENCONTRADA, "Tentativa de Texto nao encontrada");
+                continue;
+            }
+
+            notasAnteriores.put(i, tentativa.getNota());
+            if (item.getNota() != null) {
+                tentativa.setNota(item.getNota());
+            }
+            if (item.getFeedback() != null) {
+                tentativa.setFeedBack(item.getFeedback());
+            }
+            corrigidas.put(i, tentativa);
+        }
+
+        tentativaTextoRepository.flush();
+
+        corrigidas.forEach((i, tentativa) -> {
+            desempenhoAgregadoService.registrarCorrecao(
+                    tentativa.getAluno(), tentativa.getAtividadeTexto(), tentativa.getDataEnvio(),
+                    notasAnteriores.get(i), tentativa.getNota());
+            correcao.concluir(i, tentativa.getNota());
+        });
+
+        return correcao.paraResposta();
+    }
+
     public TentativaTextoResponseDto updateTentativaTextoAluno(
             TentativaTextoUpdateDto tentativaUpdate, 
             Long idTentativa, 
@@ -105,6 +175,8 @@ public class TentativaTextoService {
         if (tentativa.getNota() != null) {
             throw new AccessDeniedException("Não é possível editar uma tentativa que já foi avaliada.");
         }
+
+        janelaAtividadeService.exigirEnvio(tentativa.getAtividadeTexto().getIdAtividade());
         
         tentativaUpdate.getTextoResposta().ifPresent(tentativa::setTextoResposta);
 
@@ -40,6 +40,7 @@ public class TopicosService {
     private final PagedResponseMapper pagedResponseMapper;
     private final TagRepository tagRepository;
     private final AutentificacaoService autentificacaoService; 
+    private final IndiceMaterialSugeridoService indiceMaterialSugeridoService;
     
     private static final PolicyFactory POLITICA_DE_CONTEUDO_SEGURO = new HtmlPolicyBuilder()
             .allowElements("p", "br", "h2", "h3", "h4", "h5", "h6")
@@ -58,7 +59,8 @@ public class TopicosService {
             .toFactory();
 
     public TopicosService(TopicosRepository topicosRepository, TurmaRepository turmaRepository, AtividadeRepository atividadeRepository,
-            ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper, TagRepository tagRepository, AutentificacaoService autentificacaoService) {
+            ModelMapper modelMapper, PagedResponseMapper pagedResponseMapper, TagRepository tagRepository, AutentificacaoService autentificacaoService,
+            IndiceMaterialSugeridoService indiceMaterialSugeridoService) {
         this.topicosRepository = topicosRepository;
         this.turmaRepository = turmaRepository;
         this.atividadeRepository = atividadeRepository;
@@ -66,6 +68,7 @@ public class TopicosService {
         this.pagedResponseMapper = pagedResponseMapper;
         this.tagRepository = tagRepository;
         this.autentificacaoService = autentificacaoService;
+        this.indiceMaterialSugeridoService = indiceMaterialSugeridoService;
     }
 
     @Transactional
@@ -171,6 +174,7 @@ public class TopicosService {
             throw new AccessDeniedException("Acesso negado");
         }
         topicosRepository.delete(topico);
+        indiceMaterialSugeridoService.invalidarTurma(topico.getTurma().getIdTurma());
         return modelMapper.map(topico, TopicosResponseDto.class);
     }
 
@@ -207,6 +211,11 @@ public class TopicosService {
 
         Topicos topico = topicosRepository.save(topicoExistente);
 
+        // título e tags aparecem nas sugestões de estudo da turma
+        if (topicosUpdate.getTituloTopico().isPresent() || topicosUpdate.getTagIds().isPresent()) {
+            indiceMaterialSugeridoService.invalidarTurma(topico.getTurma().getIdTurma());
+        }
+
         return modelMapper.map(topico, TopicosResponseDto.class);
     }
 
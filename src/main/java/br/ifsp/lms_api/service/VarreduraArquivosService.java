@@ -0,0 +1,203 @@
+package br.ifsp.lms_api.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
+import br.ifsp.lms_api.repository.TentativaArquivoRepository;
+
+// Compara o disco com as colunas urlArquivo em uma passada só. Os nomes do
+// disco (subpastas em ordem) e os do banco (ORDER BY nas duas tabelas) chegam
+// ordenados e são casados como num merge join, sem montar conjunto de nenhum
+// dos lados: a memória fica presa ao tamanho de uma subpasta, ao fetch size e
+// ao número de órfãos guardados para apagar nesta rodada.
+// A comparação é feita com o nome como aparece na URL (codificado), que é o
+// que o banco ordena.
+@Service
+public class VarreduraArquivosService {
+
+    private static final int MAXIMO_EXEMPLOS = 20;
+
+    private final MaterialDeAulaRepository materialRepository;
+    private final TentativaArquivoRepository tentativaArquivoRepository;
+    private final StorageService storageService;
+
+    public VarreduraArquivosService(MaterialDeAulaRepository materialRepository,
+                                    TentativaArquivoRepository tentativaArquivoRepository,
+                                    StorageService storageService) {
+        this.materialRepository = materialRepository;
+        this.tentativaArquivoRepository = tentativaArquivoRepository;
+        this.storageService = storageService;
+    }
+
+    // Arquivos modificados depois de limiteModificacao contam como na
+    // carência: podem ser de um upload cuja linha ainda não foi commitada.
+    @Transactional(readOnly = true)
+    public Varredura varrer(long limiteModificacao, int maximoOrfaos) throws IOException {
+        Varredura varredura = new Varredura();
+        try (Stream<String> materiais = materialRepository.streamNomesArmazenados();
+             Stream<String> tentativas = tentativaArquivoRepository.streamNomesArmazenados()) {
+            NomesEmOrdem banco = new NomesEmOrdem(materiais.iterator(), tentativas.iterator());
+
+            storageService.percorrerSubpastas((nomeArmazenado, ultimaModificacao) -> {
+                varredura.arquivosNoDisco++;
+                String nome = StorageService.nomeNaUrl(nomeArmazenado);
+
+                while (banco.temAntesDe(nome)) {
+                    conferirReferencia(banco.proximo(), varredura);
+                }
+                if (nome.equals(banco.espiar())) {
+                    banco.proximo();
+                    varredura.nomesNoBanco++;
+                    return;
+                }
+
+                if (ultimaModificacao > limiteModificacao) {
+                    varredura.orfaosNaCarencia++;
+                } else {
+                    varredura.orfaos++;
+                    if (varredura.orfaosParaApagar.size() < maximoOrfaos) {
+                        varredura.orfaosParaApagar.add(nomeArmazenado);
+                    }
+                }
+            });
+
+            while (banco.espiar() != null) {
+                conferirReferencia(banco.proximo(), varredura);
+            }
+        }
+        return varredura;
+    }
+
+    // Confirmação antes de apagar, fora da varredura: alguma linha criada
+    // depois que o banco foi lido pode apontar para o arquivo.
+    @Transactional(readOnly = true)
+    public boolean referenciado(String nomeArmazenado) {
+        String sufixo = "/uploads/" + StorageService.nomeNaUrl(nomeArmazenado);
+        return materialRepository.existsByUrlArquivoEndingWith(sufixo)
+                || tentativaArquivoRepository.existsByUrlArquivoEndingWith(sufixo);
+    }
+
+    // Nome do banco que não está nas subpastas: pode ainda estar solto na
+    // raiz, esperando a migração; senão a linha aponta para o nada.
+    private void conferirReferencia(String nome, Varredura varredura) {
+        varredura.nomesNoBanco++;
+        boolean existe;
+        try {
+            existe = Files.exists(storageService.caminho(StorageService.nomeDaUrl(nome)));
+        } catch (ResourceNotFoundException | IllegalArgumentException e) {
+            // nome que sairia da pasta de uploads ou com %xx inválido
+            existe = false;
+        }
+        if (!existe) {
+            varredura.referenciasQuebradas++;
+            if (varredura.exemplosReferenciasQuebradas.size() < MAXIMO_EXEMPLOS) {
+                varredura.exemplosReferenciasQuebradas.add(nome);
+            }
+        }
+    }
+
+    public static final class Varredura {
+
+        private long arquivosNoDisco;
+        private long nomesNoBanco;
+        private long orfaos;
+        private long orfaosNaCarencia;
+        private long referenciasQuebradas;
+        private final List<String> exemplosReferenciasQuebradas = new ArrayList<>();
+        private final List<String> orfaosParaApagar = new ArrayList<>();
+
+        public long getArquivosNoDisco() {
+            return arquivosNoDisco;
+        }
+
+        public long getNomesNoBanco() {
+            return nomesNoBanco;
+        }
+
+        public long getOrfaos() {
+            return orfaos;
+        }
+
+        public long getOrfaosNaCarencia() {
+            return orfaosNaCarencia;
+        }
+
+        public long getReferenciasQuebradas() {
+            return referenciasQuebradas;
+        }
+
+        public List<String> getExemplosReferenciasQuebradas() {
+            return exemplosReferenciasQuebradas;
+        }
+
+        public List<String> getOrfaosParaApagar() {
+            return orfaosParaApagar;
+        }
+    }
+
+    // As duas colunas intercaladas em uma sequência ordenada e sem repetição
+    // (o mesmo arquivo endereçado pelo conteúdo aparece em várias linhas).
+    // Se o banco devolver fora da ordem do Java (collation diferente), a
+    // varredura para: seguir adiante marcaria arquivos vivos como órfãos.
+    static final class NomesEmOrdem {
+
+        private final Iterator<String> materiais;
+        private final Iterator<String> tentativas;
+        private String proximoMaterial;
+        private String proximaTentativa;
+
+        NomesEmOrdem(Iterator<String> materiais, Iterator<String> tentativas) {
+            this.materiais = materiais;
+            this.tentativas = tentativas;
+            this.proximoMaterial = avancar(materiais, null);
+            this.proximaTentativa = avancar(tentativas, null);
+        }
+
+        String espiar() {
+            if (proximoMaterial == null) {
+                return proximaTentativa;
+            }
+            if (proximaTentativa == null) {
+                return proximoMaterial;
+            }
+            return proximoMaterial.compareTo(proximaTentativa) <= 0 ? proximoMaterial : proximaTentativa;
+        }
+
+        boolean temAntesDe(String nome) {
+            String proximo = espiar();
+            return proximo != null && proximo.compareTo(nome) < 0;
+        }
+
+        String proximo() {
+            String nome = espiar();
+            while (nome.equals(proximoMaterial)) {
+                proximoMaterial = avancar(materiais, proximoMaterial);
+            }
+            while (nome.equals(proximaTentativa)) {
+                proximaTentativa = avancar(tentativas, proximaTentativa);
+            }
+            return nome;
+        }
+
+        private static String avancar(Iterator<String> nomes, String anterior) {
+            if (!nomes.hasNext()) {
+                return null;
+            }
+            String nome = nomes.next();
+            if (anterior != null && nome.compareTo(anterior) < 0) {
+                throw new IllegalStateException("O banco devolveu os nomes de arquivo fora de ordem ("
+                        + anterior + " antes de " + nome + "); confira a collation de urlArquivo.");
+            }
+            return nome;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.ifsp.lms_api.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.ifsp.lms_api.repository.MatriculaRepository;
+
+// Versão dos dados que entram nos relatórios de turma e disciplina. Toda nota,
+// matrícula ou material alterado incrementa a versão das turmas afetadas, e
+// mudanças de gabarito ou tags incrementam a de todas; um relatório calculado
+// numa versão continua valendo enquanto ela não mudar. Só cresce, então a soma
+// das versões também muda a cada alteração.
+@Service
+public class VersaoDadosAnaliseService {
+
+    private final MatriculaRepository matriculaRepository;
+
+    private final Map<Long, AtomicLong> versoesPorTurma = new ConcurrentHashMap<>();
+    private final AtomicLong versaoGlobal = new AtomicLong();
+
+    public VersaoDadosAnaliseService(MatriculaRepository matriculaRepository) {
+        this.matriculaRepository = matriculaRepository;
+    }
+
+    public long versaoTurma(Long idTurma) {
+        return versaoGlobal.get() + versaoPropria(idTurma);
+    }
+
+    public long versaoTurmas(Collection<Long> idsTurmas) {
+        long versao = versaoGlobal.get();
+        for (Long idTurma : idsTurmas) {
+            versao += versaoPropria(idTurma);
+        }
+        return versao;
+    }
+
+    public void alterarAluno(Long idAluno) {
+        List<Long> idsTurmas = matriculaRepository.findIdsTurmaByIdAluno(idAluno);
+        if (!idsTurmas.isEmpty()) {
+            aplicarAlteracao(() -> idsTurmas.forEach(this::incrementar));
+        }
+    }
+
+    public void alterarTurma(Long idTurma) {
+        aplicarAlteracao(() -> incrementar(idTurma));
+    }
+
+    public void alterarTodos() {
+        aplicarAlteracao(versaoGlobal::incrementAndGet);
+    }
+
+    private long versaoPropria(Long idTurma) {
+        AtomicLong versao = versoesPorTurma.get(idTurma);
+        return versao != null ? versao.get() : 0L;
+    }
+
+    private void incrementar(Long idTurma) {
+        versoesPorTurma.computeIfAbsent(idTurma, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // Incrementa na hora e de novo após o commit: um relatório que começou
+    // entre os dois leu dados antigos e fica guardado numa versão já vencida.
+    private void aplicarAlteracao(Runnable incremento) {
+        incremento.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incremento.run();
+                }
+            });
+        }
+    }
+}
@@ -25,9 +25,12 @@ import br.ifsp.lms_api.config.CustomUserDetails;
 import br.ifsp.lms_api.model.Aluno;
 import br.ifsp.lms_api.model.AtividadeTexto;
 import br.ifsp.lms_api.model.MaterialDeAula;
+import br.ifsp.lms_api.model.Matricula;
+import br.ifsp.lms_api.model.Status;
 import br.ifsp.lms_api.model.Tag;
 import br.ifsp.lms_api.model.TentativaTexto;
 import br.ifsp.lms_api.model.Topicos;
+import br.ifsp.lms_api.model.Turma;
 import br.ifsp.lms_api.repository.AlunoRepository;
 import br.ifsp.lms_api.repository.AtividadeTextoRepository;
 import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
@@ -124,8 +127,19 @@ public class AnaliseDesempenhoControllerIntegrationTest {
         tentativaTextoRepository.save(tentativa);
 
  
+        Turma turmaDoAluno = new Turma();
+        turmaDoAluno.setNomeTurma("Turma do Aluno");
+        entityManager.persist(turmaDoAluno);
+
+        Matricula matricula = new Matricula();
+        matricula.setAluno(aluno);
+        matricula.setTurma(turmaDoAluno);
+        matricula.setStatusMatricula(Status.ATIVA);
+        entityManager.persist(matricula);
+
         Topicos topicoApoio = new Topicos();
         topicoApoio.setTituloTopico("Reforço de Cálculo");
+        topicoApoio.setTurma(turmaDoAluno);
         topicoApoio.setTags(new HashSet<>(Set.of(tagCalculo)));
         topicoApoio = topicosRepository.save(topicoApoio);
 
@@ -135,6 +149,24 @@ public class AnaliseDesempenhoControllerIntegrationTest {
         material.setTipoArquivo("PDF");
         material.setTopico(topicoApoio);
         materialDeAulaRepository.save(material);
+
+        // mesma tag em uma turma em que o aluno não está matriculado
+        Turma outraTurma = new Turma();
+        outraTurma.setNomeTurma("Outra Turma");
+        entityManager.persist(outraTurma);
+
+        Topicos topicoOutraTurma = new Topicos();
+        topicoOutraTurma.setTituloTopico("Cálculo de outra turma");
+        topicoOutraTurma.setTurma(outraTurma);
+        topicoOutraTurma.setTags(new HashSet<>(Set.of(tagCalculo)));
+        topicoOutraTurma = topicosRepository.save(topicoOutraTurma);
+
+        MaterialDeAula materialOutraTurma = new MaterialDeAula();
+        materialOutraTurma.setNomeArquivo("Lista da outra turma.pdf");
+        materialOutraTurma.setUrlArquivo("/downloads/lista.pdf");
+        materialOutraTurma.setTipoArquivo("PDF");
+        materialOutraTurma.setTopico(topicoOutraTurma);
+        materialDeAulaRepository.save(materialOutraTurma);
         
         entityManager.flush();
         entityManager.clear();
@@ -40,6 +40,7 @@ import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
 import br.ifsp.lms_api.repository.ProfessorRepository;
 import br.ifsp.lms_api.repository.TopicosRepository;
 import br.ifsp.lms_api.repository.TurmaRepository;
+import br.ifsp.lms_api.service.ArquivoRecebido;
 import br.ifsp.lms_api.service.StorageService;
 import jakarta.persistence.EntityManager;
 
@@ -149,7 +150,8 @@ public class MaterialDeAulaControllerIntegrationTest {
         materialExistente.setTopico(topico);
         materialExistente = materialRepository.save(materialExistente);
 
-        when(storageService.createArquivo(any())).thenReturn("http://fake-s3-url.com/novo.pdf");
+        when(storageService.createArquivo(any()))
+                .thenReturn(new ArquivoRecebido("novo.pdf", "http://fake-s3-url.com/novo.pdf", 8L, "abc"));
     }
 
     @Test
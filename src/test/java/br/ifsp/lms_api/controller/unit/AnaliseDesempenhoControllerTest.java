@@ -1,11 +1,15 @@
 package br.ifsp.lms_api.controller.unit;
 
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 
 import org.junit.jupiter.api.Test;
@@ -17,9 +21,20 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import br.ifsp.lms_api.config.CustomUserDetails;
 import br.ifsp.lms_api.controller.AnaliseDesempenhoController;
+import br.ifsp.lms_api.dto.analise.AnaliseItensResponseDto;
+import br.ifsp.lms_api.dto.analise.EscopoRelatorio;
+import br.ifsp.lms_api.dto.analise.RankingResponseDto;
 import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobResponseDto;
+import br.ifsp.lms_api.dto.analise.StatusRelatorioJob;
+import br.ifsp.lms_api.dto.analise.TendenciaTurmaResponseDto;
 import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.Professor;
 import br.ifsp.lms_api.service.AnaliseDesempenhoService;
+import br.ifsp.lms_api.service.AnaliseItemService;
+import br.ifsp.lms_api.service.RankingDesempenhoService;
+import br.ifsp.lms_api.service.RelatorioJobService;
+import br.ifsp.lms_api.service.TendenciaDesempenhoService;
 
 @WebMvcTest(AnaliseDesempenhoController.class)
 @EnableMethodSecurity(prePostEnabled = true)
@@ -27,6 +42,10 @@ public class AnaliseDesempenhoControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @MockBean private AnaliseDesempenhoService analiseService;
+    @MockBean private AnaliseItemService analiseItemService;
+    @MockBean private TendenciaDesempenhoService tendenciaService;
+    @MockBean private RelatorioJobService relatorioJobService;
+    @MockBean private RankingDesempenhoService rankingService;
 
     @Test
     void getMeuRelatorio_Aluno_Success() throws Exception {
@@ -68,4 +87,100 @@ public class AnaliseDesempenhoControllerTest {
                 .with(user("aluno").roles("ALUNO")))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAnaliseItensQuestionario_Professor_Success() throws Exception {
+        when(analiseItemService.analisarItens(anyLong())).thenReturn(new AnaliseItensResponseDto(1L, 0, new ArrayList<>()));
+
+        mockMvc.perform(get("/analise/questionario/1/itens")
+                .with(user("prof").roles("PROFESSOR")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getAnaliseItensQuestionario_Aluno_Forbidden() throws Exception {
+        mockMvc.perform(get("/analise/questionario/1/itens")
+                .with(user("aluno").roles("ALUNO")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getTendenciaTurma_Professor_Success() throws Exception {
+        when(tendenciaService.gerarTendenciaTurma(eq(1L), eq(LocalDate.of(2025, 2, 3)), isNull()))
+                .thenReturn(new TendenciaTurmaResponseDto(1L, new ArrayList<>()));
+
+        mockMvc.perform(get("/analise/turma/1/tendencia")
+                .param("inicio", "2025-02-03")
+                .with(user("prof").roles("PROFESSOR")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTendenciaTurma_Aluno_Forbidden() throws Exception {
+        mockMvc.perform(get("/analise/turma/1/tendencia")
+                .with(user("aluno").roles("ALUNO")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void consultarRelatorio_Professor_Success() throws Exception {
+        Professor professor = new Professor();
+        professor.setIdUsuario(2L);
+        professor.setEmail("prof@test.com");
+        professor.setSenha("123");
+        professor.setTipoUsuario("PROFESSOR");
+
+        when(relatorioJobService.consultar("job-1", false)).thenReturn(new RelatorioJobResponseDto(
+                "job-1", EscopoRelatorio.TURMA, 1L, StatusRelatorioJob.EM_EXECUCAO, null, null, null, null));
+
+        mockMvc.perform(get("/analise/jobs/job-1")
+                .with(user(new CustomUserDetails(professor))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void consultarRelatorio_Aluno_Forbidden() throws Exception {
+        mockMvc.perform(get("/analise/jobs/job-1")
+                .with(user("aluno").roles("ALUNO")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getRankingTurma_Aluno_DeveInformarAPropriaPosicao() throws Exception {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(1L);
+        aluno.setEmail("aluno@test.com");
+        aluno.setSenha("123");
+        aluno.setTipoUsuario("ALUNO");
+
+        when(rankingService.rankingTurma(1L, 5, 1L))
+                .thenReturn(new RankingResponseDto(1L, 0, new ArrayList<>(), null));
+
+        mockMvc.perform(get("/analise/turma/1/ranking")
+                .param("limite", "5")
+                .param("idAluno", "99")
+                .with(user(new CustomUserDetails(aluno))))
+                .andExpect(status().isOk());
+
+        verify(rankingService).rankingTurma(1L, 5, 1L);
+    }
+
+    @Test
+    void getRankingQuestionario_Professor_Success() throws Exception {
+        Professor professor = new Professor();
+        professor.setIdUsuario(2L);
+        professor.setEmail("prof@test.com");
+        professor.setSenha("123");
+        professor.setTipoUsuario("PROFESSOR");
+
+        when(rankingService.rankingQuestionario(3L, 10, 7L))
+                .thenReturn(new RankingResponseDto(3L, 0, new ArrayList<>(), null));
+
+        mockMvc.perform(get("/analise/questionario/3/ranking")
+                .param("idAluno", "7")
+                .with(user(new CustomUserDetails(professor))))
+                .andExpect(status().isOk());
+
+        verify(rankingService).rankingQuestionario(3L, 10, 7L);
+    }
+}
@@ -0,0 +1,165 @@
+package br.ifsp.lms_api.controller.unit;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import br.ifsp.lms_api.config.CustomUserDetails;
+import br.ifsp.lms_api.controller.ArquivoController;
+import br.ifsp.lms_api.dto.arquivoDto.RelatorioReconciliacaoResponseDto;
+import br.ifsp.lms_api.service.ArquivoParaDownload;
+import br.ifsp.lms_api.service.DownloadArquivoService;
+import br.ifsp.lms_api.service.ReconciliacaoArquivosService;
+
+@ExtendWith(MockitoExtension.class)
+class ArquivoControllerTest {
+
+    private static final String ETAG = "ab".repeat(32);
+    private static final long ULTIMA_MODIFICACAO = 1_700_000_000_000L;
+
+    @TempDir
+    Path pasta;
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private DownloadArquivoService downloadArquivoService;
+
+    @Mock
+    private ReconciliacaoArquivosService reconciliacaoArquivosService;
+
+    @InjectMocks
+    private ArquivoController arquivoController;
+
+    private CustomUserDetails mockUserDetails;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockUserDetails = mock(CustomUserDetails.class);
+        lenient().when(mockUserDetails.getId()).thenReturn(1L);
+
+        Path arquivo = Files.writeString(pasta.resolve("aula.txt"), "0123456789");
+        lenient().when(downloadArquivoService.material(1L, mockUserDetails)).thenReturn(
+                new ArquivoParaDownload(arquivo, "aula.txt", "text/plain", 10, ULTIMA_MODIFICACAO, ETAG));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(arquivoController)
+                .setCustomArgumentResolvers(new HandlerMethodArgumentResolver() {
+                    @Override
+                    public boolean supportsParameter(MethodParameter parameter) {
+                        return parameter.getParameterType().isAssignableFrom(CustomUserDetails.class);
+                    }
+                    @Override
+                    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+                        return mockUserDetails;
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    void baixarMaterial_SemRange_DeveMandarArquivoInteiroComValidadores() throws Exception {
+        mockMvc.perform(get("/arquivos/materiais/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void baixarMaterial_ComRange_DeveMandarSoOIntervalo() throws Exception {
+        mockMvc.perform(get("/arquivos/materiais/1").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(get("/arquivos/materiais/1").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void baixarMaterial_RangeForaDoArquivo_DeveResponder416() throws Exception {
+        mockMvc.perform(get("/arquivos/materiais/1").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void baixarMaterial_IfRangeDeOutraVersao_DeveMandarArquivoInteiro() throws Exception {
+        mockMvc.perform(get("/arquivos/materiais/1")
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"outra\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void baixarMaterial_IfNoneMatchIgual_DeveResponder304() throws Exception {
+        mockMvc.perform(get("/arquivos/materiais/1").header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void baixarMaterial_IfModifiedSinceDepois_DeveResponder304() throws Exception {
+        mockMvc.perform(get("/arquivos/materiais/1").header(HttpHeaders.IF_MODIFIED_SINCE, ULTIMA_MODIFICACAO + 60_000))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void baixarPorNome_DeveUsarOServico() throws Exception {
+        Path arquivo = Files.writeString(pasta.resolve("antigo.txt"), "abc");
+        when(downloadArquivoService.porNome("antigo.txt", mockUserDetails)).thenReturn(
+                new ArquivoParaDownload(arquivo, "antigo.txt", "text/plain", 3, ULTIMA_MODIFICACAO, ETAG));
+
+        mockMvc.perform(get("/uploads/antigo.txt"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("abc"));
+    }
+
+    @Test
+    void ultimaReconciliacao_DeveMandarORelatorio() throws Exception {
+        RelatorioReconciliacaoResponseDto relatorio = new RelatorioReconciliacaoResponseDto();
+        relatorio.setArquivosNoDisco(10);
+        relatorio.setOrfaosApagados(2);
+        when(reconciliacaoArquivosService.getUltimoRelatorio()).thenReturn(relatorio);
+
+        mockMvc.perform(get("/arquivos/reconciliacao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.arquivosNoDisco").value(10))
+                .andExpect(jsonPath("$.orfaosApagados").value(2));
+    }
+
+    @Test
+    void ultimaReconciliacao_AntesDaPrimeiraRodada_DeveResponder204() throws Exception {
+        mockMvc.perform(get("/arquivos/reconciliacao"))
+                .andExpect(status().isNoContent());
+    }
+}
@@ -16,6 +16,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -34,8 +35,11 @@ import br.ifsp.lms_api.config.CustomUserDetails;
 import br.ifsp.lms_api.controller.AtividadeQuestionarioController;
 import br.ifsp.lms_api.dto.atividadeQuestionarioDto.AtividadeQuestionarioRequestDto;
 import br.ifsp.lms_api.dto.atividadeQuestionarioDto.AtividadeQuestionarioResponseDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.RecorrecaoQuestionarioResponseDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.StatusRecorrecao;
 import br.ifsp.lms_api.exception.ResourceNotFoundException;
 import br.ifsp.lms_api.service.AtividadeQuestionarioService;
+import br.ifsp.lms_api.service.RecorrecaoQuestionarioService;
 
 @WebMvcTest(AtividadeQuestionarioController.class)
 class AtividadeQuestionarioControllerTest {
@@ -49,6 +53,9 @@ class AtividadeQuestionarioControllerTest {
     @MockBean
     private AtividadeQuestionarioService atividadeQuestionarioService;
 
+    @MockBean
+    private RecorrecaoQuestionarioService recorrecaoQuestionarioService;
+
     private AtividadeQuestionarioResponseDto responseDto;
 
     @BeforeEach
@@ -138,4 +145,17 @@ class AtividadeQuestionarioControllerTest {
 
         verify(atividadeQuestionarioService).adicionarQuestoes(idQuestionario, idsDasQuestoes, idProfessor);
     }
+
+    @Test
+    @WithMockUser(roles = "PROFESSOR")
+    void testRecorrigir_DeveAgendarEDevolver202() throws Exception {
+        RecorrecaoQuestionarioResponseDto recorrecao = new RecorrecaoQuestionarioResponseDto(
+                1L, StatusRecorrecao.PENDENTE, 0, 0, 0, LocalDateTime.now(), null, null);
+        when(recorrecaoQuestionarioService.agendarQuestionario(1L)).thenReturn(recorrecao);
+
+        mockMvc.perform(post("/atividades-questionario/{idQuestionario}/recorrecao", 1L)
+                .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDENTE"));
+    }
 }
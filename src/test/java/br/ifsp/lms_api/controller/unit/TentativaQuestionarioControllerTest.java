@@ -1,6 +1,7 @@
 package br.ifsp.lms_api.controller.unit;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -8,10 +9,13 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,10 +44,16 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
 import br.ifsp.lms_api.config.CustomUserDetails;
 import br.ifsp.lms_api.controller.TentativaQuestionarioController;
+import br.ifsp.lms_api.dto.alternativasDto.AlternativasAlunoResponseDto;
 import br.ifsp.lms_api.dto.page.PagedResponse;
+import br.ifsp.lms_api.dto.questoesDto.QuestoesAlunoResponseDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.FinalizarSessaoRequestDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.RespostasParciaisRequestDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.SessaoQuestionarioResponseDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioRequestDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioResponseDto;
 import br.ifsp.lms_api.exception.LimiteTentativasException;
+import br.ifsp.lms_api.service.SessaoQuestionarioService;
 import br.ifsp.lms_api.service.TentativaQuestionarioService;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +62,9 @@ class TentativaQuestionarioControllerTest {
     @Mock
     private TentativaQuestionarioService tentativaQuestionarioService;
 
+    @Mock
+    private SessaoQuestionarioService sessaoQuestionarioService;
+
     @InjectMocks
     private TentativaQuestionarioController controller;
 
@@ -134,6 +147,76 @@ class TentativaQuestionarioControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getQuestoesDaProximaTentativa_DeveSerPostESemGabarito() throws Exception {
+        Long idAluno = 1L;
+        QuestoesAlunoResponseDto questao = new QuestoesAlunoResponseDto(3L, "Enunciado", 1.0,
+                List.of(new AlternativasAlunoResponseDto(30L, "A")), List.of());
+
+        when(userDetails.getId()).thenReturn(idAluno);
+        when(tentativaQuestionarioService.getQuestoesDaProximaTentativa(10L, idAluno)).thenReturn(List.of(questao));
+
+        mockMvc.perform(post("/tentativaQuestionario/questoes/{idQuestionario}", 10L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].alternativas[0].idAlternativa").value(30L))
+                .andExpect(jsonPath("$[0].alternativas[0].alternativaCorreta").doesNotExist());
+
+        mockMvc.perform(get("/tentativaQuestionario/questoes/{idQuestionario}", 10L))
+                .andExpect(status().isMethodNotAllowed());
+    }
+
+    @Test
+    void iniciarSessao_Success() throws Exception {
+        Long idAluno = 1L;
+        LocalDateTime inicio = LocalDateTime.now();
+        SessaoQuestionarioResponseDto sessao = new SessaoQuestionarioResponseDto(10L, idAluno, inicio,
+                inicio.plusMinutes(30), 1800);
+
+        when(userDetails.getId()).thenReturn(idAluno);
+        when(sessaoQuestionarioService.iniciar(10L, idAluno)).thenReturn(sessao);
+
+        mockMvc.perform(post("/tentativaQuestionario/sessao/{idQuestionario}/iniciar", 10L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idQuestionario").value(10L))
+                .andExpect(jsonPath("$.segundosRestantes").value(1800));
+    }
+
+    @Test
+    void salvarRespostasParciais_Success() throws Exception {
+        Long idAluno = 1L;
+        LocalDateTime inicio = LocalDateTime.now();
+        SessaoQuestionarioResponseDto sessao = new SessaoQuestionarioResponseDto(10L, idAluno, inicio,
+                inicio.plusMinutes(30), 1200);
+
+        when(userDetails.getId()).thenReturn(idAluno);
+        when(sessaoQuestionarioService.salvarRespostas(10L, idAluno, List.of(100L))).thenReturn(sessao);
+
+        mockMvc.perform(put("/tentativaQuestionario/sessao/{idQuestionario}/respostas", 10L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RespostasParciaisRequestDto(List.of(100L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.segundosRestantes").value(1200));
+    }
+
+    @Test
+    void finalizarSessao_DeveEnviarAsRespostasDoQuestionarioDaRota() throws Exception {
+        Long idAluno = 1L;
+        TentativaQuestionarioResponseDto responseDto = new TentativaQuestionarioResponseDto();
+        responseDto.setIdQuestionario(10L);
+
+        when(userDetails.getId()).thenReturn(idAluno);
+        when(tentativaQuestionarioService.createTentativaQuestionario(
+                argThat(dto -> dto.getIdQuestionario().equals(10L) && dto.getRespostas().equals(List.of(100L, 201L))),
+                eq(idAluno)))
+                .thenReturn(responseDto);
+
+        mockMvc.perform(post("/tentativaQuestionario/sessao/{idQuestionario}/finalizar", 10L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new FinalizarSessaoRequestDto(List.of(100L, 201L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idQuestionario").value(10L));
+    }
+
     @Test
     void getAllTentativasQuestionario_Success() throws Exception {
         PagedResponse<TentativaQuestionarioResponseDto> pagedResponse = new PagedResponse<>(
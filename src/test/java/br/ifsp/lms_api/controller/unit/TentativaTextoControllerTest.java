@@ -13,6 +13,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +46,11 @@ import br.ifsp.lms_api.controller.TentativaTextoController;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoRequestDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoResponseDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemResultadoDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
+import br.ifsp.lms_api.dto.correcaoDto.StatusCorrecaoItem;
 import br.ifsp.lms_api.dto.page.PagedResponse;
 import br.ifsp.lms_api.exception.AccessDeniedException;
 import br.ifsp.lms_api.service.TentativaTextoService;
@@ -175,6 +181,33 @@ class TentativaTextoControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void corrigirTentativasTextoEmLote_Success() throws Exception {
+        CorrecaoLoteRequestDto lote = new CorrecaoLoteRequestDto(List.of(
+                new CorrecaoItemRequestDto(5L, 8.0, "Bom"),
+                new CorrecaoItemRequestDto(99L, 7.0, null)));
+
+        when(tentativaTextoService.corrigirTentativasTextoEmLote(any(CorrecaoLoteRequestDto.class)))
+                .thenReturn(new CorrecaoLoteResponseDto(2, 1, 1, List.of(
+                        new CorrecaoItemResultadoDto(5L, StatusCorrecaoItem.CORRIGIDA, 8.0, null),
+                        new CorrecaoItemResultadoDto(99L, StatusCorrecaoItem.NAO_ENCONTRADA, null, "Tentativa de Texto nao encontrada"))));
+
+        mockMvc.perform(patch("/tentativaTexto/professor/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.corrigidas").value(1))
+                .andExpect(jsonPath("$.resultados[1].status").value("NAO_ENCONTRADA"));
+    }
+
+    @Test
+    void corrigirTentativasTextoEmLote_LoteVazio_ShouldReturn400() throws Exception {
+        mockMvc.perform(patch("/tentativaTexto/professor/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CorrecaoLoteRequestDto(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateMinhaTentativa_Success() throws Exception {
         Long idTentativa = 5L;
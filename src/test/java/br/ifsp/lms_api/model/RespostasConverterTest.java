@@ -0,0 +1,84 @@
+package br.ifsp.lms_api.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RespostasConverterTest {
+
+    private final RespostasConverter converter = new RespostasConverter();
+
+    @Test
+    void converter_IdaEVolta_DeveDevolverAsRespostasOrdenadas() {
+        byte[] dados = converter.convertToDatabaseColumn(Arrays.asList(1042L, null, 1001L, 1042L, 1017L));
+
+        assertEquals(List.of(1001L, 1017L, 1042L, 1042L), converter.convertToEntityAttribute(dados));
+    }
+
+    @Test
+    void converter_NuloOuVazio_DevePreservar() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertEquals(List.of(), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(List.of())));
+    }
+
+    @Test
+    void converter_ValoresExtremos_DevemVoltarIguais() {
+        List<Long> respostas = List.of(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE);
+
+        assertEquals(respostas, RespostasConverter.decodificar(RespostasConverter.codificar(respostas)));
+    }
+
+    @Test
+    void decodificar_DadosTruncadosOuDeOutraVersao_DeveLancarExcecao() {
+        byte[] dados = RespostasConverter.codificar(List.of(100_000L, 100_004L));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RespostasConverter.decodificar(Arrays.copyOf(dados, dados.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> RespostasConverter.decodificar(new byte[] { 9, 0 }));
+    }
+
+    // Questionário de 50 questões com 4 alternativas cada, ids criados em
+    // sequência: a codificação fica perto de um byte por resposta, contra
+    // mais de 800 bytes da lista serializada.
+    @Test
+    void codificar_TentativaDe50Questoes_DeveSerMuitoMenorQueASerializacao() throws IOException {
+        Random random = new Random(42);
+        for (int tentativa = 0; tentativa < 100; tentativa++) {
+            long primeiraAlternativa = 100_000 + random.nextInt(50_000);
+            List<Long> respostas = new ArrayList<>();
+            for (int questao = 0; questao < 50; questao++) {
+                respostas.add(primeiraAlternativa + questao * 4 + random.nextInt(4));
+            }
+            Collections.shuffle(respostas, random);
+
+            byte[] codificadas = RespostasConverter.codificar(respostas);
+
+            assertTrue(codificadas.length <= 56, "codificadas: " + codificadas.length);
+            assertTrue(codificadas.length * 10 < serializar(respostas).length);
+            List<Long> esperadas = new ArrayList<>(respostas);
+            Collections.sort(esperadas);
+            assertEquals(esperadas, RespostasConverter.decodificar(codificadas));
+        }
+    }
+
+    private static byte[] serializar(List<Long> respostas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream saida = new ObjectOutputStream(bytes)) {
+            saida.writeObject(respostas);
+        }
+        return bytes.toByteArray();
+    }
+}
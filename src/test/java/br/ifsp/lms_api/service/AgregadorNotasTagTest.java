@@ -0,0 +1,63 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
+
+class AgregadorNotasTagTest {
+
+    @Test
+    void registrar_DeveAcumularSomaContagemMinimoEMaximoPorTag() {
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+        agregador.registrar(7L, "Cálculo", 4.0);
+        agregador.registrar(3L, "POO", 9.0);
+        agregador.registrar(7L, "Cálculo", 10.0);
+
+        List<TagDesempenhoDto> desempenho = agregador.paraTagDesempenho();
+
+        assertEquals(2, desempenho.size());
+        TagDesempenhoDto calculo = desempenho.get(0);
+        assertEquals("Cálculo", calculo.getNomeTag());
+        assertEquals(2, calculo.getTotalAvaliacoes());
+        assertEquals(7.0, calculo.getMediaNota());
+        assertEquals(4.0, calculo.getNotaMinima());
+        assertEquals(10.0, calculo.getNotaMaxima());
+        assertEquals("POO", desempenho.get(1).getNomeTag());
+    }
+
+    @Test
+    void somar_DeveCombinarResumosComNotasAvulsas() {
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+        agregador.somar(new ResumoNotaTag(1L, "Matemática", 12.0, 2L, 4.0, 8.0));
+        agregador.registrar(1L, "Matemática", 0.0);
+
+        assertEquals(1, agregador.getQuantidadeTags());
+        assertEquals(12.0, agregador.getSomaNotas(0));
+        assertEquals(3L, agregador.getQuantidadeNotas(0));
+        assertEquals(0.0, agregador.getNotaMinima(0));
+        assertEquals(8.0, agregador.getNotaMaxima(0));
+    }
+
+    @Test
+    void registrar_MuitasTags_DeveCrescerSemPerderContagens() {
+        AgregadorNotasTag agregador = new AgregadorNotasTag();
+        for (int repeticao = 0; repeticao < 3; repeticao++) {
+            for (long idTag = 1; idTag <= 1000; idTag++) {
+                agregador.registrar(idTag * 64, "Tag " + idTag, idTag % 11);
+            }
+        }
+
+        assertEquals(1000, agregador.getQuantidadeTags());
+        for (int posicao = 0; posicao < agregador.getQuantidadeTags(); posicao++) {
+            long idTag = agregador.getIdTag(posicao);
+            assertEquals((posicao + 1) * 64L, idTag);
+            assertEquals(3L, agregador.getQuantidadeNotas(posicao));
+            assertEquals(3.0 * ((idTag / 64) % 11), agregador.getSomaNotas(posicao));
+        }
+    }
+}
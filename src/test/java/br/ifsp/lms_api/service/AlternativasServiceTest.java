@@ -45,6 +45,15 @@ class AlternativasServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @Mock
+    private RecorrecaoQuestionarioService recorrecaoQuestionarioService;
+
     @InjectMocks
     private AlternativasService alternativasService;
 
@@ -199,6 +208,31 @@ class AlternativasServiceTest {
         assertEquals(true, existingAlternativa.getAlternativaCorreta());
     }
 
+    @Test
+    @DisplayName("Deve agendar a recorreção quando a alternativa correta muda")
+    void shouldScheduleRegradeWhenAnswerKeyChanges() {
+        Long id = 1L;
+        Questoes questao = new Questoes();
+        questao.setIdQuestao(7L);
+
+        AlternativasUpdateDto updateDto = new AlternativasUpdateDto();
+        updateDto.setAlternativaCorreta(Optional.of(true));
+
+        Alternativas existingAlternativa = new Alternativas();
+        existingAlternativa.setIdAlternativa(id);
+        existingAlternativa.setAlternativaCorreta(false);
+        existingAlternativa.setQuestoes(questao);
+
+        when(alternativasRepository.findById(id)).thenReturn(Optional.of(existingAlternativa));
+        when(alternativasRepository.save(existingAlternativa)).thenReturn(existingAlternativa);
+        when(modelMapper.map(existingAlternativa, AlternativasResponseDto.class)).thenReturn(new AlternativasResponseDto());
+
+        alternativasService.updateAlternativa(id, updateDto);
+
+        verify(gabaritoQuestionarioService).invalidarPorQuestao(7L);
+        verify(recorrecaoQuestionarioService).agendarPorQuestao(7L);
+    }
+
     @Test
     @DisplayName("Deve lançar exceção ao atualizar alternativa inexistente (Sad Path)")
     void shouldThrowExceptionWhenUpdateAlternativaNotFound() {
@@ -0,0 +1,210 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
+import br.ifsp.lms_api.model.Alternativas;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.AtividadeTexto;
+import br.ifsp.lms_api.model.Matricula;
+import br.ifsp.lms_api.model.Questoes;
+import br.ifsp.lms_api.model.Status;
+import br.ifsp.lms_api.model.Tag;
+import br.ifsp.lms_api.model.TentativaQuestionario;
+import br.ifsp.lms_api.model.TentativaTexto;
+import br.ifsp.lms_api.model.Turma;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AnaliseDesempenhoServiceIntegrationTest {
+
+    @Autowired
+    private AnaliseDesempenhoService analiseService;
+
+    @Autowired
+    private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Turma turma;
+    private AtividadeTexto atividadeTexto;
+    private AtividadeQuestionario questionario;
+    private Long idAlternativaCertaQ1;
+    private int alunosCriados;
+
+    @BeforeEach
+    void setUp() {
+        Tag tagCalculo = new Tag();
+        tagCalculo.setNome("Relatório Cálculo");
+        entityManager.persist(tagCalculo);
+
+        Tag tagPoo = new Tag();
+        tagPoo.setNome("Relatório POO");
+        entityManager.persist(tagPoo);
+
+        turma = new Turma();
+        turma.setNomeTurma("Turma Relatório");
+        entityManager.persist(turma);
+
+        atividadeTexto = new AtividadeTexto();
+        atividadeTexto.setTituloAtividade("Redação de Cálculo");
+        atividadeTexto.setDataInicioAtividade(LocalDate.now());
+        atividadeTexto.setDataFechamentoAtividade(LocalDate.now().plusDays(7));
+        atividadeTexto.setTags(new HashSet<>(Set.of(tagCalculo)));
+        entityManager.persist(atividadeTexto);
+
+        Questoes q1 = criarQuestao("Questão de cálculo", tagCalculo);
+        Questoes q2 = criarQuestao("Questão de POO", tagPoo);
+        idAlternativaCertaQ1 = q1.getAlternativas().get(0).getIdAlternativa();
+
+        questionario = new AtividadeQuestionario();
+        questionario.setTituloAtividade("Questionário Misto");
+        questionario.setDataInicioAtividade(LocalDate.now());
+        questionario.setDataFechamentoAtividade(LocalDate.now().plusDays(7));
+        questionario.setQuestoes(new ArrayList<>(List.of(q1, q2)));
+        entityManager.persist(questionario);
+    }
+
+    @Test
+    void gerarRelatorioTurma_DeveAgregarNotasPorTag() {
+        matricularAlunos(4);
+
+        RelatorioDesempenhoResponseDto relatorio = analiseService.gerarRelatorioTurma(turma.getIdTurma());
+
+        Map<String, TagDesempenhoDto> porTag = relatorio.getDesempenhoGeral().stream()
+                .collect(Collectors.toMap(TagDesempenhoDto::getNomeTag, t -> t));
+
+        TagDesempenhoDto calculo = porTag.get("Relatório Cálculo");
+        assertEquals(8, calculo.getTotalAvaliacoes());
+        assertEquals(8.0, calculo.getMediaNota(), 1e-9);
+        assertEquals(4.0, calculo.getNotaMinima());
+        assertEquals(10.0, calculo.getNotaMaxima());
+        assertEquals(8.0, calculo.getMediana());
+        assertEquals(4.0, calculo.getPercentil10());
+        assertEquals(10.0, calculo.getPercentil90());
+        assertEquals(0.25, calculo.getFracaoAbaixoAprovacao(), 1e-9);
+
+        TagDesempenhoDto poo = porTag.get("Relatório POO");
+        assertEquals(4, poo.getTotalAvaliacoes());
+        assertEquals(0.0, poo.getMediaNota(), 1e-9);
+
+        assertEquals(1, relatorio.getPontosFracos().size());
+    }
+
+    @Test
+    void gerarRelatorioTurma_QuantidadeDeConsultasNaoDeveCrescerComOsAlunos() {
+        matricularAlunos(2);
+        long consultasComPoucosAlunos = contarConsultasDoRelatorio();
+
+        matricularAlunos(20);
+        long consultasComMuitosAlunos = contarConsultasDoRelatorio();
+
+        assertEquals(consultasComPoucosAlunos, consultasComMuitosAlunos);
+    }
+
+    private long contarConsultasDoRelatorio() {
+        entityManager.flush();
+        entityManager.clear();
+        gabaritoQuestionarioService.invalidarTodos();
+        // a primeira chamada materializa o histograma da turma; mede só a seguinte
+        analiseService.gerarRelatorioTurma(turma.getIdTurma());
+        entityManager.clear();
+        gabaritoQuestionarioService.invalidarTodos();
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.setStatisticsEnabled(true);
+        estatisticas.clear();
+        try {
+            analiseService.gerarRelatorioTurma(turma.getIdTurma());
+            return estatisticas.getPrepareStatementCount();
+        } finally {
+            estatisticas.setStatisticsEnabled(false);
+        }
+    }
+
+    private Questoes criarQuestao(String enunciado, Tag tag) {
+        Questoes questao = new Questoes();
+        questao.setEnunciado(enunciado);
+        questao.setTags(new HashSet<>(Set.of(tag)));
+
+        Alternativas certa = new Alternativas();
+        certa.setAlternativa("Certa");
+        certa.setAlternativaCorreta(true);
+        certa.setQuestoes(questao);
+
+        Alternativas errada = new Alternativas();
+        errada.setAlternativa("Errada");
+        errada.setAlternativaCorreta(false);
+        errada.setQuestoes(questao);
+
+        questao.setAlternativas(new ArrayList<>(List.of(certa, errada)));
+        entityManager.persist(questao);
+        return questao;
+    }
+
+    // Cada aluno recebe nota 4 ou 8 na redação e acerta só a questão de cálculo.
+    private void matricularAlunos(int quantidade) {
+        turma = entityManager.merge(turma);
+        atividadeTexto = entityManager.merge(atividadeTexto);
+        questionario = entityManager.merge(questionario);
+
+        for (int i = 0; i < quantidade; i++) {
+            int n = alunosCriados++;
+
+            Aluno aluno = new Aluno();
+            aluno.setNome("Aluno Relatório " + n);
+            aluno.setEmail("aluno.relatorio" + n + "@test.com");
+            aluno.setCpf("900000000" + String.format("%02d", n));
+            aluno.setSenha("123456");
+            entityManager.persist(aluno);
+
+            Matricula matricula = new Matricula();
+            matricula.setAluno(aluno);
+            matricula.setTurma(turma);
+            matricula.setStatusMatricula(Status.ATIVA);
+            entityManager.persist(matricula);
+
+            TentativaTexto tentativaTexto = new TentativaTexto();
+            tentativaTexto.setTextoResposta("Resposta");
+            tentativaTexto.setNota(n % 2 == 0 ? 4.0 : 8.0);
+            tentativaTexto.setAtividadeTexto(atividadeTexto);
+            tentativaTexto.setAluno(aluno);
+            entityManager.persist(tentativaTexto);
+
+            TentativaQuestionario tentativaQuestionario = new TentativaQuestionario();
+            tentativaQuestionario.setDataEnvio(LocalDateTime.now());
+            tentativaQuestionario.setNumeroDaTentativa(1);
+            tentativaQuestionario.setRespostas(new ArrayList<>(List.of(idAlternativaCertaQ1)));
+            tentativaQuestionario.setAtividadeQuestionario(questionario);
+            tentativaQuestionario.setAluno(aluno);
+            entityManager.persist(tentativaQuestionario);
+        }
+    }
+}
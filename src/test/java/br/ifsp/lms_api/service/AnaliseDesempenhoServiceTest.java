@@ -5,11 +5,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq; 
-import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -21,17 +25,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import br.ifsp.lms_api.dto.analise.FaixaNotaTag;
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
+import br.ifsp.lms_api.dto.analise.MaterialSugeridoDto;
 import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
 import br.ifsp.lms_api.model.AtividadeTexto;
-import br.ifsp.lms_api.model.MaterialDeAula;
 import br.ifsp.lms_api.model.Tag;
 import br.ifsp.lms_api.model.TentativaTexto;
-import br.ifsp.lms_api.model.Topicos;
 import br.ifsp.lms_api.repository.DisciplinaRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
 import br.ifsp.lms_api.repository.TentativaArquivoRepository;
 import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
 import br.ifsp.lms_api.repository.TentativaTextoRepository;
-import br.ifsp.lms_api.repository.TopicosRepository;
 import br.ifsp.lms_api.repository.TurmaRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,9 +48,13 @@ class AnaliseDesempenhoServiceTest {
     @Mock private TentativaTextoRepository tentativaTextoRepo;
     @Mock private TentativaArquivoRepository tentativaArquivoRepo;
     @Mock private TentativaQuestionarioRepository tentativaQuestionarioRepo;
-    @Mock private TopicosRepository topicosRepo;
+    @Mock private IndiceMaterialSugeridoService indiceMaterialSugeridoService;
     @Mock private TurmaRepository turmaRepo;
     @Mock private DisciplinaRepository disciplinaRepo;
+    @Mock private DesempenhoAgregadoService desempenhoAgregadoService;
+    @Mock private RelatorioDesempenhoRepository relatorioRepo;
+    @Mock private GabaritoQuestionarioService gabaritoQuestionarioService;
+    @Mock private HistogramaDesempenhoService histogramaDesempenhoService;
 
     @InjectMocks private AnaliseDesempenhoService analiseService;
 
@@ -53,6 +65,7 @@ class AnaliseDesempenhoServiceTest {
     @BeforeEach
     void setUp() {
         tagMatematica = new Tag();
+        tagMatematica.setIdTag(1L);
         tagMatematica.setNome("Matemática");
 
         AtividadeTexto atividade = new AtividadeTexto();
@@ -76,15 +89,12 @@ class AnaliseDesempenhoServiceTest {
             .thenReturn(new PageImpl<>(Collections.emptyList()));
 
 
-        Topicos topicoRecuperacao = new Topicos();
-        topicoRecuperacao.setTituloTopico("Aula de Reforço");
-        
-        MaterialDeAula material = new MaterialDeAula();
-        material.setNomeArquivo("Apostila.pdf");
-        material.setUrlArquivo("link.com");
-        topicoRecuperacao.setMateriaisDeAula(List.of(material));
+        MaterialSugeridoDto material = new MaterialSugeridoDto();
+        material.setNomeTopicoRelacionado("Aula de Reforço");
+        material.setNomeMaterial("Apostila.pdf");
+        material.setUrlMaterial("link.com");
 
-        when(topicosRepo.findByTags_NomeIn(anySet())).thenReturn(List.of(topicoRecuperacao));
+        when(indiceMaterialSugeridoService.sugerirParaAluno(idAluno, Set.of("Matemática"))).thenReturn(List.of(material));
 
 
         RelatorioDesempenhoResponseDto relatorio = analiseService.gerarRelatorioAluno(idAluno);
@@ -102,5 +112,84 @@ class AnaliseDesempenhoServiceTest {
         assertFalse(relatorio.getSugestoesEstudo().isEmpty());
         assertEquals("Apostila.pdf", relatorio.getSugestoesEstudo().get(0).getNomeMaterial());
     }
-    
-}
\ No newline at end of file
+
+    @Test
+    void gerarRelatorioAluno_DeveMaterializarAgregadosNaPrimeiraLeitura() {
+        tagMatematica.setIdTag(7L);
+
+        when(tentativaTextoRepo.findByAluno_IdUsuario(eq(idAluno), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(tentativaRuim)));
+        when(tentativaArquivoRepo.findByAluno_IdUsuario(eq(idAluno), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(Collections.emptyList()));
+        when(tentativaQuestionarioRepo.findByAluno_IdUsuario(eq(idAluno), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(Collections.emptyList()));
+
+        RelatorioDesempenhoResponseDto relatorio = analiseService.gerarRelatorioAluno(idAluno);
+
+        verify(desempenhoAgregadoService).materializar(eq(idAluno), any(AgregadorNotasTag.class), anyLong());
+        verify(desempenhoAgregadoService).descartarSeAlterado(eq(idAluno), anyLong());
+        assertEquals(4.0, relatorio.getDesempenhoGeral().get(0).getNotaMinima());
+        assertEquals(4.0, relatorio.getDesempenhoGeral().get(0).getNotaMaxima());
+    }
+
+    @Test
+    void gerarRelatorioAluno_ComAgregadosMaterializados_NaoDeveVarrerTentativas() {
+        TagDesempenhoDto desempenho = new TagDesempenhoDto();
+        desempenho.setNomeTag("Matemática");
+        desempenho.setMediaNota(8.0);
+        desempenho.setTotalAvaliacoes(3);
+
+        when(desempenhoAgregadoService.buscarDesempenho(idAluno)).thenReturn(Optional.of(List.of(desempenho)));
+
+        RelatorioDesempenhoResponseDto relatorio = analiseService.gerarRelatorioAluno(idAluno);
+
+        assertEquals(1, relatorio.getDesempenhoGeral().size());
+        assertEquals(8.0, relatorio.getDesempenhoGeral().get(0).getMediaNota());
+        assertEquals(0, relatorio.getPontosFracos().size());
+        verify(tentativaTextoRepo, never()).findByAluno_IdUsuario(any(), any());
+        verify(tentativaQuestionarioRepo, never()).findByAluno_IdUsuario(any(), any());
+        verify(desempenhoAgregadoService, never()).materializar(any(), any(AgregadorNotasTag.class), anyLong());
+    }
+
+    @Test
+    void gerarRelatorioTurma_DeveCombinarResumosDoBancoComQuestionarios() {
+        Long idTurma = 3L;
+
+        when(turmaRepo.existsById(idTurma)).thenReturn(true);
+        when(relatorioRepo.resumirTentativasTextoPorTurma(idTurma))
+            .thenReturn(List.of(new ResumoNotaTag(1L, "Matemática", 12.0, 2L, 4.0, 8.0)));
+        when(relatorioRepo.resumirTentativasArquivoPorTurma(idTurma))
+            .thenReturn(Collections.emptyList());
+        when(relatorioRepo.findRespostasQuestionarioPorTurma(idTurma))
+            .thenReturn(List.of(
+                new RespostasQuestionario(20L, List.of(100L), null),
+                new RespostasQuestionario(20L, List.of(101L), null)));
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(20L,
+                List.of(new GabaritoQuestaoTag(20L, 30L, 100L, 1L, "Matemática")));
+        when(gabaritoQuestionarioService.obterParaTentativas(anyList(), any(), any()))
+            .thenReturn(List.of(gabarito, gabarito));
+        when(histogramaDesempenhoService.turmasNaoMaterializadas(List.of(idTurma))).thenReturn(Collections.emptyList());
+        when(histogramaDesempenhoService.buscarFaixas(List.of(idTurma)))
+            .thenReturn(List.of(
+                new FaixaNotaTag(1L, "Matemática", 0, 1L),
+                new FaixaNotaTag(1L, "Matemática", 8, 1L),
+                new FaixaNotaTag(1L, "Matemática", 16, 1L),
+                new FaixaNotaTag(1L, "Matemática", 20, 1L)));
+
+        RelatorioDesempenhoResponseDto relatorio = analiseService.gerarRelatorioTurma(idTurma);
+
+        assertEquals(1, relatorio.getDesempenhoGeral().size());
+        TagDesempenhoDto matematica = relatorio.getDesempenhoGeral().get(0);
+        assertEquals(4, matematica.getTotalAvaliacoes());
+        assertEquals(5.5, matematica.getMediaNota());
+        assertEquals(0.0, matematica.getNotaMinima());
+        assertEquals(10.0, matematica.getNotaMaxima());
+        assertEquals(4.0, matematica.getMediana());
+        assertEquals(0.0, matematica.getPercentil10());
+        assertEquals(10.0, matematica.getPercentil90());
+        assertEquals(0.5, matematica.getFracaoAbaixoAprovacao());
+        assertEquals(1, relatorio.getPontosFracos().size());
+        verify(indiceMaterialSugeridoService).sugerir(List.of(idTurma), Set.of("Matemática"));
+        verify(tentativaTextoRepo, never()).findByAluno_IdUsuario(any(), any());
+    }
+}
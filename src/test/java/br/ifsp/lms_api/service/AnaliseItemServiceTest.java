@@ -0,0 +1,119 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.analise.AlternativaQuestao;
+import br.ifsp.lms_api.dto.analise.AnaliseItemDto;
+import br.ifsp.lms_api.dto.analise.AnaliseItensResponseDto;
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AnaliseItemServiceTest {
+
+    @Mock private AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+    @Mock private RelatorioDesempenhoRepository relatorioRepo;
+    @Mock private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @InjectMocks private AnaliseItemService analiseItemService;
+
+    private final Long idQuestionario = 10L;
+
+    @Test
+    void analisarItens_DeveCalcularDificuldadeDiscriminacaoETaxaDeEscolha() {
+        when(atividadeQuestionarioRepository.existsById(idQuestionario)).thenReturn(true);
+        when(gabaritoQuestionarioService.obter(idQuestionario)).thenReturn(GabaritoQuestionario.compilar(idQuestionario, List.of(
+            new GabaritoQuestaoTag(idQuestionario, 1L, 100L, null, null),
+            new GabaritoQuestaoTag(idQuestionario, 2L, 200L, null, null))));
+        when(atividadeQuestionarioRepository.findAlternativas(idQuestionario)).thenReturn(List.of(
+            new AlternativaQuestao(1L, "Questão um", 100L, "A", true),
+            new AlternativaQuestao(1L, "Questão um", 101L, "B", false),
+            new AlternativaQuestao(2L, "Questão dois", 200L, "A", true),
+            new AlternativaQuestao(2L, "Questão dois", 201L, "B", false)));
+        when(relatorioRepo.streamRespostasPorQuestionario(idQuestionario)).thenReturn(Stream.of(
+            new RespostasQuestionario(idQuestionario, List.of(100L, 200L), null),
+            new RespostasQuestionario(idQuestionario, List.of(100L, 201L), null),
+            new RespostasQuestionario(idQuestionario, List.of(101L, 200L), null),
+            new RespostasQuestionario(idQuestionario, List.of(101L, 201L), null)));
+
+        AnaliseItensResponseDto analise = analiseItemService.analisarItens(idQuestionario);
+
+        assertEquals(4, analise.getTotalTentativas());
+        assertEquals(2, analise.getItens().size());
+
+        AnaliseItemDto questaoUm = analise.getItens().get(0);
+        assertEquals("Questão um", questaoUm.getEnunciado());
+        assertEquals(0.5, questaoUm.getIndiceDificuldade());
+        assertEquals(1.0, questaoUm.getIndiceDiscriminacao());
+        assertEquals(2, questaoUm.getAlternativas().get(0).getTotalEscolhas());
+        assertEquals(0.5, questaoUm.getAlternativas().get(1).getTaxaEscolha());
+    }
+
+    @Test
+    void analisarItens_ComSorteio_DeveContarCadaQuestaoSoOndeFoiSorteada() {
+        when(atividadeQuestionarioRepository.existsById(idQuestionario)).thenReturn(true);
+        when(relatorioRepo.streamQuestoesSorteadasPorQuestionario(idQuestionario)).thenReturn(Stream.of(
+            List.of(1L), List.of(1L), List.of(2L)));
+        when(gabaritoQuestionarioService.obterParaSorteio(idQuestionario, List.of(1L, 2L)))
+            .thenReturn(GabaritoQuestionario.compilar(idQuestionario, List.of(
+                new GabaritoQuestaoTag(idQuestionario, 1L, 100L, null, null),
+                new GabaritoQuestaoTag(idQuestionario, 2L, 200L, null, null))));
+        when(atividadeQuestionarioRepository.findAlternativasDasQuestoes(List.of(1L, 2L))).thenReturn(List.of(
+            new AlternativaQuestao(1L, "Questão um", 100L, "A", true),
+            new AlternativaQuestao(1L, "Questão um", 101L, "B", false),
+            new AlternativaQuestao(2L, "Questão dois", 200L, "A", true)));
+        when(relatorioRepo.streamRespostasPorQuestionario(idQuestionario)).thenReturn(Stream.of(
+            new RespostasQuestionario(idQuestionario, List.of(100L), List.of(1L)),
+            new RespostasQuestionario(idQuestionario, List.of(101L), List.of(1L)),
+            new RespostasQuestionario(idQuestionario, List.of(200L), List.of(2L))));
+
+        AnaliseItensResponseDto analise = analiseItemService.analisarItens(idQuestionario);
+
+        assertEquals(3, analise.getTotalTentativas());
+        AnaliseItemDto questaoUm = analise.getItens().get(0);
+        assertEquals(0.5, questaoUm.getIndiceDificuldade());
+        assertEquals(0.5, questaoUm.getAlternativas().get(1).getTaxaEscolha());
+        // o grupo superior (tentativa da questão dois) não viu a questão um
+        assertNull(questaoUm.getIndiceDiscriminacao());
+        assertEquals(1.0, analise.getItens().get(1).getIndiceDificuldade());
+    }
+
+    @Test
+    void analisarItens_SemTentativas_DeveRetornarIndicesNulos() {
+        when(atividadeQuestionarioRepository.existsById(idQuestionario)).thenReturn(true);
+        when(gabaritoQuestionarioService.obter(idQuestionario)).thenReturn(GabaritoQuestionario.compilar(idQuestionario, List.of(
+            new GabaritoQuestaoTag(idQuestionario, 1L, 100L, null, null))));
+        when(atividadeQuestionarioRepository.findAlternativas(idQuestionario)).thenReturn(List.of(
+            new AlternativaQuestao(1L, "Questão um", 100L, "A", true)));
+        when(relatorioRepo.streamRespostasPorQuestionario(idQuestionario)).thenReturn(Stream.empty());
+
+        AnaliseItensResponseDto analise = analiseItemService.analisarItens(idQuestionario);
+
+        assertEquals(0, analise.getTotalTentativas());
+        assertNull(analise.getItens().get(0).getIndiceDificuldade());
+        assertNull(analise.getItens().get(0).getIndiceDiscriminacao());
+        assertNull(analise.getItens().get(0).getAlternativas().get(0).getTaxaEscolha());
+    }
+
+    @Test
+    void analisarItens_QuestionarioInexistente_DeveLancarExcecao() {
+        when(atividadeQuestionarioRepository.existsById(idQuestionario)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> analiseItemService.analisarItens(idQuestionario));
+    }
+}
@@ -59,6 +59,12 @@ public class AtividadeArquivosServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private JanelaAtividadeService janelaAtividadeService;
+
     @InjectMocks
     private AtividadeArquivosService atividadeArquivosService;
 
@@ -43,6 +43,18 @@ class AtividadeQuestionarioServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @Mock
+    private RecorrecaoQuestionarioService recorrecaoQuestionarioService;
+
+    @Mock
+    private JanelaAtividadeService janelaAtividadeService;
+
     @InjectMocks
     private AtividadeQuestionarioService atividadeQuestionarioService;
 
@@ -53,6 +53,12 @@ class AtividadeTextoServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private JanelaAtividadeService janelaAtividadeService;
+
     @InjectMocks
     private AtividadeTextoService atividadeTextoService;
 
@@ -0,0 +1,51 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.service.SessaoQuestionarioService.SessaoAberta;
+
+@ExtendWith(MockitoExtension.class)
+class AutosaveQuestionarioServiceTest {
+
+    @Mock private SessaoQuestionarioService sessaoQuestionarioService;
+
+    private AutosaveQuestionarioService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AutosaveQuestionarioService(sessaoQuestionarioService, 2000, 50);
+    }
+
+    @Test
+    void gravarLote_SemPendentes_NaoDeveAbrirTransacao() {
+        when(sessaoQuestionarioService.retirarPendentes(50)).thenReturn(List.of());
+
+        assertTrue(service.gravarLote());
+        verify(sessaoQuestionarioService, never()).gravarRespostas(anyList());
+    }
+
+    @Test
+    void gravarLote_FalhaNaGravacao_DeveDevolverOLoteParaAFila() {
+        List<SessaoAberta> lote = List.of(mock(SessaoAberta.class));
+        when(sessaoQuestionarioService.retirarPendentes(50)).thenReturn(lote);
+        doThrow(new RuntimeException("banco indisponível")).when(sessaoQuestionarioService).gravarRespostas(lote);
+
+        assertFalse(service.gravarLote());
+        verify(sessaoQuestionarioService).devolverPendentes(lote);
+    }
+}
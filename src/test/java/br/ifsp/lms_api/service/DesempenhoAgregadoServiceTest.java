@@ -0,0 +1,214 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.analise.ResumoNotaTag;
+import br.ifsp.lms_api.dto.analise.TagDesempenhoDto;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeTexto;
+import br.ifsp.lms_api.model.DesempenhoAlunoTag;
+import br.ifsp.lms_api.model.Tag;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.DesempenhoAlunoRepository;
+import br.ifsp.lms_api.repository.DesempenhoAlunoTagRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DesempenhoAgregadoServiceTest {
+
+    @Mock private DesempenhoAlunoRepository desempenhoAlunoRepository;
+    @Mock private DesempenhoAlunoTagRepository desempenhoAlunoTagRepository;
+    @Mock private HistogramaDesempenhoService histogramaDesempenhoService;
+    @Mock private DesempenhoSemanalService desempenhoSemanalService;
+    @Mock private VersaoDadosAnaliseService versaoDadosAnaliseService;
+    @Mock private RankingDesempenhoService rankingDesempenhoService;
+    @Mock private RelatorioDesempenhoRepository relatorioDesempenhoRepository;
+    @Mock private MatriculaRepository matriculaRepository;
+    @Mock private AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+
+    @InjectMocks private DesempenhoAgregadoService service;
+
+    private final Long idAluno = 1L;
+
+    @Test
+    void buscarDesempenho_AlunoNaoMaterializado_DeveRetornarVazio() {
+        when(desempenhoAlunoRepository.existsById(idAluno)).thenReturn(false);
+
+        assertTrue(service.buscarDesempenho(idAluno).isEmpty());
+        verify(desempenhoAlunoTagRepository, never()).findResumoByIdAluno(any());
+    }
+
+    @Test
+    void buscarDesempenho_DeveCalcularMediaAPartirDaSomaEContagem() {
+        when(desempenhoAlunoRepository.existsById(idAluno)).thenReturn(true);
+        when(desempenhoAlunoTagRepository.findResumoByIdAluno(idAluno))
+            .thenReturn(List.of(new ResumoNotaTag(1L, "Cálculo", 15.0, 3L, 2.0, 8.0)));
+
+        Optional<List<TagDesempenhoDto>> desempenho = service.buscarDesempenho(idAluno);
+
+        assertTrue(desempenho.isPresent());
+        TagDesempenhoDto dto = desempenho.get().get(0);
+        assertEquals("Cálculo", dto.getNomeTag());
+        assertEquals(5.0, dto.getMediaNota());
+        assertEquals(3, dto.getTotalAvaliacoes());
+        assertEquals(2.0, dto.getNotaMinima());
+        assertEquals(8.0, dto.getNotaMaxima());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void materializar_DeveAgruparNotasPorTag() {
+        AgregadorNotasTag notas = new AgregadorNotasTag();
+        notas.registrar(1L, "Cálculo", 4.0);
+        notas.registrar(1L, "Cálculo", 10.0);
+        notas.registrar(2L, "POO", 7.0);
+
+        service.materializar(idAluno, notas, service.geracaoAluno(idAluno));
+
+        ArgumentCaptor<Iterable<DesempenhoAlunoTag>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(desempenhoAlunoTagRepository).deleteByIdAluno(idAluno);
+        verify(desempenhoAlunoTagRepository).saveAll(captor.capture());
+        verify(desempenhoAlunoRepository).save(any());
+
+        List<DesempenhoAlunoTag> agregados = new ArrayList<>();
+        captor.getValue().forEach(agregados::add);
+        assertEquals(2, agregados.size());
+
+        DesempenhoAlunoTag calculo = agregados.stream().filter(a -> a.getIdTag() == 1L).findFirst().orElseThrow();
+        assertEquals(14.0, calculo.getSomaNotas());
+        assertEquals(2L, calculo.getQuantidadeNotas());
+        assertEquals(4.0, calculo.getNotaMinima());
+        assertEquals(10.0, calculo.getNotaMaxima());
+    }
+
+    @Test
+    void materializar_NotaRegistradaDepoisDaLeitura_NaoDeveGravar() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+        long geracao = service.geracaoAluno(idAluno);
+
+        service.registrarCorrecao(aluno, new AtividadeTexto(), LocalDateTime.now(), null, 9.0);
+        service.materializar(idAluno, new AgregadorNotasTag(), geracao);
+
+        verify(desempenhoAlunoTagRepository, never()).saveAll(any());
+        verify(desempenhoAlunoRepository, never()).save(any());
+    }
+
+    @Test
+    void descartarSeAlterado_NotaDuranteAMaterializacao_DeveApagarOAluno() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+        long geracao = service.geracaoAluno(idAluno);
+
+        service.materializar(idAluno, new AgregadorNotasTag(), geracao);
+        // a nota ainda não via o marcador e ficou fora do incremental
+        service.registrarCorrecao(aluno, new AtividadeTexto(), LocalDateTime.now(), null, 9.0);
+        service.descartarSeAlterado(idAluno, geracao);
+
+        verify(desempenhoAlunoRepository).deleteByIdAluno(idAluno);
+        verify(desempenhoAlunoTagRepository).deleteByIdAluno(idAluno);
+    }
+
+    @Test
+    void descartarSeAlterado_SemEscrita_DeveManter() {
+        long geracao = service.geracaoAluno(idAluno);
+
+        service.materializar(idAluno, new AgregadorNotasTag(), geracao);
+        service.descartarSeAlterado(idAluno, geracao);
+
+        verify(desempenhoAlunoRepository, never()).deleteByIdAluno(any());
+    }
+
+    @Test
+    void registrarCorrecao_PrimeiraNota_DeveSomarEmCadaTag() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+        Tag tag = new Tag();
+        tag.setIdTag(5L);
+        AtividadeTexto atividade = new AtividadeTexto();
+        atividade.setTags(Set.of(tag));
+
+        when(desempenhoAlunoRepository.existsById(idAluno)).thenReturn(true);
+        when(desempenhoAlunoTagRepository.somarNota(idAluno, 5L, 9.0)).thenReturn(0);
+
+        service.registrarCorrecao(aluno, atividade, LocalDateTime.now(), null, 9.0);
+
+        verify(desempenhoAlunoTagRepository).save(any(DesempenhoAlunoTag.class));
+        verify(desempenhoAlunoRepository, never()).deleteByIdAluno(any());
+        verify(rankingDesempenhoService).registrarCorrecao(idAluno, atividade);
+    }
+
+    @Test
+    void registrarCorrecao_Recorrecao_DeveInvalidarAluno() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+
+        when(desempenhoAlunoRepository.existsById(idAluno)).thenReturn(true);
+
+        service.registrarCorrecao(aluno, new AtividadeTexto(), LocalDateTime.now(), 5.0, 9.0);
+
+        verify(desempenhoAlunoRepository).deleteByIdAluno(idAluno);
+        verify(desempenhoAlunoTagRepository).deleteByIdAluno(idAluno);
+        verify(desempenhoAlunoTagRepository, never()).somarNota(anyLong(), anyLong(), anyDouble());
+    }
+
+    @Test
+    void registrarCorrecao_AlunoNaoMaterializado_NaoDeveEscrever() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+
+        when(desempenhoAlunoRepository.existsById(idAluno)).thenReturn(false);
+
+        service.registrarCorrecao(aluno, new AtividadeTexto(), LocalDateTime.now(), null, 9.0);
+
+        verify(desempenhoAlunoTagRepository, never()).somarNota(any(), any(), eq(9.0));
+    }
+
+    @Test
+    void invalidarPorQuestao_DeveInvalidarSoAlunosComTentativaETurmasDeles() {
+        when(atividadeQuestionarioRepository.findIdsPorQuestao(7L)).thenReturn(List.of(3L));
+        when(relatorioDesempenhoRepository.findIdsAlunosComTentativa(List.of(3L))).thenReturn(List.of(idAluno, 2L));
+        when(matriculaRepository.findIdsTurmaByIdAlunoIn(List.of(idAluno, 2L))).thenReturn(List.of(10L));
+
+        service.invalidarPorQuestao(7L);
+
+        verify(desempenhoAlunoRepository).deleteByIdAlunoIn(List.of(idAluno, 2L));
+        verify(desempenhoAlunoTagRepository).deleteByIdAlunoIn(List.of(idAluno, 2L));
+        verify(histogramaDesempenhoService).invalidarTurmas(List.of(10L));
+        verify(desempenhoSemanalService).invalidarTurmas(List.of(10L));
+        verify(versaoDadosAnaliseService).alterarTurma(10L);
+        verify(rankingDesempenhoService).invalidarAlunos(List.of(idAluno, 2L));
+    }
+
+    @Test
+    void invalidarAtividades_SemTentativas_NaoDeveApagarNada() {
+        when(relatorioDesempenhoRepository.findIdsAlunosComTentativa(List.of(3L))).thenReturn(List.of());
+
+        service.invalidarAtividades(List.of(3L));
+
+        verify(desempenhoAlunoRepository, never()).deleteByIdAlunoIn(any());
+        verify(histogramaDesempenhoService, never()).invalidarTurmas(any());
+    }
+}
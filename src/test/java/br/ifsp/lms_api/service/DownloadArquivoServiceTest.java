@@ -0,0 +1,156 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import br.ifsp.lms_api.config.CustomUserDetails;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeArquivos;
+import br.ifsp.lms_api.model.MaterialDeAula;
+import br.ifsp.lms_api.model.Professor;
+import br.ifsp.lms_api.model.TentativaArquivo;
+import br.ifsp.lms_api.model.Topicos;
+import br.ifsp.lms_api.model.Turma;
+import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
+import br.ifsp.lms_api.repository.MatriculaRepository;
+import br.ifsp.lms_api.repository.TentativaArquivoRepository;
+
+@ExtendWith(MockitoExtension.class)
+class DownloadArquivoServiceTest {
+
+    @TempDir
+    Path pasta;
+
+    @Mock private MaterialDeAulaRepository materialRepository;
+    @Mock private TentativaArquivoRepository tentativaArquivoRepository;
+    @Mock private MatriculaRepository matriculaRepository;
+    @Mock private StorageService storageService;
+
+    @InjectMocks private DownloadArquivoService service;
+
+    private final String hash = "cd".repeat(32);
+    private Topicos topico;
+
+    @BeforeEach
+    void setUp() {
+        Professor professor = new Professor();
+        professor.setIdUsuario(1L);
+        Turma turma = new Turma();
+        turma.setIdTurma(5L);
+        turma.setProfessor(professor);
+        topico = new Topicos();
+        topico.setTurma(turma);
+    }
+
+    @Test
+    void material_AlunoMatriculado_DeveUsarOHashDoNomeComoEtag() throws Exception {
+        Path arquivo = Files.writeString(pasta.resolve(hash + ".pdf"), "conteudo");
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material("http://localhost/uploads/" + hash + ".pdf")));
+        when(matriculaRepository.existsByAluno_IdUsuarioAndTurma_IdTurma(2L, 5L)).thenReturn(true);
+        when(storageService.caminho(hash + ".pdf")).thenReturn(arquivo);
+
+        ArquivoParaDownload download = service.material(1L, usuario(2L, "ROLE_ALUNO"));
+
+        assertEquals(hash, download.getEtag());
+        assertEquals(8, download.getTamanho());
+        assertEquals("application/pdf", download.getTipoArquivo());
+    }
+
+    @Test
+    void material_AlunoNaoMatriculado_DeveNegar() {
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(material("http://localhost/uploads/x.pdf")));
+        when(matriculaRepository.existsByAluno_IdUsuarioAndTurma_IdTurma(2L, 5L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> service.material(1L, usuario(2L, "ROLE_ALUNO")));
+    }
+
+    @Test
+    void tentativa_ProfessorDeOutraTurma_DeveNegar() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(2L);
+        AtividadeArquivos atividade = new AtividadeArquivos();
+        atividade.setTopico(topico);
+        TentativaArquivo tentativa = new TentativaArquivo();
+        tentativa.setAluno(aluno);
+        tentativa.setAtividadeArquivo(atividade);
+        tentativa.setUrlArquivo("http://localhost/uploads/x.pdf");
+        when(tentativaArquivoRepository.findById(3L)).thenReturn(Optional.of(tentativa));
+
+        assertThrows(AccessDeniedException.class, () -> service.tentativa(3L, usuario(99L, "ROLE_PROFESSOR")));
+    }
+
+    @Test
+    void porNome_ArquivoAntigo_DeveCalcularOHashDoConteudo() throws Exception {
+        Path arquivo = Files.writeString(pasta.resolve("3f2a_prova.pdf"), "prova antiga");
+        when(storageService.caminho("3f2a_prova.pdf")).thenReturn(arquivo);
+        when(materialRepository.findByUrlArquivoEndingWith("/uploads/3f2a_prova.pdf"))
+                .thenReturn(List.of(material("http://localhost/uploads/3f2a_prova.pdf")));
+
+        ArquivoParaDownload download = service.porNome("3f2a_prova.pdf", usuario(1L, "ROLE_PROFESSOR"));
+
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(arquivo))),
+                download.getEtag());
+        assertEquals("aula.pdf", download.getNomeArquivo());
+    }
+
+    @Test
+    void porNome_SemAcessoANenhumaLinha_DeveNegar() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(2L);
+        TentativaArquivo tentativa = new TentativaArquivo();
+        tentativa.setAluno(aluno);
+        AtividadeArquivos atividade = new AtividadeArquivos();
+        atividade.setTopico(topico);
+        tentativa.setAtividadeArquivo(atividade);
+        when(materialRepository.findByUrlArquivoEndingWith("/uploads/x%20y.pdf")).thenReturn(List.of());
+        when(tentativaArquivoRepository.findByUrlArquivoEndingWith("/uploads/x%20y.pdf")).thenReturn(List.of(tentativa));
+
+        assertThrows(AccessDeniedException.class, () -> service.porNome("x y.pdf", usuario(3L, "ROLE_ALUNO")));
+    }
+
+    @Test
+    void porNome_SemLinha_DeveResponderNaoEncontrado() {
+        when(materialRepository.findByUrlArquivoEndingWith("/uploads/solto.pdf")).thenReturn(List.of());
+        when(tentativaArquivoRepository.findByUrlArquivoEndingWith("/uploads/solto.pdf")).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.porNome("solto.pdf", usuario(1L, "ROLE_ADMIN")));
+    }
+
+    private MaterialDeAula material(String url) {
+        MaterialDeAula material = new MaterialDeAula();
+        material.setIdMaterialDeAula(1L);
+        material.setNomeArquivo("aula.pdf");
+        material.setUrlArquivo(url);
+        material.setTopico(topico);
+        return material;
+    }
+
+    private CustomUserDetails usuario(Long id, String papel) {
+        CustomUserDetails usuario = mock(CustomUserDetails.class);
+        lenient().when(usuario.getId()).thenReturn(id);
+        doReturn(List.of(new SimpleGrantedAuthority(papel))).when(usuario).getAuthorities();
+        return usuario;
+    }
+}
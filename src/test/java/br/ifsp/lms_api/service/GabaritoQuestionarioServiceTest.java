@@ -0,0 +1,159 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
+import br.ifsp.lms_api.dto.analise.RespostasQuestionario;
+import br.ifsp.lms_api.model.EstrategiaCorrecao;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+
+@ExtendWith(MockitoExtension.class)
+class GabaritoQuestionarioServiceTest {
+
+    @Mock private AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+
+    @InjectMocks private GabaritoQuestionarioService service;
+
+    private final Long idQuestionario = 10L;
+
+    private final List<GabaritoQuestaoTag> linhas = List.of(
+        new GabaritoQuestaoTag(idQuestionario, 1L, 100L, 7L, "Cálculo"),
+        new GabaritoQuestaoTag(idQuestionario, 1L, 100L, 8L, "Álgebra"),
+        new GabaritoQuestaoTag(idQuestionario, 2L, 200L, null, null),
+        new GabaritoQuestaoTag(idQuestionario, 3L, null, 7L, "Cálculo"));
+
+    @Test
+    void obter_DeveCompilarUmaVezEReaproveitarDoCache() {
+        when(atividadeQuestionarioRepository.findGabaritos(anyCollection())).thenReturn(linhas);
+
+        GabaritoQuestionario primeiro = service.obter(idQuestionario);
+        GabaritoQuestionario segundo = service.obter(idQuestionario);
+
+        assertSame(primeiro, segundo);
+        verify(atividadeQuestionarioRepository, times(1)).findGabaritos(anyCollection());
+    }
+
+    @Test
+    void invalidarPorQuestao_DeveRecompilarQuestionarioAfetado() {
+        when(atividadeQuestionarioRepository.findGabaritos(anyCollection())).thenReturn(linhas);
+
+        service.obter(idQuestionario);
+        service.invalidarPorQuestao(2L);
+        service.obter(idQuestionario);
+
+        verify(atividadeQuestionarioRepository, times(2)).findGabaritos(anyCollection());
+    }
+
+    @Test
+    void obterParaSorteios_DeveMontarUmGabaritoPorTentativaComUmaConsulta() {
+        when(atividadeQuestionarioRepository.findGabaritosPorQuestoes(eq(idQuestionario), anyCollection())).thenReturn(List.of(
+                new GabaritoQuestaoTag(idQuestionario, 1L, 100L, 7L, "Cálculo"),
+                new GabaritoQuestaoTag(idQuestionario, 2L, 200L, null, null),
+                new GabaritoQuestaoTag(idQuestionario, 3L, 300L, null, null)));
+
+        List<GabaritoQuestionario> gabaritos = service.obterParaSorteios(idQuestionario,
+                List.of(List.of(1L, 2L), List.of(3L)));
+
+        assertEquals(2, gabaritos.get(0).getQuantidadeQuestoes());
+        assertEquals(10.0, gabaritos.get(0).calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 200L, 300L))));
+        assertEquals(1, gabaritos.get(1).getQuantidadeQuestoes());
+        assertTrue(gabaritos.get(1).contemQuestao(3L));
+        verify(atividadeQuestionarioRepository, times(1)).findGabaritosPorQuestoes(eq(idQuestionario), anyCollection());
+    }
+
+    @Test
+    void obterParaTentativas_DeveUsarOFixoOuOSorteadoNaOrdemDasTentativas() {
+        when(atividadeQuestionarioRepository.findGabaritos(anyCollection())).thenReturn(linhas);
+        when(atividadeQuestionarioRepository.findGabaritosPorQuestoes(eq(idQuestionario), anyCollection())).thenReturn(List.of(
+                new GabaritoQuestaoTag(idQuestionario, 3L, 300L, null, null)));
+
+        List<GabaritoQuestionario> gabaritos = service.obterParaTentativas(List.of(
+                new RespostasQuestionario(idQuestionario, List.of(100L), null),
+                new RespostasQuestionario(idQuestionario, List.of(300L), List.of(3L)),
+                new RespostasQuestionario(idQuestionario, List.of(200L), null)),
+                RespostasQuestionario::getIdQuestionario, RespostasQuestionario::getQuestoesSorteadas);
+
+        assertEquals(3, gabaritos.size());
+        assertSame(gabaritos.get(0), gabaritos.get(2));
+        assertEquals(3, gabaritos.get(0).getQuantidadeQuestoes());
+        assertEquals(1, gabaritos.get(1).getQuantidadeQuestoes());
+        assertEquals(10.0, gabaritos.get(1).calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(300L))));
+    }
+
+    @Test
+    void compilar_DeveManterRegraDeNotaEQuestoesSemAlternativaCorreta() {
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario, linhas);
+        long[] respostas = GabaritoQuestionario.ordenarRespostas(List.of(200L, 100L, 999L));
+
+        assertEquals(3, gabarito.getQuantidadeQuestoes());
+        assertEquals(20.0 / 3.0, gabarito.calcularNota(respostas), 1e-9);
+
+        assertTrue(gabarito.acertou(0, respostas));
+        assertEquals(2, gabarito.getQuantidadeTags(0));
+        assertFalse(gabarito.possuiAlternativaCorreta(2));
+        assertFalse(gabarito.acertou(2, respostas));
+        assertEquals(0.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(null)));
+    }
+
+    @Test
+    void compilar_RespostaRepetida_NaoDeveContarDuasVezes() {
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario, List.of(
+                linha(null, 1L, null, 100L, true),
+                linha(null, 2L, null, 200L, true)));
+
+        assertEquals(5.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 100L))));
+    }
+
+    @Test
+    void compilar_TudoOuNada_DeveExigirTodasAsCorretasESemErradas() {
+        EstrategiaCorrecao estrategia = EstrategiaCorrecao.TUDO_OU_NADA;
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario, List.of(
+                linha(estrategia, 1L, null, 100L, true),
+                linha(estrategia, 1L, null, 101L, true),
+                linha(estrategia, 1L, null, 102L, false),
+                linha(estrategia, 2L, null, 200L, true),
+                linha(estrategia, 2L, null, 201L, false)));
+
+        assertEquals(10.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 101L, 200L))));
+        assertEquals(5.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 200L))));
+        assertEquals(5.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 101L, 102L, 200L))));
+        assertFalse(gabarito.acertou(0, GabaritoQuestionario.ordenarRespostas(List.of(100L))));
+    }
+
+    @Test
+    void compilar_Parcial_DevePonderarEDescontarErradas() {
+        EstrategiaCorrecao estrategia = EstrategiaCorrecao.PARCIAL;
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario, List.of(
+                linha(estrategia, 1L, 2.0, 100L, true),
+                linha(estrategia, 1L, 2.0, 101L, true),
+                linha(estrategia, 1L, 2.0, 102L, false),
+                linha(estrategia, 1L, 2.0, 103L, false),
+                linha(estrategia, 2L, null, 200L, true),
+                linha(estrategia, 2L, null, 201L, false)));
+
+        assertEquals(2.0, gabarito.getPeso(0));
+        assertEquals(20.0 / 3.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 200L))), 1e-9);
+        assertEquals(10.0 / 3.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 102L, 200L))), 1e-9);
+        assertEquals(0.0, gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 101L, 102L, 103L, 201L))));
+    }
+
+    private GabaritoQuestaoTag linha(EstrategiaCorrecao estrategia, Long idQuestao, Double peso, Long idAlternativa, boolean correta) {
+        return new GabaritoQuestaoTag(idQuestionario, estrategia, idQuestao, peso, idAlternativa, correta, null, null);
+    }
+}
@@ -0,0 +1,47 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class GeracoesMaterializacaoTest {
+
+    private final GeracoesMaterializacao geracoes = new GeracoesMaterializacao();
+
+    @AfterEach
+    void limparSincronizacao() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void continuaValida_SemEscrita_DeveSerValida() {
+        long geracao = geracoes.ler(1L);
+
+        geracoes.registrarEscrita(2L);
+
+        assertTrue(geracoes.continuaValida(1L, geracao));
+    }
+
+    @Test
+    void continuaValida_EscritaEmAndamentoLidaDepois_DeveInvalidarAteOFimDaTransacao() {
+        TransactionSynchronizationManager.initSynchronization();
+        geracoes.registrarEscrita(1L);
+        // a materialização leu a geração com a escrita já começada
+        long geracao = geracoes.ler(1L);
+
+        assertFalse(geracoes.continuaValida(1L, geracao));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertFalse(geracoes.continuaValida(1L, geracao));
+        assertTrue(geracoes.continuaValida(1L, geracoes.ler(1L)));
+    }
+}
@@ -0,0 +1,49 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramaNotasTest {
+
+    @Test
+    void faixa_DeveAgruparEmMeioPontoEIsolarONotaDez() {
+        assertEquals(0, HistogramaNotas.faixa(0.0));
+        assertEquals(0, HistogramaNotas.faixa(0.49));
+        assertEquals(1, HistogramaNotas.faixa(0.5));
+        assertEquals(19, HistogramaNotas.faixa(9.99));
+        assertEquals(20, HistogramaNotas.faixa(10.0));
+        assertEquals(0, HistogramaNotas.faixa(-1.0));
+    }
+
+    @Test
+    void somar_DeveDarOMesmoResultadoQueUmHistogramaUnico() {
+        HistogramaNotas turmaA = new HistogramaNotas();
+        turmaA.registrar(2.0);
+        turmaA.registrar(7.0);
+
+        HistogramaNotas turmaB = new HistogramaNotas();
+        turmaB.registrar(5.5);
+        turmaB.registrar(9.0);
+        turmaB.registrar(10.0);
+
+        HistogramaNotas disciplina = new HistogramaNotas();
+        disciplina.somar(turmaA);
+        disciplina.somar(turmaB);
+
+        assertEquals(5, disciplina.getTotal());
+        assertEquals(7.0, disciplina.mediana());
+        assertEquals(2.0, disciplina.percentil(0.1));
+        assertEquals(10.0, disciplina.percentil(0.9));
+        assertEquals(0.4, disciplina.fracaoAbaixo(6.0), 1e-9);
+    }
+
+    @Test
+    void percentil_DeveSerNaNQuandoVazio() {
+        HistogramaNotas vazio = new HistogramaNotas();
+
+        assertTrue(Double.isNaN(vazio.mediana()));
+        assertTrue(Double.isNaN(vazio.fracaoAbaixo(6.0)));
+    }
+}
@@ -0,0 +1,85 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.atividadesDto.JanelaAtividade;
+import br.ifsp.lms_api.exception.PrazoAtividadeException;
+import br.ifsp.lms_api.repository.AtividadeRepository;
+
+@ExtendWith(MockitoExtension.class)
+class JanelaAtividadeServiceTest {
+
+    @Mock private AtividadeRepository atividadeRepository;
+
+    @InjectMocks private JanelaAtividadeService service;
+
+    private final Long idAtividade = 10L;
+    private final LocalDate hoje = LocalDate.now();
+
+    @Test
+    void exigirEnvio_DentroDoPrazo_DeveConsultarOBancoUmaVez() {
+        when(atividadeRepository.findJanela(idAtividade))
+                .thenReturn(Optional.of(janela(hoje.minusDays(1), hoje, true, 0L)));
+
+        service.exigirEnvio(idAtividade);
+        service.exigirEnvio(idAtividade);
+
+        verify(atividadeRepository, times(1)).findJanela(idAtividade);
+    }
+
+    @Test
+    void exigirEnvio_ForaDoPrazoOuInativa_DeveRecusar() {
+        assertThrows(PrazoAtividadeException.class,
+                () -> JanelaAtividadeService.conferir(janela(hoje.minusDays(7), hoje.minusDays(1), true, 0L), hoje));
+        assertThrows(PrazoAtividadeException.class,
+                () -> JanelaAtividadeService.conferir(janela(hoje.plusDays(1), hoje.plusDays(7), true, 0L), hoje));
+        assertThrows(PrazoAtividadeException.class,
+                () -> JanelaAtividadeService.conferir(janela(hoje, hoje, false, 0L), hoje));
+        assertDoesNotThrow(() -> JanelaAtividadeService.conferir(janela(hoje, hoje, null, 0L), hoje));
+    }
+
+    @Test
+    void exigirEnvio_QuestionarioCronometrado_DeveDeixarOPrazoParaASessao() {
+        when(atividadeRepository.findJanela(idAtividade))
+                .thenReturn(Optional.of(janela(hoje.minusDays(7), hoje.minusDays(1), true, 60L)));
+
+        assertDoesNotThrow(() -> service.exigirEnvio(idAtividade));
+        assertThrows(PrazoAtividadeException.class, () -> service.exigirAberta(idAtividade));
+    }
+
+    @Test
+    void invalidar_DeveReler() {
+        when(atividadeRepository.findJanela(idAtividade))
+                .thenReturn(Optional.of(janela(hoje, hoje, true, 0L)))
+                .thenReturn(Optional.of(janela(hoje.minusDays(7), hoje.minusDays(1), true, 0L)));
+
+        service.exigirEnvio(idAtividade);
+        service.invalidar(idAtividade);
+
+        assertThrows(PrazoAtividadeException.class, () -> service.exigirEnvio(idAtividade));
+    }
+
+    @Test
+    void exigirEnvio_AtividadeInexistente_DeveDeixarPassar() {
+        when(atividadeRepository.findJanela(idAtividade)).thenReturn(Optional.empty());
+
+        assertDoesNotThrow(() -> service.exigirEnvio(idAtividade));
+    }
+
+    private JanelaAtividade janela(LocalDate inicio, LocalDate fechamento, Boolean status, Long duracao) {
+        return new JanelaAtividade(idAtividade, inicio, fechamento, status, duracao);
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
@@ -53,6 +54,9 @@ class MaterialDeAulaServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private IndiceMaterialSugeridoService indiceMaterialSugeridoService;
+
     @InjectMocks
     private MaterialDeAulaService materialService;
 
@@ -94,7 +98,8 @@ class MaterialDeAulaServiceTest {
         responseDto.setIdMaterialDeAula(10L);
 
         when(topicosRepository.findById(1L)).thenReturn(Optional.of(topico));
-        when(storageService.createArquivo(any(MultipartFile.class))).thenReturn(urlMock);
+        when(storageService.createArquivo(any(MultipartFile.class)))
+                .thenReturn(new ArquivoRecebido("uuid_documento.pdf", urlMock, 8L, "abc"));
         when(materialRepository.save(any(MaterialDeAula.class))).thenReturn(materialSalvo);
         when(modelMapper.map(materialSalvo, MaterialDeAulaResponseDto.class)).thenReturn(responseDto);
 
@@ -114,6 +119,8 @@ class MaterialDeAulaServiceTest {
         assertEquals("documento.pdf", materialCapturado.getNomeArquivo());
         assertEquals("application/pdf", materialCapturado.getTipoArquivo());
         assertEquals(urlMock, materialCapturado.getUrlArquivo());
+        assertEquals(8L, materialCapturado.getTamanhoArquivo());
+        assertEquals("abc", materialCapturado.getChecksumArquivo());
         assertEquals(topico, materialCapturado.getTopico());
     }
 
@@ -246,7 +253,8 @@ class MaterialDeAulaServiceTest {
         responseDto.setUrlArquivo(urlNovoArquivo);
 
         when(materialRepository.findById(idMaterial)).thenReturn(Optional.of(materialMock));
-        when(storageService.createArquivo(novoArquivo)).thenReturn(urlNovoArquivo);
+        when(storageService.createArquivo(novoArquivo))
+                .thenReturn(new ArquivoRecebido("novo_uuid.pdf", urlNovoArquivo, 5L, "def"));
         when(materialRepository.save(any(MaterialDeAula.class))).thenReturn(materialMock); 
         doNothing().when(storageService).deleteFile(nomeArquivoAntigo); 
         when(modelMapper.map(materialMock, MaterialDeAulaResponseDto.class)).thenReturn(responseDto);
@@ -264,7 +272,53 @@ class MaterialDeAulaServiceTest {
         verify(materialRepository).save(captor.capture());
         assertEquals("novo.pdf", captor.getValue().getNomeArquivo());
         assertEquals(urlNovoArquivo, captor.getValue().getUrlArquivo());
+        assertEquals(5L, captor.getValue().getTamanhoArquivo());
+        assertEquals("def", captor.getValue().getChecksumArquivo());
         
         verify(storageService).deleteFile(nomeArquivoAntigo);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCopiarMaterial_DeveReferenciarOMesmoArquivo() {
+        Topicos destino = new Topicos();
+        destino.setIdTopico(2L);
+        destino.setTurma(turma);
+
+        materialMock.setNomeArquivo("aula.pdf");
+        materialMock.setTipoArquivo("application/pdf");
+        materialMock.setUrlArquivo("http://localhost/uploads/abc.pdf");
+
+        ArquivoRecebido recebido = new ArquivoRecebido("abc.pdf", "http://localhost/uploads/abc.pdf", 3L, "abc");
+
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialMock));
+        when(topicosRepository.findById(2L)).thenReturn(Optional.of(destino));
+        when(storageService.compartilharArquivo("http://localhost/uploads/abc.pdf", "aula.pdf")).thenReturn(recebido);
+        when(materialRepository.save(any(MaterialDeAula.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(modelMapper.map(any(MaterialDeAula.class), eq(MaterialDeAulaResponseDto.class)))
+                .thenReturn(new MaterialDeAulaResponseDto());
+
+        materialService.copiarMaterial(1L, 2L, idProfessorDono);
+
+        ArgumentCaptor<MaterialDeAula> captor = ArgumentCaptor.forClass(MaterialDeAula.class);
+        verify(materialRepository).save(captor.capture());
+        assertEquals("http://localhost/uploads/abc.pdf", captor.getValue().getUrlArquivo());
+        assertEquals(destino, captor.getValue().getTopico());
+        verify(storageService, never()).createArquivo(any());
+    }
+
+    @Test
+    void testCopiarMaterial_TopicoDeOutroProfessor_ShouldThrowAccessDenied() {
+        Professor outro = new Professor();
+        outro.setIdUsuario(idOutroProfessor);
+        Turma outraTurma = new Turma();
+        outraTurma.setProfessor(outro);
+        Topicos destino = new Topicos();
+        destino.setTurma(outraTurma);
+
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialMock));
+        when(topicosRepository.findById(2L)).thenReturn(Optional.of(destino));
+
+        assertThrows(AccessDeniedException.class, () -> materialService.copiarMaterial(1L, 2L, idProfessorDono));
+        verify(storageService, never()).compartilharArquivo(anyString(), anyString());
+    }
+}
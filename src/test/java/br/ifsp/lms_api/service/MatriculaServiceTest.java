@@ -47,6 +47,10 @@ class MatriculaServiceTest {
     @Mock private TurmaRepository turmaRepository;
     @Mock private ModelMapper modelMapper;
     @Mock private PagedResponseMapper pagedResponseMapper;
+    @Mock private HistogramaDesempenhoService histogramaDesempenhoService;
+    @Mock private DesempenhoSemanalService desempenhoSemanalService;
+    @Mock private VersaoDadosAnaliseService versaoDadosAnaliseService;
+    @Mock private RankingDesempenhoService rankingDesempenhoService;
 
     @InjectMocks private MatriculaService matriculaService;
 
@@ -0,0 +1,61 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+public class MigracaoPastasUploadServiceTest {
+
+    private static final String NOME = "3f2a9c1e-0000-4000-8000-000000000000_prova.pdf";
+
+    @TempDir
+    Path pasta;
+
+    private StorageService storageService;
+    private MigracaoPastasUploadService migracao;
+
+    @BeforeEach
+    void setUp() {
+        storageService = new StorageService(pasta.toString(), DataSize.ofKilobytes(100), false,
+                mock(ReferenciaArquivoService.class));
+        migracao = new MigracaoPastasUploadService(storageService, false, 10, 1000, 60_000);
+    }
+
+    @Test
+    void migrarLote_DeveVincularEApagarSoltoSoDepoisDaCarencia() throws Exception {
+        byte[] conteudo = { 1, 2, 3 };
+        Path solto = Files.write(pasta.resolve(NOME), conteudo);
+        Path naSubpasta = pasta.resolve("3f").resolve("2a").resolve(NOME);
+
+        assertTrue(migracao.migrarLote(0));
+        assertTrue(Files.exists(solto));
+        assertArrayEquals(conteudo, Files.readAllBytes(naSubpasta));
+
+        // ainda dentro da carência: os dois caminhos continuam valendo
+        assertTrue(migracao.migrarLote(30_000));
+        assertTrue(Files.exists(solto));
+
+        assertTrue(migracao.migrarLote(60_000));
+        assertFalse(Files.exists(solto));
+        assertArrayEquals(conteudo, Files.readAllBytes(storageService.caminho(NOME)));
+
+        assertFalse(migracao.migrarLote(120_000));
+    }
+
+    @Test
+    void migrarLote_DeveIgnorarUploadParcial() throws Exception {
+        Path parcial = Files.write(pasta.resolve(NOME + ".parcial"), new byte[] { 1 });
+
+        assertFalse(migracao.migrarLote(0));
+        assertTrue(Files.exists(parcial));
+    }
+}
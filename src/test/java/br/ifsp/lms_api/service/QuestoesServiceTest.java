@@ -48,6 +48,15 @@ class QuestoesServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @Mock
+    private RecorrecaoQuestionarioService recorrecaoQuestionarioService;
+
     @InjectMocks
     private QuestoesService questoesService;
 
@@ -0,0 +1,133 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.analise.RankingResponseDto;
+import br.ifsp.lms_api.dto.analise.SomaNotasAluno;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeTexto;
+import br.ifsp.lms_api.model.Topicos;
+import br.ifsp.lms_api.model.Turma;
+import br.ifsp.lms_api.repository.AlunoRepository;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.RelatorioDesempenhoRepository;
+import br.ifsp.lms_api.repository.TurmaRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RankingDesempenhoServiceTest {
+
+    @Mock private RelatorioDesempenhoRepository relatorioRepo;
+    @Mock private TurmaRepository turmaRepo;
+    @Mock private AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+    @Mock private AlunoRepository alunoRepository;
+
+    @InjectMocks private RankingDesempenhoService service;
+
+    @Test
+    void rankingTurma_DeveSomarOsTresTiposDeAtividadePorAluno() {
+        when(turmaRepo.existsById(1L)).thenReturn(true);
+        when(relatorioRepo.somarNotasTextoPorAlunoNaTurma(1L, null))
+                .thenReturn(List.of(new SomaNotasAluno(10L, 6.0, 1L), new SomaNotasAluno(20L, 9.0, 1L)));
+        when(relatorioRepo.somarNotasArquivoPorAlunoNaTurma(1L, null))
+                .thenReturn(List.of(new SomaNotasAluno(10L, 10.0, 1L)));
+        when(relatorioRepo.somarNotasQuestionarioPorAlunoNaTurma(1L, null)).thenReturn(List.of());
+        when(alunoRepository.findAllById(anyList())).thenReturn(List.of(aluno(10L, "Ana"), aluno(20L, "Bruno")));
+
+        RankingResponseDto ranking = service.rankingTurma(1L, 10, 10L);
+
+        assertEquals(2, ranking.getTotalAlunos());
+        assertEquals(20L, ranking.getPrimeiros().get(0).getIdAluno());
+        assertEquals("Bruno", ranking.getPrimeiros().get(0).getNomeAluno());
+        assertEquals(2, ranking.getPosicaoAluno().getPosicao());
+        assertEquals(8.0, ranking.getPosicaoAluno().getMediaNota());
+        assertEquals(2L, ranking.getPosicaoAluno().getTotalAvaliacoes());
+    }
+
+    @Test
+    void registrarCorrecao_RankingCarregado_DeveReposicionarSoOAluno() {
+        when(turmaRepo.existsById(1L)).thenReturn(true);
+        when(relatorioRepo.somarNotasTextoPorAlunoNaTurma(1L, null))
+                .thenReturn(List.of(new SomaNotasAluno(10L, 6.0, 1L), new SomaNotasAluno(20L, 9.0, 1L)));
+        when(relatorioRepo.somarNotasArquivoPorAlunoNaTurma(1L, null)).thenReturn(List.of());
+        when(relatorioRepo.somarNotasQuestionarioPorAlunoNaTurma(1L, null)).thenReturn(List.of());
+        when(relatorioRepo.somarNotasTextoPorAlunoNaTurma(1L, 10L))
+                .thenReturn(List.of(new SomaNotasAluno(10L, 19.0, 2L)));
+        when(relatorioRepo.somarNotasArquivoPorAlunoNaTurma(1L, 10L))
+                .thenReturn(List.of(new SomaNotasAluno(10L, 10.0, 1L)));
+        when(relatorioRepo.somarNotasQuestionarioPorAlunoNaTurma(1L, 10L)).thenReturn(List.of());
+        when(alunoRepository.findAllById(anyList())).thenReturn(List.of());
+
+        service.rankingTurma(1L, 10, null);
+        service.registrarCorrecao(10L, atividadeDaTurma(1L));
+        RankingResponseDto ranking = service.rankingTurma(1L, 10, 10L);
+
+        assertEquals(1, ranking.getPosicaoAluno().getPosicao());
+        assertEquals(29.0 / 3, ranking.getPosicaoAluno().getMediaNota());
+        verify(relatorioRepo, times(1)).somarNotasTextoPorAlunoNaTurma(1L, null);
+    }
+
+    @Test
+    void rankingQuestionario_AlunoSemNota_DeveVirSemPosicao() {
+        when(atividadeQuestionarioRepository.existsById(5L)).thenReturn(true);
+        when(relatorioRepo.somarNotasPorAlunoNoQuestionario(5L, null))
+                .thenReturn(List.of(new SomaNotasAluno(10L, 7.0, 1L)));
+        when(alunoRepository.findAllById(anyList())).thenReturn(List.of(aluno(10L, "Ana")));
+
+        RankingResponseDto ranking = service.rankingQuestionario(5L, 10, 30L);
+
+        assertEquals(1, ranking.getPrimeiros().size());
+        assertNull(ranking.getPosicaoAluno());
+    }
+
+    @Test
+    void rankingTurma_Inexistente_DeveLancarExcecao() {
+        when(turmaRepo.existsById(9L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.rankingTurma(9L, 10, null));
+    }
+
+    @Test
+    void invalidarTodos_DeveRecarregarNaProximaLeitura() {
+        when(atividadeQuestionarioRepository.existsById(5L)).thenReturn(true);
+        when(relatorioRepo.somarNotasPorAlunoNoQuestionario(5L, null)).thenReturn(List.of());
+        when(alunoRepository.findAllById(anyList())).thenReturn(List.of());
+
+        service.rankingQuestionario(5L, 10, null);
+        service.invalidarTodos();
+        service.rankingQuestionario(5L, 10, null);
+
+        verify(relatorioRepo, times(2)).somarNotasPorAlunoNoQuestionario(5L, null);
+    }
+
+    private static Aluno aluno(Long id, String nome) {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(id);
+        aluno.setNome(nome);
+        return aluno;
+    }
+
+    private static AtividadeTexto atividadeDaTurma(Long idTurma) {
+        Turma turma = new Turma();
+        turma.setIdTurma(idTurma);
+        Topicos topico = new Topicos();
+        topico.setTurma(turma);
+        AtividadeTexto atividade = new AtividadeTexto();
+        atividade.setTopico(topico);
+        return atividade;
+    }
+}
@@ -0,0 +1,79 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RankingNotasTest {
+
+    @Test
+    void posicao_Empatados_DevemDividirAMesmaPosicao() {
+        RankingNotas ranking = new RankingNotas();
+        ranking.definir(1L, 18.0, 2L);
+        ranking.definir(2L, 10.0, 1L);
+        ranking.definir(3L, 16.0, 2L);
+        ranking.definir(4L, 8.0, 1L);
+
+        assertEquals(List.of(2L, 1L, 3L, 4L), ranking.primeiros(10));
+        assertEquals(1, ranking.posicao(2L));
+        assertEquals(2, ranking.posicao(1L));
+        assertEquals(3, ranking.posicao(3L));
+        assertEquals(3, ranking.posicao(4L));
+        assertEquals(4, ranking.getTotal());
+    }
+
+    @Test
+    void definir_NovaSomaOuSemNotas_DeveReposicionarOuRemover() {
+        RankingNotas ranking = new RankingNotas();
+        ranking.definir(1L, 9.0, 1L);
+        ranking.definir(2L, 7.0, 1L);
+
+        ranking.definir(2L, 19.0, 2L);
+        assertEquals(List.of(2L, 1L), ranking.primeiros(2));
+        assertEquals(9.5, ranking.media(2L));
+        assertEquals(2L, ranking.quantidadeNotas(2L));
+
+        ranking.definir(2L, 0.0, 0L);
+        assertFalse(ranking.contem(2L));
+        assertEquals(0, ranking.posicao(2L));
+        assertEquals(List.of(1L), ranking.primeiros(5));
+    }
+
+    @Test
+    void posicao_AtualizacoesAleatorias_DeveCoincidirComOrdenacao() {
+        Random random = new Random(42);
+        RankingNotas ranking = new RankingNotas();
+        Map<Long, Double> medias = new HashMap<>();
+
+        for (int passo = 0; passo < 5000; passo++) {
+            long idAluno = random.nextInt(300);
+            if (random.nextInt(10) == 0) {
+                ranking.definir(idAluno, 0.0, 0L);
+                medias.remove(idAluno);
+            } else {
+                double nota = random.nextInt(21) / 2.0;
+                ranking.definir(idAluno, nota, 1L);
+                medias.put(idAluno, nota);
+            }
+        }
+
+        List<Long> ordenados = new ArrayList<>(medias.keySet());
+        ordenados.sort(Comparator.comparing((Long id) -> medias.get(id)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        assertEquals(ordenados.size(), ranking.getTotal());
+        assertEquals(ordenados.subList(0, 20), ranking.primeiros(20));
+        for (Long idAluno : ordenados) {
+            long acima = medias.values().stream().filter(media -> media > medias.get(idAluno)).count();
+            assertEquals(acima + 1, ranking.posicao(idAluno));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import br.ifsp.lms_api.dto.arquivoDto.RelatorioReconciliacaoResponseDto;
+import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
+import br.ifsp.lms_api.repository.TentativaArquivoRepository;
+
+public class ReconciliacaoArquivosServiceTest {
+
+    private static final long AGORA = 10_000_000L;
+    private static final long CARENCIA = 3_600_000L;
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path pasta;
+
+    private final MaterialDeAulaRepository materialRepository = mock(MaterialDeAulaRepository.class);
+    private final TentativaArquivoRepository tentativaArquivoRepository = mock(TentativaArquivoRepository.class);
+    private final ReferenciaArquivoService referenciaArquivoService = mock(ReferenciaArquivoService.class);
+
+    private ReconciliacaoArquivosService service;
+
+    @BeforeEach
+    void setUp() {
+        StorageService storageService = new StorageService(pasta.toString(), DataSize.ofKilobytes(100), true,
+                referenciaArquivoService);
+        VarreduraArquivosService varredura =
+                new VarreduraArquivosService(materialRepository, tentativaArquivoRepository, storageService);
+        MigracaoPastasUploadService migracao = new MigracaoPastasUploadService(storageService, false, 10, 1000, 60_000);
+        service = new ReconciliacaoArquivosService(varredura, storageService, migracao, false, 1000, CARENCIA, 10);
+    }
+
+    @Test
+    void reconciliar_DeveApagarOrfaosAntigosEManterOResto() throws IOException {
+        Path usado = noDisco("aa11_usado.pdf", 0);
+        Path orfao = noDisco(HASH + ".pdf", 0);
+        Path recente = noDisco("cc33_recente.pdf", AGORA);
+        Path parcialAntigo = Files.write(pasta.resolve("dd44_x.pdf.parcial"), new byte[] { 1 });
+        Files.setLastModifiedTime(parcialAntigo, FileTime.fromMillis(0));
+
+        when(materialRepository.streamNomesArmazenados()).thenReturn(Stream.of("aa11_usado.pdf", "ee55_sumiu.pdf"));
+        when(tentativaArquivoRepository.streamNomesArmazenados()).thenReturn(Stream.empty());
+
+        RelatorioReconciliacaoResponseDto relatorio = service.reconciliar(AGORA);
+
+        assertNull(relatorio.getErro());
+        assertEquals(3, relatorio.getArquivosNoDisco());
+        assertEquals(2, relatorio.getNomesNoBanco());
+        assertEquals(1, relatorio.getOrfaos());
+        assertEquals(1, relatorio.getOrfaosApagados());
+        assertEquals(1, relatorio.getOrfaosNaCarencia());
+        assertEquals(1, relatorio.getReferenciasQuebradas());
+        assertEquals(1, relatorio.getParciaisApagados());
+        assertEquals(0, relatorio.getOrfaosComFalha());
+        assertEquals(0, relatorio.getLimpezasComFalha());
+        assertEquals(0, relatorio.getLotesMigracaoComFalha());
+        assertSame(relatorio, service.getUltimoRelatorio());
+
+        assertTrue(Files.exists(usado));
+        assertTrue(Files.exists(recente));
+        assertFalse(Files.exists(orfao));
+        assertFalse(Files.exists(parcialAntigo));
+        verify(referenciaArquivoService).esquecer(HASH);
+    }
+
+    @Test
+    void reconciliar_LinhaCriadaDepoisDaVarredura_NaoDeveApagar() throws IOException {
+        Path arquivo = noDisco("bb22_novo.pdf", 0);
+        when(materialRepository.streamNomesArmazenados()).thenReturn(Stream.empty());
+        when(tentativaArquivoRepository.streamNomesArmazenados()).thenReturn(Stream.empty());
+        when(materialRepository.existsByUrlArquivoEndingWith("/uploads/bb22_novo.pdf")).thenReturn(true);
+
+        RelatorioReconciliacaoResponseDto relatorio = service.reconciliar(AGORA);
+
+        assertEquals(1, relatorio.getOrfaos());
+        assertEquals(0, relatorio.getOrfaosApagados());
+        assertTrue(Files.exists(arquivo));
+    }
+
+    @Test
+    void reconciliar_FalhaNaVarredura_DeveGuardarOErro() {
+        when(materialRepository.streamNomesArmazenados()).thenThrow(new IllegalStateException("banco fora do ar"));
+
+        RelatorioReconciliacaoResponseDto relatorio = service.reconciliar(AGORA);
+
+        assertEquals("banco fora do ar", relatorio.getErro());
+        assertNotNull(relatorio.getConcluidaEm());
+    }
+
+    private Path noDisco(String nome, long ultimaModificacao) throws IOException {
+        Path subpasta = Files.createDirectories(pasta.resolve(nome.substring(0, 2)).resolve(nome.substring(2, 4)));
+        Path arquivo = Files.write(subpasta.resolve(nome), new byte[] { 1 });
+        Files.setLastModifiedTime(arquivo, FileTime.fromMillis(ultimaModificacao));
+        return arquivo;
+    }
+}
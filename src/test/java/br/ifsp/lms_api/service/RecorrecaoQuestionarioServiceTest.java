@@ -0,0 +1,100 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.RecorrecaoQuestionarioResponseDto;
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.StatusRecorrecao;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RecorrecaoQuestionarioServiceTest {
+
+    @Mock private TentativaQuestionarioService tentativaQuestionarioService;
+    @Mock private TentativaQuestionarioRepository tentativaQuestionarioRepository;
+    @Mock private AtividadeQuestionarioRepository atividadeQuestionarioRepository;
+    @Mock private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    private RecorrecaoQuestionarioService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RecorrecaoQuestionarioService(tentativaQuestionarioService, tentativaQuestionarioRepository,
+                atividadeQuestionarioRepository, desempenhoAgregadoService, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    @Test
+    void agendarQuestionario_DeveLerEmLotesAteOFimEInvalidarAgregados() throws Exception {
+        when(atividadeQuestionarioRepository.existsById(5L)).thenReturn(true);
+        when(tentativaQuestionarioRepository.contarPorQuestionario(5L)).thenReturn(3L);
+        when(tentativaQuestionarioService.recorrigirLote(5L, 0L, 2)).thenReturn(new LoteRecorrecao(11L, 2, 1));
+        when(tentativaQuestionarioService.recorrigirLote(5L, 11L, 2)).thenReturn(new LoteRecorrecao(14L, 1, 0));
+        when(tentativaQuestionarioService.recorrigirLote(5L, 14L, 2)).thenReturn(new LoteRecorrecao(14L, 0, 0));
+
+        service.agendarQuestionario(5L);
+        RecorrecaoQuestionarioResponseDto recorrecao = aguardarFim(5L);
+
+        assertEquals(StatusRecorrecao.CONCLUIDA, recorrecao.getStatus());
+        assertEquals(3L, recorrecao.getTotalTentativas());
+        assertEquals(3L, recorrecao.getProcessadas());
+        assertEquals(1L, recorrecao.getAlteradas());
+        verify(desempenhoAgregadoService).invalidarAtividades(List.of(5L));
+    }
+
+    @Test
+    void agendarQuestionario_FalhaPassageira_DeveRepetirOLote() throws Exception {
+        when(atividadeQuestionarioRepository.existsById(5L)).thenReturn(true);
+        when(tentativaQuestionarioRepository.contarPorQuestionario(5L)).thenReturn(1L);
+        when(tentativaQuestionarioService.recorrigirLote(5L, 0L, 2))
+                .thenThrow(new RuntimeException("linha apagada"))
+                .thenReturn(new LoteRecorrecao(3L, 1, 0));
+        when(tentativaQuestionarioService.recorrigirLote(5L, 3L, 2)).thenReturn(new LoteRecorrecao(3L, 0, 0));
+
+        service.agendarQuestionario(5L);
+
+        assertEquals(StatusRecorrecao.CONCLUIDA, aguardarFim(5L).getStatus());
+        verify(tentativaQuestionarioService, times(2)).recorrigirLote(5L, 0L, 2);
+        verify(desempenhoAgregadoService, never()).invalidarAtividades(any());
+    }
+
+    @Test
+    void agendarPorQuestao_SemQuestionarios_NaoDeveAgendar() {
+        when(atividadeQuestionarioRepository.findIdsPorQuestao(7L)).thenReturn(List.of());
+
+        service.agendarPorQuestao(7L);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.consultar(7L));
+    }
+
+    private RecorrecaoQuestionarioResponseDto aguardarFim(Long idQuestionario) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            RecorrecaoQuestionarioResponseDto recorrecao = service.consultar(idQuestionario);
+            if (recorrecao.getStatus() == StatusRecorrecao.CONCLUIDA || recorrecao.getStatus() == StatusRecorrecao.FALHOU) {
+                return recorrecao;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("recorreção não terminou");
+    }
+}
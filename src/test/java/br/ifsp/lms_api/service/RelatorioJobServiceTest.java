@@ -0,0 +1,139 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.analise.EscopoRelatorio;
+import br.ifsp.lms_api.dto.analise.RelatorioDesempenhoResponseDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobRequestDto;
+import br.ifsp.lms_api.dto.analise.RelatorioJobResponseDto;
+import br.ifsp.lms_api.dto.analise.StatusRelatorioJob;
+import br.ifsp.lms_api.exception.FilaRelatoriosCheiaException;
+import br.ifsp.lms_api.exception.ResourceNotFoundException;
+import br.ifsp.lms_api.repository.DisciplinaRepository;
+import br.ifsp.lms_api.repository.TurmaRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RelatorioJobServiceTest {
+
+    @Mock private AnaliseDesempenhoService analiseService;
+    @Mock private TurmaRepository turmaRepo;
+    @Mock private DisciplinaRepository disciplinaRepo;
+    @Mock private VersaoDadosAnaliseService versaoDadosAnaliseService;
+
+    private RelatorioJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RelatorioJobService(analiseService, turmaRepo, disciplinaRepo, versaoDadosAnaliseService, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    @Test
+    void submeter_TurmaSemAlteracao_DeveDevolverResultadoGuardadoSemRecalcular() throws Exception {
+        RelatorioDesempenhoResponseDto relatorio =
+                new RelatorioDesempenhoResponseDto(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        when(turmaRepo.existsById(1L)).thenReturn(true);
+        when(versaoDadosAnaliseService.versaoTurma(1L)).thenReturn(3L);
+        when(analiseService.gerarRelatorioTurma(1L)).thenReturn(relatorio);
+
+        RelatorioJobResponseDto primeiro = service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 1L));
+        aguardarConclusao(primeiro.getIdJob());
+
+        RelatorioJobResponseDto segundo = service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 1L));
+
+        assertEquals(StatusRelatorioJob.CONCLUIDO, segundo.getStatus());
+        assertSame(relatorio, segundo.getResultado());
+        verify(analiseService, times(1)).gerarRelatorioTurma(1L);
+    }
+
+    @Test
+    void submeter_TurmaAlterada_DeveRecalcular() throws Exception {
+        when(turmaRepo.existsById(1L)).thenReturn(true);
+        when(versaoDadosAnaliseService.versaoTurma(1L)).thenReturn(3L, 4L);
+        when(analiseService.gerarRelatorioTurma(1L)).thenReturn(new RelatorioDesempenhoResponseDto());
+
+        aguardarConclusao(service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 1L)).getIdJob());
+        aguardarConclusao(service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 1L)).getIdJob());
+
+        verify(analiseService, times(2)).gerarRelatorioTurma(1L);
+    }
+
+    @Test
+    void submeter_FilaCheia_DeveRecusar() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch iniciado = new CountDownLatch(1);
+        when(turmaRepo.existsById(1L)).thenReturn(true);
+        when(turmaRepo.existsById(2L)).thenReturn(true);
+        when(turmaRepo.existsById(3L)).thenReturn(true);
+        when(analiseService.gerarRelatorioTurma(1L)).thenAnswer(invocacao -> {
+            iniciado.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return new RelatorioDesempenhoResponseDto();
+        });
+
+        try {
+            service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 1L));
+            iniciado.await(5, TimeUnit.SECONDS);
+            service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 2L));
+
+            assertThrows(FilaRelatoriosCheiaException.class,
+                    () -> service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.TURMA, 3L)));
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    @Test
+    void submeter_DisciplinaInexistente_DeveLancarExcecao() {
+        when(disciplinaRepo.existsById(9L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.DISCIPLINA, 9L)));
+        verify(analiseService, never()).gerarRelatorioDisciplina(9L);
+    }
+
+    @Test
+    void consultar_JobDeDisciplinaSemSerAdmin_DeveLancarExcecao() throws Exception {
+        when(disciplinaRepo.existsById(5L)).thenReturn(true);
+        when(turmaRepo.findIdsByIdDisciplina(5L)).thenReturn(List.of(2L, 1L));
+        when(versaoDadosAnaliseService.versaoTurmas(List.of(1L, 2L))).thenReturn(0L);
+        when(analiseService.gerarRelatorioDisciplina(5L)).thenReturn(new RelatorioDesempenhoResponseDto());
+
+        String idJob = service.submeter(new RelatorioJobRequestDto(EscopoRelatorio.DISCIPLINA, 5L)).getIdJob();
+        aguardarConclusao(idJob);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.consultar(idJob, false));
+    }
+
+    private void aguardarConclusao(String idJob) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.consultar(idJob, true).getStatus() != StatusRelatorioJob.CONCLUIDO) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("job não terminou: " + service.consultar(idJob, true));
+            }
+            Thread.sleep(10);
+        }
+    }
+}
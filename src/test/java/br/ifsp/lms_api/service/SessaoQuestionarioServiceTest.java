@@ -0,0 +1,158 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.SessaoQuestionarioResponseDto;
+import br.ifsp.lms_api.exception.LimiteTentativasException;
+import br.ifsp.lms_api.exception.SessaoQuestionarioException;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.SessaoQuestionario;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.ContadorTentativasQuestionarioRepository;
+import br.ifsp.lms_api.repository.SessaoQuestionarioRepository;
+import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
+import br.ifsp.lms_api.service.SessaoQuestionarioService.SessaoAberta;
+
+@ExtendWith(MockitoExtension.class)
+class SessaoQuestionarioServiceTest {
+
+    @Mock private SessaoQuestionarioRepository sessaoRepository;
+    @Mock private AtividadeQuestionarioRepository questionarioRepository;
+    @Mock private ContadorTentativasQuestionarioRepository contadorTentativasRepository;
+    @Mock private TentativaQuestionarioRepository tentativaQuestionarioRepository;
+    @Mock private JanelaAtividadeService janelaAtividadeService;
+
+    @InjectMocks private SessaoQuestionarioService service;
+
+    @Test
+    void iniciar_DeveAbrirSessaoComADuracaoDoQuestionario() {
+        when(questionarioRepository.findById(10L)).thenReturn(Optional.of(questionario(10L, 30L, 2)));
+        when(contadorTentativasRepository.findQuantidade(1L, 10L)).thenReturn(Optional.of(1));
+        when(sessaoRepository.saveAndFlush(any(SessaoQuestionario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        SessaoQuestionarioResponseDto sessao = service.iniciar(10L, 1L);
+
+        assertEquals(sessao.getIniciadaEm().plusMinutes(30), sessao.getExpiraEm());
+        assertTrue(sessao.getSegundosRestantes() > 29 * 60);
+        assertDoesNotThrow(() -> service.exigirAberta(1L, 10L));
+    }
+
+    @Test
+    void iniciar_SessaoJaAberta_DeveDevolverAMesmaSemGravar() {
+        when(questionarioRepository.findById(10L)).thenReturn(Optional.of(questionario(10L, 30L, 2)));
+        when(contadorTentativasRepository.findQuantidade(1L, 10L)).thenReturn(Optional.empty());
+        when(tentativaQuestionarioRepository.contarPorQuestionarioEAluno(10L, 1L)).thenReturn(0L);
+        when(sessaoRepository.saveAndFlush(any(SessaoQuestionario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        SessaoQuestionarioResponseDto primeira = service.iniciar(10L, 1L);
+        SessaoQuestionarioResponseDto segunda = service.iniciar(10L, 1L);
+
+        assertEquals(primeira.getExpiraEm(), segunda.getExpiraEm());
+        verify(sessaoRepository).saveAndFlush(any(SessaoQuestionario.class));
+    }
+
+    @Test
+    void iniciar_SemTentativasRestantes_DeveLancarExcecao() {
+        when(questionarioRepository.findById(10L)).thenReturn(Optional.of(questionario(10L, 30L, 2)));
+        when(contadorTentativasRepository.findQuantidade(1L, 10L)).thenReturn(Optional.of(2));
+
+        assertThrows(LimiteTentativasException.class, () -> service.iniciar(10L, 1L));
+        verify(sessaoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void iniciar_QuestionarioSemTempo_DeveLancarExcecao() {
+        when(questionarioRepository.findById(10L)).thenReturn(Optional.of(questionario(10L, 0L, 2)));
+
+        assertThrows(SessaoQuestionarioException.class, () -> service.iniciar(10L, 1L));
+    }
+
+    @Test
+    void exigirAberta_SemSessao_DeveLancarExcecao() {
+        assertThrows(SessaoQuestionarioException.class, () -> service.exigirAberta(1L, 10L));
+    }
+
+    @Test
+    void recuperar_SessaoVencidaDuranteReinicio_DeveSairNaFilaDeExpiracao() throws Exception {
+        LocalDateTime inicio = LocalDateTime.now().minusMinutes(40);
+        when(sessaoRepository.findAll()).thenReturn(List.of(
+                new SessaoQuestionario(1L, 1L, 10L, inicio, inicio.plusMinutes(30), List.of(100L, 201L), inicio),
+                new SessaoQuestionario(2L, 2L, 10L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30), null, null)));
+
+        assertEquals(2, service.recuperar());
+
+        SessaoAberta expirada = service.aguardarExpirada();
+        assertEquals(1L, expirada.getIdAluno());
+        assertEquals(List.of(100L, 201L), expirada.getRespostas());
+        assertThrows(SessaoQuestionarioException.class, () -> service.exigirAberta(1L, 10L));
+        assertDoesNotThrow(() -> service.exigirAberta(2L, 10L));
+    }
+
+    @Test
+    void salvarRespostas_VariosSalvamentos_DevemVirarUmaGravacao() {
+        SessaoQuestionario linha = new SessaoQuestionario(7L, 1L, 10L, LocalDateTime.now(),
+                LocalDateTime.now().plusMinutes(30), null, null);
+        when(sessaoRepository.findAll()).thenReturn(List.of(linha));
+        when(sessaoRepository.findAllById(Set.of(7L))).thenReturn(List.of(linha));
+        service.recuperar();
+
+        service.salvarRespostas(10L, 1L, List.of(100L));
+        service.salvarRespostas(10L, 1L, List.of(100L, 200L));
+        List<SessaoAberta> lote = service.retirarPendentes(500);
+        service.gravarRespostas(lote);
+
+        assertEquals(1, lote.size());
+        assertEquals(List.of(100L, 200L), linha.getRespostas());
+        assertFalse(service.temRespostasPendentes());
+    }
+
+    @Test
+    void devolverPendentes_SessaoEncerrada_NaoVoltaParaAFila() {
+        SessaoQuestionario linha = new SessaoQuestionario(7L, 1L, 10L, LocalDateTime.now(),
+                LocalDateTime.now().plusMinutes(30), null, null);
+        when(sessaoRepository.findAll()).thenReturn(List.of(linha));
+        when(sessaoRepository.encerrar(1L, 10L)).thenReturn(1);
+        service.recuperar();
+
+        service.salvarRespostas(10L, 1L, List.of(100L));
+        List<SessaoAberta> lote = service.retirarPendentes(500);
+        service.encerrar(1L, 10L);
+        service.devolverPendentes(lote);
+
+        assertFalse(service.temRespostasPendentes());
+    }
+
+    @Test
+    void encerrar_LinhaJaApagada_DeveDevolverFalse() {
+        when(sessaoRepository.encerrar(1L, 10L)).thenReturn(0);
+
+        assertFalse(service.encerrar(1L, 10L));
+    }
+
+    private static AtividadeQuestionario questionario(Long id, long duracao, int tentativas) {
+        AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setIdAtividade(id);
+        questionario.setDuracaoQuestionario(duracao);
+        questionario.setNumeroTentativas(tentativas);
+        return questionario;
+    }
+}
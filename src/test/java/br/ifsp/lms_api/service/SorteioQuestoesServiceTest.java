@@ -0,0 +1,88 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.SorteioQuestoes;
+import br.ifsp.lms_api.repository.QuestoesRepository;
+import br.ifsp.lms_api.repository.SorteioQuestoesRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SorteioQuestoesServiceTest {
+
+    @Mock private QuestoesRepository questoesRepository;
+    @Mock private SorteioQuestoesRepository sorteioQuestoesRepository;
+
+    @InjectMocks private SorteioQuestoesService service;
+
+    @Test
+    void sortear_MesmoAlunoEMesmaTentativa_DeveRepetirOSorteio() {
+        when(questoesRepository.streamIdsPorTag(7L)).thenAnswer(inv -> LongStream.rangeClosed(1, 1000).boxed());
+        AtividadeQuestionario questionario = questionario(10L, 7L, 20);
+
+        List<Long> primeiro = service.sortear(questionario, 1L, 1);
+        List<Long> segundo = service.sortear(questionario, 1L, 1);
+
+        assertEquals(primeiro, segundo);
+        assertEquals(20, primeiro.size());
+        assertEquals(20, new HashSet<>(primeiro).size());
+        assertTrue(primeiro.stream().allMatch(id -> id >= 1 && id <= 1000));
+        assertEquals(primeiro.stream().sorted().toList(), primeiro);
+        assertNotEquals(primeiro, service.sortear(questionario, 2L, 1));
+        assertNotEquals(primeiro, service.sortear(questionario, 1L, 2));
+    }
+
+    @Test
+    void sortear_BancoMenorQueAQuantidade_DeveDevolverTodasAsQuestoes() {
+        when(questoesRepository.streamIdsPorTag(7L)).thenAnswer(inv -> LongStream.of(4, 9, 12).boxed());
+
+        assertEquals(List.of(4L, 9L, 12L), service.sortear(questionario(10L, 7L, 5), 1L, 1));
+    }
+
+    @Test
+    void reservar_SorteioJaGravado_NaoDeveSortearDeNovo() {
+        AtividadeQuestionario questionario = questionario(10L, 7L, 2);
+        when(sorteioQuestoesRepository.buscar(1L, 10L, 1)).thenReturn(Optional.of(
+                new SorteioQuestoes(5L, 1L, 10L, 1, List.of(3L, 8L), LocalDateTime.now())));
+
+        assertEquals(List.of(3L, 8L), service.reservar(questionario, 1L, 1));
+        verify(questoesRepository, never()).streamIdsPorTag(any());
+        verify(sorteioQuestoesRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void consumir_DeveDevolverOSorteioGravadoEApagarALinha() {
+        AtividadeQuestionario questionario = questionario(10L, 7L, 2);
+        SorteioQuestoes gravado = new SorteioQuestoes(5L, 1L, 10L, 1, List.of(3L, 8L), LocalDateTime.now());
+        when(sorteioQuestoesRepository.buscar(1L, 10L, 1)).thenReturn(Optional.of(gravado));
+
+        assertEquals(List.of(3L, 8L), service.consumir(questionario, 1L, 1));
+        verify(sorteioQuestoesRepository).delete(gravado);
+    }
+
+    private static AtividadeQuestionario questionario(Long id, Long idTag, int quantidade) {
+        AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setIdAtividade(id);
+        questionario.setIdTagSorteio(idTag);
+        questionario.setQuantidadeSorteada(quantidade);
+        return questionario;
+    }
+}
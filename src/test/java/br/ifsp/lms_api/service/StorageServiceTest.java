@@ -1,5 +1,167 @@
 package br.ifsp.lms_api.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import br.ifsp.lms_api.exception.ArquivoGrandeDemaisException;
+
 public class StorageServiceTest {
 
+    @TempDir
+    Path pasta;
+
+    private StorageService service;
+
+    private final ReferenciaArquivoService referenciaArquivoService = mock(ReferenciaArquivoService.class);
+
+    @BeforeEach
+    void setUp() {
+        service = new StorageService(pasta.toString(), DataSize.ofKilobytes(100), false, referenciaArquivoService);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void receberArquivo_DeveGravarComTamanhoEChecksum() throws Exception {
+        byte[] conteudo = new byte[70_000];
+        for (int i = 0; i < conteudo.length; i++) {
+            conteudo[i] = (byte) (i * 31);
+        }
+
+        ArquivoRecebido recebido = service.receberArquivo(new ByteArrayInputStream(conteudo), "../../prova.pdf", -1);
+
+        assertEquals(conteudo.length, recebido.getTamanho());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo)),
+                recebido.getSha256());
+        assertTrue(recebido.getNomeArmazenado().endsWith("_prova.pdf"));
+        assertTrue(recebido.getUrlArquivo().endsWith("/uploads/" + recebido.getNomeArmazenado()));
+        String nome = recebido.getNomeArmazenado();
+        Path subpasta = pasta.resolve(nome.substring(0, 2)).resolve(nome.substring(2, 4));
+        assertEquals(subpasta.resolve(nome).toAbsolutePath(), service.caminho(nome));
+        assertEquals(conteudo.length, Files.size(subpasta.resolve(nome)));
+        assertEquals(1, arquivosNaPasta());
+    }
+
+    @Test
+    void receberArquivo_AcimaDoLimite_DeveCortarEApagarParcial() throws IOException {
+        byte[] conteudo = new byte[150_000];
+
+        assertThrows(ArquivoGrandeDemaisException.class,
+                () -> service.receberArquivo(new ByteArrayInputStream(conteudo), "grande.bin", -1));
+        assertThrows(ArquivoGrandeDemaisException.class,
+                () -> service.receberArquivo(new ByteArrayInputStream(conteudo), "grande.bin", conteudo.length));
+        assertEquals(0, arquivosNaPasta());
+    }
+
+    @Test
+    void receberArquivo_Vazio_DeveRecusar() throws IOException {
+        assertThrows(RuntimeException.class,
+                () -> service.receberArquivo(new ByteArrayInputStream(new byte[0]), "vazio.txt", 0));
+        assertEquals(0, arquivosNaPasta());
+    }
+
+    @Test
+    void receberArquivo_ConteudoRepetido_DeveGravarUmaVez() throws Exception {
+        StorageService porConteudo = new StorageService(pasta.toString(), DataSize.ofKilobytes(100), true,
+                referenciaArquivoService);
+        byte[] conteudo = "mesmo pdf em várias turmas".getBytes();
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+
+        when(referenciaArquivoService.referenciar(hash))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(hash + ".pdf"));
+
+        ArquivoRecebido primeiro = porConteudo.receberArquivo(new ByteArrayInputStream(conteudo), "aula1.PDF", -1);
+        ArquivoRecebido segundo = porConteudo.receberArquivo(new ByteArrayInputStream(conteudo), "copia.pdf", -1);
+
+        assertEquals(hash + ".pdf", primeiro.getNomeArmazenado());
+        assertEquals(primeiro.getUrlArquivo(), segundo.getUrlArquivo());
+        verify(referenciaArquivoService).registrar(hash, hash + ".pdf", conteudo.length);
+        assertEquals(1, arquivosNaPasta());
+    }
+
+    @Test
+    void deleteFile_PorConteudo_SoApagaNaUltimaReferencia() throws IOException {
+        String hash = "ab".repeat(32);
+        Path arquivo = Files.write(pasta.resolve(hash + ".pdf"), new byte[] { 1, 2, 3 });
+
+        when(referenciaArquivoService.liberar(hash)).thenReturn(false).thenReturn(true);
+
+        service.deleteFile(hash + ".pdf");
+        assertTrue(Files.exists(arquivo));
+
+        service.deleteFile(hash + ".pdf");
+        assertFalse(Files.exists(arquivo));
+    }
+
+    @Test
+    void deleteFile_NomeAntigo_NaoDeveTocarNasReferencias() throws IOException {
+        Path arquivo = Files.write(pasta.resolve("3f2a_prova.pdf"), new byte[] { 1 });
+
+        service.deleteFile("3f2a_prova.pdf");
+
+        assertFalse(Files.exists(arquivo));
+        verify(referenciaArquivoService, never()).liberar(anyString());
+    }
+
+    @Test
+    void apagarOrfao_ConteudoReaproveitadoDepoisDoLimite_NaoDeveApagar() throws Exception {
+        StorageService porConteudo = new StorageService(pasta.toString(), DataSize.ofKilobytes(100), true,
+                referenciaArquivoService);
+        byte[] conteudo = "pdf que ficou sem linha".getBytes();
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        Path subpasta = Files.createDirectories(pasta.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)));
+        Path arquivo = Files.write(subpasta.resolve(hash + ".pdf"), conteudo);
+        Files.setLastModifiedTime(arquivo, FileTime.fromMillis(0));
+        when(referenciaArquivoService.referenciar(hash)).thenReturn(Optional.of(hash + ".pdf"));
+
+        porConteudo.receberArquivo(new ByteArrayInputStream(conteudo), "aula.pdf", -1);
+
+        assertFalse(porConteudo.apagarOrfao(hash + ".pdf", 1000));
+        assertTrue(Files.exists(arquivo));
+        verify(referenciaArquivoService, never()).esquecer(anyString());
+    }
+
+    @Test
+    void caminho_ArquivoAindaSoltoNaRaiz_DeveContinuarResolvendo() throws IOException {
+        Path arquivo = Files.write(pasta.resolve("3f2a_antigo.pdf"), new byte[] { 1 });
+
+        assertEquals(arquivo.toAbsolutePath(), service.caminho("3f2a_antigo.pdf"));
+    }
+
+    private long arquivosNaPasta() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(pasta)) {
+            return arquivos.filter(Files::isRegularFile).count();
+        }
+    }
 }
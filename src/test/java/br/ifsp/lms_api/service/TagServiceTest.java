@@ -42,6 +42,12 @@ class TagServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @Mock
+    private IndiceMaterialSugeridoService indiceMaterialSugeridoService;
+
     @InjectMocks
     private TagService tagService;
 
@@ -0,0 +1,112 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import br.ifsp.lms_api.dto.analise.ReconstrucaoTendenciaResponseDto;
+import br.ifsp.lms_api.dto.analise.SemanaNotaTag;
+import br.ifsp.lms_api.dto.analise.TendenciaTagDto;
+import br.ifsp.lms_api.dto.analise.TendenciaTurmaResponseDto;
+import br.ifsp.lms_api.repository.TurmaRepository;
+import jakarta.persistence.EntityNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class TendenciaDesempenhoServiceTest {
+
+    @Mock private TurmaRepository turmaRepo;
+    @Mock private DesempenhoSemanalService desempenhoSemanalService;
+
+    @InjectMocks
+    private TendenciaDesempenhoService tendenciaService;
+
+    private final Long idTurma = 1L;
+
+    @Test
+    void gerarTendenciaTurma_TurmaMaterializada_DeveLerSeriePronta() {
+        LocalDate semana1 = LocalDate.of(2025, 3, 3);
+        when(turmaRepo.existsById(idTurma)).thenReturn(true);
+        when(desempenhoSemanalService.turmaMaterializada(idTurma)).thenReturn(true);
+        when(desempenhoSemanalService.buscarSemanas(eq(idTurma), any(), any()))
+            .thenReturn(List.of(
+                new SemanaNotaTag(10L, "Cálculo", semana1, 8.0, 2L),
+                new SemanaNotaTag(10L, "Cálculo", semana1.plusWeeks(1), 15.0, 3L),
+                new SemanaNotaTag(10L, "Cálculo", semana1.plusWeeks(3), 14.0, 2L),
+                new SemanaNotaTag(20L, "POO", semana1, 9.0, 1L)));
+
+        TendenciaTurmaResponseDto resposta = tendenciaService.gerarTendenciaTurma(idTurma, null, null);
+
+        assertEquals(2, resposta.getTendencias().size());
+
+        TendenciaTagDto calculo = resposta.getTendencias().get(0);
+        assertEquals("Cálculo", calculo.getNomeTag());
+        assertEquals(3, calculo.getSemanas().size());
+        assertEquals(2025, calculo.getSemanas().get(0).getAnoIso());
+        assertEquals(10, calculo.getSemanas().get(0).getSemanaIso());
+        assertEquals(4.0, calculo.getSemanas().get(0).getMediaNota());
+        // médias 4, 5 e 7 nas semanas 0, 1 e 3: um ponto a mais por semana
+        assertEquals(1.0, calculo.getVariacaoSemanal(), 1e-9);
+
+        assertNull(resposta.getTendencias().get(1).getVariacaoSemanal());
+        verify(desempenhoSemanalService, never()).calcularSemanasDaTurma(anyLong());
+    }
+
+    @Test
+    void gerarTendenciaTurma_TurmaNaoMaterializada_DeveCalcularGravarEFiltrarPeriodo() {
+        LocalDate semana1 = LocalDate.of(2025, 3, 3);
+        List<SemanaNotaTag> calculadas = List.of(
+                new SemanaNotaTag(10L, "Cálculo", semana1.plusWeeks(2), 6.0, 1L),
+                new SemanaNotaTag(10L, "Cálculo", semana1, 4.0, 1L));
+        when(turmaRepo.existsById(idTurma)).thenReturn(true);
+        when(desempenhoSemanalService.turmaMaterializada(idTurma)).thenReturn(false);
+        when(desempenhoSemanalService.calcularSemanasDaTurma(idTurma)).thenReturn(calculadas);
+
+        TendenciaTurmaResponseDto resposta =
+                tendenciaService.gerarTendenciaTurma(idTurma, semana1.plusDays(3), null);
+
+        verify(desempenhoSemanalService).materializarTurma(eq(idTurma), eq(calculadas), anyLong());
+        verify(desempenhoSemanalService).descartarSeAlterada(eq(idTurma), anyLong());
+        assertEquals(1, resposta.getTendencias().size());
+        assertEquals(2, resposta.getTendencias().get(0).getSemanas().size());
+        assertEquals(semana1, resposta.getTendencias().get(0).getSemanas().get(0).getInicioSemana());
+    }
+
+    @Test
+    void gerarTendenciaTurma_TurmaInexistente_DeveLancarExcecao() {
+        when(turmaRepo.existsById(idTurma)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> tendenciaService.gerarTendenciaTurma(idTurma, null, null));
+    }
+
+    @Test
+    void reconstruirTodas_DevePercorrerTurmasEmLotes() {
+        List<Long> primeiroLote = LongStream.rangeClosed(1, 50).boxed().toList();
+        when(turmaRepo.findIdsAposId(eq(0L), any(Pageable.class))).thenReturn(primeiroLote);
+        when(turmaRepo.findIdsAposId(eq(50L), any(Pageable.class))).thenReturn(List.of(51L));
+        when(desempenhoSemanalService.calcularSemanasDaTurma(anyLong()))
+            .thenReturn(List.of(new SemanaNotaTag(10L, "Cálculo", LocalDate.of(2025, 3, 3), 8.0, 1L)));
+
+        ReconstrucaoTendenciaResponseDto resposta = tendenciaService.reconstruirTodas();
+
+        assertEquals(51, resposta.getTurmasProcessadas());
+        assertEquals(51L, resposta.getSemanasGravadas());
+        verify(desempenhoSemanalService).materializarTurma(eq(51L), any(), anyLong());
+    }
+}
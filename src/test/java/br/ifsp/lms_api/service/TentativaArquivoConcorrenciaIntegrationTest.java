@@ -0,0 +1,124 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoUpdateDto;
+import br.ifsp.lms_api.exception.AccessDeniedException;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeArquivos;
+import br.ifsp.lms_api.model.TentativaArquivo;
+import br.ifsp.lms_api.repository.AlunoRepository;
+import br.ifsp.lms_api.repository.AtividadeArquivosRepository;
+import br.ifsp.lms_api.repository.TentativaArquivoRepository;
+
+// Sem @Transactional: a troca de arquivo do aluno e a correção do professor
+// rodam em threads e transações separadas, com o envio parado no meio.
+@SpringBootTest
+@ActiveProfiles("test")
+class TentativaArquivoConcorrenciaIntegrationTest {
+
+    @Autowired private TentativaArquivoService tentativaArquivoService;
+    @Autowired private AlunoRepository alunoRepository;
+    @Autowired private AtividadeArquivosRepository atividadeArquivosRepository;
+    @Autowired private TentativaArquivoRepository tentativaArquivoRepository;
+
+    @MockBean private StorageService storageService;
+
+    private Aluno aluno;
+    private AtividadeArquivos atividade;
+    private TentativaArquivo tentativa;
+
+    @BeforeEach
+    void setUp() {
+        aluno = new Aluno();
+        aluno.setNome("Aluno Envio");
+        aluno.setEmail("aluno.envio.concorrencia@test.com");
+        aluno.setCpf("90000000001");
+        aluno.setSenha("123456");
+        aluno = alunoRepository.save(aluno);
+
+        atividade = new AtividadeArquivos();
+        atividade.setTituloAtividade("Trabalho Concorrência");
+        atividade.setDataInicioAtividade(LocalDate.now());
+        atividade.setDataFechamentoAtividade(LocalDate.now().plusDays(1));
+        atividade = atividadeArquivosRepository.save(atividade);
+
+        tentativa = new TentativaArquivo();
+        tentativa.setAluno(aluno);
+        tentativa.setAtividadeArquivo(atividade);
+        tentativa.setNomeArquivo("antigo.pdf");
+        tentativa.setUrlArquivo("http://localhost/uploads/antigo.pdf");
+        tentativa = tentativaArquivoRepository.save(tentativa);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tentativaArquivoRepository.delete(tentativa);
+        atividadeArquivosRepository.delete(atividade);
+        alunoRepository.delete(aluno);
+    }
+
+    @Test
+    void trocaDeArquivo_CorrecaoDuranteOEnvio_DeveManterNotaEArquivoCorrigido() throws Exception {
+        CountDownLatch envioComecou = new CountDownLatch(1);
+        CountDownLatch liberarEnvio = new CountDownLatch(1);
+        when(storageService.receberArquivo(any(), anyString(), anyLong())).thenAnswer(inv -> {
+            envioComecou.countDown();
+            assertTrue(liberarEnvio.await(30, TimeUnit.SECONDS));
+            return new ArquivoRecebido("novo.pdf", "http://localhost/uploads/novo.pdf", 3L, "abc");
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> troca = executor.submit(() -> tentativaArquivoService.updateTentativaArquivoAluno(
+                    tentativa.getIdTentativa(), aluno.getIdUsuario(),
+                    new ByteArrayInputStream(new byte[] { 1, 2, 3 }), "novo.pdf", "application/pdf", 3L));
+            assertTrue(envioComecou.await(30, TimeUnit.SECONDS), "envio não começou");
+
+            TentativaArquivoUpdateDto correcao = new TentativaArquivoUpdateDto();
+            correcao.setNota(Optional.of(8.0));
+            correcao.setFeedback(Optional.of("Bom"));
+            tentativaArquivoService.updateTentativaArquivoProfessor(correcao, tentativa.getIdTentativa());
+
+            liberarEnvio.countDown();
+            ExecutionException falha = assertThrows(ExecutionException.class, () -> troca.get(30, TimeUnit.SECONDS));
+            assertInstanceOf(AccessDeniedException.class, falha.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        TentativaArquivo gravada = tentativaArquivoRepository.findById(tentativa.getIdTentativa()).orElseThrow();
+        assertEquals(8.0, gravada.getNota());
+        assertEquals("Bom", gravada.getFeedBack());
+        assertEquals("http://localhost/uploads/antigo.pdf", gravada.getUrlArquivo());
+        verify(storageService).deleteFile("novo.pdf");
+        verify(storageService, never()).deleteFile("antigo.pdf");
+    }
+}
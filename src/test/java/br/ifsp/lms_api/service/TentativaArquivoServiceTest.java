@@ -6,7 +6,10 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException; // Importação necessária
+import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -20,7 +23,12 @@ import org.springframework.web.multipart.MultipartFile;
 
 import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoResponseDto;
 import br.ifsp.lms_api.dto.TentativaArquivoDto.TentativaArquivoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
+import br.ifsp.lms_api.dto.correcaoDto.StatusCorrecaoItem;
 import br.ifsp.lms_api.exception.AccessDeniedException;
+import br.ifsp.lms_api.exception.PrazoAtividadeException;
 import br.ifsp.lms_api.model.Aluno;
 import br.ifsp.lms_api.model.AtividadeArquivos;
 import br.ifsp.lms_api.model.TentativaArquivo;
@@ -47,6 +55,12 @@ class TentativaArquivoServiceTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private JanelaAtividadeService janelaAtividadeService;
+
     @InjectMocks
     private TentativaArquivoService service;
 
@@ -68,7 +82,8 @@ class TentativaArquivoServiceTest {
 
         when(alunoRepository.findById(idAluno)).thenReturn(Optional.of(alunoMock));
         when(atividadeArquivosRepository.findById(idAtividade)).thenReturn(Optional.of(atividadeMock));
-        when(storageService.createArquivo(any(MultipartFile.class))).thenReturn("http://storage/test.pdf");
+        when(storageService.createArquivo(any(MultipartFile.class)))
+                .thenReturn(new ArquivoRecebido("test.pdf", "http://storage/test.pdf", 5L, "abc"));
         when(tentativaArquivoRepository.save(any(TentativaArquivo.class))).thenReturn(tentativaSalva);
         when(modelMapper.map(any(TentativaArquivo.class), eq(TentativaArquivoResponseDto.class)))
                 .thenReturn(new TentativaArquivoResponseDto());
@@ -80,6 +95,54 @@ class TentativaArquivoServiceTest {
         verify(tentativaArquivoRepository).save(any(TentativaArquivo.class));
     }
 
+    @Test
+    void createTentativaArquivo_ForaDoPrazo_NaoDeveGravarArquivo() {
+        MockMultipartFile file = new MockMultipartFile("file", "test.pdf", "application/pdf", "bytes".getBytes());
+        doThrow(new PrazoAtividadeException("O prazo da atividade terminou."))
+                .when(janelaAtividadeService).exigirEnvio(10L);
+
+        assertThrows(PrazoAtividadeException.class, () ->
+            service.createTentativaArquivo(file, 1L, 10L)
+        );
+        verifyNoInteractions(storageService, alunoRepository, atividadeArquivosRepository);
+    }
+
+    @Test
+    void createTentativaArquivoDireto_Success_DeveGuardarTamanhoEChecksum() {
+        InputStream corpo = new ByteArrayInputStream("content".getBytes());
+        ArquivoRecebido recebido = new ArquivoRecebido("u_test.pdf", "http://storage/u_test.pdf", 7L, "abc123");
+
+        when(storageService.receberArquivo(corpo, "test.pdf", 7L)).thenReturn(recebido);
+        when(alunoRepository.findById(1L)).thenReturn(Optional.of(new Aluno()));
+        when(atividadeArquivosRepository.findById(10L)).thenReturn(Optional.of(new AtividadeArquivos()));
+        when(tentativaArquivoRepository.save(any(TentativaArquivo.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(modelMapper.map(any(TentativaArquivo.class), eq(TentativaArquivoResponseDto.class)))
+                .thenReturn(new TentativaArquivoResponseDto());
+
+        service.createTentativaArquivo(corpo, "test.pdf", null, 7L, 1L, 10L);
+
+        verify(tentativaArquivoRepository).save(argThat(t ->
+                "application/pdf".equals(t.getTipoArquivo())
+                        && Long.valueOf(7L).equals(t.getTamanhoArquivo())
+                        && "abc123".equals(t.getChecksumArquivo())));
+    }
+
+    @Test
+    void createTentativaArquivoDireto_AtividadeInexistente_DeveApagarArquivoGravado() throws IOException {
+        InputStream corpo = new ByteArrayInputStream("content".getBytes());
+        ArquivoRecebido recebido = new ArquivoRecebido("u_test.pdf", "http://storage/u_test.pdf", 7L, "abc123");
+
+        when(storageService.receberArquivo(corpo, "test.pdf", -1L)).thenReturn(recebido);
+        when(alunoRepository.findById(1L)).thenReturn(Optional.of(new Aluno()));
+        when(atividadeArquivosRepository.findById(10L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () ->
+            service.createTentativaArquivo(corpo, "test.pdf", "application/pdf", -1L, 1L, 10L)
+        );
+        verify(storageService).deleteFile("u_test.pdf");
+        verify(tentativaArquivoRepository, never()).save(any());
+    }
+
     @Test
     void createTentativaArquivo_WhenAlunoNotFound_ShouldThrowException() {
         MockMultipartFile file = new MockMultipartFile("file", "test.pdf", "application/pdf", "bytes".getBytes());
@@ -135,11 +198,13 @@ class TentativaArquivoServiceTest {
         TentativaArquivo tentativa = new TentativaArquivo();
 
         tentativa.setAluno(alunoOwner);
+        tentativa.setAtividadeArquivo(new AtividadeArquivos());
         tentativa.setUrlArquivo("http://bucket/antigo.pdf");
         tentativa.setNota(null);
 
         when(tentativaArquivoRepository.findById(idTentativa)).thenReturn(Optional.of(tentativa));
-        when(storageService.createArquivo(novoArquivo)).thenReturn("http://bucket/novo.pdf");
+        when(storageService.createArquivo(novoArquivo))
+                .thenReturn(new ArquivoRecebido("novo.pdf", "http://bucket/novo.pdf", 5L, "abc"));
         when(tentativaArquivoRepository.save(tentativa)).thenReturn(tentativa);
         when(modelMapper.map(any(TentativaArquivo.class), eq(TentativaArquivoResponseDto.class)))
                 .thenReturn(new TentativaArquivoResponseDto());
@@ -148,6 +213,36 @@ class TentativaArquivoServiceTest {
 
         verify(storageService).deleteFile("antigo.pdf");
         verify(tentativaArquivoRepository).save(tentativa);
+        assertEquals(5L, tentativa.getTamanhoArquivo());
+        assertEquals("abc", tentativa.getChecksumArquivo());
+    }
+
+    @Test
+    void updateTentativaArquivoAlunoDireto_CorrigidaDuranteOEnvio_DeveApagarArquivoNovo() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(1L);
+        AtividadeArquivos atividade = new AtividadeArquivos();
+        atividade.setIdAtividade(10L);
+        TentativaArquivo tentativa = new TentativaArquivo();
+        tentativa.setAluno(aluno);
+        tentativa.setAtividadeArquivo(atividade);
+        tentativa.setUrlArquivo("http://storage/antigo.pdf");
+        InputStream corpo = new ByteArrayInputStream("content".getBytes());
+        ArquivoRecebido recebido = new ArquivoRecebido("u_test.pdf", "http://storage/u_test.pdf", 7L, "abc123");
+
+        when(tentativaArquivoRepository.findById(3L)).thenReturn(Optional.of(tentativa));
+        when(storageService.receberArquivo(corpo, "test.pdf", 7L)).thenReturn(recebido);
+        // a nota chegou enquanto o corpo era lido: o UPDATE condicional não acha a linha
+        when(tentativaArquivoRepository.trocarArquivoSeNaoAvaliada(3L, 1L, "test.pdf", "application/pdf",
+                "http://storage/u_test.pdf", 7L, "abc123")).thenReturn(0);
+
+        assertThrows(AccessDeniedException.class, () ->
+            service.updateTentativaArquivoAluno(3L, 1L, corpo, "test.pdf", "application/pdf", 7L)
+        );
+        verify(janelaAtividadeService, times(2)).exigirEnvio(10L);
+        verify(storageService).deleteFile("u_test.pdf");
+        verify(storageService, never()).deleteFile("antigo.pdf");
+        verify(tentativaArquivoRepository, never()).save(any());
     }
 
     @Test
@@ -231,4 +326,31 @@ class TentativaArquivoServiceTest {
 
         verify(tentativaArquivoRepository, never()).delete(any());
     }
+
+    @Test
+    void corrigirTentativasArquivoEmLote_DeveRecorrigirESinalizarAusentes() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(1L);
+        AtividadeArquivos atividade = new AtividadeArquivos();
+        TentativaArquivo tentativa = new TentativaArquivo();
+        tentativa.setIdTentativa(5L);
+        tentativa.setAluno(aluno);
+        tentativa.setAtividadeArquivo(atividade);
+        tentativa.setNota(4.0);
+
+        CorrecaoLoteRequestDto lote = new CorrecaoLoteRequestDto(List.of(
+                new CorrecaoItemRequestDto(5L, 6.5, null),
+                new CorrecaoItemRequestDto(8L, 9.0, "Ótimo")));
+
+        when(tentativaArquivoRepository.findAllParaCorrecao(List.of(5L, 8L))).thenReturn(List.of(tentativa));
+
+        CorrecaoLoteResponseDto resultado = service.corrigirTentativasArquivoEmLote(lote);
+
+        assertEquals(1, resultado.getCorrigidas());
+        assertEquals(1, resultado.getFalhas());
+        assertEquals(6.5, resultado.getResultados().get(0).getNota());
+        assertEquals(StatusCorrecaoItem.NAO_ENCONTRADA, resultado.getResultados().get(1).getStatus());
+        verify(tentativaArquivoRepository).flush();
+        verify(desempenhoAgregadoService).registrarCorrecao(eq(aluno), eq(atividade), any(), eq(4.0), eq(6.5));
+    }
 }
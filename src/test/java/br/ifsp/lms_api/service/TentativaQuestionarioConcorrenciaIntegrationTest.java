@@ -0,0 +1,171 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioRequestDto;
+import br.ifsp.lms_api.exception.LimiteTentativasException;
+import br.ifsp.lms_api.model.Aluno;
+import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.repository.AlunoRepository;
+import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.ContadorTentativasQuestionarioRepository;
+import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
+
+// Sem @Transactional: cada envio roda na sua própria transação, em paralelo,
+// como no fim de uma prova com tempo.
+@SpringBootTest
+@ActiveProfiles("test")
+class TentativaQuestionarioConcorrenciaIntegrationTest {
+
+    private static final int LIMITE = 3;
+
+    @Autowired private TentativaQuestionarioService tentativaQuestionarioService;
+    @Autowired private AlunoRepository alunoRepository;
+    @Autowired private AtividadeQuestionarioRepository questionarioRepository;
+    @Autowired private TentativaQuestionarioRepository tentativaQuestionarioRepository;
+    @Autowired private ContadorTentativasQuestionarioRepository contadorTentativasRepository;
+
+    private AtividadeQuestionario questionario;
+    private final List<Aluno> alunos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        questionario = new AtividadeQuestionario();
+        questionario.setTituloAtividade("Prova Concorrência");
+        questionario.setDataInicioAtividade(LocalDate.now());
+        questionario.setDataFechamentoAtividade(LocalDate.now().plusDays(1));
+        questionario.setNumeroTentativas(LIMITE);
+        questionario = questionarioRepository.save(questionario);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tentativaQuestionarioRepository.deleteAll(tentativaQuestionarioRepository.findAll().stream()
+                .filter(t -> t.getAtividadeQuestionario() != null
+                        && questionario.getIdAtividade().equals(t.getAtividadeQuestionario().getIdAtividade()))
+                .toList());
+        contadorTentativasRepository.deleteAll(contadorTentativasRepository.findAll().stream()
+                .filter(c -> questionario.getIdAtividade().equals(c.getIdQuestionario()))
+                .toList());
+        questionarioRepository.delete(questionario);
+        alunoRepository.deleteAll(alunos);
+        alunos.clear();
+    }
+
+    @Test
+    void mesmoAlunoEmRajada_NuncaDevePassarDoLimite() throws Exception {
+        Aluno aluno = criarAluno(0);
+        // a primeira tentativa cria o contador; a rajada disputa a mesma linha
+        enviar(aluno);
+
+        AtomicInteger admitidas = new AtomicInteger();
+        Queue<Throwable> inesperados = new ConcurrentLinkedQueue<>();
+        executarEmRajada(40, i -> {
+            try {
+                enviar(aluno);
+                admitidas.incrementAndGet();
+            } catch (LimiteTentativasException e) {
+                // esperado depois da terceira
+            } catch (Throwable e) {
+                inesperados.add(e);
+            }
+        });
+
+        long gravadas = tentativaQuestionarioRepository.contarPorQuestionarioEAluno(
+                questionario.getIdAtividade(), aluno.getIdUsuario());
+        assertTrue(inesperados.isEmpty(), () -> "falhas inesperadas: " + inesperados);
+        assertEquals(LIMITE, gravadas);
+        assertEquals(LIMITE - 1, admitidas.get());
+        assertEquals(LIMITE, contadorTentativasRepository
+                .findQuantidade(aluno.getIdUsuario(), questionario.getIdAtividade()).orElseThrow());
+    }
+
+    @Test
+    void alunosDiferentesNoMesmoSegundo_DevemSerTodosAdmitidos() throws Exception {
+        int quantidadeAlunos = 60;
+        for (int i = 0; i < quantidadeAlunos; i++) {
+            criarAluno(100 + i);
+        }
+
+        AtomicInteger admitidas = new AtomicInteger();
+        Queue<Throwable> falhas = new ConcurrentLinkedQueue<>();
+        executarEmRajada(quantidadeAlunos, i -> {
+            try {
+                enviar(alunos.get(i));
+                admitidas.incrementAndGet();
+            } catch (Throwable e) {
+                falhas.add(e);
+            }
+        });
+
+        assertTrue(falhas.isEmpty(), () -> "falhas: " + falhas);
+        assertEquals(quantidadeAlunos, admitidas.get());
+    }
+
+    private void enviar(Aluno aluno) {
+        TentativaQuestionarioRequestDto dto = new TentativaQuestionarioRequestDto();
+        dto.setIdQuestionario(questionario.getIdAtividade());
+        dto.setRespostas(new ArrayList<>());
+        tentativaQuestionarioService.createTentativaQuestionario(dto, aluno.getIdUsuario());
+    }
+
+    private Aluno criarAluno(int n) {
+        Aluno aluno = new Aluno();
+        aluno.setNome("Aluno Concorrência " + n);
+        aluno.setEmail("aluno.concorrencia" + n + "@test.com");
+        aluno.setCpf("8000000" + String.format("%04d", n));
+        aluno.setSenha("123456");
+        aluno = alunoRepository.save(aluno);
+        alunos.add(aluno);
+        return aluno;
+    }
+
+    private interface Envio {
+        void executar(int indice);
+    }
+
+    // Todas as threads esperam o mesmo sinal para disparar juntas.
+    private static void executarEmRajada(int envios, Envio envio) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch largada = new CountDownLatch(1);
+        CountDownLatch fim = new CountDownLatch(envios);
+        try {
+            for (int i = 0; i < envios; i++) {
+                int indice = i;
+                executor.execute(() -> {
+                    try {
+                        largada.await();
+                        envio.executar(indice);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        fim.countDown();
+                    }
+                });
+            }
+            largada.countDown();
+            assertTrue(fim.await(60, TimeUnit.SECONDS), "envios não terminaram");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
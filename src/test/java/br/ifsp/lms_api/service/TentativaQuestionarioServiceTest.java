@@ -1,11 +1,17 @@
 package br.ifsp.lms_api.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -14,6 +20,7 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,18 +29,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import br.ifsp.lms_api.dto.analise.GabaritoQuestaoTag;
 import br.ifsp.lms_api.dto.page.PagedResponse;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioRequestDto;
 import br.ifsp.lms_api.dto.tentativaQuestionarioDto.TentativaQuestionarioResponseDto;
 import br.ifsp.lms_api.exception.LimiteTentativasException;
+import br.ifsp.lms_api.exception.SessaoQuestionarioException;
 import br.ifsp.lms_api.mapper.PagedResponseMapper;
 import br.ifsp.lms_api.model.Alternativas;
 import br.ifsp.lms_api.model.Aluno;
 import br.ifsp.lms_api.model.AtividadeQuestionario;
+import br.ifsp.lms_api.model.ContadorTentativasQuestionario;
 import br.ifsp.lms_api.model.Questoes;
 import br.ifsp.lms_api.model.TentativaQuestionario;
 import br.ifsp.lms_api.repository.AlunoRepository;
 import br.ifsp.lms_api.repository.AtividadeQuestionarioRepository;
+import br.ifsp.lms_api.repository.ContadorTentativasQuestionarioRepository;
+import br.ifsp.lms_api.repository.QuestoesRepository;
 import br.ifsp.lms_api.repository.TentativaQuestionarioRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,6 +66,27 @@ class TentativaQuestionarioServiceTest {
     @Mock
     private PagedResponseMapper pagedResponseMapper;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private GabaritoQuestionarioService gabaritoQuestionarioService;
+
+    @Mock
+    private ContadorTentativasQuestionarioRepository contadorTentativasRepository;
+
+    @Mock
+    private SessaoQuestionarioService sessaoQuestionarioService;
+
+    @Mock
+    private SorteioQuestoesService sorteioQuestoesService;
+
+    @Mock
+    private QuestoesRepository questoesRepository;
+
+    @Mock
+    private JanelaAtividadeService janelaAtividadeService;
+
     @InjectMocks
     private TentativaQuestionarioService service;
 
@@ -106,17 +139,26 @@ class TentativaQuestionarioServiceTest {
 
         TentativaQuestionarioResponseDto responseDto = new TentativaQuestionarioResponseDto();
 
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario, List.of(
+                new GabaritoQuestaoTag(idQuestionario, 1L, 100L, null, null),
+                new GabaritoQuestaoTag(idQuestionario, 2L, 200L, null, null)));
+
         when(questionarioRepository.findById(idQuestionario)).thenReturn(Optional.of(questionario));
         when(alunoRepository.findById(idAluno)).thenReturn(Optional.of(aluno));
-        when(tentativaQuestionarioRepository.findByAtividadeQuestionario_IdAndAluno_Id(idQuestionario, idAluno))
-                .thenReturn(Collections.emptyList());
+        when(contadorTentativasRepository.incrementarAbaixoDoLimite(idAluno, idQuestionario, 3)).thenReturn(1);
+        when(contadorTentativasRepository.findQuantidade(idAluno, idQuestionario)).thenReturn(Optional.of(2));
+        when(gabaritoQuestionarioService.obter(idQuestionario)).thenReturn(gabarito);
         when(tentativaQuestionarioRepository.save(any(TentativaQuestionario.class))).thenReturn(tentativaSalva);
         when(modelMapper.map(tentativaSalva, TentativaQuestionarioResponseDto.class)).thenReturn(responseDto);
 
         TentativaQuestionarioResponseDto result = service.createTentativaQuestionario(request, idAluno);
 
         assertNotNull(result);
-        verify(tentativaQuestionarioRepository).save(any(TentativaQuestionario.class));
+        ArgumentCaptor<TentativaQuestionario> captor = ArgumentCaptor.forClass(TentativaQuestionario.class);
+        verify(tentativaQuestionarioRepository).save(captor.capture());
+        assertEquals(5.0, captor.getValue().getNota());
+        assertEquals(2, captor.getValue().getNumeroDaTentativa());
+        verify(desempenhoAgregadoService).registrarTentativaQuestionario(tentativaSalva, gabarito);
     }
 
     @Test
@@ -154,18 +196,105 @@ class TentativaQuestionarioServiceTest {
         request.setIdAluno(idAluno);
 
         AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setIdAtividade(idQuestionario);
         questionario.setNumeroTentativas(1);
 
         Aluno aluno = new Aluno();
-        List<TentativaQuestionario> tentativasAnteriores = new ArrayList<>();
-        tentativasAnteriores.add(new TentativaQuestionario());
+        aluno.setIdUsuario(idAluno);
 
         when(questionarioRepository.findById(idQuestionario)).thenReturn(Optional.of(questionario));
         when(alunoRepository.findById(idAluno)).thenReturn(Optional.of(aluno));
-        when(tentativaQuestionarioRepository.findByAtividadeQuestionario_IdAndAluno_Id(idQuestionario, idAluno))
-                .thenReturn(tentativasAnteriores);
+        when(contadorTentativasRepository.incrementarAbaixoDoLimite(idAluno, idQuestionario, 1)).thenReturn(0);
+        when(contadorTentativasRepository.findQuantidade(idAluno, idQuestionario)).thenReturn(Optional.of(1));
 
         assertThrows(LimiteTentativasException.class, () -> service.createTentativaQuestionario(request, idAluno));
+        verify(tentativaQuestionarioRepository, never()).save(any());
+    }
+
+    @Test
+    void createTentativaQuestionario_SemContador_DeveCriarAPartirDasTentativasGravadas() {
+        Long idAluno = 1L;
+        Long idQuestionario = 10L;
+        TentativaQuestionarioRequestDto request = new TentativaQuestionarioRequestDto();
+        request.setIdQuestionario(idQuestionario);
+        request.setRespostas(new ArrayList<>());
+
+        AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setIdAtividade(idQuestionario);
+        questionario.setNumeroTentativas(3);
+
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+
+        TentativaQuestionario tentativaSalva = new TentativaQuestionario();
+        tentativaSalva.setAtividadeQuestionario(questionario);
+        tentativaSalva.setAluno(aluno);
+
+        when(questionarioRepository.findById(idQuestionario)).thenReturn(Optional.of(questionario));
+        when(alunoRepository.findById(idAluno)).thenReturn(Optional.of(aluno));
+        when(contadorTentativasRepository.incrementarAbaixoDoLimite(idAluno, idQuestionario, 3)).thenReturn(0);
+        when(contadorTentativasRepository.findQuantidade(idAluno, idQuestionario)).thenReturn(Optional.empty());
+        when(tentativaQuestionarioRepository.contarPorQuestionarioEAluno(idQuestionario, idAluno)).thenReturn(2L);
+        when(gabaritoQuestionarioService.obter(idQuestionario))
+                .thenReturn(GabaritoQuestionario.compilar(idQuestionario, List.of()));
+        when(tentativaQuestionarioRepository.save(any(TentativaQuestionario.class))).thenReturn(tentativaSalva);
+        when(modelMapper.map(tentativaSalva, TentativaQuestionarioResponseDto.class))
+                .thenReturn(new TentativaQuestionarioResponseDto());
+
+        service.createTentativaQuestionario(request, idAluno);
+
+        ArgumentCaptor<ContadorTentativasQuestionario> contador =
+                ArgumentCaptor.forClass(ContadorTentativasQuestionario.class);
+        verify(contadorTentativasRepository).saveAndFlush(contador.capture());
+        assertEquals(3, contador.getValue().getQuantidade());
+        ArgumentCaptor<TentativaQuestionario> tentativa = ArgumentCaptor.forClass(TentativaQuestionario.class);
+        verify(tentativaQuestionarioRepository).save(tentativa.capture());
+        assertEquals(3, tentativa.getValue().getNumeroDaTentativa());
+    }
+
+    @Test
+    void createTentativaQuestionario_ComSorteio_DeveCorrigirPelasQuestoesDaTentativa() {
+        Long idAluno = 1L;
+        Long idQuestionario = 10L;
+        TentativaQuestionarioRequestDto request = new TentativaQuestionarioRequestDto();
+        request.setIdQuestionario(idQuestionario);
+        request.setRespostas(new ArrayList<>(List.of(300L, 501L)));
+
+        AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setIdAtividade(idQuestionario);
+        questionario.setNumeroTentativas(3);
+        questionario.setIdTagSorteio(7L);
+        questionario.setQuantidadeSorteada(2);
+
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(idAluno);
+
+        TentativaQuestionario tentativaSalva = new TentativaQuestionario();
+        tentativaSalva.setAtividadeQuestionario(questionario);
+        tentativaSalva.setAluno(aluno);
+
+        GabaritoQuestionario gabaritoSorteio = GabaritoQuestionario.compilar(idQuestionario, List.of(
+                new GabaritoQuestaoTag(idQuestionario, 3L, 300L, 7L, "Cálculo"),
+                new GabaritoQuestaoTag(idQuestionario, 5L, 500L, 7L, "Cálculo")));
+
+        when(questionarioRepository.findById(idQuestionario)).thenReturn(Optional.of(questionario));
+        when(alunoRepository.findById(idAluno)).thenReturn(Optional.of(aluno));
+        when(contadorTentativasRepository.incrementarAbaixoDoLimite(idAluno, idQuestionario, 3)).thenReturn(1);
+        when(contadorTentativasRepository.findQuantidade(idAluno, idQuestionario)).thenReturn(Optional.of(1));
+        when(sorteioQuestoesService.consumir(questionario, idAluno, 1)).thenReturn(List.of(3L, 5L));
+        when(gabaritoQuestionarioService.obterParaSorteio(idQuestionario, List.of(3L, 5L))).thenReturn(gabaritoSorteio);
+        when(tentativaQuestionarioRepository.save(any(TentativaQuestionario.class))).thenReturn(tentativaSalva);
+        when(modelMapper.map(tentativaSalva, TentativaQuestionarioResponseDto.class))
+                .thenReturn(new TentativaQuestionarioResponseDto());
+
+        service.createTentativaQuestionario(request, idAluno);
+
+        ArgumentCaptor<TentativaQuestionario> tentativa = ArgumentCaptor.forClass(TentativaQuestionario.class);
+        verify(tentativaQuestionarioRepository).save(tentativa.capture());
+        assertEquals(List.of(3L, 5L), tentativa.getValue().getQuestoesSorteadas());
+        assertEquals(5.0, tentativa.getValue().getNota());
+        verify(gabaritoQuestionarioService, never()).obter(any());
+        verify(desempenhoAgregadoService).registrarTentativaQuestionario(tentativaSalva, gabaritoSorteio);
     }
 
     @Test
@@ -205,6 +334,90 @@ class TentativaQuestionarioServiceTest {
         verify(tentativaQuestionarioRepository).findByAluno_IdUsuario(idAluno, pageable);
     }
 
+    @Test
+    void createTentativaQuestionario_ComTempoSemSessao_NaoDeveGravar() {
+        Long idAluno = 1L;
+        Long idQuestionario = 10L;
+        TentativaQuestionarioRequestDto request = new TentativaQuestionarioRequestDto();
+        request.setIdQuestionario(idQuestionario);
+
+        AtividadeQuestionario questionario = new AtividadeQuestionario();
+        questionario.setIdAtividade(idQuestionario);
+        questionario.setDuracaoQuestionario(30L);
+        questionario.setNumeroTentativas(3);
+
+        when(questionarioRepository.findById(idQuestionario)).thenReturn(Optional.of(questionario));
+        when(alunoRepository.findById(idAluno)).thenReturn(Optional.of(new Aluno()));
+        doThrow(new SessaoQuestionarioException("Inicie o questionário antes de enviar as respostas."))
+                .when(sessaoQuestionarioService).exigirAberta(idAluno, idQuestionario);
+
+        assertThrows(SessaoQuestionarioException.class, () -> service.createTentativaQuestionario(request, idAluno));
+        verify(contadorTentativasRepository, never()).incrementarAbaixoDoLimite(any(), any(), anyInt());
+        verify(tentativaQuestionarioRepository, never()).save(any());
+    }
+
+    @Test
+    void enviarSessaoExpirada_AlunoJaEnviou_NaoDeveGravar() {
+        when(sessaoQuestionarioService.encerrar(1L, 10L)).thenReturn(false);
+
+        service.enviarSessaoExpirada(1L, 10L, List.of(100L), LocalDateTime.now());
+
+        verify(questionarioRepository, never()).findById(any());
+        verify(tentativaQuestionarioRepository, never()).save(any());
+    }
+
+    @Test
+    void recorrigirLote_DeveAlterarSoAsNotasQueMudaram() {
+        Long idQuestionario = 10L;
+        GabaritoQuestionario gabarito = GabaritoQuestionario.compilar(idQuestionario, List.of(
+                new GabaritoQuestaoTag(idQuestionario, 1L, 100L, null, null),
+                new GabaritoQuestaoTag(idQuestionario, 2L, 200L, null, null)));
+
+        TentativaQuestionario igual = new TentativaQuestionario();
+        igual.setIdTentativaQuestionario(4L);
+        igual.setRespostas(List.of(100L, 201L));
+        igual.setNota(gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 201L))));
+
+        TentativaQuestionario desatualizada = new TentativaQuestionario();
+        desatualizada.setIdTentativaQuestionario(9L);
+        desatualizada.setRespostas(List.of(100L, 200L));
+        desatualizada.setNota(0.0);
+
+        when(tentativaQuestionarioRepository.findLoteParaRecorrecao(eq(idQuestionario), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(igual, desatualizada));
+        when(gabaritoQuestionarioService.obter(idQuestionario)).thenReturn(gabarito);
+
+        LoteRecorrecao lote = service.recorrigirLote(idQuestionario, 0L, 50);
+
+        assertEquals(9L, lote.getUltimoId());
+        assertEquals(2, lote.getProcessadas());
+        assertEquals(1, lote.getAlteradas());
+        assertEquals(gabarito.calcularNota(GabaritoQuestionario.ordenarRespostas(List.of(100L, 200L))),
+                desatualizada.getNota());
+    }
+
+    @Test
+    void recorrigirLote_TentativaComSorteio_DeveUsarAsQuestoesDela() {
+        Long idQuestionario = 10L;
+        TentativaQuestionario sorteada = new TentativaQuestionario();
+        sorteada.setIdTentativaQuestionario(3L);
+        sorteada.setRespostas(List.of(300L));
+        sorteada.setQuestoesSorteadas(List.of(3L));
+        sorteada.setNota(0.0);
+
+        when(tentativaQuestionarioRepository.findLoteParaRecorrecao(eq(idQuestionario), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(sorteada));
+        when(gabaritoQuestionarioService.obterParaSorteios(idQuestionario, List.of(List.of(3L))))
+                .thenReturn(List.of(GabaritoQuestionario.compilar(idQuestionario, List.of(
+                        new GabaritoQuestaoTag(idQuestionario, 3L, 300L, null, null)))));
+
+        LoteRecorrecao lote = service.recorrigirLote(idQuestionario, 0L, 50);
+
+        assertEquals(1, lote.getAlteradas());
+        assertEquals(10.0, sorteada.getNota());
+        verify(gabaritoQuestionarioService, never()).obter(any());
+    }
+
     @Test
     void deleteTentativaQuestionario_Success() {
         Long idTentativa = 1L;
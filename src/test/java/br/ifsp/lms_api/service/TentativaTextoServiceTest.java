@@ -5,9 +5,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -23,6 +26,10 @@ import org.springframework.data.domain.Pageable;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoRequestDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoResponseDto;
 import br.ifsp.lms_api.dto.TentativaTextoDto.TentativaTextoUpdateDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoItemRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteRequestDto;
+import br.ifsp.lms_api.dto.correcaoDto.CorrecaoLoteResponseDto;
+import br.ifsp.lms_api.dto.correcaoDto.StatusCorrecaoItem;
 import br.ifsp.lms_api.dto.page.PagedResponse;
 import br.ifsp.lms_api.exception.AccessDeniedException;
 import br.ifsp.lms_api.mapper.PagedResponseMapper;
@@ -52,6 +59,12 @@ class TentativaTextoServiceTest {
     @Mock
     private AtividadeTextoRepository atividadeTextoRepository;
 
+    @Mock
+    private DesempenhoAgregadoService desempenhoAgregadoService;
+
+    @Mock
+    private JanelaAtividadeService janelaAtividadeService;
+
     @InjectMocks
     private TentativaTextoService service;
 
@@ -148,6 +161,39 @@ class TentativaTextoServiceTest {
         assertThrows(EntityNotFoundException.class, () -> service.updateTentativaTextoProfessor(updateDto, idTentativa));
     }
 
+    @Test
+    void corrigirTentativasTextoEmLote_DeveAplicarValidasEInformarFalhasPorItem() {
+        Aluno aluno = new Aluno();
+        aluno.setIdUsuario(1L);
+        AtividadeTexto atividade = new AtividadeTexto();
+        TentativaTexto tentativa = new TentativaTexto();
+        tentativa.setIdTentativa(5L);
+        tentativa.setAluno(aluno);
+        tentativa.setAtividadeTexto(atividade);
+
+        CorrecaoLoteRequestDto lote = new CorrecaoLoteRequestDto(List.of(
+                new CorrecaoItemRequestDto(5L, 8.0, "Bom"),
+                new CorrecaoItemRequestDto(6L, 7.0, null),
+                new CorrecaoItemRequestDto(5L, 3.0, null),
+                new CorrecaoItemRequestDto(7L, null, null)));
+
+        when(tentativaTextoRepository.findAllParaCorrecao(List.of(5L, 6L))).thenReturn(List.of(tentativa));
+
+        CorrecaoLoteResponseDto resultado = service.corrigirTentativasTextoEmLote(lote);
+
+        assertEquals(4, resultado.getTotal());
+        assertEquals(1, resultado.getCorrigidas());
+        assertEquals(StatusCorrecaoItem.CORRIGIDA, resultado.getResultados().get(0).getStatus());
+        assertEquals(StatusCorrecaoItem.NAO_ENCONTRADA, resultado.getResultados().get(1).getStatus());
+        assertEquals(StatusCorrecaoItem.DUPLICADA, resultado.getResultados().get(2).getStatus());
+        assertEquals(StatusCorrecaoItem.SEM_ALTERACAO, resultado.getResultados().get(3).getStatus());
+        assertEquals(8.0, tentativa.getNota());
+        assertEquals("Bom", tentativa.getFeedBack());
+        verify(tentativaTextoRepository).flush();
+        verify(tentativaTextoRepository, never()).save(any());
+        verify(desempenhoAgregadoService).registrarCorrecao(eq(aluno), eq(atividade), any(), isNull(), eq(8.0));
+    }
+
     @Test
     void updateTentativaTextoAluno_Success() {
         Long idTentativa = 1L;
@@ -159,6 +205,7 @@ class TentativaTextoServiceTest {
         aluno.setIdUsuario(idAluno);
         TentativaTexto tentativa = new TentativaTexto();
         tentativa.setAluno(aluno);
+        tentativa.setAtividadeTexto(new AtividadeTexto());
         tentativa.setNota(null);
 
         TentativaTextoResponseDto responseDto = new TentativaTextoResponseDto();
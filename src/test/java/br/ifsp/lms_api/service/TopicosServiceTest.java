@@ -65,6 +65,9 @@ class TopicosServiceTest {
     @Mock
     private AutentificacaoService autentificacaoService;
 
+    @Mock
+    private IndiceMaterialSugeridoService indiceMaterialSugeridoService;
+
     @InjectMocks
     private TopicosService topicosService;
 
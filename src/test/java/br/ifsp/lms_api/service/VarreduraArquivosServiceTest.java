@@ -0,0 +1,95 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import br.ifsp.lms_api.repository.MaterialDeAulaRepository;
+import br.ifsp.lms_api.repository.TentativaArquivoRepository;
+import br.ifsp.lms_api.service.VarreduraArquivosService.Varredura;
+
+public class VarreduraArquivosServiceTest {
+
+    private static final long LIMITE = 1_000_000L;
+
+    @TempDir
+    Path pasta;
+
+    private final MaterialDeAulaRepository materialRepository = mock(MaterialDeAulaRepository.class);
+    private final TentativaArquivoRepository tentativaArquivoRepository = mock(TentativaArquivoRepository.class);
+
+    private VarreduraArquivosService service;
+
+    @BeforeEach
+    void setUp() {
+        StorageService storageService = new StorageService(pasta.toString(), DataSize.ofKilobytes(100), false,
+                mock(ReferenciaArquivoService.class));
+        service = new VarreduraArquivosService(materialRepository, tentativaArquivoRepository, storageService);
+    }
+
+    @Test
+    void varrer_DeveCasarDiscoEBancoEmOrdem() throws IOException {
+        noDisco("aa11_usado.pdf", 0);
+        noDisco("aa11_usado em duas.pdf", 0);
+        noDisco("bb22_orfao.pdf", 0);
+        noDisco("cc33_recente.pdf", LIMITE + 1);
+        Files.write(pasta.resolve("dd44_solto.pdf"), new byte[] { 1 });
+
+        when(materialRepository.streamNomesArmazenados())
+                .thenReturn(Stream.of("aa11_usado%20em%20duas.pdf", "aa11_usado.pdf", "dd44_solto.pdf"));
+        when(tentativaArquivoRepository.streamNomesArmazenados())
+                .thenReturn(Stream.of("aa11_usado%20em%20duas.pdf", "ab00_sumiu.pdf", "ee55_sumiu.pdf"));
+
+        Varredura varredura = service.varrer(LIMITE, 10);
+
+        assertEquals(4, varredura.getArquivosNoDisco());
+        assertEquals(5, varredura.getNomesNoBanco());
+        assertEquals(1, varredura.getOrfaos());
+        assertEquals(List.of("bb22_orfao.pdf"), varredura.getOrfaosParaApagar());
+        assertEquals(1, varredura.getOrfaosNaCarencia());
+        assertEquals(2, varredura.getReferenciasQuebradas());
+        assertEquals(List.of("ab00_sumiu.pdf", "ee55_sumiu.pdf"), varredura.getExemplosReferenciasQuebradas());
+    }
+
+    @Test
+    void varrer_MaisOrfaosQueOLote_DeveGuardarSoOLote() throws IOException {
+        noDisco("aa11_a.pdf", 0);
+        noDisco("aa11_b.pdf", 0);
+        noDisco("bb22_c.pdf", 0);
+        when(materialRepository.streamNomesArmazenados()).thenReturn(Stream.empty());
+        when(tentativaArquivoRepository.streamNomesArmazenados()).thenReturn(Stream.empty());
+
+        Varredura varredura = service.varrer(LIMITE, 2);
+
+        assertEquals(3, varredura.getOrfaos());
+        assertEquals(List.of("aa11_a.pdf", "aa11_b.pdf"), varredura.getOrfaosParaApagar());
+    }
+
+    @Test
+    void varrer_BancoForaDeOrdem_DeveParar() throws IOException {
+        noDisco("aa11_usado.pdf", 0);
+        when(materialRepository.streamNomesArmazenados()).thenReturn(Stream.of("bb22_x.pdf", "aa11_usado.pdf"));
+        when(tentativaArquivoRepository.streamNomesArmazenados()).thenReturn(Stream.empty());
+
+        assertThrows(IllegalStateException.class, () -> service.varrer(LIMITE, 10));
+    }
+
+    private void noDisco(String nome, long ultimaModificacao) throws IOException {
+        Path subpasta = Files.createDirectories(pasta.resolve(nome.substring(0, 2)).resolve(nome.substring(2, 4)));
+        Path arquivo = Files.write(subpasta.resolve(nome), new byte[] { 1 });
+        Files.setLastModifiedTime(arquivo, FileTime.fromMillis(ultimaModificacao));
+    }
+}
@@ -0,0 +1,46 @@
+package br.ifsp.lms_api.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.ifsp.lms_api.repository.MatriculaRepository;
+
+@ExtendWith(MockitoExtension.class)
+class VersaoDadosAnaliseServiceTest {
+
+    @Mock private MatriculaRepository matriculaRepository;
+
+    @InjectMocks private VersaoDadosAnaliseService service;
+
+    @Test
+    void alterarAluno_DeveMudarSoAsTurmasDoAluno() {
+        when(matriculaRepository.findIdsTurmaByIdAluno(1L)).thenReturn(List.of(10L));
+        long turmaDoAluno = service.versaoTurma(10L);
+        long outraTurma = service.versaoTurma(20L);
+
+        service.alterarAluno(1L);
+
+        assertNotEquals(turmaDoAluno, service.versaoTurma(10L));
+        assertEquals(outraTurma, service.versaoTurma(20L));
+    }
+
+    @Test
+    void alterarTodos_DeveMudarTodasAsTurmas() {
+        long disciplina = service.versaoTurmas(List.of(10L, 20L));
+        long turma = service.versaoTurma(30L);
+
+        service.alterarTodos();
+
+        assertNotEquals(disciplina, service.versaoTurmas(List.of(10L, 20L)));
+        assertNotEquals(turma, service.versaoTurma(30L));
+    }
+}